@@ -0,0 +1,31 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.util.List;
+
+/**
+ * Aggregation
+ *
+ * <p>One statistic a {@link WindowedAggregator} keeps per window. The aggregator holds a state per
+ * pane (a slice of the stream as long as the window slide) and builds a window by merging the
+ * states of its panes, so an implementation only has to say how to start, update, merge and report
+ * a state. States are only ever touched by the thread driving the aggregator.
+ *
+ * @param <S> the mutable per-pane state
+ */
+public interface Aggregation<S> {
+  /** Name results are reported under, e.g. {@code counts}. */
+  String getName();
+
+  S newState();
+
+  void add(S state, MutableLogEntry logEntry);
+
+  /** Adds everything {@code from} holds to {@code into}; {@code from} is left as it was. */
+  void merge(S into, S from);
+
+  /**
+   * Appends the results of {@code state} for the window {@code [startMS, endMS)} to {@code out}.
+   */
+  void emit(S state, long startMS, long endMS, List<WindowResult> out);
+}
@@ -0,0 +1,202 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import com.github.ignorant05.log_processing_system.util.DetectorMetrics;
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AnomalyDetector
+ *
+ * <p>Flags services whose error rate or {@code durationMS} p99 drifts from their own baseline.
+ * Every {@code intervalMS} each service's error rate and p99 over the interval are compared with an
+ * exponentially weighted mean and variance of the previous intervals; a value more than {@code
+ * threshold} standard deviations away is reported as an anomaly, and then joins the baseline like
+ * any other, so a lasting shift becomes the new normal after a few intervals.
+ *
+ * <p>{@link #observe} may be called from any thread and costs a few adder increments and one
+ * histogram increment: no locks, no allocation. {@link #tick} closes intervals and must be called
+ * from a single thread. Services are judged only after {@value #WARMUP_INTERVALS} intervals with at
+ * least {@value #MIN_LOGS} logs, and the spread has a floor so a perfectly steady baseline does not
+ * turn every blip into an anomaly. State is published to {@link MetricsRegistry#detector}.
+ */
+public final class AnomalyDetector {
+  public static final String NAME = "anomaly";
+  public static final long DEFAULT_INTERVAL_MS = 10_000;
+  public static final double DEFAULT_THRESHOLD = 3.0;
+
+  static final int WARMUP_INTERVALS = 6;
+  static final int MIN_LOGS = 20;
+
+  /** Weight of the newest interval in the baselines. */
+  private static final double SMOOTHING = 0.1;
+
+  private static final double MIN_ERROR_RATE_STD_DEV = 0.01;
+  private static final double MIN_P99_STD_DEV_MS = 1.0;
+  private static final double MIN_P99_STD_DEV_SHARE = 0.05;
+
+  private final long intervalMS;
+  private final double threshold;
+  private final AtomicReferenceArray<ServiceState> services =
+      new AtomicReferenceArray<>(ServiceNames.CAPACITY + 1);
+  private long intervalStartMS;
+
+  /** Exponentially weighted mean and variance, updated in O(1) per value. */
+  static final class Ewma {
+    private double mean;
+    private double variance;
+    private boolean started;
+
+    void add(double value) {
+      if (!started) {
+        mean = value;
+        started = true;
+        return;
+      }
+      double diff = value - mean;
+      double increment = SMOOTHING * diff;
+      mean += increment;
+      variance = (1 - SMOOTHING) * (variance + diff * increment);
+    }
+
+    double getMean() {
+      return this.mean;
+    }
+
+    double getStdDev() {
+      return Math.sqrt(variance);
+    }
+  }
+
+  /** Counters of the open interval, and the baselines, of one service. */
+  private static final class ServiceState {
+    final String service;
+    final LongAdder logs = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LatencyHistogram latency = new LatencyHistogram();
+    final Ewma errorRate = new Ewma();
+    final Ewma p99 = new Ewma();
+    final DetectorMetrics metrics;
+    LatencyHistogram judged = new LatencyHistogram();
+    int intervals;
+
+    ServiceState(String service) {
+      this.service = service;
+      this.metrics = MetricsRegistry.getInstance().detector(service);
+    }
+  }
+
+  public AnomalyDetector(long intervalMS, double threshold, long nowMS) {
+    if (intervalMS < 1 || !(threshold > 0)) {
+      throw new IllegalArgumentException("interval and threshold must be positive");
+    }
+    this.intervalMS = intervalMS;
+    this.threshold = threshold;
+    this.intervalStartMS = nowMS;
+  }
+
+  /** Counts {@code logEntry} into its service's open interval. Any thread. */
+  public void observe(MutableLogEntry logEntry) {
+    ServiceState state = stateOf(logEntry.getService());
+    state.logs.increment();
+    Level level = logEntry.getLevel();
+    if (level == Level.ERROR || level == Level.FATAL) state.errors.increment();
+    state.latency.record(logEntry.getDurationMS());
+  }
+
+  /**
+   * Once the interval is over, judges every service on it and appends the anomalies found to {@code
+   * out}. One thread only.
+   */
+  public void tick(long nowMS, List<WindowResult> out) {
+    if (nowMS - intervalStartMS < intervalMS) return;
+    for (int i = 0; i < services.length(); i++) {
+      ServiceState state = services.get(i);
+      if (state != null) judge(state, intervalStartMS, nowMS, out);
+    }
+    intervalStartMS = nowMS;
+  }
+
+  private void judge(ServiceState state, long startMS, long endMS, List<WindowResult> out) {
+    long logs = state.logs.sumThenReset();
+    long errors = state.errors.sumThenReset();
+    LatencyHistogram recorded = state.latency.copy();
+    LatencyHistogram interval = recorded.minus(state.judged);
+    state.judged = recorded;
+    if (logs < MIN_LOGS) return;
+
+    double errorRate = (double) errors / logs;
+    double p99 = interval.getPercentile(99);
+    double errorRateStdDev = Math.max(state.errorRate.getStdDev(), MIN_ERROR_RATE_STD_DEV);
+    double p99StdDev =
+        Math.max(
+            state.p99.getStdDev(),
+            Math.max(MIN_P99_STD_DEV_MS, MIN_P99_STD_DEV_SHARE * state.p99.getMean()));
+
+    int found = 0;
+    if (state.intervals >= WARMUP_INTERVALS) {
+      found +=
+          check(
+              state,
+              "error_rate",
+              errorRate,
+              state.errorRate,
+              errorRateStdDev,
+              startMS,
+              endMS,
+              out);
+      found += check(state, "p99_ms", p99, state.p99, p99StdDev, startMS, endMS, out);
+    }
+    state.metrics.record(
+        errorRate,
+        state.errorRate.getMean(),
+        errorRateStdDev,
+        p99,
+        state.p99.getMean(),
+        p99StdDev,
+        found);
+
+    state.errorRate.add(errorRate);
+    state.p99.add(p99);
+    state.intervals++;
+  }
+
+  private int check(
+      ServiceState state,
+      String metric,
+      double value,
+      Ewma baseline,
+      double stdDev,
+      long startMS,
+      long endMS,
+      List<WindowResult> out) {
+    double z = (value - baseline.getMean()) / stdDev;
+    if (Math.abs(z) < threshold) return 0;
+
+    out.add(
+        new WindowResult(startMS, endMS, state.service, NAME)
+            .put("metric", metric)
+            .put("direction", z > 0 ? "above" : "below")
+            .put("value", value)
+            .put("baseline", baseline.getMean())
+            .put("stddev", stdDev)
+            .put("z_score", z));
+    return 1;
+  }
+
+  private ServiceState stateOf(String service) {
+    int slot = ServiceNames.idOf(service) + 1;
+    ServiceState state = services.get(slot);
+    if (state != null) return state;
+
+    String name = ServiceNames.nameOf(slot - 1);
+    services.compareAndSet(
+        slot, null, new ServiceState(name != null ? name : LevelCounts.OTHER_SERVICE));
+    return services.get(slot);
+  }
+}
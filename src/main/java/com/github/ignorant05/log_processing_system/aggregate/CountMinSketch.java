@@ -0,0 +1,94 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+/**
+ * CountMinSketch
+ *
+ * <p>Approximate counts of strings in fixed memory: {@code depth} rows of {@code width} counters,
+ * each row indexed by its own hash of the string. A count is the smallest of its counters, so it is
+ * never under the true count, and over it by at most {@code epsilon * total} with probability
+ * {@code confidence}, where {@code width = e / epsilon} and {@code depth = ln(1 / (1 -
+ * confidence))}. Sketches of the same size can be merged. Not thread-safe.
+ */
+public final class CountMinSketch {
+  private final int width;
+  private final int depth;
+  private final long[] table;
+  private long total;
+
+  /**
+   * Sized for {@code epsilon} and {@code confidence}; the width is rounded up to a power of two.
+   */
+  public static CountMinSketch withError(double epsilon, double confidence) {
+    if (!(epsilon > 0 && epsilon < 1) || !(confidence > 0 && confidence < 1)) {
+      throw new IllegalArgumentException("epsilon and confidence must be between 0 and 1");
+    }
+    int width = (int) Math.min(1 << 24, Math.ceil(Math.E / epsilon));
+    int depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+    return new CountMinSketch(Integer.highestOneBit(width - 1) << 1, Math.max(1, depth));
+  }
+
+  /**
+   * @param width a power of two
+   */
+  public CountMinSketch(int width, int depth) {
+    if (width < 1 || Integer.bitCount(width) != 1 || depth < 1) {
+      throw new IllegalArgumentException("width must be a power of two, depth positive");
+    }
+    this.width = width;
+    this.depth = depth;
+    this.table = new long[width * depth];
+  }
+
+  /** Counts {@code value} once more and returns its new estimate. */
+  public long add(String value) {
+    long hash = Hashing.hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int i = row * width + ((h1 + row * h2) & (width - 1));
+      estimate = Math.min(estimate, ++table[i]);
+    }
+    total++;
+    return estimate;
+  }
+
+  /** At least the number of times {@code value} was added. */
+  public long estimate(String value) {
+    long hash = Hashing.hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, table[row * width + ((h1 + row * h2) & (width - 1))]);
+    }
+    return estimate;
+  }
+
+  /** Adds every count of {@code other}, which must have the same width and depth. */
+  public void merge(CountMinSketch other) {
+    if (other.width != width || other.depth != depth) {
+      throw new IllegalArgumentException("cannot merge sketches of different sizes");
+    }
+    for (int i = 0; i < table.length; i++) table[i] += other.table[i];
+    total += other.total;
+  }
+
+  /** How many values were added. */
+  public long getTotal() {
+    return this.total;
+  }
+
+  /** The most any estimate exceeds its true count by, with the sketch's confidence. */
+  public long getErrorBound() {
+    return (long) Math.ceil(Math.E / width * total);
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getDepth() {
+    return this.depth;
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DistinctCounts
+ *
+ * <p>Distinct {@code userID}s and {@code ipAddr}s per service, with a {@link HyperLogLog} for each
+ * per service and pane: about 1.6% off, in 8 KB per service. Results report both estimates, and
+ * carry both sketches serialized and base64 encoded, so hourly or daily uniques, or those seen by
+ * several consumers, can be had by merging stored results instead of reading the logs again.
+ */
+public final class DistinctCounts implements Aggregation<PerService<DistinctCounts.Sketches>> {
+  public static final String NAME = "distinct";
+
+  /** The sketches of one service. */
+  public static final class Sketches {
+    final HyperLogLog users = new HyperLogLog();
+    final HyperLogLog ips = new HyperLogLog();
+
+    void merge(Sketches other) {
+      users.merge(other.users);
+      ips.merge(other.ips);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PerService<Sketches> newState() {
+    return new PerService<>();
+  }
+
+  @Override
+  public void add(PerService<Sketches> sketches, MutableLogEntry logEntry) {
+    Sketches service = sketches.get(logEntry.getService(), Sketches::new);
+    if (logEntry.getUserID() != null) service.users.add(logEntry.getUserID());
+    if (logEntry.getIpAddr() != null) service.ips.add(logEntry.getIpAddr());
+  }
+
+  @Override
+  public void merge(PerService<Sketches> into, PerService<Sketches> from) {
+    into.merge(from, Sketches::new, Sketches::merge);
+  }
+
+  @Override
+  public void emit(
+      PerService<Sketches> sketches, long startMS, long endMS, List<WindowResult> out) {
+    Base64.Encoder base64 = Base64.getEncoder();
+    for (Map.Entry<String, Sketches> service : sketches.byName().entrySet()) {
+      Sketches each = service.getValue();
+      out.add(
+          new WindowResult(startMS, endMS, service.getKey(), NAME)
+              .put("users", each.users.estimate())
+              .put("ips", each.ips.estimate())
+              .putDetail("users_hll", base64.encodeToString(each.users.toBytes()))
+              .putDetail("ips_hll", base64.encodeToString(each.ips.toBytes())));
+    }
+  }
+
+  /** Decodes a {@code users_hll} or {@code ips_hll} value of a result. */
+  public static HyperLogLog sketchOf(String encoded) {
+    return HyperLogLog.fromBytes(Base64.getDecoder().decode(encoded));
+  }
+}
@@ -0,0 +1,17 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+/** Hashing */
+final class Hashing {
+  private Hashing() {}
+
+  /** 64-bit hash of the chars of {@code value}, finished with murmur3's fmix64. */
+  static long hash64(String value) {
+    long h = value.length();
+    for (int i = 0; i < value.length(); i++) h = (h + value.charAt(i)) * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HeavyHitters
+ *
+ * <p>The {@code k} most frequent values of {@code userID} or {@code ipAddr} per service, with a
+ * {@link TopK} per service and pane. Each result lists the leaders with their estimated counts,
+ * which may exceed the true counts by at most {@code error_bound} with probability {@code
+ * confidence}. Logs without the field are not counted.
+ */
+public final class HeavyHitters implements Aggregation<PerService<TopK>> {
+  public static final String NAME = "top";
+
+  private final LogField field;
+  private final int k;
+  private final double epsilon;
+  private final double confidence;
+
+  /**
+   * @param field {@link LogField#userID} or {@link LogField#ipAddr}
+   * @param epsilon the error bound as a share of the logs counted
+   */
+  public HeavyHitters(LogField field, int k, double epsilon, double confidence) {
+    if (field != LogField.userID && field != LogField.ipAddr) {
+      throw new IllegalArgumentException("top values are kept for userID or ipAddr, not " + field);
+    }
+    if (!(epsilon > 0 && epsilon < 1) || !(confidence > 0 && confidence < 1)) {
+      throw new IllegalArgumentException("epsilon and confidence must be between 0 and 1");
+    }
+    if (k < 1) throw new IllegalArgumentException("k must be at least 1");
+    this.field = field;
+    this.k = k;
+    this.epsilon = epsilon;
+    this.confidence = confidence;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PerService<TopK> newState() {
+    return new PerService<>();
+  }
+
+  private TopK newTopK() {
+    return new TopK(k, CountMinSketch.withError(epsilon, confidence));
+  }
+
+  @Override
+  public void add(PerService<TopK> top, MutableLogEntry logEntry) {
+    String value = field == LogField.userID ? logEntry.getUserID() : logEntry.getIpAddr();
+    if (value != null) top.get(logEntry.getService(), this::newTopK).add(value);
+  }
+
+  @Override
+  public void merge(PerService<TopK> into, PerService<TopK> from) {
+    into.merge(from, this::newTopK, TopK::merge);
+  }
+
+  @Override
+  public void emit(PerService<TopK> top, long startMS, long endMS, List<WindowResult> out) {
+    for (Map.Entry<String, TopK> service : top.byName().entrySet()) {
+      TopK topK = service.getValue();
+      List<Map<String, Object>> leaders = new ArrayList<>();
+      for (TopK.Entry entry : topK.top()) {
+        Map<String, Object> leader = new LinkedHashMap<>();
+        leader.put("value", entry.getValue());
+        leader.put("count", entry.getCount());
+        leaders.add(leader);
+      }
+      out.add(
+          new WindowResult(startMS, endMS, service.getKey(), NAME)
+              .put("field", field.getJsonName())
+              .put("total", topK.getSketch().getTotal())
+              .put("error_bound", topK.getSketch().getErrorBound())
+              .put("confidence", confidence)
+              .put("top", leaders));
+    }
+  }
+}
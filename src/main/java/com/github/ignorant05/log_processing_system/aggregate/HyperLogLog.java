@@ -0,0 +1,103 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+/**
+ * HyperLogLog
+ *
+ * <p>Approximate count of distinct strings in {@code 2^precision} bytes, whatever their number:
+ * each string's hash picks a register by its top bits and the register keeps the longest run of
+ * leading zeros seen in the rest. The standard error is {@code 1.04 / sqrt(2^precision)}, 1.6% at
+ * the default precision of 12 (4 KB). Sketches of the same precision merge by keeping the larger of
+ * each register, so windows and consumers can be combined exactly as if one sketch had seen
+ * everything. Not thread-safe.
+ */
+public final class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 12;
+  private static final int FORMAT_VERSION = 1;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18) {
+      throw new IllegalArgumentException("precision must be between 4 and 18");
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public void add(String value) {
+    long hash = Hashing.hash64(value);
+    int register = (int) (hash >>> (64 - precision));
+    // Leading zeros of the remaining bits, plus one; the marker bit bounds it for an all-zero rest.
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    if (rank > registers[register]) registers[register] = (byte) rank;
+  }
+
+  /** Estimated number of distinct values added. */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) zeros++;
+    }
+    double estimate = alpha(m) * m * m / sum;
+    // Small cardinalities: linear counting on the empty registers is more accurate.
+    if (estimate <= 2.5 * m && zeros > 0) estimate = m * Math.log((double) m / zeros);
+    return Math.round(estimate);
+  }
+
+  /** Adds everything {@code other} saw, which must have the same precision. */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("cannot merge sketches of different precisions");
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+    }
+  }
+
+  public int getPrecision() {
+    return this.precision;
+  }
+
+  /** A version byte, the precision, then one byte per register. */
+  public byte[] toBytes() {
+    byte[] bytes = new byte[2 + registers.length];
+    bytes[0] = FORMAT_VERSION;
+    bytes[1] = (byte) precision;
+    System.arraycopy(registers, 0, bytes, 2, registers.length);
+    return bytes;
+  }
+
+  /**
+   * Decodes what {@link #toBytes} produced.
+   *
+   * @throws IllegalArgumentException if {@code bytes} is not such an encoding
+   */
+  public static HyperLogLog fromBytes(byte[] bytes) {
+    if (bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Not a serialized HyperLogLog");
+    }
+    HyperLogLog sketch = new HyperLogLog(bytes[1]);
+    if (bytes.length != 2 + sketch.registers.length) {
+      throw new IllegalArgumentException("Truncated HyperLogLog");
+    }
+    System.arraycopy(bytes, 2, sketch.registers, 0, sketch.registers.length);
+    return sketch;
+  }
+
+  private static double alpha(int m) {
+    return switch (m) {
+      case 16 -> 0.673;
+      case 32 -> 0.697;
+      case 64 -> 0.709;
+      default -> 0.7213 / (1 + 1.079 / m);
+    };
+  }
+}
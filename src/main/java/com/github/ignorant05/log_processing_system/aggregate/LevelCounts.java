@@ -0,0 +1,81 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import com.github.ignorant05.log_processing_system.util.LongLongMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LevelCounts
+ *
+ * <p>Counts logs per service and level, and reports per service the total, the count of every level
+ * seen, the errors ({@code ERROR} and {@code FATAL}) and the error ratio. Counters are keyed by the
+ * service's {@link ServiceNames} id and the level packed into one {@code long}, in a {@link
+ * LongLongMap}, so counting a log neither hashes a String nor allocates.
+ */
+public final class LevelCounts implements Aggregation<LongLongMap> {
+  public static final String NAME = "counts";
+
+  /** Reported for services past the {@link ServiceNames} capacity, or without a service. */
+  static final String OTHER_SERVICE = "(other)";
+
+  private static final Level[] LEVELS = Level.values();
+
+  /** Level slots per service: one per {@link Level}, plus one for unknown levels. */
+  private static final int LEVEL_SLOTS = LEVELS.length + 1;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public LongLongMap newState() {
+    return new LongLongMap();
+  }
+
+  @Override
+  public void add(LongLongMap counts, MutableLogEntry logEntry) {
+    Level level = logEntry.getLevel();
+    long service = ServiceNames.idOf(logEntry.getService()) + 1L;
+    counts.add(service * LEVEL_SLOTS + (level != null ? level.ordinal() : LEVELS.length), 1);
+  }
+
+  @Override
+  public void merge(LongLongMap into, LongLongMap from) {
+    into.addAll(from);
+  }
+
+  @Override
+  public void emit(LongLongMap counts, long startMS, long endMS, List<WindowResult> out) {
+    Map<String, long[]> byService = new TreeMap<>();
+    counts.forEach(
+        (key, count) -> {
+          String service = ServiceNames.nameOf((int) (key / LEVEL_SLOTS) - 1);
+          byService
+                  .computeIfAbsent(
+                      service != null ? service : OTHER_SERVICE, s -> new long[LEVEL_SLOTS])[
+                  (int) (key % LEVEL_SLOTS)] +=
+              count;
+        });
+
+    for (Map.Entry<String, long[]> service : byService.entrySet()) {
+      long[] levels = service.getValue();
+      long total = 0;
+      for (long count : levels) total += count;
+      long errors = levels[Level.ERROR.ordinal()] + levels[Level.FATAL.ordinal()];
+
+      WindowResult result = new WindowResult(startMS, endMS, service.getKey(), NAME);
+      result.put("total", total);
+      for (Level level : LEVELS) {
+        if (levels[level.ordinal()] > 0) result.put(level.name(), levels[level.ordinal()]);
+      }
+      if (levels[LEVELS.length] > 0) result.put("other", levels[LEVELS.length]);
+      result.put("errors", errors).put("error_ratio", (double) errors / total);
+      out.add(result);
+    }
+  }
+}
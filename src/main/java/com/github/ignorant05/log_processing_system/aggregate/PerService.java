@@ -0,0 +1,60 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * PerService
+ *
+ * <p>One value per service, in an array indexed by the service's {@link ServiceNames} id, so the
+ * hot path finds a service's state with an array load instead of a String hash. Services without an
+ * id share the {@link LevelCounts#OTHER_SERVICE} slot.
+ */
+public final class PerService<T> {
+  private Object[] values = new Object[8];
+
+  /** The value of {@code service}, created by {@code factory} on first use. */
+  @SuppressWarnings("unchecked")
+  T get(String service, Supplier<T> factory) {
+    int slot = ServiceNames.idOf(service) + 1;
+    if (slot >= values.length) {
+      values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+    }
+    Object value = values[slot];
+    if (value == null) {
+      value = factory.get();
+      values[slot] = value;
+    }
+    return (T) value;
+  }
+
+  /**
+   * Calls {@code merge} with this map's value and each value of {@code other}, creating missing
+   * ones with {@code factory}.
+   */
+  @SuppressWarnings("unchecked")
+  void merge(PerService<T> other, Supplier<T> factory, BiConsumer<T, T> merge) {
+    if (other.values.length > values.length) values = Arrays.copyOf(values, other.values.length);
+    for (int slot = 0; slot < other.values.length; slot++) {
+      if (other.values[slot] == null) continue;
+      if (values[slot] == null) values[slot] = factory.get();
+      merge.accept((T) values[slot], (T) other.values[slot]);
+    }
+  }
+
+  /** Values by service name, sorted. */
+  @SuppressWarnings("unchecked")
+  Map<String, T> byName() {
+    Map<String, T> byName = new TreeMap<>();
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] == null) continue;
+      String name = ServiceNames.nameOf(slot - 1);
+      byName.put(name != null ? name : LevelCounts.OTHER_SERVICE, (T) values[slot]);
+    }
+    return byName;
+  }
+}
@@ -0,0 +1,96 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * ResultWriter
+ *
+ * <p>Where closed windows go: standard output, as text or one JSON object per line, or a Kafka
+ * topic as JSON keyed by service.
+ */
+public interface ResultWriter extends AutoCloseable {
+  ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Returns once every result is written out; offsets behind them may be committed from then on.
+   *
+   * @throws RuntimeException if any of them could not be written
+   */
+  void write(List<WindowResult> results);
+
+  @Override
+  default void close() {}
+
+  static String toJson(WindowResult result) {
+    try {
+      return MAPPER.writeValueAsString(result.toMap());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot encode window result: " + e.getMessage(), e);
+    }
+  }
+
+  /** Prints one line per result, as text or as JSON. */
+  static ResultWriter stdout(boolean json) {
+    return results -> {
+      for (WindowResult result : results) {
+        System.out.println(json ? toJson(result) : result.toString());
+      }
+      if (System.out.checkError()) {
+        throw new IllegalStateException("Failed to write window results to standard output");
+      }
+    };
+  }
+
+  /**
+   * Publishes every result as JSON to {@code topic}, keyed by service, and waits for the broker to
+   * acknowledge them.
+   */
+  static ResultWriter topic(String bootstrapServers, String topic) {
+    Properties props = new Properties();
+    props.setProperty("bootstrap.servers", bootstrapServers);
+    props.setProperty("acks", "all");
+    return topic(new KafkaProducer<>(props, new StringSerializer(), new StringSerializer()), topic);
+  }
+
+  static ResultWriter topic(Producer<String, String> producer, String topic) {
+    return new ResultWriter() {
+      @Override
+      public void write(List<WindowResult> results) {
+        List<Future<RecordMetadata>> sent = new ArrayList<>(results.size());
+        for (WindowResult result : results) {
+          sent.add(producer.send(new ProducerRecord<>(topic, result.getService(), toJson(result))));
+        }
+        producer.flush();
+
+        for (Future<RecordMetadata> each : sent) {
+          try {
+            each.get();
+          } catch (ExecutionException e) {
+            throw new KafkaException(
+                "Failed to publish window results: " + e.getCause().getMessage(), e.getCause());
+          } catch (InterruptedException e) {
+            throw new InterruptException(e);
+          }
+        }
+      }
+
+      @Override
+      public void close() {
+        producer.close();
+      }
+    };
+  }
+}
@@ -0,0 +1,143 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TopK
+ *
+ * <p>The {@code k} most frequent strings of a stream, in bounded memory: a {@link CountMinSketch}
+ * estimates every string's count, and a min-heap keyed by those estimates keeps the {@code k}
+ * current leaders. A string enters the heap when its estimate beats the smallest leader's, so
+ * memory is the sketch plus {@code k} strings however many distinct strings go by. Counts are the
+ * sketch's estimates and carry its error bound. Not thread-safe.
+ */
+public final class TopK {
+  private final int k;
+  private final CountMinSketch sketch;
+  private final Candidate[] heap;
+  private final Map<String, Candidate> candidates = new HashMap<>();
+  private int size;
+
+  /** One of the current leaders, and its slot in the heap. */
+  private static final class Candidate {
+    final String value;
+    long count;
+    int slot;
+
+    Candidate(String value, long count) {
+      this.value = value;
+      this.count = count;
+    }
+  }
+
+  /** A leader as reported: the value and its estimated count. */
+  public static final class Entry {
+    private final String value;
+    private final long count;
+
+    Entry(String value, long count) {
+      this.value = value;
+      this.count = count;
+    }
+
+    public String getValue() {
+      return this.value;
+    }
+
+    public long getCount() {
+      return this.count;
+    }
+  }
+
+  public TopK(int k, CountMinSketch sketch) {
+    if (k < 1) throw new IllegalArgumentException("k must be at least 1");
+    this.k = k;
+    this.sketch = sketch;
+    this.heap = new Candidate[k];
+  }
+
+  public void add(String value) {
+    offer(value, sketch.add(value));
+  }
+
+  /**
+   * Adds the counts of {@code other}, whose sketch must be the same size, and picks the leaders
+   * again among both sets of leaders.
+   */
+  public void merge(TopK other) {
+    sketch.merge(other.sketch);
+    List<String> values = new ArrayList<>(candidates.keySet());
+    values.addAll(other.candidates.keySet());
+    candidates.clear();
+    size = 0;
+    for (String value : values) {
+      if (!candidates.containsKey(value)) offer(value, sketch.estimate(value));
+    }
+  }
+
+  /** The leaders, most frequent first. */
+  public List<Entry> top() {
+    Candidate[] leaders = Arrays.copyOf(heap, size);
+    Arrays.sort(leaders, Comparator.comparingLong((Candidate c) -> c.count).reversed());
+    List<Entry> top = new ArrayList<>(size);
+    for (Candidate candidate : leaders) top.add(new Entry(candidate.value, candidate.count));
+    return top;
+  }
+
+  public CountMinSketch getSketch() {
+    return this.sketch;
+  }
+
+  private void offer(String value, long estimate) {
+    Candidate candidate = candidates.get(value);
+    if (candidate != null) {
+      candidate.count = estimate;
+      siftDown(candidate.slot);
+    } else if (size < k) {
+      candidate = new Candidate(value, estimate);
+      candidates.put(value, candidate);
+      place(candidate, size++);
+      siftUp(candidate.slot);
+    } else if (estimate > heap[0].count) {
+      candidates.remove(heap[0].value);
+      candidate = new Candidate(value, estimate);
+      candidates.put(value, candidate);
+      place(candidate, 0);
+      siftDown(0);
+    }
+  }
+
+  private void siftUp(int slot) {
+    Candidate candidate = heap[slot];
+    while (slot > 0) {
+      int parent = (slot - 1) / 2;
+      if (heap[parent].count <= candidate.count) break;
+      place(heap[parent], slot);
+      slot = parent;
+    }
+    place(candidate, slot);
+  }
+
+  private void siftDown(int slot) {
+    Candidate candidate = heap[slot];
+    while (true) {
+      int child = 2 * slot + 1;
+      if (child >= size) break;
+      if (child + 1 < size && heap[child + 1].count < heap[child].count) child++;
+      if (candidate.count <= heap[child].count) break;
+      place(heap[child], slot);
+      slot = child;
+    }
+    place(candidate, slot);
+  }
+
+  private void place(Candidate candidate, int slot) {
+    heap[slot] = candidate;
+    candidate.slot = slot;
+  }
+}
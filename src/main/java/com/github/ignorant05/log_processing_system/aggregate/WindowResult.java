@@ -0,0 +1,122 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WindowResult
+ *
+ * <p>What one {@link Aggregation} reports for one service over one closed window: named values, in
+ * the order the aggregation put them, and details such as serialized sketches that only machine
+ * readers want.
+ */
+public final class WindowResult {
+  private final long windowStartMS;
+  private final long windowEndMS;
+  private final String service;
+  private final String aggregation;
+  private final Map<String, Object> values = new LinkedHashMap<>();
+  private final Map<String, Object> details = new LinkedHashMap<>();
+
+  public WindowResult(long windowStartMS, long windowEndMS, String service, String aggregation) {
+    this.windowStartMS = windowStartMS;
+    this.windowEndMS = windowEndMS;
+    this.service = service;
+    this.aggregation = aggregation;
+  }
+
+  public WindowResult put(String name, Object value) {
+    values.put(name, value);
+    return this;
+  }
+
+  /** Adds a value that goes into {@link #toMap} but is left out of the terminal line. */
+  public WindowResult putDetail(String name, Object value) {
+    details.put(name, value);
+    return this;
+  }
+
+  public long getWindowStartMS() {
+    return this.windowStartMS;
+  }
+
+  public long getWindowEndMS() {
+    return this.windowEndMS;
+  }
+
+  public String getService() {
+    return this.service;
+  }
+
+  public String getAggregation() {
+    return this.aggregation;
+  }
+
+  public Map<String, Object> getValues() {
+    return this.values;
+  }
+
+  public Map<String, Object> getDetails() {
+    return this.details;
+  }
+
+  public Object get(String name) {
+    return values.containsKey(name) ? values.get(name) : details.get(name);
+  }
+
+  /**
+   * The result as one flat JSON-ready map: window, service, aggregation, then the values and
+   * details.
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("window_start", Instant.ofEpochMilli(windowStartMS).toString());
+    map.put("window_end", Instant.ofEpochMilli(windowEndMS).toString());
+    map.put("service", service);
+    map.put("aggregation", aggregation);
+    map.putAll(values);
+    map.putAll(details);
+    return map;
+  }
+
+  /** One terminal line: {@code [14:02:00.000 - 14:03:00.000] service counts total=12 ...}. */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder("[");
+    Timestamps.appendTimeOfDay(out, windowStartMS);
+    out.append(" - ");
+    Timestamps.appendTimeOfDay(out, windowEndMS);
+    out.append("] ").append(String.format("%-20s %-8s", service, aggregation));
+    for (Map.Entry<String, Object> value : values.entrySet()) {
+      out.append(' ').append(value.getKey()).append('=');
+      appendValue(out, value.getValue());
+    }
+    return out.toString();
+  }
+
+  /** Numbers as they are, ratios to 4 places, lists as {@code [a b]} and maps as {@code x:y}. */
+  private static void appendValue(StringBuilder out, Object value) {
+    if (value instanceof Double number) {
+      out.append(String.format("%.4f", number));
+    } else if (value instanceof List<?> list) {
+      out.append('[');
+      for (int i = 0; i < list.size(); i++) {
+        if (i > 0) out.append(' ');
+        appendValue(out, list.get(i));
+      }
+      out.append(']');
+    } else if (value instanceof Map<?, ?> map) {
+      boolean first = true;
+      for (Object each : map.values()) {
+        if (!first) out.append(':');
+        appendValue(out, each);
+        first = false;
+      }
+    } else {
+      out.append(value);
+    }
+  }
+}
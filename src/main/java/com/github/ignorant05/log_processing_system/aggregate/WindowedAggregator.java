@@ -0,0 +1,210 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * WindowedAggregator
+ *
+ * <p>Runs {@link Aggregation}s over event-time windows of {@code sizeMS}, one starting every {@code
+ * slideMS}: tumbling when both are equal, sliding otherwise. Windows are aligned to the epoch, and
+ * a log belongs to every window its timestamp falls in; logs without one count at arrival time.
+ *
+ * <p>The stream is cut into panes as long as the slide, and a log only ever updates the state of
+ * its own pane. A window is built when it closes by merging the {@code sizeMS / slideMS} panes it
+ * spans, and a pane is dropped once the last window spanning it has been emitted. So a log costs
+ * one state update however many windows it lands in.
+ *
+ * <p>A window closes once the watermark passes its end. The watermark trails the newest timestamp
+ * seen by {@code allowedLatenessMS}, and keeps moving with the wall clock while nothing arrives so
+ * the last windows close on a quiet stream too. A log is dropped, and counted as late, when every
+ * window it belongs to has already been emitted. Not thread-safe.
+ */
+public final class WindowedAggregator {
+  private static final long NONE = Long.MIN_VALUE;
+
+  private final long sizeMS;
+  private final long slideMS;
+  private final long allowedLatenessMS;
+  private final List<Aggregation<Object>> aggregations;
+
+  /** Panes by start time. */
+  private final TreeMap<Long, Pane> panes = new TreeMap<>();
+
+  private long maxTimestamp = NONE;
+  private long lastArrivalMS;
+  private long nextWindowEnd = NONE;
+  private long emittedUpTo = NONE;
+  private long late;
+
+  /** The states of one slide of the stream, and where it starts in each partition. */
+  private static final class Pane {
+    final Object[] states;
+    long[] firstOffsets = new long[0];
+
+    Pane(Object[] states) {
+      this.states = states;
+    }
+
+    void track(int partition, long offset) {
+      if (partition < 0) return;
+      if (partition >= firstOffsets.length) {
+        int length = firstOffsets.length;
+        firstOffsets = Arrays.copyOf(firstOffsets, Math.max(partition + 1, length * 2));
+        Arrays.fill(firstOffsets, length, firstOffsets.length, -1);
+      }
+      if (firstOffsets[partition] < 0) firstOffsets[partition] = offset;
+    }
+  }
+
+  /**
+   * @param sizeMS a whole multiple of {@code slideMS}
+   * @param allowedLatenessMS how far behind the newest timestamp a log may be and still be counted
+   */
+  @SuppressWarnings("unchecked")
+  public WindowedAggregator(
+      long sizeMS,
+      long slideMS,
+      long allowedLatenessMS,
+      Collection<? extends Aggregation<?>> aggregations) {
+    if (slideMS < 1 || sizeMS < slideMS || sizeMS % slideMS != 0) {
+      throw new IllegalArgumentException(
+          "the window size must be a positive multiple of the slide, got "
+              + sizeMS
+              + "ms and "
+              + slideMS
+              + "ms");
+    }
+    if (allowedLatenessMS < 0) throw new IllegalArgumentException("lateness must not be negative");
+    if (aggregations.isEmpty()) throw new IllegalArgumentException("nothing to aggregate");
+
+    this.sizeMS = sizeMS;
+    this.slideMS = slideMS;
+    this.allowedLatenessMS = allowedLatenessMS;
+    this.aggregations = new ArrayList<>();
+    for (Aggregation<?> aggregation : aggregations) {
+      this.aggregations.add((Aggregation<Object>) aggregation);
+    }
+  }
+
+  /**
+   * Adds {@code logEntry}, read from {@code offset} of {@code partition} (-1 if it does not come
+   * from Kafka).
+   *
+   * @return false if it was too late for every window it belongs to, and was dropped
+   */
+  public boolean add(MutableLogEntry logEntry, int partition, long offset, long nowMS) {
+    long timestamp = logEntry.hasTimestamp() ? logEntry.getTimestampMillis() : nowMS;
+    long paneStart = Math.floorDiv(timestamp, slideMS) * slideMS;
+    if (emittedUpTo != NONE && paneStart + sizeMS <= emittedUpTo) {
+      late++;
+      return false;
+    }
+
+    Pane pane = panes.get(paneStart);
+    if (pane == null) {
+      Object[] states = new Object[aggregations.size()];
+      for (int i = 0; i < states.length; i++) states[i] = aggregations.get(i).newState();
+      pane = new Pane(states);
+      panes.put(paneStart, pane);
+    }
+    for (int i = 0; i < pane.states.length; i++) {
+      aggregations.get(i).add(pane.states[i], logEntry);
+    }
+    pane.track(partition, offset);
+
+    // The first window this log is in that has not been emitted yet.
+    long firstEnd = paneStart + slideMS;
+    if (emittedUpTo != NONE) firstEnd = Math.max(firstEnd, emittedUpTo + slideMS);
+    if (nextWindowEnd == NONE || firstEnd < nextWindowEnd) nextWindowEnd = firstEnd;
+    maxTimestamp = Math.max(maxTimestamp, timestamp);
+    lastArrivalMS = Math.max(lastArrivalMS, nowMS);
+    return true;
+  }
+
+  /**
+   * Appends the results of every window the watermark has passed at {@code nowMS} to {@code out}.
+   */
+  public void advance(long nowMS, List<WindowResult> out) {
+    emitUpTo(watermark(nowMS), out);
+  }
+
+  /** Newest timestamp less the allowed lateness, plus however long nothing has arrived. */
+  public long watermark(long nowMS) {
+    if (maxTimestamp == NONE) return NONE;
+    return maxTimestamp - allowedLatenessMS + Math.max(0, nowMS - lastArrivalMS);
+  }
+
+  /**
+   * Earliest offset of {@code partition} still in a window that has not been emitted, or -1: what
+   * can be committed without losing logs that are only counted in memory.
+   */
+  public long firstOpenOffset(int partition) {
+    long first = -1;
+    for (Pane pane : panes.values()) {
+      if (partition < pane.firstOffsets.length && pane.firstOffsets[partition] >= 0) {
+        long offset = pane.firstOffsets[partition];
+        first = first < 0 ? offset : Math.min(first, offset);
+      }
+    }
+    return first;
+  }
+
+  /**
+   * Forgets every window that has not been emitted, for when their logs are about to be read again
+   * from {@link #firstOpenOffset}. What was emitted stays emitted, and the watermark stays where it
+   * was, so the windows are rebuilt rather than closed before their logs are back.
+   */
+  public void discardOpen() {
+    panes.clear();
+    nextWindowEnd = NONE;
+  }
+
+  /** Logs dropped because all their windows had been emitted already. */
+  public long getLate() {
+    return this.late;
+  }
+
+  public int getOpenPanes() {
+    return panes.size();
+  }
+
+  private void emitUpTo(long watermark, List<WindowResult> out) {
+    while (nextWindowEnd != NONE && nextWindowEnd <= watermark) {
+      if (panes.isEmpty()) {
+        nextWindowEnd = NONE;
+        return;
+      }
+      long firstPane = panes.firstKey();
+      if (firstPane >= nextWindowEnd) {
+        // Nothing arrived for a while: skip the empty windows in between.
+        nextWindowEnd = firstPane + slideMS;
+        continue;
+      }
+
+      emitWindow(nextWindowEnd - sizeMS, nextWindowEnd, out);
+      emittedUpTo = nextWindowEnd;
+      nextWindowEnd += slideMS;
+      panes.headMap(nextWindowEnd - sizeMS).clear();
+    }
+  }
+
+  private void emitWindow(long startMS, long endMS, List<WindowResult> out) {
+    Collection<Pane> window = panes.subMap(startMS, endMS).values();
+    for (int i = 0; i < aggregations.size(); i++) {
+      Aggregation<Object> aggregation = aggregations.get(i);
+      Object state;
+      if (window.size() == 1) {
+        state = window.iterator().next().states[i];
+      } else {
+        state = aggregation.newState();
+        for (Pane pane : window) aggregation.merge(state, pane.states[i]);
+      }
+      aggregation.emit(state, startMS, endMS, out);
+    }
+  }
+}
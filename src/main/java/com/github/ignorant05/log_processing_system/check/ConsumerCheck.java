@@ -1,6 +1,8 @@
 package com.github.ignorant05.log_processing_system.check;
 
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryDeserializer;
 import com.github.ignorant05.log_processing_system.model.HealthCheck;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
 import java.util.List;
 import java.util.Properties;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -33,13 +35,13 @@ public class ConsumerCheck implements HealthCheck {
     props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     props.put(ConsumerConfig.GROUP_ID_CONFIG, groupID);
     props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, LogEntryDeserializer.class.getName());
     props.put(ConsumerConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, String.valueOf(timeoutMS));
     props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, String.valueOf(Math.min(timeoutMS, 10000)));
     props.put(ConsumerConfig.REQUEST_TIMEOUT_MS_CONFIG, String.valueOf(timeoutMS));
     props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
 
-    try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+    try (KafkaConsumer<String, LogEntry> consumer = new KafkaConsumer<>(props)) {
       List<PartitionInfo> partitions = consumer.partitionsFor(topic);
       if (partitions.isEmpty() || partitions == null) {
         return HealthCheckResult.degraded(
@@ -1,6 +1,8 @@
 package com.github.ignorant05.log_processing_system.check;
 
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
 import com.github.ignorant05.log_processing_system.model.HealthCheck;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
 import java.util.List;
 import java.util.Properties;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -30,12 +32,12 @@ public class ProducerCheck implements HealthCheck {
     Properties props = new Properties();
     props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, LogEntrySerializer.class.getName());
     props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, String.valueOf(timeoutMS));
     props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, String.valueOf(timeoutMS));
     props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, String.valueOf(timeoutMS + 1000));
 
-    try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+    try (KafkaProducer<String, LogEntry> producer = new KafkaProducer<>(props)) {
       List<PartitionInfo> partitions = producer.partitionsFor(topic);
       if (partitions.isEmpty() || partitions == null) {
         return HealthCheckResult.degraded(
@@ -1,7 +1,10 @@
 package com.github.ignorant05.log_processing_system.cli;
 
+import com.github.ignorant05.log_processing_system.cli.commands.AggregateCommand;
 import com.github.ignorant05.log_processing_system.cli.commands.ConsumeCommand;
 import com.github.ignorant05.log_processing_system.cli.commands.GenerateCommand;
+import com.github.ignorant05.log_processing_system.cli.commands.MetricsCommand;
+import com.github.ignorant05.log_processing_system.cli.commands.TopCommand;
 import com.github.ignorant05.log_processing_system.cli.commands.TopicCommand;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
@@ -12,7 +15,14 @@ import picocli.CommandLine.Command;
     mixinStandardHelpOptions = true,
     version = "0.1.0",
     description = "Kafka log processing CLI tool",
-    subcommands = {GenerateCommand.class, ConsumeCommand.class, TopicCommand.class})
+    subcommands = {
+      GenerateCommand.class,
+      ConsumeCommand.class,
+      AggregateCommand.class,
+      TopCommand.class,
+      TopicCommand.class,
+      MetricsCommand.class
+    })
 public class LogCLI implements Runnable {
 
   @Override
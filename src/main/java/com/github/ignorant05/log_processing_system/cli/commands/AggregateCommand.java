@@ -0,0 +1,138 @@
+package com.github.ignorant05.log_processing_system.cli.commands;
+
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.filter.WhereExpression;
+import com.github.ignorant05.log_processing_system.model.AggregationType;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.service.AggregateService;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(
+    name = "aggregate",
+    description =
+        "Count logs per service and level, or summarise their latency and distinct users, over"
+            + " tumbling or sliding time windows")
+public class AggregateCommand implements Callable<Integer> {
+  @Option(
+      names = {"-b", "--bootstrap-servers"},
+      defaultValue = "kafka:9092",
+      description = "Kafka bootstrap servers")
+  private String bootstrapServers;
+
+  @Option(
+      names = {"-t", "--topic"},
+      defaultValue = "my-logs",
+      description = "Kafka topic")
+  private String topic;
+
+  @Option(
+      names = {"-g", "--group-id"},
+      defaultValue = "we-aggregators",
+      description = "Consumer Group ID")
+  private String groupID;
+
+  @Option(
+      names = {"--from-beginning"},
+      description = "Reading from the begging of the topic")
+  private boolean fromBeginning;
+
+  @Option(
+      names = {"--compute"},
+      split = ",",
+      defaultValue = "counts",
+      description =
+          "What to compute per service and window: ${COMPLETION-CANDIDATES}"
+              + " (default: ${DEFAULT-VALUE})")
+  private List<AggregationType> types;
+
+  @Option(
+      names = {"--window"},
+      defaultValue = "1m",
+      description = "Window length, e.g. 10s, 1m or 1h (default: ${DEFAULT-VALUE})")
+  private String window;
+
+  @Option(
+      names = {"--slide"},
+      description =
+          "Start a window this often, for sliding windows; must divide --window"
+              + " (default: --window, tumbling)")
+  private String slide;
+
+  @Option(
+      names = {"--allowed-lateness-ms"},
+      defaultValue = "5000",
+      description =
+          "How long to wait for late logs before closing a window (default: ${DEFAULT-VALUE})")
+  private long allowedLatenessMS;
+
+  @Option(
+      names = {"--output-topic"},
+      description = "Publish results as JSON to this topic instead of printing them")
+  private String outputTopic;
+
+  @Option(
+      names = {"--json"},
+      description = "Print results as one JSON object per line")
+  private boolean json;
+
+  @Option(
+      names = {"--codec"},
+      defaultValue = "json",
+      description =
+          "Wire format assumed for records without a codec header: ${COMPLETION-CANDIDATES}"
+              + " (default: ${DEFAULT-VALUE})")
+  private CodecType codec;
+
+  @Option(
+      names = {"-s", "--service"},
+      split = ",",
+      description = "Only count logs from one of these services")
+  private List<String> services;
+
+  @Option(
+      names = {"--where"},
+      description = "Only count logs matching this expression, e.g. \"durationMS > 2000\"")
+  private String where;
+
+  @Override
+  public Integer call() throws Exception {
+    long windowMS;
+    long slideMS;
+    try {
+      windowMS = Timestamps.parseDurationMillis(window);
+      slideMS = slide != null ? Timestamps.parseDurationMillis(slide) : windowMS;
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 1;
+    }
+    if (slideMS < 1 || windowMS < slideMS || windowMS % slideMS != 0) {
+      System.err.println("Error: --slide must be positive and divide --window");
+      return 1;
+    }
+    if (allowedLatenessMS < 0) {
+      System.err.println("Error: --allowed-lateness-ms must not be negative");
+      return 1;
+    }
+
+    Predicate<LogEntryView> filter;
+    try {
+      filter = LogEntryPredicates.serviceIn(services).and(WhereExpression.compile(where));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: --where: " + e.getMessage());
+      return 1;
+    }
+
+    return new AggregateService(bootstrapServers, topic, groupID, fromBeginning, codec, filter)
+        .compute(types)
+        .window(windowMS, slideMS, allowedLatenessMS)
+        .outputTopic(outputTopic)
+        .json(json)
+        .aggregate();
+  }
+}
@@ -1,7 +1,17 @@
 package com.github.ignorant05.log_processing_system.cli.commands;
 
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.filter.WhereExpression;
+import com.github.ignorant05.log_processing_system.kafka.consumer.LogConsumer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.ConsumeOrdering;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
 import com.github.ignorant05.log_processing_system.service.ConsumeService;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
@@ -30,10 +40,212 @@ public class ConsumeCommand implements Callable<Integer> {
       description = "Reading from the begging of the topic")
   private boolean fromBeginning;
 
+  @Option(
+      names = {"--since"},
+      description =
+          "Only print logs from this time on, then exit: 2026-03-14T14:02:00Z, 2026-03-14 14:02,"
+              + " 14:02 (today, UTC) or 15m (ago)")
+  private String since;
+
+  @Option(
+      names = {"--until"},
+      description = "Only print logs up to this time, then exit (default with --since: now)")
+  private String until;
+
+  @Option(
+      names = {"--merge"},
+      description = "With --since/--until, print all partitions merged in timestamp order")
+  private boolean merged;
+
+  @Option(
+      names = {"--ordered"},
+      description = "Print logs in timestamp order across partitions, after --allowed-lateness-ms")
+  private boolean ordered;
+
+  @Option(
+      names = {"--allowed-lateness-ms"},
+      defaultValue = "2000",
+      description =
+          "With --ordered, how long to wait for older logs before printing newer ones"
+              + " (default: ${DEFAULT-VALUE})")
+  private long allowedLatenessMS;
+
+  @Option(
+      names = {"--detect-anomalies"},
+      description = "Flag services whose error rate or p99 latency drifts from their baseline")
+  private boolean detectAnomalies;
+
+  @Option(
+      names = {"--anomaly-interval"},
+      defaultValue = "10s",
+      description =
+          "With --detect-anomalies, judge error rates and latencies this often"
+              + " (default: ${DEFAULT-VALUE})")
+  private String anomalyInterval;
+
+  @Option(
+      names = {"--anomaly-threshold"},
+      defaultValue = "3.0",
+      description =
+          "Standard deviations from the baseline that make an anomaly (default: ${DEFAULT-VALUE})")
+  private double anomalyThreshold;
+
+  @Option(
+      names = {"--anomaly-topic"},
+      description = "Publish anomalies as JSON to this topic instead of printing them")
+  private String anomalyTopic;
+
+  @Option(
+      names = {"--codec"},
+      defaultValue = "json",
+      description =
+          "Wire format assumed for records without a codec header: ${COMPLETION-CANDIDATES}"
+              + " (default: ${DEFAULT-VALUE})")
+  private CodecType codec;
+
+  @Option(
+      names = {"-l", "--level"},
+      split = ",",
+      description = "Only show logs with one of these levels (e.g. ERROR,WARN)")
+  private List<String> levels;
+
+  @Option(
+      names = {"-s", "--service"},
+      split = ",",
+      description = "Only show logs from one of these services")
+  private List<String> services;
+
+  @Option(
+      names = {"--where"},
+      description =
+          "Only show logs matching this expression, tested before decoding, e.g."
+              + " \"level in (ERROR,WARN) and durationMS > 2000\"")
+  private String where;
+
+  @Option(
+      names = {"-w", "--workers"},
+      defaultValue = "1",
+      description =
+          "Decode and render records on this many threads each (default: ${DEFAULT-VALUE})")
+  private int workers;
+
+  @Option(
+      names = {"--decode-threads"},
+      defaultValue = "0",
+      description = "Threads for the decode stage (default: --workers)")
+  private int decodeThreads;
+
+  @Option(
+      names = {"--render-threads"},
+      defaultValue = "0",
+      description = "Threads for the render stage (default: --workers)")
+  private int renderThreads;
+
+  @Option(
+      names = {"--order-by"},
+      defaultValue = "key",
+      description =
+          "What parallel workers keep in order: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  private ConsumeOrdering ordering;
+
+  @Option(
+      names = {"--max-lines-per-sec"},
+      defaultValue = "-1",
+      description =
+          "Above this rate print a sample plus a summary each second; 0 prints everything"
+              + " (default: 5000 on a terminal, 0 when output is redirected)")
+  private long maxLinesPerSecond;
+
+  @Option(
+      names = {"--commit-every"},
+      defaultValue = "5000",
+      description =
+          "Commit processed offsets after this many records, 0 for time only"
+              + " (default: ${DEFAULT-VALUE})")
+  private long commitEveryRecords;
+
+  @Option(
+      names = {"--commit-interval-ms"},
+      defaultValue = "1000",
+      description = "Commit processed offsets at least this often (default: ${DEFAULT-VALUE})")
+  private long commitIntervalMS;
+
+  @Option(
+      names = {"--virtual-threads"},
+      description = "Run the workers on virtual threads (Java 21+)")
+  private boolean virtualThreads;
+
   @Override
   public Integer call() throws Exception {
+    if (workers < 1 || decodeThreads < 0 || renderThreads < 0) {
+      System.err.println("Error: --workers must be at least 1, stage threads at least 0");
+      return 1;
+    }
+    if (allowedLatenessMS < 0) {
+      System.err.println("Error: --allowed-lateness-ms must not be negative");
+      return 1;
+    }
+    if (commitEveryRecords < 0 || commitIntervalMS < 1) {
+      System.err.println("Error: --commit-every must be at least 0, --commit-interval-ms 1");
+      return 1;
+    }
+
+    long anomalyIntervalMS = 0;
+    if (detectAnomalies) {
+      try {
+        anomalyIntervalMS = Timestamps.parseDurationMillis(anomalyInterval);
+      } catch (IllegalArgumentException e) {
+        System.err.println("Error: --anomaly-interval: " + e.getMessage());
+        return 1;
+      }
+      if (anomalyIntervalMS < 1 || !(anomalyThreshold > 0)) {
+        System.err.println("Error: --anomaly-interval and --anomaly-threshold must be positive");
+        return 1;
+      }
+    }
+
+    Predicate<LogEntryView> filter;
+    try {
+      filter =
+          LogEntryPredicates.levelIn(levels)
+              .and(LogEntryPredicates.serviceIn(services))
+              .and(WhereExpression.compile(where));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: --where: " + e.getMessage());
+      return 1;
+    }
+
+    long sinceMS = -1;
+    long untilMS = -1;
+    if (since != null || until != null) {
+      Instant now = Instant.now();
+      try {
+        sinceMS = since != null ? Timestamps.parseTimeArgument(since, now) : 0;
+        untilMS = until != null ? Timestamps.parseTimeArgument(until, now) : now.toEpochMilli();
+      } catch (IllegalArgumentException e) {
+        System.err.println("Error: " + e.getMessage());
+        return 1;
+      }
+      if (sinceMS > untilMS) {
+        System.err.println("Error: --since must not be after --until");
+        return 1;
+      }
+    }
+
     ConsumeService consumeService =
-        new ConsumeService(bootstrapServers, topic, groupID, fromBeginning);
+        new ConsumeService(bootstrapServers, topic, groupID, fromBeginning, codec, filter)
+            .parallel(workers, ordering, virtualThreads)
+            .stageThreads(decodeThreads, renderThreads)
+            .maxLinesPerSecond(
+                maxLinesPerSecond >= 0
+                    ? maxLinesPerSecond
+                    : System.console() != null ? LogConsumer.TERMINAL_LINES_PER_SECOND : 0)
+            .commitEvery(commitEveryRecords, commitIntervalMS);
+    if (ordered) consumeService.ordered(allowedLatenessMS);
+    if (detectAnomalies) {
+      consumeService.detectAnomalies(anomalyIntervalMS, anomalyThreshold, anomalyTopic);
+    }
+    if (sinceMS >= 0) consumeService.timeRange(sinceMS, untilMS, merged);
     return consumeService.consumeLogs();
   }
 }
@@ -1,6 +1,15 @@
 package com.github.ignorant05.log_processing_system.cli.commands;
 
+import com.github.ignorant05.log_processing_system.generator.Scenario;
+import com.github.ignorant05.log_processing_system.generator.WorkloadProfile;
+import com.github.ignorant05.log_processing_system.model.BackpressurePolicy;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.DeliveryMode;
+import com.github.ignorant05.log_processing_system.model.PartitionStrategy;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
 import com.github.ignorant05.log_processing_system.service.GenerateService;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.Callable;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -36,26 +45,324 @@ public class GenerateCommand implements Callable<Integer> {
 
   @Option(
       names = {"-r", "--rate"},
-      description = "Number of logs per second (overrides \"count\")")
-  private Integer rate;
+      description = "Number of logs per second, fractions allowed (overrides \"interval\")")
+  private Double rate;
+
+  @Option(
+      names = {"--burst"},
+      description = "Logs that may be sent back to back to catch up (default: 100ms worth)")
+  private Double burst;
+
+  @Option(
+      names = {"--ramp-up"},
+      defaultValue = "0",
+      description = "Seconds to ramp up linearly to the target rate")
+  private long rampUpSeconds;
+
+  @Option(
+      names = {"--ramp-down"},
+      defaultValue = "0",
+      description = "Seconds to ramp down at the end of the run (needs --duration)")
+  private long rampDownSeconds;
+
+  @Option(
+      names = {"-d", "--duration"},
+      defaultValue = "0",
+      description = "Stop after this many seconds (0 is no limit)")
+  private long durationSeconds;
 
   @Option(
       names = {"-s", "--sync"},
       description = "Use synchronous sending mode (default is \"Asynchronous mode\")")
   private boolean isSync;
 
+  @Option(
+      names = {"--codec"},
+      defaultValue = "json",
+      description = "Wire format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  private CodecType codec;
+
+  @Option(
+      names = {"--threads"},
+      defaultValue = "1",
+      description = "Number of generate workers; rate and count are split between them")
+  private int threads;
+
+  @Option(
+      names = {"--virtual-threads"},
+      description = "Run the workers on virtual threads (Java 21+)")
+  private boolean virtualThreads;
+
+  @Option(
+      names = {"--producer-per-thread"},
+      description = "Give every worker its own producer (default: one shared producer)")
+  private boolean producerPerThread;
+
+  @Option(
+      names = {"--max-in-flight"},
+      defaultValue = "0",
+      description = "Unacknowledged logs allowed per producer (0 is no limit)")
+  private int maxInFlight;
+
+  @Option(
+      names = {"--max-in-flight-bytes"},
+      defaultValue = "0",
+      description = "Unacknowledged bytes allowed per producer (0 is no limit)")
+  private int maxInFlightBytes;
+
+  @Option(
+      names = {"--on-full"},
+      defaultValue = "block",
+      description =
+          "When the in-flight window is full: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  private BackpressurePolicy backpressure;
+
+  @Option(
+      names = {"--spill-dir"},
+      description = "Directory for the spill file of --on-full spill (default: temp directory)")
+  private Path spillDir;
+
+  @Option(
+      names = {"--profile"},
+      defaultValue = "balanced",
+      description = "Producer settings: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  private ProducerProfile profile;
+
+  @Option(
+      names = {"--auto-tune"},
+      description = "Tune batch size, linger and compression toward --target-p99 across runs")
+  private boolean autoTune;
+
+  @Option(
+      names = {"--target-p99"},
+      defaultValue = "50",
+      description = "Send latency auto-tune aims for, in milliseconds (default: ${DEFAULT-VALUE})")
+  private double targetP99MS;
+
+  @Option(
+      names = {"--tune-file"},
+      description = "Where auto-tune keeps its settings (default: ~/.klog/producer-tuning-<topic>)")
+  private Path tuneFile;
+
+  @Option(
+      names = {"--delivery"},
+      defaultValue = "plain",
+      description =
+          "Duplicate safety: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}); idempotent and"
+              + " transactional allow 5 requests in flight")
+  private DeliveryMode delivery;
+
+  @Option(
+      names = {"--txn-records"},
+      defaultValue = "1000",
+      description = "Most logs per transaction with --delivery transactional")
+  private int transactionRecords;
+
+  @Option(
+      names = {"--txn-ms"},
+      defaultValue = "100",
+      description = "Longest a transaction stays open with --delivery transactional, in ms")
+  private long transactionMS;
+
+  @Option(
+      names = {"--transactional-id"},
+      description = "Transactional id prefix, stable across restarts (default: klog-<topic>)")
+  private String transactionalID;
+
+  @Option(
+      names = {"--partition-by"},
+      defaultValue = "id",
+      description =
+          "Record key, and so what stays ordered: ${COMPLETION-CANDIDATES} (default:"
+              + " ${DEFAULT-VALUE})")
+  private PartitionStrategy partitionBy;
+
+  @Option(
+      names = {"--virtual-nodes"},
+      defaultValue = "0",
+      description =
+          "Map service/user keys on a consistent-hash ring with this many points per partition"
+              + " (0 is Kafka's hashing)")
+  private int virtualNodes;
+
+  @Option(
+      names = {"--hot-partitions"},
+      description = "Report partitions and keys taking over --hot-factor times their fair share")
+  private boolean detectHotPartitions;
+
+  @Option(
+      names = {"--hot-factor"},
+      defaultValue = "2.0",
+      description =
+          "Multiple of the fair share that makes a partition hot (default: ${DEFAULT-VALUE})")
+  private double hotFactor;
+
+  @Option(
+      names = {"--hot-key-spread"},
+      defaultValue = "1",
+      description = "Spread a hot key over this many partitions, giving up its ordering (1 is off)")
+  private int hotKeySpread;
+
+  @Option(
+      names = {"--scenario"},
+      description =
+          "YAML file of timed phases to run instead of --rate/--interval/--count/--duration")
+  private Path scenarioFile;
+
+  @Option(
+      names = {"--seed"},
+      description = "Seed for reproducible logs (timestamps aside); random by default")
+  private Long seed;
+
+  @Option(
+      names = {"--levels"},
+      description = "Level mix as LEVEL=weight pairs (default: DEBUG=12,INFO=75,WARN=9,ERROR=4)")
+  private String levelMix;
+
+  @Option(
+      names = {"--service-skew"},
+      defaultValue = "1.1",
+      description = "Zipf exponent over services, 0 is uniform (default: ${DEFAULT-VALUE})")
+  private double serviceSkew;
+
+  @Option(
+      names = {"--users"},
+      defaultValue = "10000",
+      description = "Distinct users (default: ${DEFAULT-VALUE})")
+  private int users;
+
+  @Option(
+      names = {"--user-skew"},
+      defaultValue = "1.2",
+      description = "Zipf exponent over users, 0 is uniform (default: ${DEFAULT-VALUE})")
+  private double userSkew;
+
+  @Option(
+      names = {"--duration-median"},
+      defaultValue = "40",
+      description = "Median durationMS; durations are lognormal (default: ${DEFAULT-VALUE})")
+  private double durationMedianMS;
+
+  @Option(
+      names = {"--duration-sigma"},
+      defaultValue = "1.0",
+      description = "Spread of the lognormal durations (default: ${DEFAULT-VALUE})")
+  private double durationSigma;
+
+  @Option(
+      names = {"--error-burst-chance"},
+      defaultValue = "0.0002",
+      description = "Chance per log that a service starts failing (default: ${DEFAULT-VALUE})")
+  private double errorBurstChance;
+
+  @Option(
+      names = {"--error-burst-length"},
+      defaultValue = "500",
+      description = "Logs an error burst lasts (default: ${DEFAULT-VALUE})")
+  private int errorBurstLength;
+
   @Override
   public Integer call() throws Exception {
+    WorkloadProfile workload;
+    try {
+      WorkloadProfile.Builder builder =
+          WorkloadProfile.builder()
+              .serviceSkew(serviceSkew)
+              .users(users)
+              .userSkew(userSkew)
+              .durationMedianMS(durationMedianMS)
+              .durationSigma(durationSigma)
+              .errorBurstChance(errorBurstChance)
+              .errorBurstLength(errorBurstLength);
+      if (levelMix != null) builder.levelMix(levelMix);
+      workload = builder.build();
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 1;
+    }
+
+    Scenario scenario = null;
+    if (scenarioFile != null) {
+      try {
+        scenario = Scenario.load(scenarioFile, workload);
+      } catch (IOException | IllegalArgumentException e) {
+        System.err.printf("Error: invalid scenario %s: %s%n", scenarioFile, e.getMessage());
+        return 1;
+      }
+      if (seed == null) seed = scenario.getSeed();
+    }
+
     System.out.println("Generating logs ...");
     System.out.println("\tBootstrap Servers: " + bootstrapServers);
     System.out.println("\tTopic: " + topic);
     System.out.println("\tInterval: " + interval + "ms");
     System.out.println("\tCount: " + count);
     System.out.println("\tRate: " + rate + " logs/second");
+    if (rampUpSeconds > 0 || rampDownSeconds > 0) {
+      System.out.println("\tRamp: up " + rampUpSeconds + "s, down " + rampDownSeconds + "s");
+    }
+    if (durationSeconds > 0) System.out.println("\tDuration: " + durationSeconds + "s");
+    if (scenario != null) {
+      System.out.println(
+          "\tScenario: " + scenarioFile + " (replaces rate, interval, count and duration)");
+    }
+    if (maxInFlight > 0 || maxInFlightBytes > 0) {
+      System.out.println(
+          "\tIn-flight window: "
+              + maxInFlight
+              + " logs, "
+              + maxInFlightBytes
+              + " bytes, on full: "
+              + backpressure);
+    }
     System.out.println("\tMode: " + (isSync ? "Synchronous" : "Asynchronous"));
+    System.out.println("\tCodec: " + codec);
+    System.out.println(
+        "\tProfile: " + profile + (autoTune ? ", auto-tune to p99 " + targetP99MS + "ms" : ""));
+    System.out.println(
+        "\tWorkers: "
+            + threads
+            + (virtualThreads ? " virtual" : " platform")
+            + " thread(s), "
+            + (producerPerThread ? "one producer each" : "shared producer"));
 
     GenerateService generateService =
-        new GenerateService(bootstrapServers, topic, interval, count, rate, isSync);
+        GenerateService.builder()
+            .bootstrapServers(bootstrapServers)
+            .topic(topic)
+            .interval(interval)
+            .count(count)
+            .rate(rate)
+            .sync(isSync)
+            .codec(codec)
+            .threads(threads)
+            .virtualThreads(virtualThreads)
+            .producerPerThread(producerPerThread)
+            .burst(burst)
+            .rampUpSeconds(rampUpSeconds)
+            .rampDownSeconds(rampDownSeconds)
+            .durationSeconds(durationSeconds)
+            .maxInFlight(maxInFlight)
+            .maxInFlightBytes(maxInFlightBytes)
+            .backpressure(backpressure)
+            .spillDir(spillDir)
+            .profile(profile)
+            .autoTune(autoTune)
+            .targetP99MS(targetP99MS)
+            .tuneFile(tuneFile)
+            .delivery(delivery)
+            .transactionRecords(transactionRecords)
+            .transactionMS(transactionMS)
+            .transactionalID(transactionalID)
+            .workload(workload)
+            .seed(seed)
+            .scenario(scenario)
+            .partitionBy(partitionBy)
+            .virtualNodes(virtualNodes)
+            .detectHotPartitions(detectHotPartitions)
+            .hotFactor(hotFactor)
+            .hotKeySpread(hotKeySpread)
+            .build();
 
     return generateService.generateLogs();
   }
@@ -1,9 +1,15 @@
 package com.github.ignorant05.log_processing_system.cli.commands;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.DetectorSnapShot;
+import com.github.ignorant05.log_processing_system.util.LagSnapShot;
+import com.github.ignorant05.log_processing_system.util.MetricsFile;
+import com.github.ignorant05.log_processing_system.util.MetricsJson;
 import com.github.ignorant05.log_processing_system.util.MetricsSnapShot;
+import com.github.ignorant05.log_processing_system.util.OrderingSnapShot;
+import com.github.ignorant05.log_processing_system.util.StageSnapShot;
+import java.util.List;
 import java.util.concurrent.Callable;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -11,13 +17,16 @@ import picocli.CommandLine.Option;
 /** MetricsCommand */
 @Command(
     name = "metrics",
-    description = "Display system metrics: throughput, latency, errors, and retries.",
+    description =
+        "Display the metrics of running klog processes: throughput, consumer lag, latency,"
+            + " errors, and retries.",
     mixinStandardHelpOptions = true)
 public class MetricsCommand implements Callable<Integer> {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
 
   @Option(
       names = {"--json"},
-      description = "Output metrics as JSON")
+      description = "Output metrics as JSON: one object with --pid, an array of them otherwise")
   private boolean useJSON;
 
   @Option(
@@ -26,36 +35,68 @@ public class MetricsCommand implements Callable<Integer> {
       defaultValue = "0")
   private int watchSeconds;
 
+  @Option(
+      names = {"--pid"},
+      description = "Only show the klog process with this pid",
+      defaultValue = "0")
+  private long pid;
+
   public Integer call() throws InterruptedException {
     if (watchSeconds > 0) {
       runWatchMode();
-    } else {
-      printSnapshot(MetricsRegistry.getInstance().snapshot());
+      return 0;
+    }
+
+    List<JsonNode> published = published();
+    if (published.isEmpty()) {
+      System.err.println(
+          "Error: no running klog process "
+              + (pid > 0 ? "with pid " + pid + " " : "")
+              + "is publishing metrics; generate, consume and aggregate do");
+      return 1;
     }
+    print(published);
     return 0;
   }
 
   private void runWatchMode() throws InterruptedException {
-    System.out.printf("Refreshing every %ds — press Ctrl-C to stop%n%n", watchSeconds);
     while (!Thread.currentThread().isInterrupted()) {
-      printSnapshot(MetricsRegistry.getInstance().snapshot());
+      System.out.print("\033[H\033[2J");
+      System.out.printf("Refreshing every %ds — press Ctrl-C to stop%n%n", watchSeconds);
+      List<JsonNode> published = published();
+      if (published.isEmpty()) {
+        System.out.println("Waiting for a klog process to publish metrics...");
+      } else {
+        print(published);
+      }
       Thread.sleep(watchSeconds * 1000L);
-      System.out.print("\033[13A");
     }
   }
 
-  private void printSnapshot(MetricsSnapShot snapshot) {
+  /** What the running processes published, see {@link MetricsFile}; only {@link #pid}'s if set. */
+  private List<JsonNode> published() {
+    List<JsonNode> published = MetricsFile.readAll();
+    if (pid > 0) published.removeIf(snapshot -> snapshot.path("pid").asLong() != pid);
+    return published;
+  }
+
+  private void print(List<JsonNode> published) {
     if (useJSON) {
-      printJson(snapshot);
-    } else {
-      printHuman(snapshot);
+      printJson(pid > 0 ? published.get(0) : MAPPER.valueToTree(published));
+      return;
+    }
+    for (JsonNode snapshot : published) {
+      printHuman(
+          snapshot.path("command").asText() + " (pid " + snapshot.path("pid").asLong() + ")",
+          MetricsJson.fromJson(snapshot));
     }
   }
 
-  private void printHuman(MetricsSnapShot snapshot) {
+  private void printHuman(String process, MetricsSnapShot snapshot) {
     String uptime = formatUptime(snapshot.getUptimeSeconds());
     System.out.println("┌──────────────────────────────────────────────────────┐");
     System.out.println("│                   SYSTEM METRICS                    │");
+    System.out.printf("│  Process: %-43s│%n", process);
     System.out.printf("│  Uptime: %-43s│%n", uptime);
     System.out.println("├──────────────────────────────────────────────────────┤");
     System.out.println("│  THROUGHPUT                                          │");
@@ -65,6 +106,14 @@ public class MetricsCommand implements Callable<Integer> {
     System.out.printf(
         "│    Consumed       %10d msg   (%6.1f msg/snapshot)    │%n",
         snapshot.getConsumedMessages(), snapshot.getConsumedPerSecond());
+    if (!snapshot.getLags().isEmpty()) {
+      System.out.printf(
+          "│    Lag            %10d msg   (%+6.1f msg/s)    │%n",
+          snapshot.getTotalLag(), snapshot.getLagGrowthPerSecond());
+      System.out.printf(
+          "│    Catch-up       %10s                         │%n",
+          LagSnapShot.formatCatchUp(snapshot.getCatchUpSeconds()));
+    }
     System.out.println("├──────────────────────────────────────────────────────┤");
     System.out.println("│  LATENCY                                             │");
     System.out.printf(
@@ -77,34 +126,64 @@ public class MetricsCommand implements Callable<Integer> {
         "│    Errors         %10d                          │%n", snapshot.getErrorCount());
     System.out.printf(
         "│    Retries        %10d                          │%n", snapshot.getRetryCount());
+    if (!snapshot.getStages().isEmpty()) {
+      System.out.println("├──────────────────────────────────────────────────────┤");
+      System.out.println("│  STAGES            us/rec  threads  queue (max)      │");
+      for (StageSnapShot stage : snapshot.getStages()) {
+        System.out.printf(
+            "│    %-14s %8.1f  %7d  %5d (%3d)      │%n",
+            stage.getName(),
+            stage.getServiceMicrosPerRecord(),
+            stage.getWorkers(),
+            stage.getQueueDepth(),
+            stage.getMaxQueueDepth());
+      }
+    }
+    OrderingSnapShot ordering = snapshot.getOrdering();
+    if (ordering.getEmitted() > 0) {
+      System.out.println("├──────────────────────────────────────────────────────┤");
+      System.out.println("│  ORDERING                                            │");
+      System.out.printf(
+          "│    Delay          %10.1f ms avg (%7.1f ms max) │%n",
+          ordering.getAverageDelayMS(), ordering.getMaxDelayMS());
+      System.out.printf(
+          "│    Out of order   %10d     (%8d late)     │%n",
+          ordering.getOutOfOrder(), ordering.getLate());
+      System.out.printf(
+          "│    Buffered       %10d                         │%n", ordering.getBuffered());
+    }
+    if (!snapshot.getLags().isEmpty()) {
+      System.out.println("├──────────────────────────────────────────────────────┤");
+      System.out.println("│  LAG                     lag    growth/s  catch-up   │");
+      for (LagSnapShot lag : snapshot.getLags()) {
+        System.out.printf(
+            "│    %-14s %9d  %+9.1f  %9s    │%n",
+            lag.getPartition(),
+            lag.getLag(),
+            lag.getGrowthPerSecond(),
+            LagSnapShot.formatCatchUp(lag.getCatchUpSeconds()));
+      }
+    }
+    if (!snapshot.getDetectors().isEmpty()) {
+      System.out.println("├──────────────────────────────────────────────────────┤");
+      System.out.println("│  ANOMALIES      errors   (base) p99 ms   (base)   #  │");
+      for (DetectorSnapShot detector : snapshot.getDetectors()) {
+        System.out.printf(
+            "│    %-12s %5.1f%% (%5.1f%%) %6.0f (%6.0f) %3d  │%n",
+            detector.getService(),
+            detector.getErrorRate() * 100,
+            detector.getErrorRateBaseline() * 100,
+            detector.getP99MS(),
+            detector.getP99BaselineMS(),
+            detector.getAnomalies());
+      }
+    }
     System.out.println("└──────────────────────────────────────────────────────┘");
   }
 
-  private void printJson(MetricsSnapShot snapshot) {
+  private void printJson(JsonNode json) {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      ObjectNode root = mapper.createObjectNode();
-
-      ObjectNode throughput = mapper.createObjectNode();
-      throughput.put("messages_produced", snapshot.getProducedMessages());
-      throughput.put("messages_consumed", snapshot.getConsumedMessages());
-      throughput.put("produced_per_second", snapshot.getProducedPerSecond());
-      throughput.put("consumed_per_second", snapshot.getConsumedPerSecond());
-
-      ObjectNode latency = mapper.createObjectNode();
-      latency.put("avg_ms", snapshot.getAverageLatencyMS());
-      latency.put("max_ms", snapshot.getMaxLatencyMS());
-
-      ObjectNode reliability = mapper.createObjectNode();
-      reliability.put("error_count", snapshot.getErrorCount());
-      reliability.put("retry_count", snapshot.getRetryCount());
-
-      root.put("uptime_seconds", snapshot.getUptimeSeconds());
-      root.set("throughput", throughput);
-      root.set("latency", latency);
-      root.set("reliability", reliability);
-
-      System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root));
+      System.out.println(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(json));
     } catch (Exception e) {
       System.err.println("Failed to serialize JSON: " + e.getMessage());
     }
@@ -0,0 +1,161 @@
+package com.github.ignorant05.log_processing_system.cli.commands;
+
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.filter.WhereExpression;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.service.AggregateService;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(
+    name = "top",
+    description =
+        "Show the most frequent users or IPs per service over time windows, in bounded memory")
+public class TopCommand implements Callable<Integer> {
+  @Option(
+      names = {"-b", "--bootstrap-servers"},
+      defaultValue = "kafka:9092",
+      description = "Kafka bootstrap servers")
+  private String bootstrapServers;
+
+  @Option(
+      names = {"-t", "--topic"},
+      defaultValue = "my-logs",
+      description = "Kafka topic")
+  private String topic;
+
+  @Option(
+      names = {"-g", "--group-id"},
+      defaultValue = "we-top",
+      description = "Consumer Group ID")
+  private String groupID;
+
+  @Option(
+      names = {"--from-beginning"},
+      description = "Reading from the begging of the topic")
+  private boolean fromBeginning;
+
+  @Option(
+      names = {"--by"},
+      defaultValue = "ipAddr",
+      description = "Field to rank: userID or ipAddr (default: ${DEFAULT-VALUE})")
+  private LogField field;
+
+  @Option(
+      names = {"-k", "--count"},
+      defaultValue = "20",
+      description = "How many values to show per service (default: ${DEFAULT-VALUE})")
+  private int k;
+
+  @Option(
+      names = {"--error"},
+      defaultValue = "0.001",
+      description =
+          "Counts may be over by at most this share of the window's logs (default: ${DEFAULT-VALUE})")
+  private double epsilon;
+
+  @Option(
+      names = {"--confidence"},
+      defaultValue = "0.99",
+      description = "Probability that --error holds (default: ${DEFAULT-VALUE})")
+  private double confidence;
+
+  @Option(
+      names = {"--window"},
+      defaultValue = "5m",
+      description = "Window length, e.g. 1m or 5m (default: ${DEFAULT-VALUE})")
+  private String window;
+
+  @Option(
+      names = {"--slide"},
+      description = "Start a window this often; must divide --window (default: --window)")
+  private String slide;
+
+  @Option(
+      names = {"--allowed-lateness-ms"},
+      defaultValue = "5000",
+      description =
+          "How long to wait for late logs before closing a window (default: ${DEFAULT-VALUE})")
+  private long allowedLatenessMS;
+
+  @Option(
+      names = {"--output-topic"},
+      description = "Publish results as JSON to this topic instead of printing them")
+  private String outputTopic;
+
+  @Option(
+      names = {"--json"},
+      description = "Print results as one JSON object per line")
+  private boolean json;
+
+  @Option(
+      names = {"--codec"},
+      defaultValue = "json",
+      description =
+          "Wire format assumed for records without a codec header: ${COMPLETION-CANDIDATES}"
+              + " (default: ${DEFAULT-VALUE})")
+  private CodecType codec;
+
+  @Option(
+      names = {"-s", "--service"},
+      split = ",",
+      description = "Only rank logs from one of these services")
+  private List<String> services;
+
+  @Option(
+      names = {"--where"},
+      description = "Only rank logs matching this expression, e.g. \"level = ERROR\"")
+  private String where;
+
+  @Override
+  public Integer call() throws Exception {
+    if (field != LogField.userID && field != LogField.ipAddr) {
+      System.err.println("Error: --by must be userID or ipAddr");
+      return 1;
+    }
+    if (k < 1 || !(epsilon > 0 && epsilon < 1) || !(confidence > 0 && confidence < 1)) {
+      System.err.println("Error: --count must be positive, --error and --confidence in (0, 1)");
+      return 1;
+    }
+
+    long windowMS;
+    long slideMS;
+    try {
+      windowMS = Timestamps.parseDurationMillis(window);
+      slideMS = slide != null ? Timestamps.parseDurationMillis(slide) : windowMS;
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 1;
+    }
+    if (slideMS < 1 || windowMS < slideMS || windowMS % slideMS != 0) {
+      System.err.println("Error: --slide must be positive and divide --window");
+      return 1;
+    }
+    if (allowedLatenessMS < 0) {
+      System.err.println("Error: --allowed-lateness-ms must not be negative");
+      return 1;
+    }
+
+    Predicate<LogEntryView> filter;
+    try {
+      filter = LogEntryPredicates.serviceIn(services).and(WhereExpression.compile(where));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: --where: " + e.getMessage());
+      return 1;
+    }
+
+    return new AggregateService(bootstrapServers, topic, groupID, fromBeginning, codec, filter)
+        .compute(List.of())
+        .top(field, k, epsilon, confidence)
+        .window(windowMS, slideMS, allowedLatenessMS)
+        .outputTopic(outputTopic)
+        .json(json)
+        .aggregate();
+  }
+}
@@ -0,0 +1,87 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.time.Instant;
+
+/**
+ * AbstractLogEntryView
+ *
+ * <p>Maps the typed getters onto {@link #getString(LogField)} and gives a String-based fallback for
+ * {@link #matches}/{@link #contains}; concrete views override whatever they can answer straight
+ * from the bytes.
+ */
+abstract class AbstractLogEntryView implements LogEntryView {
+
+  @Override
+  public String getID() {
+    return getString(LogField.id);
+  }
+
+  @Override
+  public String getLevel() {
+    return getString(LogField.level);
+  }
+
+  @Override
+  public String getService() {
+    return getString(LogField.service);
+  }
+
+  @Override
+  public String getMessage() {
+    return getString(LogField.message);
+  }
+
+  @Override
+  public String getUserID() {
+    return getString(LogField.userID);
+  }
+
+  @Override
+  public String getIpAddr() {
+    return getString(LogField.ipAddr);
+  }
+
+  @Override
+  public boolean matches(LogField field, byte[] value) {
+    return Utf8.equals(getString(field), value);
+  }
+
+  @Override
+  public boolean contains(LogField field, byte[] value) {
+    return Utf8.contains(getString(field), value);
+  }
+
+  @Override
+  public LogEntry toLogEntry() {
+    LogEntry logEntry = new LogEntry();
+    logEntry.setID(getID());
+    Instant timestamp = getTimestamp();
+    if (timestamp != null) logEntry.setTimestamp(timestamp);
+    logEntry.setLevel(getLevel());
+    logEntry.setService(getService());
+    logEntry.setMessage(getMessage());
+    logEntry.setUserID(getUserID());
+    logEntry.setIpAddr(getIpAddr());
+    logEntry.setDurationMS(getDurationMS());
+    return logEntry;
+  }
+
+  @Override
+  public void readInto(MutableLogEntry target) {
+    target.setID(getID());
+    Instant timestamp = getTimestamp();
+    target.setTimestampMillis(timestamp == null ? Timestamps.NONE : timestamp.toEpochMilli());
+    target.setLevelName(getLevel());
+    target.setService(getService());
+    target.setMessage(getMessage());
+    target.setUserID(getUserID());
+    target.setIpAddr(getIpAddr());
+    target.setDurationMS(getDurationMS());
+  }
+}
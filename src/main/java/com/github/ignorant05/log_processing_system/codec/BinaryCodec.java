@@ -0,0 +1,203 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * BinaryCodec
+ *
+ * <p>Hand-written compact layout, positional so no field names go on the wire:
+ *
+ * <pre>
+ *   u8      version (1)
+ *   u8      flags   bit0 id is a canonical UUID, bit1 ipAddr is dotted IPv4, bit2 has timestamp
+ *   id      16 raw bytes if bit0, otherwise string
+ *   varlong zig-zag epoch millis (only if bit2)
+ *   u8      level   0 = null, n = Level#fromCode(n), 0xFF = string follows
+ *   varint  service 0 = string follows, n = SERVICES[n - 1]
+ *   string  message
+ *   string  userID
+ *   ipAddr  4 raw bytes if bit1, otherwise string
+ *   varint  zig-zag durationMS
+ * </pre>
+ *
+ * <p>Strings are {@code varint(length + 1)} followed by UTF-8 bytes, with 0 meaning null. UUIDs and
+ * IPv4 addresses are only packed when they are in canonical lower-case form, so decoding always
+ * gives back the exact same text.
+ */
+public class BinaryCodec implements LogCodec {
+  static final int VERSION = 1;
+
+  static final int FLAG_UUID_ID = 1;
+  static final int FLAG_IPV4 = 1 << 1;
+  static final int FLAG_TIMESTAMP = 1 << 2;
+
+  static final int LEVEL_LITERAL = 0xFF;
+
+  /** Dictionary for {@code service}; append only, an index is a wire code. */
+  static final String[] SERVICES = {
+    "payment-service",
+    "fraud-service",
+    "mail-service",
+    "api-gateway",
+    "database",
+    "auth-service",
+    "notification-service",
+    "cache-service",
+  };
+
+  @Override
+  public CodecType getType() {
+    return CodecType.binary;
+  }
+
+  @Override
+  public void encode(LogEntry logEntry, OutputStream out) throws IOException {
+    String id = logEntry.getID();
+    String ipAddr = logEntry.getIpAddr();
+    Instant timestamp = logEntry.getTimestamp();
+
+    byte[] ipv4 = parseIPv4(ipAddr);
+    boolean uuid = isCanonicalUUID(id);
+
+    int flags = 0;
+    if (uuid) flags |= FLAG_UUID_ID;
+    if (ipv4 != null) flags |= FLAG_IPV4;
+    if (timestamp != null) flags |= FLAG_TIMESTAMP;
+
+    out.write(VERSION);
+    out.write(flags);
+
+    if (uuid) writeUUID(out, id);
+    else writeString(out, id);
+
+    if (timestamp != null) writeVarLong(out, zigZag(timestamp.toEpochMilli()));
+
+    Level level = Level.fromString(logEntry.getLevel());
+    if (logEntry.getLevel() == null) out.write(0);
+    else if (level != null) out.write(level.getCode());
+    else {
+      out.write(LEVEL_LITERAL);
+      writeString(out, logEntry.getLevel());
+    }
+
+    int service = indexOf(SERVICES, logEntry.getService());
+    if (service >= 0) writeVarLong(out, service + 1);
+    else {
+      out.write(0);
+      writeString(out, logEntry.getService());
+    }
+
+    writeString(out, logEntry.getMessage());
+    writeString(out, logEntry.getUserID());
+
+    if (ipv4 != null) out.write(ipv4);
+    else writeString(out, ipAddr);
+
+    writeVarLong(out, zigZag(logEntry.getDurationMS()));
+  }
+
+  @Override
+  public LogEntry decode(byte[] data) throws IOException {
+    try {
+      return new BinaryLogEntryView(data).toLogEntry();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Override
+  public LogEntryView view(byte[] data) {
+    return new BinaryLogEntryView(data);
+  }
+
+  private static int indexOf(String[] table, String value) {
+    if (value == null) return -1;
+    for (int i = 0; i < table.length; i++) {
+      if (table[i].equals(value)) return i;
+    }
+    return -1;
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static void writeString(OutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.write(0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(out, bytes.length + 1L);
+    out.write(bytes);
+  }
+
+  private static boolean isCanonicalUUID(String id) {
+    if (id == null || id.length() != 36) return false;
+    for (int i = 0; i < 36; i++) {
+      char c = id.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') return false;
+      } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void writeUUID(OutputStream out, String id) throws IOException {
+    int i = 0;
+    while (i < 36) {
+      if (id.charAt(i) == '-') {
+        i++;
+        continue;
+      }
+      out.write((Character.digit(id.charAt(i), 16) << 4) | Character.digit(id.charAt(i + 1), 16));
+      i += 2;
+    }
+  }
+
+  /** Returns the 4 address bytes if {@code ipAddr} is a canonical dotted IPv4, otherwise null. */
+  private static byte[] parseIPv4(String ipAddr) {
+    if (ipAddr == null || ipAddr.length() < 7 || ipAddr.length() > 15) return null;
+
+    byte[] octets = new byte[4];
+    int octet = 0, value = 0, digits = 0;
+    for (int i = 0; i <= ipAddr.length(); i++) {
+      char c = i < ipAddr.length() ? ipAddr.charAt(i) : '.';
+      if (c == '.') {
+        if (digits == 0 || octet == 4) return null;
+        octets[octet++] = (byte) value;
+        value = 0;
+        digits = 0;
+      } else if (c >= '0' && c <= '9') {
+        if (digits > 0 && value == 0) return null; // leading zero would not round-trip
+        value = value * 10 + (c - '0');
+        if (++digits > 3 || value > 255) return null;
+      } else {
+        return null;
+      }
+    }
+    return octet == 4 ? octets : null;
+  }
+}
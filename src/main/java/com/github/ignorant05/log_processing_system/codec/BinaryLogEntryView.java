@@ -0,0 +1,279 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * BinaryLogEntryView
+ *
+ * <p>Walks the {@link BinaryCodec} layout once on first access, recording the offset and length of
+ * every variable-length field and decoding only the fixed-size numbers on the way. Dictionary-coded
+ * {@code level}/{@code service} values are compared by code, so filtering on them never looks at
+ * text at all.
+ */
+class BinaryLogEntryView extends AbstractLogEntryView {
+  private static final int FIELDS = LogField.values().length;
+
+  private static final byte[][] SERVICE_BYTES = encodeAll(BinaryCodec.SERVICES);
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final byte[] data;
+  private final int[] starts = new int[FIELDS];
+  private final int[] lengths = new int[FIELDS];
+  private boolean indexed;
+  private int position;
+
+  private int flags;
+  private long timestampMillis;
+  private int levelCode;
+  private int serviceCode;
+  private int durationMS;
+
+  BinaryLogEntryView(byte[] data) {
+    this.data = data;
+  }
+
+  @Override
+  public Instant getTimestamp() {
+    index();
+    return (flags & BinaryCodec.FLAG_TIMESTAMP) != 0 ? Instant.ofEpochMilli(timestampMillis) : null;
+  }
+
+  @Override
+  public int getDurationMS() {
+    index();
+    return durationMS;
+  }
+
+  @Override
+  public String getString(LogField field) {
+    index();
+    switch (field) {
+      case timestamp:
+        Instant timestamp = getTimestamp();
+        return timestamp == null ? null : timestamp.toString();
+      case durationMS:
+        return String.valueOf(durationMS);
+      case level:
+        if (levelCode == 0) return null;
+        if (levelCode != BinaryCodec.LEVEL_LITERAL) return Level.fromCode(levelCode).name();
+        break;
+      case service:
+        if (serviceCode != 0) return BinaryCodec.SERVICES[serviceCode - 1];
+        break;
+      case id:
+        if ((flags & BinaryCodec.FLAG_UUID_ID) != 0) return uuidText(starts[field.ordinal()]);
+        break;
+      case ipAddr:
+        if ((flags & BinaryCodec.FLAG_IPV4) != 0) return ipv4Text(starts[field.ordinal()]);
+        break;
+      default:
+        break;
+    }
+
+    int f = field.ordinal();
+    if (lengths[f] < 0) return null;
+    return new String(data, starts[f], lengths[f], StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean isNull(LogField field) {
+    index();
+    switch (field) {
+      case timestamp:
+        return (flags & BinaryCodec.FLAG_TIMESTAMP) == 0;
+      case durationMS:
+        return false;
+      case level:
+        return levelCode == 0
+            || (levelCode == BinaryCodec.LEVEL_LITERAL && lengths[field.ordinal()] < 0);
+      case service:
+        return serviceCode == 0 && lengths[field.ordinal()] < 0;
+      case id:
+        return (flags & BinaryCodec.FLAG_UUID_ID) == 0 && lengths[field.ordinal()] < 0;
+      case ipAddr:
+        return (flags & BinaryCodec.FLAG_IPV4) == 0 && lengths[field.ordinal()] < 0;
+      default:
+        return lengths[field.ordinal()] < 0;
+    }
+  }
+
+  @Override
+  public boolean matches(LogField field, byte[] value) {
+    index();
+    if (field == LogField.level && levelCode != BinaryCodec.LEVEL_LITERAL) {
+      return levelCode != 0
+          && Utf8.regionEquals(value, 0, value.length, Level.fromCode(levelCode).getUtf8());
+    }
+    if (field == LogField.service && serviceCode != 0) {
+      return Utf8.regionEquals(value, 0, value.length, SERVICE_BYTES[serviceCode - 1]);
+    }
+    if (isRawText(field)) {
+      int f = field.ordinal();
+      return lengths[f] >= 0 && Utf8.regionEquals(data, starts[f], lengths[f], value);
+    }
+    return super.matches(field, value);
+  }
+
+  @Override
+  public boolean contains(LogField field, byte[] value) {
+    index();
+    if (isRawText(field)) {
+      int f = field.ordinal();
+      return lengths[f] >= 0 && Utf8.indexOf(data, starts[f], starts[f] + lengths[f], value) >= 0;
+    }
+    return super.contains(field, value);
+  }
+
+  @Override
+  public void readInto(MutableLogEntry target) {
+    index();
+    target.setID(getID());
+    target.setTimestampMillis(
+        (flags & BinaryCodec.FLAG_TIMESTAMP) != 0 ? timestampMillis : Timestamps.NONE);
+    if (levelCode == BinaryCodec.LEVEL_LITERAL) target.setLevelName(getLevel());
+    else target.setLevel(Level.fromCode(levelCode));
+    target.setService(getService());
+    target.setMessage(getMessage());
+    target.setUserID(getUserID());
+    target.setIpAddr(getIpAddr());
+    target.setDurationMS(durationMS);
+  }
+
+  /** The field is stored as a plain UTF-8 string in this record (not packed or coded). */
+  private boolean isRawText(LogField field) {
+    switch (field) {
+      case message:
+      case userID:
+        return true;
+      case level:
+        return levelCode == BinaryCodec.LEVEL_LITERAL;
+      case service:
+        return serviceCode == 0;
+      case id:
+        return (flags & BinaryCodec.FLAG_UUID_ID) == 0;
+      case ipAddr:
+        return (flags & BinaryCodec.FLAG_IPV4) == 0;
+      default:
+        return false;
+    }
+  }
+
+  private void index() {
+    if (indexed) return;
+
+    position = 0;
+    int version = readByte();
+    if (version != BinaryCodec.VERSION) {
+      throw malformed("Unsupported binary log version: " + version);
+    }
+    flags = readByte();
+
+    if ((flags & BinaryCodec.FLAG_UUID_ID) != 0) skipRaw(LogField.id, 16);
+    else skipString(LogField.id);
+
+    if ((flags & BinaryCodec.FLAG_TIMESTAMP) != 0) {
+      timestampMillis = BinaryCodec.unZigZag(readVarLong());
+    }
+
+    levelCode = readByte();
+    if (levelCode == BinaryCodec.LEVEL_LITERAL) skipString(LogField.level);
+    else if (levelCode != 0 && Level.fromCode(levelCode) == null)
+      throw malformed("Unknown level code: " + levelCode);
+
+    long service = readVarLong();
+    if (service < 0 || service > BinaryCodec.SERVICES.length)
+      throw malformed("Unknown service code: " + service);
+    serviceCode = (int) service;
+    if (serviceCode == 0) skipString(LogField.service);
+
+    skipString(LogField.message);
+    skipString(LogField.userID);
+
+    if ((flags & BinaryCodec.FLAG_IPV4) != 0) skipRaw(LogField.ipAddr, 4);
+    else skipString(LogField.ipAddr);
+
+    durationMS = (int) BinaryCodec.unZigZag(readVarLong());
+
+    indexed = true;
+  }
+
+  private void skipRaw(LogField field, int length) {
+    require(length);
+    starts[field.ordinal()] = position;
+    lengths[field.ordinal()] = length;
+    position += length;
+  }
+
+  private void skipString(LogField field) {
+    long length = readVarLong();
+    if (length == 0) {
+      lengths[field.ordinal()] = -1;
+      return;
+    }
+    if (length - 1 > Integer.MAX_VALUE) throw malformed("String too long at byte " + position);
+    skipRaw(field, (int) (length - 1));
+  }
+
+  private int readByte() {
+    require(1);
+    return data[position++] & 0xFF;
+  }
+
+  private long readVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw malformed("Malformed varint at byte " + position);
+  }
+
+  private void require(int bytes) {
+    if (bytes < 0 || position + bytes > data.length) {
+      throw malformed("Truncated binary log at byte " + position);
+    }
+  }
+
+  private static UncheckedIOException malformed(String message) {
+    return new UncheckedIOException(new IOException(message));
+  }
+
+  private String uuidText(int start) {
+    char[] chars = new char[36];
+    int c = 0;
+    for (int i = 0; i < 16; i++) {
+      if (i == 4 || i == 6 || i == 8 || i == 10) chars[c++] = '-';
+      int b = data[start + i] & 0xFF;
+      chars[c++] = HEX[b >>> 4];
+      chars[c++] = HEX[b & 0x0F];
+    }
+    return new String(chars);
+  }
+
+  private String ipv4Text(int start) {
+    StringBuilder ip = new StringBuilder(15);
+    for (int i = 0; i < 4; i++) {
+      if (i > 0) ip.append('.');
+      ip.append(data[start + i] & 0xFF);
+    }
+    return ip.toString();
+  }
+
+  private static byte[][] encodeAll(String[] values) {
+    byte[][] encoded = new byte[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      encoded[i] = Utf8.encode(values[i]);
+    }
+    return encoded;
+  }
+}
@@ -0,0 +1,87 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * DecodedLogEntryView
+ *
+ * <p>Fallback view for codecs without a field index (Smile, CBOR): still deferred until the first
+ * read, but that read decodes the whole record.
+ */
+class DecodedLogEntryView extends AbstractLogEntryView {
+  private final LogCodec codec;
+  private final byte[] data;
+  private LogEntry decoded;
+
+  DecodedLogEntryView(LogCodec codec, byte[] data) {
+    this.codec = codec;
+    this.data = data;
+  }
+
+  private LogEntry decoded() {
+    if (decoded == null) {
+      try {
+        decoded = codec.decode(data);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return decoded;
+  }
+
+  @Override
+  public Instant getTimestamp() {
+    return decoded().getTimestamp();
+  }
+
+  @Override
+  public int getDurationMS() {
+    return decoded().getDurationMS();
+  }
+
+  @Override
+  public String getString(LogField field) {
+    LogEntry logEntry = decoded();
+    switch (field) {
+      case id:
+        return logEntry.getID();
+      case timestamp:
+        Instant timestamp = logEntry.getTimestamp();
+        return timestamp == null ? null : timestamp.toString();
+      case level:
+        return logEntry.getLevel();
+      case service:
+        return logEntry.getService();
+      case message:
+        return logEntry.getMessage();
+      case userID:
+        return logEntry.getUserID();
+      case ipAddr:
+        return logEntry.getIpAddr();
+      case durationMS:
+        return String.valueOf(logEntry.getDurationMS());
+      default:
+        throw new IllegalArgumentException("Unknown field: " + field);
+    }
+  }
+
+  @Override
+  public boolean isNull(LogField field) {
+    return field != LogField.durationMS && getString(field) == null;
+  }
+
+  @Override
+  public LogEntry toLogEntry() {
+    return decoded();
+  }
+
+  @Override
+  public void readInto(MutableLogEntry target) {
+    target.copyFrom(decoded());
+  }
+}
@@ -0,0 +1,53 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.util.JsonUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JacksonCodec
+ *
+ * <p>Any Jackson data format (JSON, Smile, CBOR). Field names still travel with every record; Smile
+ * and CBOR only save on punctuation, number and string framing.
+ */
+public class JacksonCodec implements LogCodec {
+  private final CodecType type;
+  private final ObjectWriter writer;
+  private final ObjectReader reader;
+
+  public JacksonCodec(CodecType type, JsonFactory factory) {
+    ObjectMapper mapper = JsonUtil.newObjectMapper(factory);
+
+    this.type = type;
+    this.writer = mapper.writerFor(LogEntry.class);
+    this.reader = mapper.readerFor(LogEntry.class);
+  }
+
+  @Override
+  public CodecType getType() {
+    return this.type;
+  }
+
+  @Override
+  public void encode(LogEntry logEntry, OutputStream out) throws IOException {
+    writer.writeValue(out, logEntry);
+  }
+
+  @Override
+  public LogEntry decode(byte[] data) throws IOException {
+    return reader.readValue(data);
+  }
+
+  @Override
+  public LogEntryView view(byte[] data) {
+    if (type == CodecType.json) return new JsonLogEntryView(data);
+    return LogCodec.super.view(data);
+  }
+}
@@ -0,0 +1,337 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * JsonLogEntryView
+ *
+ * <p>Makes one pass over the top-level JSON object, recording where each known field's value starts
+ * and ends, but only as far as the fields read so far required: a filter on {@code level} stops
+ * scanning once it found the level. Unknown fields and nested values are skipped without being
+ * parsed. Strings are only materialised when read, and only unescaped when they actually contain
+ * escapes.
+ */
+class JsonLogEntryView extends AbstractLogEntryView {
+  private static final int FIELDS = LogField.values().length;
+
+  private static final byte ABSENT = 0;
+  private static final byte STRING = 1;
+  private static final byte ESCAPED_STRING = 2;
+  private static final byte SCALAR = 3;
+  private static final byte NULL = 4;
+  private static final byte COMPOSITE = 5;
+
+  private final byte[] data;
+  private final int[] starts = new int[FIELDS];
+  private final int[] ends = new int[FIELDS];
+  private final byte[] kinds = new byte[FIELDS];
+  private boolean indexed;
+
+  /** Where the next unindexed member starts; -1 before the opening brace was read. */
+  private int position = -1;
+
+  /** Set by {@link #scanString} when the string just scanned contained a backslash. */
+  private boolean lastStringEscaped;
+
+  JsonLogEntryView(byte[] data) {
+    this.data = data;
+  }
+
+  @Override
+  public Instant getTimestamp() {
+    int f = index(LogField.timestamp);
+    switch (kinds[f]) {
+      case STRING:
+      case ESCAPED_STRING:
+        return Instant.parse(getString(LogField.timestamp));
+      case SCALAR:
+        BigDecimal seconds = new BigDecimal(text(f));
+        return Instant.ofEpochSecond(
+            seconds.longValue(), seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public int getDurationMS() {
+    int f = index(LogField.durationMS);
+    switch (kinds[f]) {
+      case SCALAR:
+        return parseInt(starts[f], ends[f]);
+      case STRING:
+      case ESCAPED_STRING:
+        return Integer.parseInt(getString(LogField.durationMS).trim());
+      default:
+        return 0;
+    }
+  }
+
+  @Override
+  public String getString(LogField field) {
+    int f = index(field);
+    switch (kinds[f]) {
+      case STRING:
+      case SCALAR:
+      case COMPOSITE:
+        return text(f);
+      case ESCAPED_STRING:
+        return unescape(text(f));
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public boolean isNull(LogField field) {
+    byte kind = kinds[index(field)];
+    return kind == ABSENT || kind == NULL;
+  }
+
+  @Override
+  public boolean matches(LogField field, byte[] value) {
+    int f = index(field);
+    if (kinds[f] == STRING) {
+      return Utf8.regionEquals(data, starts[f], ends[f] - starts[f], value);
+    }
+    return super.matches(field, value);
+  }
+
+  @Override
+  public boolean contains(LogField field, byte[] value) {
+    int f = index(field);
+    if (kinds[f] == STRING) {
+      return Utf8.indexOf(data, starts[f], ends[f], value) >= 0;
+    }
+    return super.contains(field, value);
+  }
+
+  @Override
+  public void readInto(MutableLogEntry target) {
+    target.setID(getID());
+    target.setMessage(getMessage());
+    target.setUserID(getUserID());
+    target.setIpAddr(getIpAddr());
+    target.setDurationMS(getDurationMS());
+
+    int f = index(LogField.timestamp);
+    if (kinds[f] == STRING) {
+      target.setTimestampMillis(Timestamps.parseIsoMillis(data, starts[f], ends[f] - starts[f]));
+    } else {
+      Instant timestamp = getTimestamp();
+      target.setTimestampMillis(timestamp == null ? Timestamps.NONE : timestamp.toEpochMilli());
+    }
+
+    f = index(LogField.level);
+    Level level = kinds[f] == STRING ? Level.fromBytes(data, starts[f], ends[f] - starts[f]) : null;
+    if (level != null) target.setLevel(level);
+    else target.setLevelName(getLevel());
+
+    f = index(LogField.service);
+    if (kinds[f] == STRING) {
+      target.setService(ServiceNames.intern(data, starts[f], ends[f] - starts[f]));
+    } else {
+      target.setService(getService());
+    }
+  }
+
+  private String text(int f) {
+    return new String(data, starts[f], ends[f] - starts[f], StandardCharsets.UTF_8);
+  }
+
+  /** Indexes members until {@code field} turns up, so a filter only scans as far as it reads. */
+  private int index(LogField field) {
+    int f = field.ordinal();
+    while (kinds[f] == ABSENT && !indexed) indexNextMember();
+    return f;
+  }
+
+  /** Indexes the member at {@link #position}; sets {@link #indexed} once the object ends. */
+  private void indexNextMember() {
+    int i = position;
+    if (i < 0) {
+      i = skipWhitespace(0);
+      expect(i, '{');
+      i = skipWhitespace(i + 1);
+      if (at(i) == '}') {
+        indexed = true;
+        return;
+      }
+    }
+
+    expect(i, '"');
+    int keyEnd = scanString(i);
+    LogField field = lastStringEscaped ? null : LogField.fromJsonName(data, i + 1, keyEnd - i - 1);
+
+    i = skipWhitespace(keyEnd + 1);
+    expect(i, ':');
+    i = skipWhitespace(i + 1);
+
+    int start = i;
+    byte kind;
+    switch (at(i)) {
+      case '"':
+        i = scanString(i) + 1;
+        kind = lastStringEscaped ? ESCAPED_STRING : STRING;
+        break;
+      case '{':
+      case '[':
+        i = skipComposite(i);
+        kind = COMPOSITE;
+        break;
+      default:
+        i = scanScalar(i);
+        kind = isNullLiteral(start, i) ? NULL : SCALAR;
+    }
+
+    // The first occurrence of a duplicated field wins, however far the scan has got.
+    if (field != null && kinds[field.ordinal()] == ABSENT) {
+      int f = field.ordinal();
+      boolean quoted = kind == STRING || kind == ESCAPED_STRING;
+      kinds[f] = kind;
+      starts[f] = quoted ? start + 1 : start;
+      ends[f] = quoted ? i - 1 : i;
+    }
+
+    i = skipWhitespace(i);
+    if (at(i) == '}') {
+      indexed = true;
+      return;
+    }
+    expect(i, ',');
+    position = skipWhitespace(i + 1);
+  }
+
+  /** Returns the index of the closing quote of the string opening at {@code i}. */
+  private int scanString(int i) {
+    lastStringEscaped = false;
+    for (int j = i + 1; ; j++) {
+      byte b = at(j);
+      if (b == '"') return j;
+      if (b == '\\') {
+        lastStringEscaped = true;
+        j++;
+      }
+    }
+  }
+
+  private int scanScalar(int i) {
+    int j = i;
+    while (j < data.length) {
+      byte b = data[j];
+      if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) break;
+      j++;
+    }
+    if (j == i) throw malformed(i);
+    return j;
+  }
+
+  /** Skips a nested object or array, returning the index just past its closing bracket. */
+  private int skipComposite(int i) {
+    int depth = 0;
+    for (int j = i; ; j++) {
+      byte b = at(j);
+      if (b == '"') {
+        j = scanString(j);
+      } else if (b == '{' || b == '[') {
+        depth++;
+      } else if ((b == '}' || b == ']') && --depth == 0) {
+        return j + 1;
+      }
+    }
+  }
+
+  private boolean isNullLiteral(int start, int end) {
+    return end - start == 4
+        && data[start] == 'n'
+        && data[start + 1] == 'u'
+        && data[start + 2] == 'l'
+        && data[start + 3] == 'l';
+  }
+
+  private int parseInt(int start, int end) {
+    boolean negative = data[start] == '-';
+    long value = 0;
+    for (int i = negative ? start + 1 : start; i < end; i++) {
+      byte b = data[i];
+      if (b < '0' || b > '9') {
+        return (int)
+            Double.parseDouble(new String(data, start, end - start, StandardCharsets.UTF_8));
+      }
+      value = value * 10 + (b - '0');
+    }
+    return (int) (negative ? -value : value);
+  }
+
+  private int skipWhitespace(int i) {
+    while (i < data.length && isWhitespace(data[i])) i++;
+    return i;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private byte at(int i) {
+    if (i >= data.length) throw malformed(i);
+    return data[i];
+  }
+
+  private void expect(int i, char c) {
+    if (at(i) != c) throw malformed(i);
+  }
+
+  private UncheckedIOException malformed(int i) {
+    return new UncheckedIOException(new IOException("Malformed JSON log at byte " + i));
+  }
+
+  private static String unescape(String raw) {
+    StringBuilder out = new StringBuilder(raw.length());
+    for (int i = 0; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (c != '\\' || i + 1 >= raw.length()) {
+        out.append(c);
+        continue;
+      }
+
+      char escaped = raw.charAt(++i);
+      switch (escaped) {
+        case 'b':
+          out.append('\b');
+          break;
+        case 'f':
+          out.append('\f');
+          break;
+        case 'n':
+          out.append('\n');
+          break;
+        case 'r':
+          out.append('\r');
+          break;
+        case 't':
+          out.append('\t');
+          break;
+        case 'u':
+          if (i + 4 >= raw.length()) {
+            throw new UncheckedIOException(new IOException("Truncated \\u escape in JSON log"));
+          }
+          out.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+          i += 4;
+          break;
+        default:
+          out.append(escaped);
+      }
+    }
+    return out.toString();
+  }
+}
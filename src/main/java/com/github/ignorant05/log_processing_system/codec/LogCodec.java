@@ -0,0 +1,40 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * LogCodec
+ *
+ * <p>Encodes a {@link LogEntry} to and from its wire representation. Implementations must be
+ * stateless and thread-safe: a single instance is shared by every producer and consumer thread.
+ */
+public interface LogCodec {
+  public CodecType getType();
+
+  public void encode(LogEntry logEntry, OutputStream out) throws IOException;
+
+  public LogEntry decode(byte[] data) throws IOException;
+
+  /**
+   * Wraps {@code data} without decoding it. Codecs that can locate fields in their own layout
+   * override this to decode field by field; the default decodes everything on first access.
+   */
+  public default LogEntryView view(byte[] data) {
+    return new DecodedLogEntryView(this, data);
+  }
+
+  /** Decodes {@code data} into a reusable entry, see {@link LogEntryView#readInto}. */
+  public default void decodeInto(byte[] data, MutableLogEntry target) throws IOException {
+    try {
+      view(data).readInto(target);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * LogCodecs
+ *
+ * <p>Registry of the available {@link LogCodec}s and of the record header that announces which one
+ * encoded a record. The header value is the single-byte {@link CodecType#getID()}; records without
+ * the header predate it and are treated as the consumer's default codec (JSON unless told
+ * otherwise), so a topic may freely mix formats.
+ */
+public final class LogCodecs {
+  public static final String HEADER = "klog-codec";
+
+  private static final Map<CodecType, LogCodec> codecs = new EnumMap<>(CodecType.class);
+
+  static {
+    codecs.put(CodecType.json, new JacksonCodec(CodecType.json, new JsonFactory()));
+    codecs.put(CodecType.smile, new JacksonCodec(CodecType.smile, new SmileFactory()));
+    codecs.put(CodecType.cbor, new JacksonCodec(CodecType.cbor, new CBORFactory()));
+    codecs.put(CodecType.binary, new BinaryCodec());
+  }
+
+  private static final byte[][] headerValues = new byte[CodecType.values().length][];
+
+  static {
+    for (CodecType type : CodecType.values()) {
+      headerValues[type.ordinal()] = new byte[] {type.getID()};
+    }
+  }
+
+  private LogCodecs() {}
+
+  public static LogCodec get(CodecType type) {
+    return codecs.get(type);
+  }
+
+  /** Adds the header announcing {@code codec}, replacing any previous announcement. */
+  public static void announce(Headers headers, LogCodec codec) {
+    headers.remove(HEADER);
+    headers.add(HEADER, headerValues[codec.getType().ordinal()]);
+  }
+
+  /** Resolves the codec announced in {@code headers}, or {@code fallback} if there is none. */
+  public static LogCodec fromHeaders(Headers headers, LogCodec fallback) {
+    if (headers == null) return fallback;
+
+    Header header = headers.lastHeader(HEADER);
+    if (header == null || header.value() == null || header.value().length != 1) return fallback;
+
+    return get(CodecType.fromID(header.value()[0]));
+  }
+}
@@ -1,23 +1,100 @@
 package com.github.ignorant05.log_processing_system.config;
 
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryDeserializer;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
+import com.github.ignorant05.log_processing_system.model.DeliveryMode;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
 import java.util.Properties;
+import org.apache.kafka.clients.producer.ProducerConfig;
 
 /** KafkaConfig */
 public class KafkaConfig {
 
   private KafkaConfig() {}
 
+  /** {@link ProducerProfile#balanced} settings, with the LogEntry serializers. */
   public static Properties getProducerConfig(String bootstrapServers) {
-    Properties props = new Properties();
+    Properties props = getProducerConfig(bootstrapServers, ProducerProfile.balanced);
 
-    props.put("bootstrap.servers", bootstrapServers);
     props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-    props.put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-    props.put("acks", "1");
-    props.put("retries", 3);
-    props.put("linger.ms", 1);
-    props.put("buffer.memory", 33554432); // 32MB
+    props.put("value.serializer", LogEntrySerializer.class.getName());
+
+    return props;
+  }
+
+  /** Producer settings for {@code profile}; serializers are left to the caller. */
+  public static Properties getProducerConfig(String bootstrapServers, ProducerProfile profile) {
+    Properties props = new Properties();
+
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB
+
+    switch (profile) {
+      case throughput:
+        props.put(ProducerConfig.ACKS_CONFIG, "1");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144); // 256KB
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 50);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 134217728); // 128MB
+        break;
+      case latency:
+        props.put(ProducerConfig.ACKS_CONFIG, "1");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384); // 16KB
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+        break;
+      case durable:
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536); // 64KB
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        break;
+      case balanced:
+      default:
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384); // 16KB
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+    }
+
+    return props;
+  }
+
+  /**
+   * Overrides {@code props} for {@code mode}. Idempotence needs acks=all and retries, and keeps
+   * ordering with up to five requests in flight per connection, so both idempotent and
+   * transactional modes lift the profile's in-flight limit to 5.
+   *
+   * @param transactionalID required for {@link DeliveryMode#transactional}, ignored otherwise
+   */
+  public static Properties applyDeliveryMode(
+      Properties props, DeliveryMode mode, String transactionalID) {
+    if (mode == DeliveryMode.plain) return props;
+
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+    props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
 
+    if (mode == DeliveryMode.transactional) {
+      if (transactionalID == null || transactionalID.isEmpty()) {
+        throw new IllegalArgumentException("Transactional delivery needs a transactional id");
+      }
+      props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalID);
+    }
     return props;
   }
 
@@ -25,8 +102,8 @@ public class KafkaConfig {
     Properties props = new Properties();
 
     props.put("bootstrap.servers", bootstrapServers);
-    props.put("key.serializer", "org.apache.kafka.common.serialization.StringDeserializer");
-    props.put("value.serializer", "org.apache.kafka.common.serialization.StringDeserializer");
+    props.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+    props.put("value.deserializer", LogEntryDeserializer.class.getName());
     props.put("enable.auto.commit", "true");
     props.put("auto.commit.interval.ms", "1000");
     props.put("auto.offset.reset", "earliest");
@@ -0,0 +1,57 @@
+package com.github.ignorant05.log_processing_system.filter;
+
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * LogEntryPredicates
+ *
+ * <p>Filters evaluated against a {@link LogEntryView}. Expected values are encoded to UTF-8 once,
+ * when the predicate is built, so testing a record only compares bytes.
+ */
+public final class LogEntryPredicates {
+
+  private LogEntryPredicates() {}
+
+  public static Predicate<LogEntryView> acceptAll() {
+    return view -> true;
+  }
+
+  /** The field equals one of {@code values}; an empty collection accepts everything. */
+  public static Predicate<LogEntryView> fieldIn(LogField field, Collection<String> values) {
+    if (values == null || values.isEmpty()) return acceptAll();
+
+    byte[][] expected = values.stream().map(Utf8::encode).toArray(byte[][]::new);
+    return view -> {
+      for (byte[] value : expected) {
+        if (view.matches(field, value)) return true;
+      }
+      return false;
+    };
+  }
+
+  public static Predicate<LogEntryView> levelIn(Collection<String> levels) {
+    return fieldIn(LogField.level, levels);
+  }
+
+  public static Predicate<LogEntryView> serviceIn(Collection<String> services) {
+    return fieldIn(LogField.service, services);
+  }
+
+  public static Predicate<LogEntryView> fieldContains(LogField field, String needle) {
+    byte[] expected = Utf8.encode(needle);
+    return view -> view.contains(field, expected);
+  }
+
+  /** {@code durationMS} is present and within {@code [min, max]}. */
+  public static Predicate<LogEntryView> durationBetween(long min, long max) {
+    return view -> {
+      if (view.isNull(LogField.durationMS)) return false;
+      long duration = view.getDurationMS();
+      return duration >= min && duration <= max;
+    };
+  }
+}
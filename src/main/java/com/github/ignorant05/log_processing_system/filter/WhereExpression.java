@@ -0,0 +1,279 @@
+package com.github.ignorant05.log_processing_system.filter;
+
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * WhereExpression
+ *
+ * <p>Compiles {@code consume --where} expressions into {@link LogEntryPredicates}, so a record is
+ * tested against its raw bytes and only on the fields the expression names. For example:
+ *
+ * <pre>
+ * level in (ERROR, WARN) and durationMS &gt; 2000
+ * service = payment-service and not message contains 'retry'
+ * ipAddr contains "10.0." or durationMS between 500 and 1000
+ * </pre>
+ *
+ * <p>Text fields ({@code id}, {@code level}, {@code service}, {@code message}, {@code userID},
+ * {@code ipAddr}) take {@code =}, {@code !=}, {@code in (...)} and {@code contains}; {@code
+ * durationMS} takes {@code = != > >= < <=} and {@code between .. and ..}. Conditions combine with
+ * {@code not}, {@code and}, {@code or} and parentheses, in that order of precedence, and
+ * short-circuit. Keywords and field names are case-insensitive, level names are upper-cased, other
+ * values are compared as written; quote values containing spaces or punctuation.
+ */
+public final class WhereExpression {
+  private static final Set<String> COMPARISONS = Set.of("=", "==", "!=", ">", ">=", "<", "<=");
+
+  private final String source;
+  private final List<Token> tokens;
+  private int next;
+
+  private enum Kind {
+    WORD,
+    QUOTED,
+    SYMBOL,
+    END
+  }
+
+  private static final class Token {
+    final Kind kind;
+    final String text;
+    final int column;
+
+    Token(Kind kind, String text, int column) {
+      this.kind = kind;
+      this.text = text;
+      this.column = column;
+    }
+
+    boolean isKeyword(String keyword) {
+      return kind == Kind.WORD && text.equalsIgnoreCase(keyword);
+    }
+
+    boolean isSymbol(String symbol) {
+      return kind == Kind.SYMBOL && text.equals(symbol);
+    }
+  }
+
+  private WhereExpression(String source) {
+    this.source = source;
+    this.tokens = tokenize(source);
+  }
+
+  /**
+   * @throws IllegalArgumentException describing the first problem and its column
+   */
+  public static Predicate<LogEntryView> compile(String expression) {
+    if (expression == null || expression.isBlank()) return LogEntryPredicates.acceptAll();
+
+    WhereExpression parser = new WhereExpression(expression);
+    Predicate<LogEntryView> predicate = parser.parseOr();
+    if (parser.peek().kind != Kind.END) throw parser.error("Expected 'and', 'or' or the end");
+    return predicate;
+  }
+
+  private Predicate<LogEntryView> parseOr() {
+    Predicate<LogEntryView> predicate = parseAnd();
+    while (peek().isKeyword("or")) {
+      next++;
+      predicate = predicate.or(parseAnd());
+    }
+    return predicate;
+  }
+
+  private Predicate<LogEntryView> parseAnd() {
+    Predicate<LogEntryView> predicate = parseNot();
+    while (peek().isKeyword("and")) {
+      next++;
+      predicate = predicate.and(parseNot());
+    }
+    return predicate;
+  }
+
+  private Predicate<LogEntryView> parseNot() {
+    if (peek().isKeyword("not")) {
+      next++;
+      return parseNot().negate();
+    }
+    if (peek().isSymbol("(")) {
+      next++;
+      Predicate<LogEntryView> predicate = parseOr();
+      expectSymbol(")");
+      return predicate;
+    }
+    return parseCondition();
+  }
+
+  private Predicate<LogEntryView> parseCondition() {
+    Token name = peek();
+    LogField field = name.kind == Kind.WORD ? fieldNamed(name.text) : null;
+    if (field == null || field == LogField.timestamp) {
+      throw error("Expected one of id, level, service, message, userID, ipAddr, durationMS");
+    }
+    next++;
+    return field == LogField.durationMS ? parseDuration() : parseText(field);
+  }
+
+  private Predicate<LogEntryView> parseText(LogField field) {
+    Token operator = peek();
+    if (!operator.isSymbol("=")
+        && !operator.isSymbol("==")
+        && !operator.isSymbol("!=")
+        && !operator.isKeyword("contains")
+        && !operator.isKeyword("in")) {
+      throw error("Expected =, !=, in or contains after " + field.getJsonName());
+    }
+    next++;
+
+    if (operator.isSymbol("=") || operator.isSymbol("==")) {
+      return LogEntryPredicates.fieldIn(field, List.of(value(field)));
+    }
+    if (operator.isSymbol("!=")) {
+      return LogEntryPredicates.fieldIn(field, List.of(value(field))).negate();
+    }
+    if (operator.isKeyword("contains")) {
+      return LogEntryPredicates.fieldContains(field, value(field));
+    }
+    expectSymbol("(");
+    List<String> values = new ArrayList<>();
+    do {
+      values.add(value(field));
+    } while (acceptSymbol(","));
+    expectSymbol(")");
+    return LogEntryPredicates.fieldIn(field, values);
+  }
+
+  private Predicate<LogEntryView> parseDuration() {
+    Token operator = peek();
+    if (operator.isKeyword("between")) {
+      next++;
+      long min = number();
+      if (!peek().isKeyword("and")) throw error("Expected 'and' in between");
+      next++;
+      return LogEntryPredicates.durationBetween(min, number());
+    }
+    if (operator.kind != Kind.SYMBOL || !COMPARISONS.contains(operator.text)) {
+      throw error("Expected =, !=, >, >=, <, <= or between after durationMS");
+    }
+    next++;
+
+    long value = number();
+    switch (operator.text) {
+      case ">":
+        // Nothing is past the largest long, and value + 1 would wrap round to match everything.
+        if (value == Long.MAX_VALUE) return view -> false;
+        return LogEntryPredicates.durationBetween(value + 1, Long.MAX_VALUE);
+      case ">=":
+        return LogEntryPredicates.durationBetween(value, Long.MAX_VALUE);
+      case "<":
+        if (value == Long.MIN_VALUE) return view -> false;
+        return LogEntryPredicates.durationBetween(Long.MIN_VALUE, value - 1);
+      case "<=":
+        return LogEntryPredicates.durationBetween(Long.MIN_VALUE, value);
+      case "!=":
+        return LogEntryPredicates.durationBetween(value, value).negate();
+      default:
+        return LogEntryPredicates.durationBetween(value, value);
+    }
+  }
+
+  private String value(LogField field) {
+    Token token = peek();
+    if (token.kind != Kind.WORD && token.kind != Kind.QUOTED) throw error("Expected a value");
+    next++;
+    return field == LogField.level ? token.text.toUpperCase(Locale.ROOT) : token.text;
+  }
+
+  private long number() {
+    Token token = peek();
+    try {
+      if (token.kind != Kind.WORD) throw new NumberFormatException();
+      long value = Long.parseLong(token.text);
+      next++;
+      return value;
+    } catch (NumberFormatException e) {
+      throw error("Expected a whole number of milliseconds");
+    }
+  }
+
+  private boolean acceptSymbol(String symbol) {
+    if (!peek().isSymbol(symbol)) return false;
+    next++;
+    return true;
+  }
+
+  private void expectSymbol(String symbol) {
+    if (!acceptSymbol(symbol)) throw error("Expected '" + symbol + "'");
+  }
+
+  private Token peek() {
+    return tokens.get(next);
+  }
+
+  private IllegalArgumentException error(String message) {
+    Token token = peek();
+    String found = token.kind == Kind.END ? "end of expression" : "'" + token.text + "'";
+    return new IllegalArgumentException(
+        String.format(
+            "%s at column %d, found %s: %s", message, token.column + 1, found, source.strip()));
+  }
+
+  private static LogField fieldNamed(String name) {
+    for (LogField field : LogField.values()) {
+      if (field.getJsonName().equalsIgnoreCase(name)) return field;
+    }
+    return null;
+  }
+
+  private static List<Token> tokenize(String source) {
+    List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < source.length()) {
+      char c = source.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '\'' || c == '"') {
+        int close = source.indexOf(c, i + 1);
+        if (close < 0) {
+          throw new IllegalArgumentException(
+              String.format("Unterminated quote at column %d: %s", i + 1, source.strip()));
+        }
+        tokens.add(new Token(Kind.QUOTED, source.substring(i + 1, close), i));
+        i = close + 1;
+      } else if (c == '(' || c == ')' || c == ',') {
+        tokens.add(new Token(Kind.SYMBOL, String.valueOf(c), i));
+        i++;
+      } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+        int end = i + 1 < source.length() && source.charAt(i + 1) == '=' ? i + 2 : i + 1;
+        String symbol = source.substring(i, end);
+        if (symbol.equals("!")) {
+          throw new IllegalArgumentException(
+              String.format("Expected '!=' at column %d: %s", i + 1, source.strip()));
+        }
+        tokens.add(new Token(Kind.SYMBOL, symbol, i));
+        i = end;
+      } else {
+        int start = i;
+        while (i < source.length() && isWordChar(source.charAt(i))) i++;
+        if (i == start) {
+          throw new IllegalArgumentException(
+              String.format("Unexpected '%c' at column %d: %s", c, i + 1, source.strip()));
+        }
+        tokens.add(new Token(Kind.WORD, source.substring(start, i), start));
+      }
+    }
+    tokens.add(new Token(Kind.END, "", source.length()));
+    return tokens;
+  }
+
+  /** Bare values cover service names, user IDs, IPv4/IPv6 addresses and numbers. */
+  private static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' || c == ':';
+  }
+}
@@ -1,55 +1,154 @@
 package com.github.ignorant05.log_processing_system.generator;
 
+import com.github.ignorant05.log_processing_system.model.Level;
 import com.github.ignorant05.log_processing_system.model.LogEntry;
 import java.time.Instant;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.UUID;
 
-/** LogGenerator */
+/**
+ * LogGenerator
+ *
+ * <p>Produces synthetic logs shaped by a {@link WorkloadProfile}. Each instance owns its own {@link
+ * SplittableRandom}, so generate workers never contend on a shared one; give every thread its own
+ * instance, split from one seeded root for a reproducible run. {@link #generateRandomLog()} is kept
+ * for one-off callers and uses a per-thread instance.
+ *
+ * <p>Everything but the timestamp follows from the seed: ids are random version 4 UUIDs drawn from
+ * the same source instead of {@link UUID#randomUUID()}, which goes through {@code SecureRandom}.
+ */
 public class LogGenerator {
-  private static final Random random = new Random();
-  private static final String[] LEVELS = {
-    "INFO", "WARN", "ERROR", "DEBUG",
-  };
-  private static final String[] SERVICES = {
-    "payment-service",
-    "fraud-service",
-    "mail-service",
-    "api-gateway",
-    "database",
-    "auth-service",
-    "notification-service",
-    "cache-service",
-  };
-  private static final String[] MESSAGES = {
-    "Payment success",
-    "User logged in successfully",
-    "Unauthorized request",
-    "Connection pool exhausted",
-    "Email sent successfully",
-    "User notified",
-    "Database query proceeded",
-    "High memory usage detected",
+  private static final ThreadLocal<LogGenerator> perThread =
+      ThreadLocal.withInitial(LogGenerator::new);
+
+  /** Messages by {@link Level} ordinal. */
+  private static final String[][] MESSAGES = {
+    {"Entering request handler", "Span started", "Cache probe"},
+    {"Cache miss, loading from database", "Query plan selected", "Retry scheduled"},
+    {
+      "Payment success",
+      "User logged in successfully",
+      "Email sent successfully",
+      "User notified",
+      "Database query proceeded",
+      "Request completed",
+    },
+    {"High memory usage detected", "Slow query detected", "Retrying upstream request"},
+    {
+      "Unauthorized request",
+      "Connection pool exhausted",
+      "Upstream timeout",
+      "Payment declined by processor",
+    },
+    {"Out of memory, shutting down", "Data directory not writable"},
   };
 
-  public static LogEntry generateRandomLog() {
-    String level = LEVELS[random.nextInt(LEVELS.length)];
-    String service = SERVICES[random.nextInt(LEVELS.length)];
-    String message = MESSAGES[random.nextInt(LEVELS.length)];
+  private static final Level[] LEVELS = Level.values();
+
+  /** Share of a failing service's logs that are errors during a burst. */
+  private static final double BURST_ERROR_SHARE = 0.8;
+
+  /** How much slower a failing service answers during a burst. */
+  private static final double BURST_SLOWDOWN = 10;
+
+  private final WorkloadProfile workload;
+  private final SplittableRandom random;
+  private final double durationMu;
+
+  private int burstRemaining;
+  private int burstService;
+
+  public LogGenerator() {
+    this(WorkloadProfile.defaults(), new SplittableRandom());
+  }
+
+  public LogGenerator(WorkloadProfile workload, long seed) {
+    this(workload, new SplittableRandom(seed));
+  }
+
+  /**
+   * @param random used by this generator from now on, so not by another at the same time; use
+   *     {@link SplittableRandom#split()} to derive one per worker
+   */
+  public LogGenerator(WorkloadProfile workload, SplittableRandom random) {
+    this.workload = workload;
+    this.random = random;
+    this.durationMu = Math.log(workload.getDurationMedianMS());
+  }
+
+  public LogEntry next() {
+    if (burstRemaining == 0 && random.nextDouble() < workload.getErrorBurstChance()) {
+      burstRemaining = workload.getErrorBurstLength();
+      burstService = workload.getServiceSampler().sample(random);
+    }
+
+    int service = workload.getServiceSampler().sample(random);
+    Level level = nextLevel();
+    double slowdown = 1;
+
+    if (burstRemaining > 0) {
+      burstRemaining--;
+      if (random.nextDouble() < BURST_ERROR_SHARE) {
+        service = burstService;
+        level = Level.ERROR;
+        slowdown = BURST_SLOWDOWN;
+      }
+    }
+
+    if (service == workload.getStormServiceIndex()
+        && random.nextDouble() < workload.getStormErrorShare()) {
+      level = Level.ERROR;
+      slowdown = BURST_SLOWDOWN;
+    }
+
+    String[] messages = MESSAGES[level.ordinal()];
+    int user = workload.userAtRank(workload.getUserSampler().sample(random));
 
     return LogEntry.builder()
-        .id(UUID.randomUUID().toString())
+        .id(nextID())
         .timestamp(Instant.now())
-        .level(level)
-        .service(service)
-        .message(message)
-        .userID("user-" + random.nextInt(100))
-        .ipAddr(generateRandomIP())
-        .durationMS(random.nextInt(3600))
+        .level(level.name())
+        .service(WorkloadProfile.SERVICES[service])
+        .message(messages[random.nextInt(messages.length)])
+        .userID(workload.getUserID(user))
+        .ipAddr(workload.getIpAddr(user))
+        .durationMS(nextDurationMS(slowdown))
         .build();
   }
 
+  private Level nextLevel() {
+    double[] cumulative = workload.getLevelCumulative();
+    double u = random.nextDouble();
+    for (int i = 0; i < cumulative.length; i++) {
+      if (u < cumulative[i]) return LEVELS[i];
+    }
+    return LEVELS[cumulative.length - 1];
+  }
+
+  /** Lognormal around the profile's median, capped at an hour. */
+  private int nextDurationMS(double slowdown) {
+    double ms =
+        Math.exp(durationMu + workload.getDurationSigma() * random.nextGaussian()) * slowdown;
+    return (int) Math.min(3_600_000, Math.round(ms));
+  }
+
+  /** A version 4 UUID from this generator's random source. */
+  public String nextID() {
+    long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(msb, lsb).toString();
+  }
+
+  /** The home IP of a random user. */
+  public String nextIP() {
+    return workload.getIpAddr(workload.userAtRank(workload.getUserSampler().sample(random)));
+  }
+
+  public static LogEntry generateRandomLog() {
+    return perThread.get().next();
+  }
+
   public static String generateRandomIP() {
-    return "192.168." + random.nextInt(255) + "." + random.nextInt(255);
+    return perThread.get().nextIP();
   }
 }
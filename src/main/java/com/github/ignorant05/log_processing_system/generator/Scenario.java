@@ -0,0 +1,342 @@
+package com.github.ignorant05.log_processing_system.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.github.ignorant05.log_processing_system.util.RateProfile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scenario
+ *
+ * <p>A load test as a sequence of timed phases, each with its own rate and workload, read from a
+ * YAML file:
+ *
+ * <pre>
+ * name: black-friday
+ * seed: 42
+ * workload:                 # applies to every phase
+ *   users: 50000
+ * phases:
+ *   - name: warm-up
+ *     duration: 2m
+ *     rate: 500
+ *     rampTo: 2000          # linear over the phase
+ *   - name: diurnal
+ *     duration: 1h
+ *     rate: 2000
+ *     wave: {amplitude: 0.4, period: 20m}
+ *   - name: doors-open
+ *     duration: 5m
+ *     rate: 20000
+ *     workload:
+ *       levels: INFO=70,WARN=15,ERROR=15
+ *       hotUserShift: 1000  # a different set of users is hot now
+ *   - name: payments-down
+ *     duration: 3m
+ *     rate: 8000
+ *     workload:
+ *       errorStorm: {service: payment-service, share: 0.7}
+ * </pre>
+ *
+ * <p>Durations take {@code ms}, {@code s}, {@code m} or {@code h}, plain numbers are seconds. A
+ * phase without a rate runs unthrottled. Workload keys are those of {@link
+ * WorkloadProfile.Builder}: {@code levels}, {@code serviceSkew}, {@code users}, {@code userSkew},
+ * {@code hotUserShift}, {@code durationMedianMS}, {@code durationSigma}, {@code errorBurstChance},
+ * {@code errorBurstLength} and {@code errorStorm}; each phase's settings apply over the scenario's,
+ * which apply over {@code base}.
+ */
+public final class Scenario {
+  private static final ObjectMapper yaml = new ObjectMapper(new YAMLFactory());
+
+  private static final Set<String> SCENARIO_KEYS = Set.of("name", "seed", "workload", "phases");
+  private static final Set<String> PHASE_KEYS =
+      Set.of("name", "duration", "rate", "rampTo", "wave", "workload");
+  private static final Set<String> WORKLOAD_KEYS =
+      Set.of(
+          "levels",
+          "serviceSkew",
+          "users",
+          "userSkew",
+          "hotUserShift",
+          "durationMedianMS",
+          "durationSigma",
+          "errorBurstChance",
+          "errorBurstLength",
+          "errorStorm");
+
+  private final String name;
+  private final Long seed;
+  private final List<Phase> phases;
+
+  private Scenario(String name, Long seed, List<Phase> phases) {
+    this.name = name;
+    this.seed = seed;
+    this.phases = Collections.unmodifiableList(phases);
+  }
+
+  /** One timed stretch of a scenario. */
+  public static final class Phase {
+    private final String name;
+    private final long durationMS;
+    private final Double rate;
+    private final Double rampTo;
+    private final double waveAmplitude;
+    private final long wavePeriodMS;
+    private final WorkloadProfile workload;
+
+    Phase(
+        String name,
+        long durationMS,
+        Double rate,
+        Double rampTo,
+        double waveAmplitude,
+        long wavePeriodMS,
+        WorkloadProfile workload) {
+      this.name = name;
+      this.durationMS = durationMS;
+      this.rate = rate;
+      this.rampTo = rampTo;
+      this.waveAmplitude = waveAmplitude;
+      this.wavePeriodMS = wavePeriodMS;
+      this.workload = workload;
+    }
+
+    public String getName() {
+      return this.name;
+    }
+
+    public long getDurationMS() {
+      return this.durationMS;
+    }
+
+    /** Logs per second at the start of the phase; null when unthrottled. */
+    public Double getRate() {
+      return this.rate;
+    }
+
+    public WorkloadProfile getWorkload() {
+      return this.workload;
+    }
+
+    /** Rate over the phase's elapsed time; null when unthrottled. */
+    public RateProfile getRateProfile() {
+      if (rate == null) return null;
+
+      double start = rate;
+      double end = rampTo != null ? rampTo : rate;
+      long durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMS);
+      long periodNanos = TimeUnit.MILLISECONDS.toNanos(wavePeriodMS);
+      return elapsedNanos -> {
+        double progress = Math.min(1.0, (double) elapsedNanos / durationNanos);
+        double perSecond = start + (end - start) * progress;
+        if (waveAmplitude != 0 && periodNanos > 0) {
+          perSecond *= 1 + waveAmplitude * Math.sin(2 * Math.PI * elapsedNanos / periodNanos);
+        }
+        return perSecond;
+      };
+    }
+
+    /** Highest rate the phase reaches; sizes the limiter's burst. */
+    public double getPeakRate() {
+      if (rate == null) return 0;
+      double peak = Math.max(rate, rampTo != null ? rampTo : rate);
+      return peak * (1 + Math.abs(waveAmplitude));
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder out = new StringBuilder(name).append(": ").append(durationMS / 1000.0);
+      out.append("s at ");
+      if (rate == null) out.append("full speed");
+      else out.append(rate).append(rampTo != null ? " -> " + rampTo : "").append(" logs/s");
+      if (waveAmplitude != 0) {
+        out.append(String.format(" +/-%.0f%% every %ds", waveAmplitude * 100, wavePeriodMS / 1000));
+      }
+      return out.toString();
+    }
+  }
+
+  /**
+   * Reads the scenario in {@code file}.
+   *
+   * @param base workload the scenario's settings apply over, typically the command line's
+   * @throws IOException if the file cannot be read or is not YAML
+   * @throws IllegalArgumentException if the scenario is invalid
+   */
+  public static Scenario load(Path file, WorkloadProfile base) throws IOException {
+    return parse(Files.readString(file), base);
+  }
+
+  static Scenario parse(String text, WorkloadProfile base) throws IOException {
+    JsonNode root = yaml.readTree(text);
+    if (root == null || !root.isObject()) {
+      throw new IllegalArgumentException("Scenario must be a YAML mapping");
+    }
+    checkKeys(root, SCENARIO_KEYS, "scenario");
+
+    String name = root.path("name").asText("scenario");
+    Long seed = root.hasNonNull("seed") ? root.get("seed").asLong() : null;
+    WorkloadProfile workload = applyWorkload(base, root.get("workload"), "scenario workload");
+
+    JsonNode phaseNodes = root.get("phases");
+    if (phaseNodes == null || !phaseNodes.isArray() || phaseNodes.size() == 0) {
+      throw new IllegalArgumentException("Scenario needs a non-empty list of phases");
+    }
+
+    List<Phase> phases = new ArrayList<>(phaseNodes.size());
+    for (int i = 0; i < phaseNodes.size(); i++) {
+      phases.add(parsePhase(phaseNodes.get(i), i + 1, workload));
+    }
+    return new Scenario(name, seed, phases);
+  }
+
+  private static Phase parsePhase(JsonNode node, int number, WorkloadProfile base) {
+    String where = "phase " + number;
+    if (!node.isObject()) throw new IllegalArgumentException(where + " must be a mapping");
+    String name = node.path("name").asText("phase-" + number);
+    where = "phase " + number + " (" + name + ")";
+    checkKeys(node, PHASE_KEYS, where);
+
+    if (!node.hasNonNull("duration"))
+      throw new IllegalArgumentException(where + " needs a duration");
+    long durationMS = parseDurationMS(node.get("duration"), where);
+
+    Double rate = node.hasNonNull("rate") ? positive(node.get("rate"), where + " rate") : null;
+    Double rampTo = null;
+    if (node.hasNonNull("rampTo")) {
+      if (rate == null) throw new IllegalArgumentException(where + " rampTo needs a rate");
+      rampTo = positive(node.get("rampTo"), where + " rampTo");
+    }
+
+    double amplitude = 0;
+    long periodMS = 0;
+    JsonNode wave = node.get("wave");
+    if (wave != null) {
+      if (rate == null) throw new IllegalArgumentException(where + " wave needs a rate");
+      checkKeys(wave, Set.of("amplitude", "period"), where + " wave");
+      amplitude = wave.path("amplitude").asDouble();
+      if (amplitude < 0 || amplitude > 1) {
+        throw new IllegalArgumentException(where + " wave amplitude must be within 0..1");
+      }
+      if (!wave.hasNonNull("period")) {
+        throw new IllegalArgumentException(where + " wave needs a period");
+      }
+      periodMS = parseDurationMS(wave.get("period"), where + " wave");
+    }
+
+    WorkloadProfile workload = applyWorkload(base, node.get("workload"), where + " workload");
+    return new Phase(name, durationMS, rate, rampTo, amplitude, periodMS, workload);
+  }
+
+  private static WorkloadProfile applyWorkload(WorkloadProfile base, JsonNode node, String where) {
+    if (node == null || node.isNull()) return base;
+    checkKeys(node, WORKLOAD_KEYS, where);
+
+    WorkloadProfile.Builder builder = base.toBuilder();
+    if (node.has("levels")) builder.levelMix(node.get("levels").asText());
+    if (node.has("serviceSkew")) builder.serviceSkew(node.get("serviceSkew").asDouble());
+    if (node.has("users")) builder.users(node.get("users").asInt());
+    if (node.has("userSkew")) builder.userSkew(node.get("userSkew").asDouble());
+    if (node.has("hotUserShift")) builder.hotUserShift(node.get("hotUserShift").asInt());
+    if (node.has("durationMedianMS")) {
+      builder.durationMedianMS(node.get("durationMedianMS").asDouble());
+    }
+    if (node.has("durationSigma")) builder.durationSigma(node.get("durationSigma").asDouble());
+    if (node.has("errorBurstChance")) {
+      builder.errorBurstChance(node.get("errorBurstChance").asDouble());
+    }
+    if (node.has("errorBurstLength")) {
+      builder.errorBurstLength(node.get("errorBurstLength").asInt());
+    }
+    JsonNode storm = node.get("errorStorm");
+    if (storm != null) {
+      checkKeys(storm, Set.of("service", "share"), where + " errorStorm");
+      builder.errorStorm(storm.path("service").asText(null), storm.path("share").asDouble(0.5));
+    }
+
+    try {
+      return builder.build();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(where + ": " + e.getMessage(), e);
+    }
+  }
+
+  /** {@code 500ms}, {@code 90s}, {@code 5m}, {@code 1h}, or a number of seconds. */
+  static long parseDurationMS(JsonNode node, String where) {
+    if (node.isNumber()) return Math.round(node.asDouble() * 1000);
+
+    String text = node.asText().trim().toLowerCase();
+    long unitMS;
+    String number;
+    if (text.endsWith("ms")) {
+      unitMS = 1;
+      number = text.substring(0, text.length() - 2);
+    } else if (text.endsWith("s")) {
+      unitMS = 1000;
+      number = text.substring(0, text.length() - 1);
+    } else if (text.endsWith("m")) {
+      unitMS = 60_000;
+      number = text.substring(0, text.length() - 1);
+    } else if (text.endsWith("h")) {
+      unitMS = 3_600_000;
+      number = text.substring(0, text.length() - 1);
+    } else {
+      unitMS = 1000;
+      number = text;
+    }
+
+    try {
+      long ms = Math.round(Double.parseDouble(number.trim()) * unitMS);
+      if (ms <= 0) throw new NumberFormatException();
+      return ms;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(where + ": invalid duration '" + node.asText() + "'");
+    }
+  }
+
+  private static double positive(JsonNode node, String where) {
+    if (!node.isNumber() || node.asDouble() <= 0) {
+      throw new IllegalArgumentException(where + " must be a positive number");
+    }
+    return node.asDouble();
+  }
+
+  private static void checkKeys(JsonNode node, Set<String> allowed, String where) {
+    if (!node.isObject()) throw new IllegalArgumentException(where + " must be a mapping");
+    for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+      String key = names.next();
+      if (!allowed.contains(key)) {
+        throw new IllegalArgumentException(
+            where + ": unknown key '" + key + "', expected one of " + allowed);
+      }
+    }
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  /** The scenario's seed, or null to leave it to the command line. */
+  public Long getSeed() {
+    return this.seed;
+  }
+
+  public List<Phase> getPhases() {
+    return this.phases;
+  }
+
+  public long getDurationMS() {
+    long total = 0;
+    for (Phase phase : phases) total += phase.getDurationMS();
+    return total;
+  }
+}
@@ -0,0 +1,335 @@
+package com.github.ignorant05.log_processing_system.generator;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+
+/**
+ * WorkloadProfile
+ *
+ * <p>Shape of the synthetic traffic a {@link LogGenerator} produces: how skewed services and users
+ * are and which users are the hot ones, the mix of levels, the spread of {@code durationMS}, how
+ * often a service breaks into a burst of errors, and optionally one service failing throughout.
+ * Immutable and safe to share between generators; the user and IP pools and the samplers are built
+ * once here so generating a log never formats them.
+ */
+public final class WorkloadProfile {
+  static final String[] SERVICES = {
+    "api-gateway",
+    "auth-service",
+    "payment-service",
+    "database",
+    "cache-service",
+    "notification-service",
+    "fraud-service",
+    "mail-service",
+  };
+
+  private final double serviceSkew;
+  private final int users;
+  private final double userSkew;
+  private final double[] levelMix;
+  private final double durationMedianMS;
+  private final double durationSigma;
+  private final double errorBurstChance;
+  private final int errorBurstLength;
+  private final int hotUserShift;
+  private final String stormService;
+  private final double stormErrorShare;
+
+  private final int stormServiceIndex;
+  private final ZipfSampler serviceSampler;
+  private final ZipfSampler userSampler;
+  private final double[] levelCumulative;
+  private final String[] userIDs;
+  private final String[] ipAddrs;
+
+  private WorkloadProfile(Builder builder) {
+    this.serviceSkew = builder.serviceSkew;
+    this.users = builder.users;
+    this.userSkew = builder.userSkew;
+    this.levelMix = builder.levelMix.clone();
+    this.durationMedianMS = builder.durationMedianMS;
+    this.durationSigma = builder.durationSigma;
+    this.errorBurstChance = builder.errorBurstChance;
+    this.errorBurstLength = builder.errorBurstLength;
+    this.hotUserShift = builder.hotUserShift;
+    this.stormService = builder.stormService;
+    this.stormErrorShare = builder.stormErrorShare;
+    this.stormServiceIndex = stormService == null ? -1 : indexOfService(stormService);
+
+    this.serviceSampler = new ZipfSampler(SERVICES.length, serviceSkew);
+    this.userSampler = new ZipfSampler(users, userSkew);
+
+    double total = 0;
+    for (double weight : levelMix) total += weight;
+    if (!(total > 0)) throw new IllegalArgumentException("Level mix must have a positive weight");
+    this.levelCumulative = new double[levelMix.length];
+    double running = 0;
+    for (int i = 0; i < levelMix.length; i++) {
+      running += levelMix[i];
+      levelCumulative[i] = running / total;
+    }
+
+    this.userIDs = new String[users];
+    this.ipAddrs = new String[users];
+    for (int user = 0; user < users; user++) {
+      userIDs[user] = "user-" + user;
+      ipAddrs[user] = homeIP(user);
+    }
+  }
+
+  /** 75% INFO, 12% DEBUG, 9% WARN, 4% ERROR; Zipf 1.1 over services and 1.2 over 10,000 users. */
+  public static WorkloadProfile defaults() {
+    return builder().build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** A builder starting from this profile's settings. */
+  public Builder toBuilder() {
+    Builder builder = new Builder();
+    builder.serviceSkew = serviceSkew;
+    builder.users = users;
+    builder.userSkew = userSkew;
+    builder.levelMix = levelMix.clone();
+    builder.durationMedianMS = durationMedianMS;
+    builder.durationSigma = durationSigma;
+    builder.errorBurstChance = errorBurstChance;
+    builder.errorBurstLength = errorBurstLength;
+    builder.hotUserShift = hotUserShift;
+    builder.stormService = stormService;
+    builder.stormErrorShare = stormErrorShare;
+    return builder;
+  }
+
+  public static class Builder {
+    private double serviceSkew = 1.1;
+    private int users = 10_000;
+    private double userSkew = 1.2;
+    private double[] levelMix = defaultLevelMix();
+    private double durationMedianMS = 40;
+    private double durationSigma = 1.0;
+    private double errorBurstChance = 0.0002;
+    private int errorBurstLength = 500;
+    private int hotUserShift;
+    private String stormService;
+    private double stormErrorShare;
+
+    private static double[] defaultLevelMix() {
+      double[] mix = new double[Level.values().length];
+      mix[Level.DEBUG.ordinal()] = 12;
+      mix[Level.INFO.ordinal()] = 75;
+      mix[Level.WARN.ordinal()] = 9;
+      mix[Level.ERROR.ordinal()] = 4;
+      return mix;
+    }
+
+    /** Zipf exponent over services, 0 for uniform. */
+    public Builder serviceSkew(double serviceSkew) {
+      this.serviceSkew = serviceSkew;
+      return this;
+    }
+
+    /** Distinct users, each with a fixed home IP. */
+    public Builder users(int users) {
+      this.users = users;
+      return this;
+    }
+
+    /** Zipf exponent over users, 0 for uniform. */
+    public Builder userSkew(double userSkew) {
+      this.userSkew = userSkew;
+      return this;
+    }
+
+    /**
+     * Relative weights of the levels as {@code LEVEL=weight} pairs, e.g. {@code
+     * INFO=80,WARN=15,ERROR=5}; levels left out never occur.
+     *
+     * @throws IllegalArgumentException on an unknown level or a malformed weight
+     */
+    public Builder levelMix(String spec) {
+      double[] mix = new double[Level.values().length];
+      for (String pair : spec.split(",")) {
+        String[] parts = pair.trim().split("=");
+        Level level = parts.length == 2 ? Level.fromString(parts[0].trim().toUpperCase()) : null;
+        if (level == null) {
+          throw new IllegalArgumentException("Expected LEVEL=weight in level mix, got: " + pair);
+        }
+        double weight = Double.parseDouble(parts[1].trim());
+        if (weight < 0) throw new IllegalArgumentException("Negative weight for " + level);
+        mix[level.ordinal()] = weight;
+      }
+      this.levelMix = mix;
+      return this;
+    }
+
+    /** Median {@code durationMS}; durations are lognormal around it. */
+    public Builder durationMedianMS(double durationMedianMS) {
+      this.durationMedianMS = durationMedianMS;
+      return this;
+    }
+
+    /** Spread of the lognormal durations; about 1 gives a p99 ten times the median. */
+    public Builder durationSigma(double durationSigma) {
+      this.durationSigma = durationSigma;
+      return this;
+    }
+
+    /** Chance per log that a service starts failing, 0 for never. */
+    public Builder errorBurstChance(double errorBurstChance) {
+      this.errorBurstChance = errorBurstChance;
+      return this;
+    }
+
+    /** Logs a burst lasts; most logs of the failing service are errors meanwhile. */
+    public Builder errorBurstLength(int errorBurstLength) {
+      this.errorBurstLength = errorBurstLength;
+      return this;
+    }
+
+    /**
+     * Moves the Zipf head this many users along, so a different set of users becomes the hot keys
+     * while the overall skew stays the same.
+     *
+     * @throws IllegalArgumentException if {@code hotUserShift} is negative
+     */
+    public Builder hotUserShift(int hotUserShift) {
+      if (hotUserShift < 0) {
+        throw new IllegalArgumentException("Hot user shift must not be negative: " + hotUserShift);
+      }
+      this.hotUserShift = hotUserShift;
+      return this;
+    }
+
+    /**
+     * Makes {@code errorShare} of {@code service}'s logs slow errors for as long as the profile is
+     * in use; null for none.
+     *
+     * @throws IllegalArgumentException if {@code service} is not one the generator produces
+     */
+    public Builder errorStorm(String service, double errorShare) {
+      if (service != null) indexOfService(service);
+      this.stormService = service;
+      this.stormErrorShare = errorShare;
+      return this;
+    }
+
+    public WorkloadProfile build() {
+      if (users <= 0) throw new IllegalArgumentException("Need at least one user");
+      if (durationMedianMS <= 0) throw new IllegalArgumentException("Median must be positive");
+      return new WorkloadProfile(this);
+    }
+  }
+
+  private static int indexOfService(String service) {
+    for (int i = 0; i < SERVICES.length; i++) {
+      if (SERVICES[i].equals(service)) return i;
+    }
+    throw new IllegalArgumentException(
+        "Unknown service " + service + ", expected one of " + String.join(", ", SERVICES));
+  }
+
+  /** Spreads user numbers over 10.0.0.0/8 so neighbouring users do not share a subnet. */
+  private static String homeIP(int user) {
+    int host = (int) ((user * 0x9E3779B1L) & 0xFFFFFF);
+    return "10." + (host >>> 16) + "." + ((host >>> 8) & 0xFF) + "." + (host & 0xFF);
+  }
+
+  ZipfSampler getServiceSampler() {
+    return this.serviceSampler;
+  }
+
+  ZipfSampler getUserSampler() {
+    return this.userSampler;
+  }
+
+  double[] getLevelCumulative() {
+    return this.levelCumulative;
+  }
+
+  /** Index in {@link #SERVICES} of the storming service, -1 for none. */
+  int getStormServiceIndex() {
+    return this.stormServiceIndex;
+  }
+
+  double getStormErrorShare() {
+    return this.stormErrorShare;
+  }
+
+  /** The user at Zipf rank {@code rank}. */
+  int userAtRank(int rank) {
+    return (int) ((rank + (long) hotUserShift) % users);
+  }
+
+  String getUserID(int user) {
+    return this.userIDs[user];
+  }
+
+  String getIpAddr(int user) {
+    return this.ipAddrs[user];
+  }
+
+  public double getServiceSkew() {
+    return this.serviceSkew;
+  }
+
+  public int getUsers() {
+    return this.users;
+  }
+
+  public double getUserSkew() {
+    return this.userSkew;
+  }
+
+  public double getDurationMedianMS() {
+    return this.durationMedianMS;
+  }
+
+  public double getDurationSigma() {
+    return this.durationSigma;
+  }
+
+  public double getErrorBurstChance() {
+    return this.errorBurstChance;
+  }
+
+  public int getErrorBurstLength() {
+    return this.errorBurstLength;
+  }
+
+  public int getHotUserShift() {
+    return this.hotUserShift;
+  }
+
+  public String getStormService() {
+    return this.stormService;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder mix = new StringBuilder();
+    for (Level level : Level.values()) {
+      double weight = levelMix[level.ordinal()];
+      if (weight == 0) continue;
+      if (mix.length() > 0) mix.append(',');
+      mix.append(level).append('=').append(weight);
+    }
+    return String.format(
+            "services zipf %.2f, %d users zipf %.2f, levels %s, duration median %.0fms sigma %.2f,"
+                + " error bursts %s per log x %d",
+            serviceSkew,
+            users,
+            userSkew,
+            mix,
+            durationMedianMS,
+            durationSigma,
+            errorBurstChance,
+            errorBurstLength)
+        + (hotUserShift != 0 ? ", hot users shifted by " + hotUserShift : "")
+        + (stormService != null
+            ? String.format(", %s storming at %.0f%% errors", stormService, stormErrorShare * 100)
+            : "");
+  }
+}
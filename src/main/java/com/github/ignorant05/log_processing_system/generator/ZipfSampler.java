@@ -0,0 +1,38 @@
+package com.github.ignorant05.log_processing_system.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * ZipfSampler
+ *
+ * <p>Draws ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^skew}; a
+ * skew of 0 is uniform. The cumulative distribution is built once, so a draw is one random double
+ * and a binary search.
+ */
+final class ZipfSampler {
+  private final double[] cumulative;
+
+  ZipfSampler(int n, double skew) {
+    if (n <= 0) throw new IllegalArgumentException("Zipf needs at least one rank, got " + n);
+    if (skew < 0) throw new IllegalArgumentException("Zipf skew must not be negative: " + skew);
+
+    cumulative = new double[n];
+    double total = 0;
+    for (int rank = 0; rank < n; rank++) {
+      total += 1.0 / Math.pow(rank + 1, skew);
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < n; rank++) cumulative[rank] /= total;
+    cumulative[n - 1] = 1.0;
+  }
+
+  int sample(SplittableRandom random) {
+    int i = Arrays.binarySearch(cumulative, random.nextDouble());
+    return i >= 0 ? i : -i - 1;
+  }
+
+  int size() {
+    return cumulative.length;
+  }
+}
@@ -0,0 +1,279 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.aggregate.ResultWriter;
+import com.github.ignorant05.log_processing_system.aggregate.WindowResult;
+import com.github.ignorant05.log_processing_system.aggregate.WindowedAggregator;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryViewDeserializer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.StageMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+/**
+ * AggregateConsumer
+ *
+ * <p>Feeds {@code topic} to a {@link WindowedAggregator} as a member of the group and hands every
+ * closed window to a {@link ResultWriter}. Aggregating is a few counter updates per log, so it all
+ * runs on the poll thread.
+ *
+ * <p>Window state only lives in memory. Offsets are therefore committed up to the first log of the
+ * oldest window still open, never past it: after a restart, the open windows are rebuilt by reading
+ * those logs again, and a window that was already emitted may be reported twice, never short.
+ *
+ * <p>Each instance of a group only sees its own partitions, so its results are partials that add up
+ * with the other instances' to the whole. When partitions are revoked the open windows, which mix
+ * every assigned partition, are dropped; the partitions kept are read again from their first open
+ * offset, and the revoked ones are left to their new owner from the same point. Their logs are then
+ * counted exactly once, except those that arrived out of order: a log that belongs to a window
+ * already emitted here, but sits past the committed offset, is counted in that window again by the
+ * new owner.
+ */
+public class AggregateConsumer {
+  private static final int MAX_POLL_RECORDS = 500;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  private static final long COMMIT_INTERVAL_MS = 5_000;
+
+  private final Consumer<String, LogEntryView> consumer;
+  private final String topic;
+  private final boolean fromBeginning;
+  private final Predicate<LogEntryView> filter;
+  private final WindowedAggregator aggregator;
+  private final ResultWriter writer;
+  private final MutableLogEntry logEntry = new MutableLogEntry();
+  private final List<WindowResult> results = new ArrayList<>();
+  private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+  private final StageMetrics stageMetrics = metrics.stage("aggregate");
+  private volatile boolean isRunning = true;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  private long messagesConsumed;
+  private long messagesFiltered;
+  private long messagesFailed;
+  private long resultsWritten;
+  private long lastCommitMS;
+
+  /**
+   * @param defaultCodec codec for records that carry no codec header
+   * @param filter evaluated on the undecoded record; rejected records are never materialised
+   */
+  public AggregateConsumer(
+      String bootstrapServers,
+      String groupID,
+      String topic,
+      boolean fromBeginning,
+      CodecType defaultCodec,
+      Predicate<LogEntryView> filter,
+      WindowedAggregator aggregator,
+      ResultWriter writer) {
+    this(
+        newConsumer(bootstrapServers, groupID, defaultCodec),
+        topic,
+        fromBeginning,
+        filter,
+        aggregator,
+        writer);
+  }
+
+  /** Wraps an already configured consumer; it must not auto-commit. */
+  AggregateConsumer(
+      Consumer<String, LogEntryView> consumer,
+      String topic,
+      boolean fromBeginning,
+      Predicate<LogEntryView> filter,
+      WindowedAggregator aggregator,
+      ResultWriter writer) {
+    this.consumer = consumer;
+    this.topic = topic;
+    this.fromBeginning = fromBeginning;
+    this.filter = filter;
+    this.aggregator = aggregator;
+    this.writer = writer;
+    this.stageMetrics.setWorkers(1);
+  }
+
+  private static Consumer<String, LogEntryView> newConsumer(
+      String bootstrapServers, String groupID, CodecType defaultCodec) {
+    Properties props = new Properties();
+    props.setProperty("bootstrap.servers", bootstrapServers);
+    props.setProperty("group.id", groupID);
+    // Offsets of logs in open windows must stay uncommitted; see commit().
+    props.setProperty("enable.auto.commit", "false");
+    props.put("auto.offset.reset", "earliest");
+    props.put("max.poll.records", MAX_POLL_RECORDS);
+    props.put("isolation.level", "read_committed");
+    return new KafkaConsumer<>(
+        props, new StringDeserializer(), new LogEntryViewDeserializer(defaultCodec));
+  }
+
+  /** Makes {@link #consume} return; safe to call from any thread, such as a shutdown hook. */
+  public void stop() {
+    isRunning = false;
+    consumer.wakeup();
+  }
+
+  /**
+   * Waits up to {@code timeoutMS} for {@link #consume} to have committed and closed the consumer.
+   *
+   * @return false if it is still running
+   */
+  public boolean awaitStopped(long timeoutMS) throws InterruptedException {
+    return stopped.await(timeoutMS, TimeUnit.MILLISECONDS);
+  }
+
+  public void consume() {
+    try {
+      run();
+    } finally {
+      stopped.countDown();
+    }
+  }
+
+  private void run() {
+    consumer.subscribe(Collections.singleton(topic), new RebalanceListener());
+    lastCommitMS = System.currentTimeMillis();
+    // False while results are being written, so a failed write leaves their offsets uncommitted.
+    boolean delivered = true;
+
+    try {
+      if (fromBeginning) {
+        consumer.poll(Duration.ofMillis(100));
+        consumer.seekToBeginning(consumer.assignment());
+      }
+
+      while (isRunning) {
+        ConsumerRecords<String, LogEntryView> records;
+        try {
+          records = consumer.poll(POLL_TIMEOUT);
+        } catch (RecordDeserializationException e) {
+          messagesFailed++;
+          System.err.printf(
+              "Failed to process message at offset %d: %s%n",
+              e.offset(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+          consumer.seek(e.topicPartition(), e.offset() + 1);
+          continue;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!records.isEmpty()) aggregate(records, now);
+
+        aggregator.advance(now, results);
+        if (!results.isEmpty()) {
+          delivered = false;
+          writer.write(results);
+          delivered = true;
+          resultsWritten += results.size();
+          results.clear();
+          commit(consumer.assignment());
+        } else if (now - lastCommitMS >= COMMIT_INTERVAL_MS) {
+          commit(consumer.assignment());
+        }
+      }
+    } catch (WakeupException e) {
+      // stop() interrupted a poll; the open windows' offsets are committed below.
+    } finally {
+      try {
+        if (delivered) commit(consumer.assignment());
+      } finally {
+        consumer.close();
+        writer.close();
+        System.out.printf(
+            "Aggregated %d logs into %d results (%d filtered, %d late, %d failed)%n",
+            messagesConsumed - messagesFiltered - messagesFailed - aggregator.getLate(),
+            resultsWritten,
+            messagesFiltered,
+            aggregator.getLate(),
+            messagesFailed);
+      }
+    }
+  }
+
+  private void aggregate(ConsumerRecords<String, LogEntryView> records, long now) {
+    long start = System.nanoTime();
+    for (ConsumerRecord<String, LogEntryView> record : records) {
+      messagesConsumed++;
+      LogEntryView view = record.value();
+      if (view == null) {
+        messagesFailed++;
+        continue;
+      }
+      try {
+        if (!filter.test(view)) {
+          messagesFiltered++;
+          continue;
+        }
+        view.readInto(logEntry.reset());
+        aggregator.add(logEntry, record.partition(), record.offset(), now);
+      } catch (Exception e) {
+        messagesFailed++;
+        System.err.printf("Failed to process message %s%n", e.getMessage());
+      }
+    }
+    metrics.recordConsumed(records.count());
+    stageMetrics.recordBatch(records.count(), System.nanoTime() - start);
+  }
+
+  /**
+   * Commits, for each of {@code partitions}, the first offset still counted only in an open window,
+   * or the position when every log read from it has been emitted.
+   */
+  private void commit(Collection<TopicPartition> partitions) {
+    lastCommitMS = System.currentTimeMillis();
+    if (partitions.isEmpty()) return;
+
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    try {
+      for (TopicPartition partition : partitions) {
+        long first = aggregator.firstOpenOffset(partition.partition());
+        offsets.put(
+            partition, new OffsetAndMetadata(first >= 0 ? first : consumer.position(partition)));
+      }
+      consumer.commitSync(offsets);
+    } catch (WakeupException e) {
+      // A stop() wakes whichever blocking call comes next; the wakeup is spent, so try again.
+      commit(partitions);
+    } catch (KafkaException | IllegalStateException e) {
+      System.err.println("Failed to commit offsets: " + e.getMessage());
+    }
+  }
+
+  private final class RebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      if (partitions.isEmpty()) return;
+
+      Set<TopicPartition> assigned = consumer.assignment();
+      commit(assigned);
+      for (TopicPartition partition : assigned) {
+        long first = aggregator.firstOpenOffset(partition.partition());
+        if (first >= 0 && !partitions.contains(partition)) consumer.seek(partition, first);
+      }
+      aggregator.discardOpen();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {}
+  }
+}
@@ -0,0 +1,129 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+/**
+ * CommitManager
+ *
+ * <p>Commits what the {@link OffsetTracker} reports as processed, by hand: asynchronously once
+ * {@code everyRecords} records have completed or {@code intervalMS} has passed, whichever comes
+ * first, and synchronously when the consumer is about to lose its partitions (revocation and
+ * shutdown). Offsets never go past a partition's lowest unfinished record, so a crash replays at
+ * most what was in flight: at-least-once.
+ *
+ * <p>At most one asynchronous commit is outstanding. A failed one is not retried as such; its
+ * partitions are included in the next commit, whose offsets are at least as new. Poll thread only:
+ * Kafka runs the commit callbacks there too.
+ */
+final class CommitManager {
+  static final long DEFAULT_EVERY_RECORDS = 5_000;
+  static final long DEFAULT_INTERVAL_MS = 1_000;
+
+  private final Consumer<?, ?> consumer;
+  private final OffsetTracker tracker;
+  private final long everyRecords;
+  private final long intervalMS;
+
+  private long lastCommitMS;
+  private long completedAtLastCommit;
+  private boolean asyncInFlight;
+  private long asyncCommits;
+  private long syncCommits;
+  private long failedCommits;
+
+  /**
+   * @param everyRecords 0 to commit on time only
+   */
+  CommitManager(
+      Consumer<?, ?> consumer,
+      OffsetTracker tracker,
+      long everyRecords,
+      long intervalMS,
+      long nowMS) {
+    this.consumer = consumer;
+    this.tracker = tracker;
+    this.everyRecords = everyRecords;
+    this.intervalMS = intervalMS;
+    this.lastCommitMS = nowMS;
+  }
+
+  /** Commits asynchronously if enough records completed or enough time passed. */
+  void maybeCommit(long nowMS) {
+    if (asyncInFlight) return;
+
+    long completed = tracker.completedTotal();
+    boolean due =
+        (everyRecords > 0 && completed - completedAtLastCommit >= everyRecords)
+            || nowMS - lastCommitMS >= intervalMS;
+    if (!due) return;
+
+    lastCommitMS = nowMS;
+    completedAtLastCommit = completed;
+    Map<TopicPartition, OffsetAndMetadata> offsets = tracker.committable();
+    if (offsets.isEmpty()) return;
+
+    asyncInFlight = true;
+    tracker.committed(offsets);
+    try {
+      consumer.commitAsync(
+          offsets,
+          (committed, e) -> {
+            asyncInFlight = false;
+            if (e == null) {
+              asyncCommits++;
+              return;
+            }
+            failedCommits++;
+            tracker.commitFailed(offsets);
+            System.err.printf("Failed to commit offsets: %s%n", e.getMessage());
+          });
+    } catch (RuntimeException e) {
+      asyncInFlight = false;
+      failedCommits++;
+      tracker.commitFailed(offsets);
+      System.err.printf("Failed to commit offsets: %s%n", e.getMessage());
+    }
+  }
+
+  /**
+   * Commits everything processed so far and waits for the broker to confirm it.
+   *
+   * @return false if the commit failed; the offsets stay uncommitted
+   */
+  boolean commitSync(long nowMS) {
+    lastCommitMS = nowMS;
+    completedAtLastCommit = tracker.completedTotal();
+    Map<TopicPartition, OffsetAndMetadata> offsets = tracker.committable();
+    if (offsets.isEmpty()) return true;
+
+    try {
+      consumer.commitSync(offsets);
+      tracker.committed(offsets);
+      syncCommits++;
+      return true;
+    } catch (WakeupException e) {
+      // A stop() wakes whichever blocking call comes next; the wakeup is spent, so try again.
+      return commitSync(nowMS);
+    } catch (RuntimeException e) {
+      failedCommits++;
+      System.err.printf("Failed to commit offsets: %s%n", e.getMessage());
+      return false;
+    }
+  }
+
+  long getAsyncCommits() {
+    return this.asyncCommits;
+  }
+
+  long getSyncCommits() {
+    return this.syncCommits;
+  }
+
+  long getFailedCommits() {
+    return this.failedCommits;
+  }
+}
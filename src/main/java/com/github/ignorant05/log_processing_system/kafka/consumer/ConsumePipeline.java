@@ -0,0 +1,367 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.model.ConsumeOrdering;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.RingQueue;
+import com.github.ignorant05.log_processing_system.util.StageMetrics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * ConsumePipeline
+ *
+ * <p>The stages records go through after the poll thread fetched them: decode, render and sink,
+ * each on its own threads and connected by bounded {@link RingQueue}s that carry whole batches, so
+ * a queue operation is paid per batch rather than per record.
+ *
+ * <p>Each polled batch is split into lanes by key (or partition). A lane always maps to the same
+ * worker of every stage and a single sink thread writes everything out, so records that share a
+ * lane come out in the order they were polled while lanes proceed in parallel. Once the sink is
+ * done with a batch its records are reported to the {@link OffsetTracker}.
+ *
+ * <p>When a stage throws, the pipeline fails: the batch's records are abandoned rather than
+ * completed, so commits stop short of them, and every batch still queued is dropped the same way.
+ * The poll thread finds out through {@link #getFailure}.
+ *
+ * <p>The sink is told whenever it runs out of batches, and every 100ms while it stays idle, so it
+ * can flush what it buffered.
+ *
+ * <p>Every stage reports its service time and queue depth to {@link MetricsRegistry} as {@code
+ * consume.<stage>}.
+ *
+ * @param <D> what decode turns a record into
+ * @param <R> what render turns a decoded record into
+ */
+final class ConsumePipeline<D, R> implements AutoCloseable {
+  /** Batches each worker's input queue holds before upstream has to wait. */
+  static final int QUEUE_CAPACITY = 16;
+
+  private static final int SPINS_BEFORE_PARKING = 100;
+  private static final long PARK_NANOS = 50_000;
+  private static final long MAX_PARK_NANOS = 5_000_000;
+  private static final int MAX_DOUBLINGS = 16;
+  private static final long IDLE_HOOK_NANOS = 100_000_000;
+
+  private final ConsumeOrdering ordering;
+  private final int lanes;
+  private final OffsetTracker tracker;
+  private final StageMetrics pollMetrics;
+  private final Stage<ConsumerRecord<String, LogEntryView>, D> decode;
+  private final Stage<D, R> render;
+  private final Stage<R, Void> sink;
+  private final ArrayDeque<Batch<ConsumerRecord<String, LogEntryView>>> pending =
+      new ArrayDeque<>();
+  private volatile RuntimeException failure;
+
+  /** Records of one lane from one poll; each stage swaps the items and keeps the records. */
+  static final class Batch<T> {
+    final int lane;
+    final List<ConsumerRecord<String, LogEntryView>> records;
+    final List<T> items;
+
+    Batch(int lane, List<ConsumerRecord<String, LogEntryView>> records, List<T> items) {
+      this.lane = lane;
+      this.records = records;
+      this.items = items;
+    }
+  }
+
+  /**
+   * @param discardDecoded takes decoded items that will never be rendered because the pipeline
+   *     failed, so what they hold can be given back
+   */
+  ConsumePipeline(
+      int decodeThreads,
+      int renderThreads,
+      ConsumeOrdering ordering,
+      boolean virtualThreads,
+      OffsetTracker tracker,
+      Function<List<ConsumerRecord<String, LogEntryView>>, List<D>> decoder,
+      Function<List<D>, List<R>> renderer,
+      Consumer<List<R>> writer,
+      Runnable sinkIdle,
+      Consumer<List<D>> discardDecoded) {
+    this.ordering = ordering;
+    this.lanes = Math.max(decodeThreads, renderThreads);
+    this.tracker = tracker;
+
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    this.pollMetrics = metrics.stage("consume.poll");
+    this.pollMetrics.setWorkers(1);
+
+    ThreadFactory factory = threadFactory(virtualThreads);
+    this.sink =
+        new Stage<>(
+            "sink",
+            1,
+            factory,
+            items -> {
+              writer.accept(items);
+              return null;
+            },
+            null,
+            sinkIdle,
+            null);
+    this.render =
+        new Stage<>("render", renderThreads, factory, renderer, this.sink, null, discardDecoded);
+    this.decode = new Stage<>("decode", decodeThreads, factory, decoder, this.render, null, null);
+  }
+
+  /**
+   * Splits {@code records} into lane batches and hands them to decode. Batches that do not fit stay
+   * pending and go first on the next call; the poll thread never waits on a full queue.
+   *
+   * @return whether everything polled so far has been handed over
+   */
+  boolean offer(ConsumerRecords<String, LogEntryView> records, long pollNanos) {
+    if (!records.isEmpty()) {
+      long start = System.nanoTime();
+      List<List<ConsumerRecord<String, LogEntryView>>> byLane = new ArrayList<>(lanes);
+      for (int lane = 0; lane < lanes; lane++) byLane.add(null);
+
+      for (ConsumerRecord<String, LogEntryView> record : records) {
+        tracker.dispatched(new TopicPartition(record.topic(), record.partition()), record.offset());
+        int lane = laneOf(record, ordering, lanes);
+        if (byLane.get(lane) == null) byLane.set(lane, new ArrayList<>());
+        byLane.get(lane).add(record);
+      }
+      for (int lane = 0; lane < lanes; lane++) {
+        List<ConsumerRecord<String, LogEntryView>> batch = byLane.get(lane);
+        if (batch != null) pending.add(new Batch<>(lane, batch, batch));
+      }
+      pollMetrics.recordBatch(records.count(), pollNanos + System.nanoTime() - start);
+    }
+
+    while (!pending.isEmpty()) {
+      if (!decode.offer(pending.peek())) return false;
+      pending.poll();
+    }
+    return true;
+  }
+
+  static int laneOf(ConsumerRecord<?, ?> record, ConsumeOrdering ordering, int lanes) {
+    int hash =
+        ordering == ConsumeOrdering.key && record.key() != null
+            ? record.key().hashCode()
+            : 31 * record.topic().hashCode() + record.partition();
+    // Spread the low bits, as HashMap does, since keys often differ only in their last chars.
+    hash ^= hash >>> 16;
+    return Math.floorMod(hash, lanes);
+  }
+
+  /**
+   * Drops polled records of {@code partitions} that decode has not taken yet; they stay
+   * uncommitted, for whoever owns the partitions next.
+   */
+  void abandon(Collection<TopicPartition> partitions) {
+    for (Batch<ConsumerRecord<String, LogEntryView>> batch : pending) {
+      batch.records.removeIf(
+          record -> {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (!partitions.contains(partition)) return false;
+            tracker.abandoned(partition, record.offset());
+            return true;
+          });
+    }
+    pending.removeIf(batch -> batch.records.isEmpty());
+  }
+
+  /**
+   * The first exception a stage threw, or null. Once set, no record is completed any more; the
+   * caller should stop consuming.
+   */
+  RuntimeException getFailure() {
+    return this.failure;
+  }
+
+  /** Lets every stage finish what it has queued, in order, then stops the workers. */
+  @Override
+  public void close() throws InterruptedException {
+    for (Batch<ConsumerRecord<String, LogEntryView>> batch : pending) {
+      for (ConsumerRecord<String, LogEntryView> record : batch.records) {
+        tracker.abandoned(new TopicPartition(record.topic(), record.partition()), record.offset());
+      }
+    }
+    pending.clear();
+    decode.close();
+    render.close();
+    sink.close();
+  }
+
+  private void complete(Batch<?> batch) {
+    for (ConsumerRecord<String, LogEntryView> record : batch.records) {
+      tracker.completed(new TopicPartition(record.topic(), record.partition()), record.offset());
+    }
+  }
+
+  private void abandon(Batch<?> batch) {
+    for (ConsumerRecord<String, LogEntryView> record : batch.records) {
+      tracker.abandoned(new TopicPartition(record.topic(), record.partition()), record.offset());
+    }
+  }
+
+  private synchronized void fail(RuntimeException e) {
+    if (failure == null) failure = e;
+  }
+
+  private final class Stage<I, O> {
+    private final String name;
+    private final Function<List<I>, List<O>> work;
+    private final Stage<O, ?> next;
+    private final Runnable onIdle;
+    private final Consumer<List<I>> discard;
+    private final StageMetrics metrics;
+    private final List<RingQueue<Batch<I>>> queues = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean closing;
+
+    Stage(
+        String name,
+        int workers,
+        ThreadFactory factory,
+        Function<List<I>, List<O>> work,
+        Stage<O, ?> next,
+        Runnable onIdle,
+        Consumer<List<I>> discard) {
+      this.name = name;
+      this.work = work;
+      this.next = next;
+      this.onIdle = onIdle;
+      this.discard = discard;
+      this.metrics = MetricsRegistry.getInstance().stage("consume." + name);
+      this.metrics.setWorkers(workers);
+
+      for (int worker = 0; worker < workers; worker++) {
+        RingQueue<Batch<I>> queue = new RingQueue<>(QUEUE_CAPACITY);
+        Thread thread = factory.newThread(() -> drain(queue));
+        thread.setName("klog-" + name + (workers > 1 ? "-" + (worker + 1) : ""));
+        queues.add(queue);
+        threads.add(thread);
+        thread.start();
+      }
+    }
+
+    boolean offer(Batch<I> batch) {
+      return queues.get(batch.lane % queues.size()).offer(batch);
+    }
+
+    /** Waits for room rather than dropping: this is how a slow stage pushes back upstream. */
+    void put(Batch<I> batch) {
+      for (int idle = 0; !offer(batch); idle++) idle(idle);
+    }
+
+    private void drain(RingQueue<Batch<I>> queue) {
+      int idle = 0;
+      long idleHookRanAt = 0;
+      while (true) {
+        Batch<I> batch = queue.poll();
+        if (batch == null) {
+          if (onIdle != null
+              && (idle == 0
+                  || (idle >= SPINS_BEFORE_PARKING
+                      && System.nanoTime() - idleHookRanAt >= IDLE_HOOK_NANOS))) {
+            runOnIdle();
+            idleHookRanAt = System.nanoTime();
+          }
+          if (closing && queue.isEmpty()) return;
+          idle(idle);
+          // Stop counting once parks are as long as they get, so a quiet week cannot overflow it.
+          if (idle < SPINS_BEFORE_PARKING + MAX_DOUBLINGS) idle++;
+          continue;
+        }
+        idle = 0;
+        metrics.recordQueueDepth(queue.size());
+        if (failure != null) {
+          drop(batch);
+          continue;
+        }
+
+        Batch<O> out;
+        long start = System.nanoTime();
+        try {
+          out = new Batch<>(batch.lane, batch.records, work.apply(batch.items));
+        } catch (RuntimeException e) {
+          System.err.printf(
+              "Stage %s failed on %d record(s): %s%n", name, batch.records.size(), e.getMessage());
+          // The work had the items: whatever they held is its to give back.
+          fail(e);
+          abandon(batch);
+          continue;
+        } finally {
+          metrics.recordBatch(batch.items.size(), System.nanoTime() - start);
+        }
+
+        if (next != null) {
+          next.put(out);
+        } else {
+          complete(batch);
+        }
+      }
+    }
+
+    /** Gives up on a batch this stage never worked on. */
+    private void drop(Batch<I> batch) {
+      abandon(batch);
+      if (discard != null) discard.accept(batch.items);
+    }
+
+    /** The sink flushes here, so a failure may lose records already completed: fail as well. */
+    private void runOnIdle() {
+      try {
+        onIdle.run();
+      } catch (RuntimeException e) {
+        System.err.printf("Stage %s failed: %s%n", name, e.getMessage());
+        fail(e);
+      }
+    }
+
+    void close() throws InterruptedException {
+      closing = true;
+      for (Thread thread : threads) thread.join();
+    }
+  }
+
+  /**
+   * Spins briefly, then parks for twice as long each time up to {@link #MAX_PARK_NANOS}: a busy
+   * stage sees its next batch within microseconds, while one left waiting on a quiet topic wakes a
+   * couple of hundred times a second instead of twenty thousand. The cap stays well under {@link
+   * #IDLE_HOOK_NANOS}, so the sink still flushes on time.
+   */
+  private static void idle(int idle) {
+    if (idle < SPINS_BEFORE_PARKING) {
+      Thread.onSpinWait();
+    } else {
+      int doublings = Math.min(idle - SPINS_BEFORE_PARKING, MAX_DOUBLINGS);
+      LockSupport.parkNanos(
+          Math.min(PARK_NANOS << doublings, Math.min(MAX_PARK_NANOS, IDLE_HOOK_NANOS)));
+    }
+  }
+
+  private static ThreadFactory threadFactory(boolean virtualThreads) {
+    if (virtualThreads) {
+      try {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        return (ThreadFactory)
+            Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+      } catch (ReflectiveOperationException e) {
+        System.err.println("Virtual threads need Java 21+, using platform threads");
+      }
+    }
+
+    return runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
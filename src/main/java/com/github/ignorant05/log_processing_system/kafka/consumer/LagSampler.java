@@ -0,0 +1,70 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * LagSampler
+ *
+ * <p>Every {@code intervalMS}, asks the brokers for the end offset and the group's committed offset
+ * of each assigned partition and reports the difference to {@link MetricsRegistry} as that
+ * partition's lag. Both lookups are broker round trips, hence the low frequency; a lookup that
+ * fails or times out only skips that sample. Partitions without a committed offset yet are measured
+ * from the consumer's position. Poll thread only.
+ */
+final class LagSampler {
+  static final long DEFAULT_INTERVAL_MS = 5_000;
+  private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(2);
+
+  private final Consumer<?, ?> consumer;
+  private final long intervalMS;
+  private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+  private long lastSampleMS;
+
+  LagSampler(Consumer<?, ?> consumer, long intervalMS, long nowMS) {
+    this.consumer = consumer;
+    this.intervalMS = intervalMS;
+    // Sample on the first call rather than an interval in.
+    this.lastSampleMS = nowMS - intervalMS;
+  }
+
+  void maybeSample(long nowMS) {
+    if (nowMS - lastSampleMS < intervalMS) return;
+    lastSampleMS = nowMS;
+    sample(nowMS);
+  }
+
+  void sample(long nowMS) {
+    Set<TopicPartition> assigned = consumer.assignment();
+    if (assigned.isEmpty()) return;
+
+    try {
+      Map<TopicPartition, Long> ends = consumer.endOffsets(assigned, LOOKUP_TIMEOUT);
+      Map<TopicPartition, OffsetAndMetadata> committed =
+          consumer.committed(assigned, LOOKUP_TIMEOUT);
+
+      for (TopicPartition partition : assigned) {
+        Long end = ends.get(partition);
+        if (end == null) continue;
+        OffsetAndMetadata offset = committed.get(partition);
+        long position =
+            offset != null ? offset.offset() : consumer.position(partition, LOOKUP_TIMEOUT);
+        metrics.lag(partition.toString()).record(end, position, nowMS);
+      }
+    } catch (RuntimeException e) {
+      // Lag is only reported: whatever goes wrong here must not stop the consumer.
+      System.err.printf("Failed to sample consumer lag: %s%n", e.getMessage());
+    }
+  }
+
+  /** Stops reporting {@code partitions}; another consumer reports them now. */
+  void forget(Collection<TopicPartition> partitions) {
+    for (TopicPartition partition : partitions) metrics.removeLag(partition.toString());
+  }
+}
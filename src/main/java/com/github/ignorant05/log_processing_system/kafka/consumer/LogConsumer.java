@@ -2,52 +2,290 @@ package com.github.ignorant05.log_processing_system.kafka.consumer;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.ignorant05.log_processing_system.model.LogEntry;
-import com.github.ignorant05.log_processing_system.util.JsonUtil;
+import com.github.ignorant05.log_processing_system.aggregate.AnomalyDetector;
+import com.github.ignorant05.log_processing_system.aggregate.ResultWriter;
+import com.github.ignorant05.log_processing_system.aggregate.WindowResult;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryViewDeserializer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.ConsumeOrdering;
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.LogEntryPool;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.LagSnapShot;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.MetricsSnapShot;
+import com.github.ignorant05.log_processing_system.util.OrderingSnapShot;
+import com.github.ignorant05.log_processing_system.util.StageSnapShot;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.fusesource.jansi.Ansi;
 import org.fusesource.jansi.AnsiConsole;
 
-/** LogConsumer */
+/**
+ * LogConsumer
+ *
+ * <p>Polls {@code topic} and prints each log through a {@link ConsumePipeline}: the polling thread
+ * only fetches, while decode, render and sink run on their own threads. {@link #parallel} and
+ * {@link #stageThreads} give decode and render more workers, keeping records with the same key (or
+ * partition) in order; {@link #ordered} prints all partitions in timestamp order instead. Offsets
+ * are committed by hand, and only up to the lowest record of each partition the sink has not
+ * written yet. {@link #detectAnomalies} watches every decoded log for drifting error rates and
+ * latencies on the way.
+ */
 public class LogConsumer implements AutoCloseable {
-  private final KafkaConsumer<String, String> consumer;
+  private static final int MAX_POLL_RECORDS = 100;
+
+  /** About what a terminal emulator keeps up with while still being readable. */
+  public static final long TERMINAL_LINES_PER_SECOND = 5_000;
+
+  private static final long REVOKE_TIMEOUT_MS = 10_000;
+  private static final int MAX_LINE_BUFFER = 1 << 20;
+  private static final byte[] NOTHING = new byte[0];
+
+  private final Consumer<String, LogEntryView> consumer;
+
+  /** Entries live from decode until render, so the pool covers what the queues can hold. */
+  private final LogEntryPool pool =
+      new LogEntryPool(ConsumePipeline.QUEUE_CAPACITY * MAX_POLL_RECORDS);
+
+  private final ThreadLocal<StringBuilder> lineBuffer =
+      ThreadLocal.withInitial(() -> new StringBuilder(MAX_POLL_RECORDS * 160));
+  private final OffsetTracker tracker = new OffsetTracker();
+  private final MetricsRegistry metrics = MetricsRegistry.getInstance();
   private final String topic;
+  private final Predicate<LogEntryView> filter;
   private final AtomicLong messagesConsumed = new AtomicLong(0);
   private final AtomicLong messagesFailed = new AtomicLong(0);
+  private final AtomicLong messagesFiltered = new AtomicLong(0);
   private volatile boolean isRunning = true;
+  private final CountDownLatch stopped = new CountDownLatch(1);
   private volatile boolean fromBeginning = true;
+  private int decodeThreads = 1;
+  private int renderThreads = 1;
+  private boolean virtualThreads;
+  private ConsumeOrdering ordering = ConsumeOrdering.key;
+  private ConsumePipeline<DecodedRecord, RenderedBatch> pipeline;
+  private TerminalWriter terminal = TerminalWriter.stdout();
+  private long maxLinesPerSecond;
+  private OutputSampler sampler;
+  private long allowedLatenessMS = -1;
+  private OrderedMerger merger;
+  private final List<OrderedMerger.Line> due = new ArrayList<>();
+  private long commitEveryRecords = CommitManager.DEFAULT_EVERY_RECORDS;
+  private long commitIntervalMS = CommitManager.DEFAULT_INTERVAL_MS;
+  private CommitManager commits;
+  private LagSampler lag;
+  private AnomalyDetector anomalies;
+  private ResultWriter anomalyWriter;
+  private final List<WindowResult> anomaliesFound = new ArrayList<>();
+  private long lastStatsAt;
+
+  /** A record decode kept, with the pooled entry it was read into. */
+  private static final class DecodedRecord {
+    final ConsumerRecord<String, LogEntryView> record;
+    final MutableLogEntry logEntry;
+
+    DecodedRecord(ConsumerRecord<String, LogEntryView> record, MutableLogEntry logEntry) {
+      this.record = record;
+      this.logEntry = logEntry;
+    }
+  }
+
+  /**
+   * The printed lines of one batch, and how many records it covered, printed or sampled out. When
+   * ordering, the lines come one by one instead, for the {@link OrderedMerger}.
+   */
+  private static final class RenderedBatch {
+    final byte[] utf8;
+    final List<OrderedMerger.Line> lines;
+    final int records;
+
+    RenderedBatch(byte[] utf8, List<OrderedMerger.Line> lines, int records) {
+      this.utf8 = utf8;
+      this.lines = lines;
+      this.records = records;
+    }
+  }
 
   public LogConsumer(String bootstrapServers, String groupID, String topic, boolean fromBeginning) {
+    this(
+        bootstrapServers,
+        groupID,
+        topic,
+        fromBeginning,
+        CodecType.json,
+        LogEntryPredicates.acceptAll());
+  }
+
+  /**
+   * @param defaultCodec codec for records that carry no codec header; announced records are always
+   *     decoded with the codec they name
+   * @param filter evaluated on the undecoded record; rejected records are never materialised
+   */
+  public LogConsumer(
+      String bootstrapServers,
+      String groupID,
+      String topic,
+      boolean fromBeginning,
+      CodecType defaultCodec,
+      Predicate<LogEntryView> filter) {
     Properties props = new Properties();
     props.setProperty("bootstrap.servers", bootstrapServers);
     props.setProperty("group.id", groupID);
-    props.setProperty(
-        "key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-    props.setProperty(
-        "value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-    props.setProperty("enable.auto.commit", "true");
-    props.setProperty("auto.commit.interval.ms", "1000");
+    // Auto-commit would commit records a worker has not finished yet; see CommitManager.
+    props.setProperty("enable.auto.commit", "false");
     props.put("auto.offset.reset", "earliest");
-    props.put("max.poll.records", 100);
+    props.put("max.poll.records", MAX_POLL_RECORDS);
+    // Skip records of aborted producer transactions; a no-op for non-transactional topics.
+    props.put("isolation.level", "read_committed");
 
     System.setProperty("jansi.force", "true");
     AnsiConsole.systemInstall();
-    this.consumer = new KafkaConsumer<>(props);
+    this.consumer =
+        new KafkaConsumer<>(
+            props, new StringDeserializer(), new LogEntryViewDeserializer(defaultCodec));
     this.topic = topic;
+    this.filter = filter;
     this.fromBeginning = fromBeginning;
 
     AnsiConsole.systemInstall();
   }
 
+  /** Wraps an already configured consumer; it must not auto-commit. */
+  LogConsumer(
+      Consumer<String, LogEntryView> consumer,
+      String topic,
+      boolean fromBeginning,
+      Predicate<LogEntryView> filter) {
+    this.consumer = consumer;
+    this.topic = topic;
+    this.filter = filter;
+    this.fromBeginning = fromBeginning;
+  }
+
+  /**
+   * Runs decode and render on {@code workers} threads each. Call before {@link #consume}.
+   *
+   * @param ordering records sharing this always go to the same workers, in offset order
+   */
+  public LogConsumer parallel(int workers, ConsumeOrdering ordering, boolean virtualThreads) {
+    this.ordering = ordering;
+    this.virtualThreads = virtualThreads;
+    return stageThreads(workers, workers);
+  }
+
+  /** Sizes the decode and render stages separately. Call before {@link #consume}. */
+  public LogConsumer stageThreads(int decodeThreads, int renderThreads) {
+    if (decodeThreads < 1 || renderThreads < 1) {
+      throw new IllegalArgumentException("every stage needs at least 1 thread");
+    }
+    this.decodeThreads = decodeThreads;
+    this.renderThreads = renderThreads;
+    return this;
+  }
+
+  /**
+   * Prints only a sample of the logs, plus a summary each second, while they arrive faster than
+   * {@code maxLinesPerSecond}; 0 prints everything. Call before {@link #consume}.
+   */
+  public LogConsumer maxLinesPerSecond(long maxLinesPerSecond) {
+    this.maxLinesPerSecond = maxLinesPerSecond;
+    return this;
+  }
+
+  /**
+   * Prints logs in timestamp order across partitions, holding each back until no log older than
+   * {@code allowedLatenessMS} is expected anymore. Call before {@link #consume}.
+   */
+  public LogConsumer ordered(long allowedLatenessMS) {
+    if (allowedLatenessMS < 0) throw new IllegalArgumentException("lateness must not be negative");
+    this.allowedLatenessMS = allowedLatenessMS;
+    return this;
+  }
+
+  /**
+   * Commits processed offsets asynchronously after {@code everyRecords} records (0 for never) or
+   * {@code intervalMS}, whichever comes first. Call before {@link #consume}.
+   */
+  public LogConsumer commitEvery(long everyRecords, long intervalMS) {
+    if (everyRecords < 0 || intervalMS < 1) {
+      throw new IllegalArgumentException("commit interval must be positive");
+    }
+    this.commitEveryRecords = everyRecords;
+    this.commitIntervalMS = intervalMS;
+    return this;
+  }
+
+  /**
+   * Feeds every log that passes the filter to {@code detector} and hands the anomalies it flags to
+   * {@code writer}, which is closed with the consumer. Call before {@link #consume}.
+   */
+  public LogConsumer detectAnomalies(AnomalyDetector detector, ResultWriter writer) {
+    this.anomalies = detector;
+    this.anomalyWriter = writer;
+    return this;
+  }
+
+  /** Writes the logs to {@code channel} instead of standard output. */
+  LogConsumer writeTo(WritableByteChannel channel) {
+    this.terminal = new TerminalWriter(channel);
+    return this;
+  }
+
+  /**
+   * Polls until {@link #stop}, then drains the pipeline, commits what was processed and closes the
+   * consumer.
+   */
   public void consume() {
-    consumer.subscribe(Collections.singleton(topic));
+    try {
+      run();
+    } finally {
+      stopped.countDown();
+    }
+  }
+
+  private void run() {
+    consumer.subscribe(Collections.singleton(topic), new RebalanceListener());
+    sampler = new OutputSampler(maxLinesPerSecond, System.nanoTime());
+    merger = allowedLatenessMS >= 0 ? new OrderedMerger(allowedLatenessMS) : null;
+    pipeline =
+        new ConsumePipeline<>(
+            decodeThreads,
+            renderThreads,
+            ordering,
+            virtualThreads,
+            tracker,
+            this::decode,
+            this::render,
+            this::write,
+            this::sinkIdle,
+            this::release);
+    commits =
+        new CommitManager(
+            consumer, tracker, commitEveryRecords, commitIntervalMS, System.currentTimeMillis());
+    lag = new LagSampler(consumer, LagSampler.DEFAULT_INTERVAL_MS, System.currentTimeMillis());
 
     try {
       if (fromBeginning) {
@@ -57,85 +295,327 @@ public class LogConsumer implements AutoCloseable {
       }
 
       while (isRunning) {
-        ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
+        ConsumerRecords<String, LogEntryView> records;
+        long pollStart = System.nanoTime();
+        try {
+          records = consumer.poll(Duration.ofMillis(100));
+        } catch (RecordDeserializationException e) {
+          skipPoisonRecord(e);
+          continue;
+        }
 
-        for (ConsumerRecord<String, String> record : records) {
-          processLog(record);
+        applyBackpressure(pipeline.offer(records, System.nanoTime() - pollStart));
+        if (pipeline.getFailure() != null) {
+          throw new IllegalStateException(
+              "Stopped consuming after a failed batch: " + pipeline.getFailure().getMessage(),
+              pipeline.getFailure());
         }
+        commits.maybeCommit(System.currentTimeMillis());
+        lag.maybeSample(System.currentTimeMillis());
+        reportAnomalies(System.currentTimeMillis());
 
-        if (messagesConsumed.get() % 100 == 0 && messagesConsumed.get() > 0) {
+        long consumed = messagesConsumed.get();
+        if (consumed / 100 > lastStatsAt / 100) {
+          lastStatsAt = consumed;
           displayStats();
         }
       }
+    } catch (WakeupException e) {
+      // stop() interrupted a poll; what was processed is committed below.
     } finally {
-      consumer.close();
+      try {
+        ConsumePipeline<DecodedRecord, RenderedBatch> closed = pipeline;
+        closePipeline();
+        drainMerger();
+        // Completed records may still have been buffered when output failed: leave them
+        // uncommitted.
+        if (closed.getFailure() == null) commits.commitSync(System.currentTimeMillis());
+      } finally {
+        consumer.close();
+        if (anomalyWriter != null) anomalyWriter.close();
+      }
+    }
+  }
+
+  /** Closes the detector's interval once it is over and writes out what it flagged. */
+  private void reportAnomalies(long nowMS) {
+    if (anomalies == null) return;
+    anomalies.tick(nowMS, anomaliesFound);
+    if (anomaliesFound.isEmpty()) return;
+    try {
+      anomalyWriter.write(anomaliesFound);
+    } catch (RuntimeException e) {
+      System.err.println("Failed to report anomalies: " + e.getMessage());
+    }
+    anomaliesFound.clear();
+  }
+
+  /**
+   * Stops fetching while decode cannot take more, and picks up again once it has caught up. Polling
+   * itself carries on, so the consumer stays in its group meanwhile.
+   */
+  private void applyBackpressure(boolean handedOver) {
+    if (!handedOver) {
+      consumer.pause(consumer.assignment());
+    } else if (!consumer.paused().isEmpty()) {
+      consumer.resume(consumer.paused());
+    }
+  }
+
+  private void closePipeline() {
+    if (pipeline == null) return;
+    try {
+      pipeline.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
+    pipeline = null;
   }
 
+  /** Prints what the merger still holds; the sink has stopped, so this is the only writer. */
+  private void drainMerger() {
+    if (merger == null) return;
+    merger.drain(due);
+    writeDue();
+    terminal.flush();
+  }
+
+  /**
+   * Before partitions move to another consumer, lets the workers finish what was dispatched from
+   * them and commits it, so the new owner starts right after the last processed record.
+   */
+  private final class RebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      if (pipeline != null) pipeline.abandon(partitions);
+      if (merger != null) merger.release(partitions);
+      try {
+        if (!tracker.awaitCompleted(partitions, REVOKE_TIMEOUT_MS)) {
+          System.err.printf(
+              "Workers still busy after %dms, committing what has finished%n", REVOKE_TIMEOUT_MS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (pipeline == null || pipeline.getFailure() == null) {
+        commits.commitSync(System.currentTimeMillis());
+      }
+      tracker.forget(partitions);
+      lag.forget(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {}
+
+    /** The partitions already belong to someone else: committing now would fail. */
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+      tracker.forget(partitions);
+      lag.forget(partitions);
+    }
+  }
+
+  /** Makes {@link #consume} return; safe to call from any thread, such as a shutdown hook. */
   public void stop() {
-    isRunning = !isRunning;
+    isRunning = false;
+    consumer.wakeup();
+  }
+
+  /**
+   * Waits up to {@code timeoutMS} for {@link #consume} to have committed and closed the consumer.
+   *
+   * @return false if it is still running
+   */
+  public boolean awaitStopped(long timeoutMS) throws InterruptedException {
+    return stopped.await(timeoutMS, TimeUnit.MILLISECONDS);
   }
 
   @Override
   public void close() {
-    stop();
+    isRunning = false;
     consumer.close();
 
     AnsiConsole.systemUninstall();
   }
 
-  public void processLog(ConsumerRecord<String, String> record) {
+  /**
+   * The deserializer runs inside {@code poll()}, so a record it rejects (e.g. an unknown codec
+   * header) surfaces there instead of in {@link #decode}. Count it and move past it, otherwise the
+   * next poll would fail on the same offset forever.
+   */
+  private void skipPoisonRecord(RecordDeserializationException e) {
+    messagesFailed.incrementAndGet();
+    System.err.printf(
+        "Failed to process message at offset %d: %s%n",
+        e.offset(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+    consumer.seek(e.topicPartition(), e.offset() + 1);
+  }
+
+  /**
+   * Decode stage: drops records the filter rejects on their raw bytes, and reads the rest into
+   * pooled entries.
+   */
+  private List<DecodedRecord> decode(List<ConsumerRecord<String, LogEntryView>> records) {
+    List<DecodedRecord> decoded = new ArrayList<>(records.size());
+    for (ConsumerRecord<String, LogEntryView> record : records) {
+      LogEntryView view = record.value();
+      if (view == null) {
+        messagesFailed.incrementAndGet();
+        System.err.printf("Skipping empty message at offset %d%n", record.offset());
+        continue;
+      }
+
+      MutableLogEntry logEntry = null;
+      try {
+        if (!filter.test(view)) {
+          messagesFiltered.incrementAndGet();
+          continue;
+        }
+
+        logEntry = pool.acquire();
+        view.readInto(logEntry);
+        if (anomalies != null) anomalies.observe(logEntry);
+        decoded.add(new DecodedRecord(record, logEntry));
+      } catch (Exception e) {
+        pool.release(logEntry);
+        messagesFailed.incrementAndGet();
+        System.err.printf("Failed to process message %s%n", e.getMessage());
+      }
+    }
+    return decoded;
+  }
+
+  /**
+   * Render stage: formats the batch's sampled entries into one UTF-8 chunk and returns the entries
+   * to the pool.
+   */
+  private List<RenderedBatch> render(List<DecodedRecord> decoded) {
+    if (merger != null) return renderLines(decoded);
+
+    StringBuilder out = lineBuffer.get();
+    out.setLength(0);
     try {
-      LogEntry logEntry = JsonUtil.fromJson(record.value());
-      displayRecord(logEntry, record);
-      messagesConsumed.incrementAndGet();
-    } catch (JsonProcessingException e) {
-      messagesFailed.incrementAndGet();
-      System.err.printf(
-          "Failed to process message at offset %d: %s%n", record.offset(), e.getMessage());
-    } catch (Exception e) {
-      messagesFailed.incrementAndGet();
-      System.err.printf("Failed to process message %s%n", e.getMessage());
-    }
-  }
-
-  public void displayRecord(LogEntry logEntry, ConsumerRecord<String, String> record) {
-    String color = getLevelColor(logEntry.getLevel());
-    String timestamp = logEntry.getTimestamp().toString().substring(11, 23);
-
-    String prettyOutput =
-        color
-            + "["
-            + timestamp
-            + "]"
-            + "\u001B[0m"
-            + " \u001B[35m"
-            + String.format("%-20s", logEntry.getService())
-            + "\u001B[0m"
-            + " "
-            + color
-            + String.format("%-7s", logEntry.getLevel())
-            + "\u001B[0m"
-            + " \u001B[36m"
-            + logEntry.getMessage()
-            + "\u001B[0m"
-            + " (p:"
-            + record.partition()
-            + ", o:"
-            + record.offset()
-            + ")";
-
-    System.out.println(prettyOutput);
+      for (DecodedRecord each : decoded) {
+        try {
+          if (sampler.admit(each.logEntry.getLevel())) {
+            appendRecord(out, each.logEntry, each.record).append('\n');
+          }
+        } catch (Exception e) {
+          messagesFailed.incrementAndGet();
+          System.err.printf("Failed to process message %s%n", e.getMessage());
+        }
+      }
+    } finally {
+      release(decoded);
+    }
+    byte[] utf8 = out.length() == 0 ? NOTHING : out.toString().getBytes(StandardCharsets.UTF_8);
+    // A buffer grown by one huge batch would otherwise stay that large for good.
+    if (out.capacity() > MAX_LINE_BUFFER) lineBuffer.remove();
+    return List.of(new RenderedBatch(utf8, null, decoded.size()));
+  }
+
+  /** Render stage when ordering: one line per record, with the timestamp the merger orders by. */
+  private List<RenderedBatch> renderLines(List<DecodedRecord> decoded) {
+    StringBuilder out = lineBuffer.get();
+    List<OrderedMerger.Line> lines = new ArrayList<>(decoded.size());
+    try {
+      for (DecodedRecord each : decoded) {
+        try {
+          if (!sampler.admit(each.logEntry.getLevel())) continue;
+          out.setLength(0);
+          appendRecord(out, each.logEntry, each.record).append('\n');
+          lines.add(
+              new OrderedMerger.Line(
+                  new TopicPartition(each.record.topic(), each.record.partition()),
+                  each.record.offset(),
+                  each.logEntry.hasTimestamp()
+                      ? each.logEntry.getTimestampMillis()
+                      : Timestamps.NONE,
+                  out.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+          messagesFailed.incrementAndGet();
+          System.err.printf("Failed to process message %s%n", e.getMessage());
+        }
+      }
+    } finally {
+      release(decoded);
+    }
+    if (out.capacity() > MAX_LINE_BUFFER) lineBuffer.remove();
+    return List.of(new RenderedBatch(null, lines, decoded.size()));
+  }
+
+  /** Returns the batch's entries to the pool, whether it was rendered or dropped. */
+  private void release(List<DecodedRecord> decoded) {
+    for (DecodedRecord each : decoded) pool.release(each.logEntry);
+  }
+
+  /** Sink stage: the only thread writing to the terminal. */
+  private void write(List<RenderedBatch> batches) {
+    for (RenderedBatch batch : batches) {
+      if (batch.lines == null) {
+        terminal.write(batch.utf8);
+      } else {
+        long now = System.nanoTime();
+        for (OrderedMerger.Line line : batch.lines) {
+          // Printed later: keep the offset uncommitted until then.
+          tracker.hold(line.partition, line.offset);
+          merger.add(line, now, due);
+        }
+        writeDue();
+      }
+      messagesConsumed.addAndGet(batch.records);
+      metrics.recordConsumed(batch.records);
+    }
+
+    String summary = sampler.tick(System.nanoTime());
+    if (summary != null) {
+      terminal.write((summary + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /** Runs whenever the sink has nothing queued: prints lines that became due, then flushes. */
+  private void sinkIdle() {
+    if (merger != null) {
+      merger.tick(System.nanoTime(), due);
+      writeDue();
+    }
+    terminal.flush();
+  }
+
+  private void writeDue() {
+    if (due.isEmpty()) return;
+    long now = System.nanoTime();
+    for (OrderedMerger.Line line : due) {
+      terminal.write(line.utf8);
+      tracker.release(line.partition, line.offset);
+      metrics.ordering().recordEmitted(now - line.arrivedNanos);
+    }
+    due.clear();
+  }
+
+  /** {@code logEntry} is pooled: it is only valid for the duration of this call. */
+  public void displayRecord(MutableLogEntry logEntry, ConsumerRecord<String, LogEntryView> record) {
+    System.out.println(renderRecord(logEntry, record));
+  }
+
+  /** The line {@link #displayRecord} prints for {@code logEntry}. */
+  public String renderRecord(
+      MutableLogEntry logEntry, ConsumerRecord<String, LogEntryView> record) {
+    return appendRecord(new StringBuilder(128), logEntry, record).toString();
+  }
+
+  /** Appends the line for {@code logEntry} to {@code out}, without a line break. */
+  public StringBuilder appendRecord(
+      StringBuilder out, MutableLogEntry logEntry, ConsumerRecord<String, LogEntryView> record) {
+    return LogRenderer.append(out, logEntry, record.partition(), record.offset());
   }
 
   public String getLevelColor(String level) {
-    return switch (level) {
-      case "INFO" -> "\u001B[32m"; // Green
-      case "ERROR" -> "\u001B[31m"; // Red
-      case "WARN" -> "\u001B[33m"; // Yellow
-      case "DEBUG" -> "\u001B[34m"; // Blue
-      default -> "\u001B[37m";
-    };
+    return getLevelColor(Level.fromString(level));
+  }
+
+  public String getLevelColor(Level level) {
+    return LogRenderer.colorOf(level);
   }
 
   public void displayStats() {
@@ -145,8 +625,64 @@ public class LogConsumer implements AutoCloseable {
             .fg(Ansi.Color.WHITE)
             .a(
                 String.format(
-                    "Consumed %s | Failed: %d", messagesConsumed.get(), messagesFailed.get()))
+                    "Consumed %s | Filtered: %d | Failed: %d",
+                    messagesConsumed.get(), messagesFiltered.get(), messagesFailed.get()))
             .reset());
+    if (commits != null) {
+      System.out.println(
+          ansi()
+              .fg(Ansi.Color.WHITE)
+              .a(
+                  String.format(
+                      "Commits: %d async | %d sync | %d failed",
+                      commits.getAsyncCommits(),
+                      commits.getSyncCommits(),
+                      commits.getFailedCommits()))
+              .reset());
+    }
+
+    MetricsSnapShot snapshot = metrics.snapshot();
+    if (merger != null) {
+      OrderingSnapShot ordering = snapshot.getOrdering();
+      System.out.println(
+          ansi()
+              .fg(Ansi.Color.WHITE)
+              .a(
+                  String.format(
+                      "Ordered: %d buffered | delay %.0fms avg, %.0fms max | %d out of order, %d"
+                          + " late",
+                      ordering.getBuffered(),
+                      ordering.getAverageDelayMS(),
+                      ordering.getMaxDelayMS(),
+                      ordering.getOutOfOrder(),
+                      ordering.getLate()))
+              .reset());
+    }
+    if (!snapshot.getLags().isEmpty()) {
+      System.out.println(
+          ansi()
+              .fg(Ansi.Color.WHITE)
+              .a(
+                  String.format(
+                      "Lag: %d (%+.1f/s, catch-up %s)",
+                      snapshot.getTotalLag(),
+                      snapshot.getLagGrowthPerSecond(),
+                      LagSnapShot.formatCatchUp(snapshot.getCatchUpSeconds())))
+              .reset());
+    }
+
+    StringBuilder stages = new StringBuilder("Stages:");
+    for (StageSnapShot stage : snapshot.getStages()) {
+      if (!stage.getName().startsWith("consume.")) continue;
+      stages.append(
+          String.format(
+              " %s %.1fus/rec x%d (queue %d)",
+              stage.getName().substring("consume.".length()),
+              stage.getServiceMicrosPerRecord(),
+              stage.getWorkers(),
+              stage.getQueueDepth()));
+    }
+    System.out.println(ansi().fg(Ansi.Color.WHITE).a(stages).reset());
     System.out.println();
   }
 
@@ -157,4 +693,8 @@ public class LogConsumer implements AutoCloseable {
   public long getFailedMessages() {
     return this.messagesFailed.get();
   }
+
+  public long getFilteredMessages() {
+    return this.messagesFiltered.get();
+  }
 }
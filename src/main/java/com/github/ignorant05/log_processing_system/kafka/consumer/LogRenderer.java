@@ -0,0 +1,93 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+
+/**
+ * LogRenderer
+ *
+ * <p>Formats the consumer's coloured log line straight into a caller's {@link StringBuilder}. The
+ * escape sequences around the level are precomputed per level, padding is appended by hand, and the
+ * timestamp is written digit by digit, so a line costs no {@code String.format}, concatenation or
+ * temporary strings.
+ */
+public final class LogRenderer {
+  static final String RESET = "\u001B[0m";
+  private static final String SERVICE_COLOR = " \u001B[35m";
+  private static final String MESSAGE_COLOR = " \u001B[36m";
+  private static final String NO_TIMESTAMP = "--:--:--.---";
+  private static final String DEFAULT_COLOR = "\u001B[37m";
+  private static final int SERVICE_WIDTH = 20;
+  private static final int LEVEL_WIDTH = 7;
+
+  private static final Level[] LEVELS = Level.values();
+
+  /** Per level: colour and the opening bracket of the timestamp. */
+  private static final String[] OPENING = new String[LEVELS.length];
+
+  /** Per level: everything between the service and the message. */
+  private static final String[] LEVEL_TAG = new String[LEVELS.length];
+
+  static {
+    for (Level level : LEVELS) {
+      String color = colorOf(level);
+      OPENING[level.ordinal()] = color + "[";
+      LEVEL_TAG[level.ordinal()] =
+          padded(new StringBuilder(RESET + " " + color), level.name(), LEVEL_WIDTH)
+              .append(RESET)
+              .append(MESSAGE_COLOR)
+              .toString();
+    }
+  }
+
+  private LogRenderer() {}
+
+  public static String colorOf(Level level) {
+    if (level == null) return DEFAULT_COLOR;
+    return switch (level) {
+      case INFO -> "\u001B[32m"; // Green
+      case ERROR -> "\u001B[31m"; // Red
+      case WARN -> "\u001B[33m"; // Yellow
+      case DEBUG -> "\u001B[34m"; // Blue
+      default -> DEFAULT_COLOR;
+    };
+  }
+
+  /** Appends the line for {@code logEntry}, without a line break. */
+  public static StringBuilder append(
+      StringBuilder out, MutableLogEntry logEntry, int partition, long offset) {
+    Level level = logEntry.getLevel();
+    out.append(level != null ? OPENING[level.ordinal()] : DEFAULT_COLOR + "[");
+    if (logEntry.hasTimestamp()) {
+      Timestamps.appendTimeOfDay(out, logEntry.getTimestampMillis());
+    } else {
+      out.append(NO_TIMESTAMP);
+    }
+    out.append(']').append(RESET).append(SERVICE_COLOR);
+    padded(out, logEntry.getService(), SERVICE_WIDTH);
+
+    if (level != null) {
+      out.append(LEVEL_TAG[level.ordinal()]);
+    } else {
+      out.append(RESET).append(' ').append(DEFAULT_COLOR);
+      padded(out, logEntry.getLevelName(), LEVEL_WIDTH).append(RESET).append(MESSAGE_COLOR);
+    }
+
+    return out.append(logEntry.getMessage())
+        .append(RESET)
+        .append(" (p:")
+        .append(partition)
+        .append(", o:")
+        .append(offset)
+        .append(')');
+  }
+
+  /** Appends {@code value} left-aligned in {@code width} columns, as {@code %-<width>s} would. */
+  private static StringBuilder padded(StringBuilder out, String value, int width) {
+    if (value == null) value = "null";
+    out.append(value);
+    for (int i = value.length(); i < width; i++) out.append(' ');
+    return out;
+  }
+}
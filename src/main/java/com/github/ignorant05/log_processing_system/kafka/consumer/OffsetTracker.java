@@ -0,0 +1,154 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * OffsetTracker
+ *
+ * <p>Per-partition record of which dispatched offsets are still being processed. Records finish out
+ * of order once they are spread over workers, so the offset safe to commit for a partition is its
+ * lowest unfinished one, or one past the highest dispatched when nothing is pending. Offsets that
+ * were never dispatched (skipped poison records, transaction markers, compacted gaps) are simply
+ * not tracked and never hold a commit back.
+ */
+final class OffsetTracker {
+  private final Map<TopicPartition, Partition> partitions = new HashMap<>();
+  private int inFlight;
+  private long completedTotal;
+
+  private static final class Partition {
+    final TreeSet<Long> pending = new TreeSet<>();
+    final Set<Long> held = new HashSet<>();
+    long next = -1;
+    long committed = -1;
+    long abandoned = Long.MAX_VALUE;
+
+    long committable() {
+      return Math.min(pending.isEmpty() ? next : pending.first(), abandoned);
+    }
+  }
+
+  synchronized void dispatched(TopicPartition partition, long offset) {
+    Partition state = partitions.computeIfAbsent(partition, p -> new Partition());
+    if (state.pending.add(offset)) inFlight++;
+    state.next = Math.max(state.next, offset + 1);
+  }
+
+  synchronized void completed(TopicPartition partition, long offset) {
+    Partition state = partitions.get(partition);
+    if (state == null || state.held.contains(offset) || !state.pending.remove(offset)) return;
+    inFlight--;
+    completedTotal++;
+    notifyAll();
+  }
+
+  /**
+   * Keeps the record at {@code offset} pending through {@link #completed} until {@link #release}:
+   * for a sink that buffers records past the end of the pipeline.
+   */
+  synchronized void hold(TopicPartition partition, long offset) {
+    Partition state = partitions.get(partition);
+    if (state != null && state.pending.contains(offset)) state.held.add(offset);
+  }
+
+  /** Completes a record {@link #hold} kept pending. */
+  synchronized void release(TopicPartition partition, long offset) {
+    Partition state = partitions.get(partition);
+    if (state == null || !state.held.remove(offset)) return;
+    completed(partition, offset);
+  }
+
+  /**
+   * The record at {@code offset} will not be processed after all. Commits still stop short of it,
+   * but {@link #awaitCompleted} no longer waits for it.
+   */
+  synchronized void abandoned(TopicPartition partition, long offset) {
+    Partition state = partitions.get(partition);
+    if (state == null || !state.pending.remove(offset)) return;
+    inFlight--;
+    state.abandoned = Math.min(state.abandoned, offset);
+    notifyAll();
+  }
+
+  /** Records completed since the tracker was created. */
+  synchronized long completedTotal() {
+    return completedTotal;
+  }
+
+  /** Records dispatched and not yet completed, over all partitions. */
+  synchronized int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Offsets to commit for every partition that has progressed since the last {@link #committed}
+   * call; empty when there is nothing new.
+   */
+  synchronized Map<TopicPartition, OffsetAndMetadata> committable() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (Map.Entry<TopicPartition, Partition> entry : partitions.entrySet()) {
+      long offset = entry.getValue().committable();
+      if (offset > entry.getValue().committed) {
+        offsets.put(entry.getKey(), new OffsetAndMetadata(offset));
+      }
+    }
+    return offsets;
+  }
+
+  /** Remembers {@code offsets} as committed, so {@link #committable} stops returning them. */
+  synchronized void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+      Partition state = partitions.get(entry.getKey());
+      if (state != null) state.committed = Math.max(state.committed, entry.getValue().offset());
+    }
+  }
+
+  /** A commit of {@code offsets} failed: {@link #committable} returns their partitions again. */
+  synchronized void commitFailed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    for (TopicPartition partition : offsets.keySet()) {
+      Partition state = partitions.get(partition);
+      if (state != null) state.committed = -1;
+    }
+  }
+
+  /**
+   * Waits until nothing dispatched from {@code revoked} is still being processed.
+   *
+   * @return false if {@code timeoutMS} ran out first
+   */
+  synchronized boolean awaitCompleted(Collection<TopicPartition> revoked, long timeoutMS)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMS);
+    while (hasPending(revoked)) {
+      long remainingMS = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMS <= 0) return false;
+      wait(remainingMS);
+    }
+    return true;
+  }
+
+  /** Drops the state of partitions this consumer no longer owns. */
+  synchronized void forget(Collection<TopicPartition> revoked) {
+    for (TopicPartition partition : revoked) {
+      Partition state = partitions.remove(partition);
+      if (state != null) inFlight -= state.pending.size();
+    }
+    notifyAll();
+  }
+
+  private boolean hasPending(Collection<TopicPartition> revoked) {
+    for (TopicPartition partition : revoked) {
+      Partition state = partitions.get(partition);
+      if (state != null && !state.pending.isEmpty()) return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,165 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.OrderingMetrics;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * OrderedMerger
+ *
+ * <p>Reorders rendered logs from all partitions into one timestamp order. Each partition's lines
+ * wait in their own buffer, kept sorted (lines mostly arrive in order, so an insert is usually an
+ * append), and a heap over the buffers' heads does a k-way merge.
+ *
+ * <p>A line is printed once the watermark, the latest timestamp seen minus the allowed lateness,
+ * has passed it, so memory holds about {@code lateness} worth of logs. Lines that arrive behind a
+ * later one are put back in place while the watermark has not passed them; after that they are late
+ * and printed straight away. When nothing arrives for {@code lateness}, everything buffered is
+ * printed. Sink thread only, except {@link #release}.
+ */
+final class OrderedMerger {
+  static final long DEFAULT_LATENESS_MS = 2_000;
+
+  /** Printed regardless of the watermark beyond this, in case timestamps run far ahead. */
+  static final int MAX_BUFFERED = 100_000;
+
+  private final long latenessMS;
+  private final long latenessNanos;
+  private final Map<TopicPartition, ArrayDeque<Line>> buffers = new HashMap<>();
+  private final PriorityQueue<ArrayDeque<Line>> heads =
+      new PriorityQueue<>((a, b) -> Long.compare(a.peekFirst().timestamp, b.peekFirst().timestamp));
+  private final Queue<TopicPartition> releaseRequests = new ConcurrentLinkedQueue<>();
+  private final OrderingMetrics metrics = MetricsRegistry.getInstance().ordering();
+  private long maxTimestamp = Long.MIN_VALUE;
+  private long lastEmitted = Long.MIN_VALUE;
+  private long lastArrivalNanos;
+  private int buffered;
+
+  /** A rendered log and where it came from; completed in the tracker once printed. */
+  static final class Line {
+    final TopicPartition partition;
+    final long offset;
+    final long timestamp;
+    final byte[] utf8;
+    long arrivedNanos;
+
+    Line(TopicPartition partition, long offset, long timestamp, byte[] utf8) {
+      this.partition = partition;
+      this.offset = offset;
+      this.timestamp = timestamp;
+      this.utf8 = utf8;
+    }
+  }
+
+  OrderedMerger(long latenessMS) {
+    this.latenessMS = latenessMS;
+    this.latenessNanos = TimeUnit.MILLISECONDS.toNanos(latenessMS);
+  }
+
+  /** Buffers {@code line} and adds whatever became due to {@code due}, in order. */
+  void add(Line line, long nowNanos, List<Line> due) {
+    line.arrivedNanos = nowNanos;
+    lastArrivalNanos = nowNanos;
+    if (line.timestamp == Timestamps.NONE) {
+      due.add(line);
+      return;
+    }
+
+    if (line.timestamp < maxTimestamp) metrics.recordOutOfOrder();
+    if (line.timestamp < lastEmitted) {
+      metrics.recordLate();
+      due.add(line);
+      return;
+    }
+    maxTimestamp = Math.max(maxTimestamp, line.timestamp);
+    insert(line);
+    emitUpTo(maxTimestamp - latenessMS, due);
+  }
+
+  /**
+   * Called while the sink is idle: prints the partitions {@link #release} asked for, and everything
+   * once nothing arrived for the allowed lateness.
+   */
+  void tick(long nowNanos, List<Line> due) {
+    TopicPartition partition;
+    while ((partition = releaseRequests.poll()) != null) emitPartition(partition, due);
+    if (buffered > 0 && nowNanos - lastArrivalNanos >= latenessNanos) {
+      emitUpTo(Long.MAX_VALUE, due);
+    }
+  }
+
+  /** Asks for the lines of {@code partitions} to be printed at the next {@link #tick}. */
+  void release(Collection<TopicPartition> partitions) {
+    releaseRequests.addAll(partitions);
+  }
+
+  /** Everything buffered, in order; for shutdown. */
+  void drain(List<Line> due) {
+    releaseRequests.clear();
+    emitUpTo(Long.MAX_VALUE, due);
+  }
+
+  int getBuffered() {
+    return this.buffered;
+  }
+
+  private void insert(Line line) {
+    ArrayDeque<Line> buffer = buffers.computeIfAbsent(line.partition, p -> new ArrayDeque<>());
+    boolean wasEmpty = buffer.isEmpty();
+    boolean newHead = wasEmpty || line.timestamp < buffer.peekFirst().timestamp;
+    if (newHead && !wasEmpty) heads.remove(buffer);
+
+    if (wasEmpty || line.timestamp >= buffer.peekLast().timestamp) {
+      buffer.addLast(line);
+    } else {
+      insertSorted(buffer, line);
+    }
+    if (newHead) heads.add(buffer);
+    metrics.setBuffered(++buffered);
+  }
+
+  /** Puts {@code line} after every line with a timestamp not later than its own. */
+  private static void insertSorted(ArrayDeque<Line> buffer, Line line) {
+    ArrayDeque<Line> later = new ArrayDeque<>();
+    while (!buffer.isEmpty() && buffer.peekLast().timestamp > line.timestamp) {
+      later.addFirst(buffer.pollLast());
+    }
+    buffer.addLast(line);
+    buffer.addAll(later);
+  }
+
+  private void emitUpTo(long watermark, List<Line> due) {
+    while (!heads.isEmpty()
+        && (heads.peek().peekFirst().timestamp <= watermark || buffered > MAX_BUFFERED)) {
+      ArrayDeque<Line> buffer = heads.poll();
+      emit(buffer.pollFirst(), due);
+      if (!buffer.isEmpty()) heads.add(buffer);
+    }
+  }
+
+  /** Prints the partition's lines now, even out of order: it is moving to another consumer. */
+  private void emitPartition(TopicPartition partition, List<Line> due) {
+    ArrayDeque<Line> buffer = buffers.remove(partition);
+    if (buffer == null || buffer.isEmpty()) return;
+    heads.remove(buffer);
+    buffered -= buffer.size();
+    metrics.setBuffered(buffered);
+    due.addAll(buffer);
+  }
+
+  private void emit(Line line, List<Line> due) {
+    lastEmitted = Math.max(lastEmitted, line.timestamp);
+    metrics.setBuffered(--buffered);
+    due.add(line);
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OutputSampler
+ *
+ * <p>Keeps the terminal readable, and the consumer from falling behind it, when logs arrive faster
+ * than a terminal can scroll. Every second the sink compares the rate of records reaching render
+ * with {@code maxLinesPerSecond}; above it, only one record in {@code ceil(rate / max)} is printed
+ * and each second ends with a summary of what was seen, per level. Below it, every record is
+ * printed again.
+ */
+final class OutputSampler {
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final Level[] LEVELS = Level.values();
+
+  private final long maxLinesPerSecond;
+
+  /** Records seen this window, per {@link Level} ordinal; the last slot is for unknown levels. */
+  private final LongAdder[] seen = new LongAdder[LEVELS.length + 1];
+
+  private final AtomicLong sequence = new AtomicLong();
+  private volatile int stride = 1;
+  private long windowStartNanos;
+
+  /**
+   * @param maxLinesPerSecond 0 to always print everything
+   */
+  OutputSampler(long maxLinesPerSecond, long nowNanos) {
+    this.maxLinesPerSecond = maxLinesPerSecond;
+    this.windowStartNanos = nowNanos;
+    for (int i = 0; i < seen.length; i++) seen[i] = new LongAdder();
+  }
+
+  /** Counts a record of {@code level}; true if it should be printed. Any render thread. */
+  boolean admit(Level level) {
+    if (maxLinesPerSecond <= 0) return true;
+
+    seen[level != null ? level.ordinal() : LEVELS.length].increment();
+    int stride = this.stride;
+    return stride == 1 || sequence.incrementAndGet() % stride == 0;
+  }
+
+  /** Records in one printed; 1 when not sampling. */
+  int getStride() {
+    return this.stride;
+  }
+
+  /**
+   * Closes the window once a second has passed and picks the stride for the next one. Sink thread
+   * only.
+   *
+   * @return a summary line to print after the records, or null
+   */
+  String tick(long nowNanos) {
+    long elapsed = nowNanos - windowStartNanos;
+    if (maxLinesPerSecond <= 0 || elapsed < WINDOW_NANOS) return null;
+    windowStartNanos = nowNanos;
+
+    long total = 0;
+    long[] counts = new long[seen.length];
+    for (int i = 0; i < seen.length; i++) {
+      counts[i] = seen[i].sumThenReset();
+      total += counts[i];
+    }
+    double rate = total * 1e9 / elapsed;
+    int previous = stride;
+    stride = (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(rate / maxLinesPerSecond)));
+
+    if (previous == 1 && stride == 1) return null;
+    if (stride == 1) return "-- " + Math.round(rate) + " logs/s, printing every log again --";
+
+    StringBuilder summary =
+        new StringBuilder("-- ")
+            .append(Math.round(rate))
+            .append(" logs/s, printed 1 in ")
+            .append(previous)
+            .append(':');
+    for (int i = 0; i < LEVELS.length; i++) {
+      if (counts[i] > 0) summary.append(' ').append(LEVELS[i].name()).append(' ').append(counts[i]);
+    }
+    if (counts[LEVELS.length] > 0) summary.append(" other ").append(counts[LEVELS.length]);
+    if (stride != previous) summary.append("; now 1 in ").append(stride);
+    return summary.append(" --").toString();
+  }
+}
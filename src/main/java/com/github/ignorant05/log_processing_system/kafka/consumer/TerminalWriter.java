@@ -0,0 +1,59 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * TerminalWriter
+ *
+ * <p>Collects rendered lines in one large buffer and writes it to a channel in a single call when
+ * it fills up or when the caller has nothing more queued, instead of a synchronised, flushing
+ * {@code println} per line. Used by one thread at a time.
+ */
+final class TerminalWriter {
+  static final int BUFFER_SIZE = 256 * 1024;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+  TerminalWriter(WritableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  /** Standard output, bypassing {@code System.out} and its buffering. */
+  static TerminalWriter stdout() {
+    return new TerminalWriter(new FileOutputStream(FileDescriptor.out).getChannel());
+  }
+
+  /** Buffers {@code utf8}, which should end with a line break. */
+  void write(byte[] utf8) {
+    if (utf8.length > buffer.remaining()) flush();
+    if (utf8.length > buffer.capacity()) {
+      writeFully(ByteBuffer.wrap(utf8));
+      return;
+    }
+    buffer.put(utf8);
+  }
+
+  void flush() {
+    if (buffer.position() == 0) return;
+    buffer.flip();
+    try {
+      writeFully(buffer);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  private void writeFully(ByteBuffer bytes) {
+    try {
+      while (bytes.hasRemaining()) channel.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
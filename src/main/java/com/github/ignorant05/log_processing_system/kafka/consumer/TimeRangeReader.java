@@ -0,0 +1,353 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryViewDeserializer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+/**
+ * TimeRangeReader
+ *
+ * <p>Prints the logs written to {@code topic} between two instants without replaying it: {@code
+ * offsetsForTimes} turns {@code since} into a start offset and {@code until} into a stop offset per
+ * partition, and every partition with records in range is read by its own assign-based consumer
+ * that stops at that offset. Nothing is committed and no consumer group is joined.
+ *
+ * <p>Readers filter, decode and render on their own threads. The writer either prints lines as they
+ * come, or, when merging, always prints the earliest head among the partitions, so the output is in
+ * timestamp order as long as each partition is. Times are Kafka record timestamps, which the
+ * producer sets when it sends a log.
+ */
+public class TimeRangeReader {
+  private static final int MAX_POLL_RECORDS = 500;
+  private static final int LINES_PER_READER = 1_024;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(10);
+
+  /** Put by a reader after its last line. */
+  private static final Line END = new Line(Long.MAX_VALUE, -1, null);
+
+  private final Supplier<Consumer<String, LogEntryView>> consumers;
+  private final String topic;
+  private final Predicate<LogEntryView> filter;
+  private final AtomicLong messagesRead = new AtomicLong();
+  private final AtomicLong messagesFiltered = new AtomicLong();
+  private final AtomicLong messagesFailed = new AtomicLong();
+  private volatile boolean isRunning = true;
+  private boolean merged;
+  private TerminalWriter terminal = TerminalWriter.stdout();
+
+  /** A rendered log, with what the merge orders by. */
+  private static final class Line {
+    final long timestamp;
+    final int partition;
+    final byte[] utf8;
+
+    Line(long timestamp, int partition, byte[] utf8) {
+      this.timestamp = timestamp;
+      this.partition = partition;
+      this.utf8 = utf8;
+    }
+  }
+
+  /** The offsets of one partition to read, {@code [start, stop)}. */
+  static final class Range {
+    final TopicPartition partition;
+    final long start;
+    final long stop;
+
+    Range(TopicPartition partition, long start, long stop) {
+      this.partition = partition;
+      this.start = start;
+      this.stop = stop;
+    }
+  }
+
+  /**
+   * @param defaultCodec codec for records that carry no codec header
+   * @param filter evaluated on the undecoded record; rejected records are never materialised
+   */
+  public TimeRangeReader(
+      String bootstrapServers,
+      String topic,
+      CodecType defaultCodec,
+      Predicate<LogEntryView> filter) {
+    this(
+        () -> {
+          Properties props = new Properties();
+          props.setProperty("bootstrap.servers", bootstrapServers);
+          props.setProperty("enable.auto.commit", "false");
+          props.put("max.poll.records", MAX_POLL_RECORDS);
+          props.put("isolation.level", "read_committed");
+          return new KafkaConsumer<>(
+              props, new StringDeserializer(), new LogEntryViewDeserializer(defaultCodec));
+        },
+        topic,
+        filter);
+  }
+
+  /** Takes a fresh consumer from {@code consumers} for the lookups and for every reader. */
+  TimeRangeReader(
+      Supplier<Consumer<String, LogEntryView>> consumers,
+      String topic,
+      Predicate<LogEntryView> filter) {
+    this.consumers = consumers;
+    this.topic = topic;
+    this.filter = filter;
+  }
+
+  /** Prints the partitions merged in timestamp order rather than as they are read. */
+  public TimeRangeReader merged(boolean merged) {
+    this.merged = merged;
+    return this;
+  }
+
+  /** Writes the logs to {@code channel} instead of standard output. */
+  TimeRangeReader writeTo(WritableByteChannel channel) {
+    this.terminal = new TerminalWriter(channel);
+    return this;
+  }
+
+  public void stop() {
+    isRunning = false;
+  }
+
+  /**
+   * Prints every log with a timestamp in {@code [sinceMS, untilMS]} and returns once all readers
+   * are done.
+   */
+  public void read(long sinceMS, long untilMS) throws InterruptedException {
+    long startedAt = System.nanoTime();
+    List<Range> ranges;
+    try (Consumer<String, LogEntryView> lookup = consumers.get()) {
+      ranges = ranges(lookup, sinceMS, untilMS);
+    }
+
+    List<BlockingQueue<Line>> queues = new ArrayList<>(ranges.size());
+    BlockingQueue<Line> shared = merged ? null : new ArrayBlockingQueue<>(LINES_PER_READER);
+    List<Thread> readers = new ArrayList<>(ranges.size());
+    for (Range range : ranges) {
+      BlockingQueue<Line> queue = merged ? new ArrayBlockingQueue<>(LINES_PER_READER) : shared;
+      queues.add(queue);
+      Thread reader = new Thread(() -> readRange(range, sinceMS, untilMS, queue));
+      reader.setName("klog-range-" + range.partition.partition());
+      reader.setDaemon(true);
+      readers.add(reader);
+      reader.start();
+    }
+
+    try {
+      if (merged) {
+        writeMerged(queues);
+      } else {
+        writeAsRead(shared, ranges.size());
+      }
+    } finally {
+      terminal.flush();
+      stop();
+      for (Thread reader : readers) reader.interrupt();
+      for (Thread reader : readers) reader.join();
+    }
+
+    System.out.printf(
+        "Read %d logs (%d filtered, %d failed) from %d partition(s) in %dms%n",
+        messagesRead.get(),
+        messagesFiltered.get(),
+        messagesFailed.get(),
+        ranges.size(),
+        (System.nanoTime() - startedAt) / 1_000_000);
+  }
+
+  /**
+   * Per partition, from the first offset at or after {@code sinceMS} up to the first offset after
+   * {@code untilMS}, or the current end of the partition if there is none yet. Partitions without
+   * records in range are left out.
+   */
+  List<Range> ranges(Consumer<?, ?> lookup, long sinceMS, long untilMS) {
+    List<PartitionInfo> infos = lookup.partitionsFor(topic, LOOKUP_TIMEOUT);
+    if (infos == null || infos.isEmpty()) {
+      throw new IllegalStateException("Topic " + topic + " does not exist");
+    }
+
+    Map<TopicPartition, Long> since = new HashMap<>();
+    Map<TopicPartition, Long> after = new HashMap<>();
+    for (PartitionInfo info : infos) {
+      TopicPartition partition = new TopicPartition(info.topic(), info.partition());
+      since.put(partition, sinceMS);
+      after.put(partition, untilMS == Long.MAX_VALUE ? untilMS : untilMS + 1);
+    }
+    Map<TopicPartition, OffsetAndTimestamp> starts = lookup.offsetsForTimes(since, LOOKUP_TIMEOUT);
+    Map<TopicPartition, OffsetAndTimestamp> stops = lookup.offsetsForTimes(after, LOOKUP_TIMEOUT);
+    Map<TopicPartition, Long> ends = lookup.endOffsets(since.keySet(), LOOKUP_TIMEOUT);
+
+    List<Range> ranges = new ArrayList<>();
+    for (TopicPartition partition : since.keySet()) {
+      OffsetAndTimestamp start = starts.get(partition);
+      if (start == null) continue;
+      OffsetAndTimestamp stop = stops.get(partition);
+      long end = ends.getOrDefault(partition, 0L);
+      long stopOffset = stop != null ? Math.min(stop.offset(), end) : end;
+      if (start.offset() < stopOffset) {
+        ranges.add(new Range(partition, start.offset(), stopOffset));
+      }
+    }
+    ranges.sort((a, b) -> Integer.compare(a.partition.partition(), b.partition.partition()));
+    return ranges;
+  }
+
+  private void readRange(Range range, long sinceMS, long untilMS, BlockingQueue<Line> queue) {
+    MutableLogEntry logEntry = new MutableLogEntry();
+    StringBuilder out = new StringBuilder(256);
+    try (Consumer<String, LogEntryView> consumer = consumers.get()) {
+      consumer.assign(List.of(range.partition));
+      consumer.seek(range.partition, range.start);
+
+      long position = range.start;
+      while (isRunning && position < range.stop) {
+        ConsumerRecords<String, LogEntryView> records;
+        try {
+          records = consumer.poll(POLL_TIMEOUT);
+        } catch (RecordDeserializationException e) {
+          messagesFailed.incrementAndGet();
+          consumer.seek(range.partition, e.offset() + 1);
+          position = e.offset() + 1;
+          continue;
+        }
+
+        for (ConsumerRecord<String, LogEntryView> record : records) {
+          if (record.offset() >= range.stop) break;
+          if (record.timestamp() < sinceMS || record.timestamp() > untilMS) continue;
+          Line line = render(record, logEntry, out);
+          if (line != null) queue.put(line);
+        }
+        position = consumer.position(range.partition);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      messagesFailed.incrementAndGet();
+      System.err.printf("Failed to read %s: %s%n", range.partition, e.getMessage());
+    } finally {
+      // The writer counts ENDs: it must get one even when the reader failed.
+      while (true) {
+        try {
+          queue.put(END);
+          break;
+        } catch (InterruptedException e) {
+          if (!isRunning) break;
+        }
+      }
+    }
+  }
+
+  private Line render(
+      ConsumerRecord<String, LogEntryView> record, MutableLogEntry logEntry, StringBuilder out) {
+    LogEntryView view = record.value();
+    if (view == null) {
+      messagesFailed.incrementAndGet();
+      return null;
+    }
+    try {
+      if (!filter.test(view)) {
+        messagesFiltered.incrementAndGet();
+        return null;
+      }
+      view.readInto(logEntry);
+      out.setLength(0);
+      LogRenderer.append(out, logEntry, record.partition(), record.offset()).append('\n');
+      return new Line(
+          record.timestamp(), record.partition(), out.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      messagesFailed.incrementAndGet();
+      System.err.printf("Failed to process message %s%n", e.getMessage());
+      return null;
+    }
+  }
+
+  private void writeAsRead(BlockingQueue<Line> queue, int readers) throws InterruptedException {
+    for (int ended = 0; ended < readers; ) {
+      Line line = next(queue);
+      if (line == END) {
+        ended++;
+      } else {
+        write(line);
+      }
+    }
+  }
+
+  /**
+   * K-way merge: holds the head of every partition still being read and always prints the earliest,
+   * ties going to the lower partition.
+   */
+  private void writeMerged(List<BlockingQueue<Line>> queues) throws InterruptedException {
+    PriorityQueue<Line> heads =
+        new PriorityQueue<>(
+            Math.max(1, queues.size()),
+            (a, b) ->
+                a.timestamp != b.timestamp
+                    ? Long.compare(a.timestamp, b.timestamp)
+                    : Integer.compare(a.partition, b.partition));
+    Map<Integer, BlockingQueue<Line>> byPartition = new HashMap<>();
+    for (BlockingQueue<Line> queue : queues) {
+      Line head = next(queue);
+      if (head == END) continue;
+      byPartition.put(head.partition, queue);
+      heads.add(head);
+    }
+
+    while (!heads.isEmpty()) {
+      Line line = heads.poll();
+      write(line);
+      Line following = next(byPartition.get(line.partition));
+      if (following != END) heads.add(following);
+    }
+  }
+
+  /** Flushes what was written before waiting on a reader. */
+  private Line next(BlockingQueue<Line> queue) throws InterruptedException {
+    Line line = queue.poll();
+    if (line != null) return line;
+    terminal.flush();
+    return queue.take();
+  }
+
+  private void write(Line line) {
+    terminal.write(line.utf8);
+    messagesRead.incrementAndGet();
+  }
+
+  public long getReadMessages() {
+    return this.messagesRead.get();
+  }
+
+  public long getFilteredMessages() {
+    return this.messagesFiltered.get();
+  }
+
+  public long getFailedMessages() {
+    return this.messagesFailed.get();
+  }
+}
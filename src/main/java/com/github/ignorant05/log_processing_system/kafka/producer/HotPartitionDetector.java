@@ -0,0 +1,167 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HotPartitionDetector
+ *
+ * <p>Counts acknowledged sends per partition and routed sends per key over fixed windows. At the
+ * end of each window a partition is hot when it took more than {@code hotFactor} times its fair
+ * share ({@code 1 / partitions}) of the sends, and a key is hot when it alone did. Hot keys are
+ * what a {@link PartitionRouter} spreads over several partitions.
+ */
+public class HotPartitionDetector implements AutoCloseable {
+  public static final double DEFAULT_HOT_FACTOR = 2.0;
+  public static final long DEFAULT_WINDOW_MS = 10_000;
+
+  /** Partitions beyond this are not counted. */
+  static final int MAX_PARTITIONS = 4096;
+
+  /** Keys beyond this many per window are not counted, so id-like keys cannot grow the map. */
+  static final int MAX_TRACKED_KEYS = 10_000;
+
+  /** Windows with fewer sends than this are not judged. */
+  static final long MIN_SAMPLES = 1_000;
+
+  private final double hotFactor;
+  private final AtomicLongArray window = new AtomicLongArray(MAX_PARTITIONS);
+  private final AtomicLongArray total = new AtomicLongArray(MAX_PARTITIONS);
+  private final Map<String, LongAdder> keys = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler;
+
+  private volatile int partitions;
+  private volatile Set<String> hotKeys = Collections.emptySet();
+  private volatile List<Integer> hotPartitions = Collections.emptyList();
+
+  public HotPartitionDetector(double hotFactor) {
+    this.hotFactor = hotFactor;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "klog-hot-partitions");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public HotPartitionDetector start(long windowMS) {
+    scheduler.scheduleAtFixedRate(this::evaluate, windowMS, windowMS, TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /** A send was routed by {@code key} to a topic of {@code partitions} partitions. */
+  void recordKey(String key, int partitions) {
+    this.partitions = partitions;
+    LongAdder count = keys.get(key);
+    if (count == null) {
+      if (keys.size() >= MAX_TRACKED_KEYS) return;
+      count = keys.computeIfAbsent(key, k -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  /** A send to {@code partition} was acknowledged. */
+  void recordPartition(int partition) {
+    if (partition < 0 || partition >= MAX_PARTITIONS) return;
+    window.incrementAndGet(partition);
+    total.incrementAndGet(partition);
+    if (partition >= partitions) partitions = partition + 1;
+  }
+
+  public boolean isHot(String key) {
+    return hotKeys.contains(key);
+  }
+
+  /** Hot keys as of the last window. */
+  public Set<String> getHotKeys() {
+    return this.hotKeys;
+  }
+
+  /** Hot partitions as of the last window. */
+  public List<Integer> getHotPartitions() {
+    return this.hotPartitions;
+  }
+
+  synchronized void evaluate() {
+    int n = Math.min(partitions, MAX_PARTITIONS);
+    long[] counts = new long[n];
+    long sends = 0;
+    for (int p = 0; p < n; p++) {
+      counts[p] = window.getAndSet(p, 0);
+      sends += counts[p];
+    }
+
+    Map<String, Long> keyCounts = new HashMap<>();
+    long keyed = 0;
+    for (Map.Entry<String, LongAdder> entry : keys.entrySet()) {
+      long count = entry.getValue().sumThenReset();
+      if (count > 0) keyCounts.put(entry.getKey(), count);
+      keyed += count;
+    }
+    keys.clear();
+
+    if (n < 2) return;
+    double hotShare = hotFactor / n;
+
+    List<Integer> hot = new ArrayList<>();
+    if (sends >= MIN_SAMPLES) {
+      for (int p = 0; p < n; p++) {
+        double share = (double) counts[p] / sends;
+        if (share <= hotShare) continue;
+        hot.add(p);
+        System.err.printf(
+            "Hot partition %d: %.1f%% of %d sends (fair share %.1f%%)%n",
+            p, share * 100, sends, 100.0 / n);
+      }
+      hotPartitions = Collections.unmodifiableList(hot);
+    }
+
+    if (keyed >= MIN_SAMPLES) {
+      Set<String> hotNow = new HashSet<>();
+      for (Map.Entry<String, Long> entry : keyCounts.entrySet()) {
+        double share = (double) entry.getValue() / keyed;
+        if (share <= hotShare) continue;
+        hotNow.add(entry.getKey());
+        if (!hotKeys.contains(entry.getKey())) {
+          System.err.printf("Hot key %s: %.1f%% of sends%n", entry.getKey(), share * 100);
+        }
+      }
+      for (String key : hotKeys) {
+        if (!hotNow.contains(key)) System.err.printf("Key %s cooled down%n", key);
+      }
+      hotKeys = Collections.unmodifiableSet(hotNow);
+    }
+  }
+
+  /** Acknowledged sends per partition since the start. */
+  public long[] getTotals() {
+    int n = Math.min(partitions, MAX_PARTITIONS);
+    long[] totals = new long[n];
+    for (int p = 0; p < n; p++) totals[p] = total.get(p);
+    return totals;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+
+    long[] totals = getTotals();
+    if (totals.length == 0) return;
+    StringBuilder line = new StringBuilder("\tSends per partition:");
+    for (int p = 0; p < totals.length; p++)
+      line.append(' ').append(p).append('=').append(totals[p]);
+    System.out.println(line);
+  }
+}
@@ -0,0 +1,96 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import com.github.ignorant05.log_processing_system.model.BackpressurePolicy;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+/**
+ * InFlightWindow
+ *
+ * <p>Bounds how many records, and how many serialized bytes, a {@link LogProducer} may have sent
+ * but not yet had acknowledged. Room is taken before a record is handed to Kafka and given back in
+ * its completion callback, so a slow cluster shows up as a full window (and the configured {@link
+ * BackpressurePolicy}) rather than as {@code send()} silently blocking on a full buffer.
+ *
+ * <p>A limit of 0 means unlimited.
+ */
+public class InFlightWindow {
+  private final int maxRecords;
+  private final int maxBytes;
+  private final BackpressurePolicy policy;
+  private final Path spillDir;
+
+  private final Semaphore records;
+  private final Semaphore bytes;
+
+  public InFlightWindow(int maxRecords, int maxBytes, BackpressurePolicy policy, Path spillDir) {
+    this.maxRecords = Math.max(0, maxRecords);
+    this.maxBytes = Math.max(0, maxBytes);
+    this.policy = policy;
+    this.spillDir = spillDir;
+    this.records = this.maxRecords > 0 ? new Semaphore(this.maxRecords) : null;
+    this.bytes = this.maxBytes > 0 ? new Semaphore(this.maxBytes) : null;
+  }
+
+  public static InFlightWindow unbounded() {
+    return new InFlightWindow(0, 0, BackpressurePolicy.block, null);
+  }
+
+  /** Takes room for one record of {@code size} bytes if there is some right now. */
+  public boolean tryAcquire(int size) {
+    if (records != null && !records.tryAcquire()) return false;
+    if (bytes != null && !bytes.tryAcquire(clamp(size))) {
+      if (records != null) records.release();
+      return false;
+    }
+    return true;
+  }
+
+  /** Waits for room for one record of {@code size} bytes. */
+  public void acquire(int size) throws InterruptedException {
+    if (records != null) records.acquire();
+    if (bytes != null) {
+      try {
+        bytes.acquire(clamp(size));
+      } catch (InterruptedException e) {
+        if (records != null) records.release();
+        throw e;
+      }
+    }
+  }
+
+  public void release(int size) {
+    if (bytes != null) bytes.release(clamp(size));
+    if (records != null) records.release();
+  }
+
+  /** A record larger than the whole byte budget still gets through, on its own. */
+  private int clamp(int size) {
+    return Math.min(Math.max(size, 0), maxBytes);
+  }
+
+  public int getInFlightRecords() {
+    return records == null ? 0 : maxRecords - records.availablePermits();
+  }
+
+  public int getInFlightBytes() {
+    return bytes == null ? 0 : maxBytes - bytes.availablePermits();
+  }
+
+  public int getMaxRecords() {
+    return this.maxRecords;
+  }
+
+  public int getMaxBytes() {
+    return this.maxBytes;
+  }
+
+  public BackpressurePolicy getPolicy() {
+    return this.policy;
+  }
+
+  /** Directory spill files go to; the system temp directory when null. */
+  public Path getSpillDir() {
+    return this.spillDir;
+  }
+}
@@ -1,92 +1,404 @@
 package com.github.ignorant05.log_processing_system.kafka.producer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.config.KafkaConfig;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
+import com.github.ignorant05.log_processing_system.model.BackpressurePolicy;
+import com.github.ignorant05.log_processing_system.model.CodecType;
 import com.github.ignorant05.log_processing_system.model.LogEntry;
-import com.github.ignorant05.log_processing_system.util.JsonUtil;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.kafka.clients.producer.*;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 
-/** LogProducer */
+/**
+ * LogProducer
+ *
+ * <p>Records are serialized here rather than inside the Kafka client, so their exact size is known
+ * before they take room in the {@link InFlightWindow}. Every send is timed from {@link #send} to
+ * its acknowledgement and recorded in {@link MetricsRegistry}.
+ *
+ * <p>Records are keyed by log id unless {@link #routeWith} picks another {@link PartitionRouter}.
+ * With {@link #enableTransactions} the sends are batched into transactions by a {@link
+ * TransactionBatcher}.
+ */
 public class LogProducer implements AutoCloseable {
-  private final KafkaProducer<String, String> producer;
+  private static final long PARTITION_COUNT_MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final Producer<String, byte[]> producer;
   private final String topic;
+  private final LogCodec codec;
+  private final LogEntrySerializer serializer;
+  private final InFlightWindow window;
+  private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+  private final LatencyHistogram latency = new LatencyHistogram();
   private final AtomicLong messagesSent = new AtomicLong(0);
   private final AtomicLong messagesFailed = new AtomicLong(0);
+  private final AtomicLong messagesDropped = new AtomicLong(0);
+  private final AtomicLong messagesSpilled = new AtomicLong(0);
+
+  /** Guards {@link #spill}, {@link #spilledFutures}, {@link #replayer} and {@link #closing}. */
+  private final Object spillLock = new Object();
+
+  private SpillFile spill;
+  private final ArrayDeque<CompletableFuture<RecordMetadata>> spilledFutures = new ArrayDeque<>();
+  private Thread replayer;
+  private boolean closing;
+
+  private volatile PartitionRouter router = PartitionRouter.byID();
+  private volatile int partitionCount;
+  private volatile long partitionCountCheckedAt;
+  private volatile boolean partitionCountChecked;
+
+  /** Set by {@link #enableTransactions}; null for a non-transactional producer. */
+  private volatile TransactionBatcher transactions;
 
   public LogProducer(String bootstrapServers, String topic) {
-    Properties props = new Properties();
-    props.put("bootstrap.servers", bootstrapServers);
-    props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-    props.put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-    props.put("acks", "all");
-    props.put("retries", 3);
-    props.put("max.in.flight.requests.per.connection", 1);
-    props.put("enable.idempotence", false);
-    props.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384); // 16KB batches
-    props.put(ProducerConfig.LINGER_MS_CONFIG, 10); // Wait 10ms to batch
-    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy"); // compression
-    props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB buffer
-
-    this.producer = new KafkaProducer<>(props);
+    this(bootstrapServers, topic, CodecType.json);
+  }
+
+  public LogProducer(String bootstrapServers, String topic, CodecType codec) {
+    this(bootstrapServers, topic, codec, InFlightWindow.unbounded());
+  }
+
+  public LogProducer(
+      String bootstrapServers, String topic, CodecType codec, InFlightWindow window) {
+    this(
+        KafkaConfig.getProducerConfig(bootstrapServers, ProducerProfile.balanced),
+        topic,
+        codec,
+        window);
+  }
+
+  /**
+   * @param config producer settings, typically from {@link KafkaConfig#getProducerConfig(String,
+   *     ProducerProfile)}; serializers are set here
+   */
+  public LogProducer(Properties config, String topic, CodecType codec, InFlightWindow window) {
+    this(
+        new KafkaProducer<>(config, new StringSerializer(), new ByteArraySerializer()),
+        topic,
+        codec,
+        window);
+  }
+
+  LogProducer(
+      Producer<String, byte[]> producer, String topic, CodecType codec, InFlightWindow window) {
+    this.producer = producer;
     this.topic = topic;
+    this.codec = LogCodecs.get(codec);
+    this.serializer = new LogEntrySerializer(codec);
+    this.window = window;
   }
 
-  public void sendSync(LogEntry logEntry) throws Exception {
-    String json = JsonUtil.toJson(logEntry);
+  /**
+   * Switches to transactional batching: sends are grouped into transactions of at most {@code
+   * maxRecords} records or {@code maxMS} milliseconds, and a record's future only completes once
+   * its transaction commits. The producer must have been configured with a {@code transactional.id}
+   * (see {@link KafkaConfig#applyDeliveryMode}); call before the first send.
+   */
+  public LogProducer enableTransactions(int maxRecords, long maxMS) {
+    this.transactions = new TransactionBatcher(producer, maxRecords, maxMS, this::complete);
+    return this;
+  }
+
+  /** Keys and partitions records with {@code router}; call before the first send. */
+  public LogProducer routeWith(PartitionRouter router) {
+    this.router = router;
+    return this;
+  }
+
+  /**
+   * Sends {@code logEntry} without waiting for it. When the in-flight window is full the window's
+   * {@link BackpressurePolicy} applies: {@code block} waits here, {@code drop} returns a future
+   * failed with {@link RecordDroppedException}, {@code spill} returns a future that completes once
+   * the record has been replayed from disk and acknowledged.
+   *
+   * @throws org.apache.kafka.common.errors.SerializationException if the entry cannot be encoded
+   * @throws InterruptException if interrupted while blocked on a full window
+   */
+  public CompletableFuture<RecordMetadata> send(LogEntry logEntry) {
+    byte[] value = serializer.serialize(topic, logEntry);
+    String key = router.keyOf(logEntry);
+    if (router.isKeyed()) router.recordKey(key, partitionCount());
+    CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+
+    synchronized (spillLock) {
+      // Once spilling, keep spilling until the backlog drains so records stay in order.
+      if (!spilledFutures.isEmpty()) return spill(key, value, future);
+    }
+
+    if (!window.tryAcquire(value.length)) {
+      switch (window.getPolicy()) {
+        case drop:
+          messagesDropped.incrementAndGet();
+          metrics.recordError();
+          future.completeExceptionally(
+              new RecordDroppedException("In-flight window full, dropped log " + logEntry.getID()));
+          return future;
+        case spill:
+          synchronized (spillLock) {
+            return spill(key, value, future);
+          }
+        default:
+          try {
+            window.acquire(value.length);
+          } catch (InterruptedException e) {
+            throw new InterruptException(e);
+          }
+      }
+    }
+
+    dispatch(key, value, future);
+    return future;
+  }
+
+  /**
+   * Hands a record that already holds room in the window to Kafka. The partition is picked here
+   * rather than in {@link #send}, so spilled records are routed by the hot keys of when they go
+   * out.
+   */
+  private void dispatch(String key, byte[] value, CompletableFuture<RecordMetadata> future) {
+    Headers headers = new RecordHeaders();
+    LogCodecs.announce(headers, codec);
+    int partition =
+        router.isKeyed()
+            ? router.partitionOf(key, partitionCount())
+            : PartitionRouter.ANY_PARTITION;
+    ProducerRecord<String, byte[]> record =
+        new ProducerRecord<>(
+            topic,
+            partition == PartitionRouter.ANY_PARTITION ? null : partition,
+            key,
+            value,
+            headers);
+
+    long startedAt = System.nanoTime();
+    Callback callback =
+        (metadata, exception) -> {
+          window.release(value.length);
+          long latencyNanos = System.nanoTime() - startedAt;
+          metrics.recordLatency(TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+          latency.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
 
-    ProducerRecord<String, String> record = new ProducerRecord<>(topic, logEntry.getID(), json);
+          if (exception == null) router.acknowledged(metadata.partition());
+          if (exception == null && transactions != null) {
+            transactions.acknowledged(future, metadata);
+          } else {
+            complete(future, metadata, exception);
+          }
+        };
 
     try {
-      RecordMetadata metadata = producer.send(record).get();
+      if (transactions != null) transactions.send(() -> producer.send(record, callback));
+      else producer.send(record, callback);
+    } catch (RuntimeException e) {
+      window.release(value.length);
+      complete(future, null, e);
+    }
+  }
 
+  /**
+   * The topic's partition count, looked up at most once a minute; 0 while unknown, which leaves the
+   * partition to Kafka.
+   */
+  private int partitionCount() {
+    long now = System.nanoTime();
+    if (partitionCountChecked && now - partitionCountCheckedAt < PARTITION_COUNT_MAX_AGE_NANOS) {
+      return partitionCount;
+    }
+
+    partitionCountCheckedAt = now;
+    partitionCountChecked = true;
+    try {
+      partitionCount = producer.partitionsFor(topic).size();
+    } catch (RuntimeException e) {
+      System.err.printf("Failed to look up partitions of %s: %s%n", topic, e.getMessage());
+    }
+    return partitionCount;
+  }
+
+  private void complete(
+      CompletableFuture<RecordMetadata> future, RecordMetadata metadata, Exception exception) {
+    if (exception == null) {
       messagesSent.incrementAndGet();
+      metrics.recordProduced();
+      future.complete(metadata);
+    } else {
+      messagesFailed.incrementAndGet();
+      metrics.recordError();
+      future.completeExceptionally(exception);
+    }
+  }
+
+  /** Must hold {@link #spillLock}. */
+  private CompletableFuture<RecordMetadata> spill(
+      String key, byte[] value, CompletableFuture<RecordMetadata> future) {
+    try {
+      if (spill == null) spill = new SpillFile(window.getSpillDir());
+      spill.append(key, value);
+    } catch (IOException e) {
+      messagesFailed.incrementAndGet();
+      metrics.recordError();
+      future.completeExceptionally(e);
+      return future;
+    }
+
+    messagesSpilled.incrementAndGet();
+    spilledFutures.add(future);
+    if (replayer == null) {
+      replayer = new Thread(this::replaySpill, "klog-spill-replay");
+      replayer.setDaemon(true);
+      replayer.start();
+    }
+    spillLock.notifyAll();
+    return future;
+  }
+
+  /**
+   * Feeds spilled records back through the window, oldest first, waiting for room each time. A
+   * record's future stays in {@link #spilledFutures} until the record is dispatched, so {@link
+   * #send} keeps spilling behind it rather than overtaking it.
+   */
+  private void replaySpill() {
+    while (true) {
+      SpillFile.Record record;
+      CompletableFuture<RecordMetadata> future;
+      synchronized (spillLock) {
+        try {
+          while (spilledFutures.isEmpty()) {
+            if (closing) return;
+            spillLock.wait();
+          }
+          record = spill.poll();
+        } catch (InterruptedException e) {
+          return;
+        } catch (IOException e) {
+          System.err.printf("Failed to read spill file %s: %s%n", spill.getPath(), e.getMessage());
+          spill.clear();
+          while (!spilledFutures.isEmpty()) complete(spilledFutures.poll(), null, e);
+          continue;
+        }
+        future = spilledFutures.peek();
+      }
+
+      try {
+        window.acquire(record.value.length);
+      } catch (InterruptedException e) {
+        synchronized (spillLock) {
+          spilledFutures.poll();
+        }
+        future.completeExceptionally(e);
+        return;
+      }
+      dispatch(record.key, record.value, future);
+      synchronized (spillLock) {
+        spilledFutures.poll();
+      }
+    }
+  }
+
+  public void sendSync(LogEntry logEntry) throws Exception {
+    try {
+      RecordMetadata metadata = send(logEntry).get();
+
       if (messagesSent.get() % 100 == 0) {
         System.out.printf(
             "Sent %d messages to %s-%d (offset: %d)%n",
             messagesSent.get(), metadata.topic(), metadata.partition(), metadata.offset());
       }
     } catch (Exception e) {
-      messagesFailed.incrementAndGet();
-      System.err.printf("Failed to send message: %s%n", e.getCause().getMessage());
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      System.err.printf("Failed to send message: %s%n", cause.getMessage());
       throw e;
     }
   }
 
-  public void sendAsync(LogEntry logEntry)
-      throws JsonProcessingException, ExecutionException, InterruptedException {
-    String json = JsonUtil.toJson(logEntry);
-
-    ProducerRecord<String, String> record = new ProducerRecord<>(topic, logEntry.getID(), json);
-
-    producer.send(
-        record,
-        (metadata, exception) -> {
-          if (exception == null) {
-            messagesSent.incrementAndGet();
-          } else {
-            messagesFailed.incrementAndGet();
-            System.err.printf(
-                "Failed to send message Asynchranously: %s%n", exception.getMessage());
-          }
-        });
+  public void sendAsync(LogEntry logEntry) {
+    send(logEntry)
+        .whenComplete(
+            (metadata, exception) -> {
+              if (exception != null && !(exception instanceof RecordDroppedException)) {
+                System.err.printf(
+                    "Failed to send message Asynchranously: %s%n", exception.getMessage());
+              }
+            });
   }
 
+  /** Waits for every record sent so far; commits the open transaction in transactional mode. */
   public void flush() {
-    producer.flush();
+    if (transactions != null) transactions.commit();
+    else producer.flush();
   }
 
+  /** Replays whatever is still spilled, then closes the underlying producer. */
   @Override
   public void close() {
+    Thread draining;
+    synchronized (spillLock) {
+      closing = true;
+      draining = replayer;
+      spillLock.notifyAll();
+    }
+    if (draining != null) {
+      try {
+        draining.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (transactions != null) transactions.close();
     producer.close();
+    closeSpill();
 
     System.out.printf("\nProducer Statistics: %n");
     System.out.printf("\tTotal messages sent: %d%n", messagesSent.get());
     System.out.printf("\tTotal messages failed: %d%n", messagesFailed.get());
+    if (messagesDropped.get() > 0) {
+      System.out.printf("\tTotal messages dropped: %d%n", messagesDropped.get());
+    }
+    if (messagesSpilled.get() > 0) {
+      System.out.printf("\tTotal messages spilled: %d%n", messagesSpilled.get());
+    }
+    if (transactions != null) {
+      System.out.printf(
+          "\tTransactions committed: %d, aborted: %d%n",
+          transactions.getCommitted(), transactions.getAborted());
+    }
     System.out.printf(
         "\tSuccess Rate: %.2f%%%n",
-        (messagesSent.get() * 100.0) / (messagesSent.get() + messagesFailed.get()));
+        (messagesSent.get() * 100.0)
+            / (messagesSent.get() + messagesFailed.get() + messagesDropped.get()));
+  }
+
+  private void closeSpill() {
+    synchronized (spillLock) {
+      if (spill == null) return;
+      try {
+        if (spill.size() > 0) {
+          System.err.printf("%d spilled logs left in %s%n", spill.size(), spill.getPath());
+        }
+        spill.close();
+      } catch (IOException e) {
+        System.err.printf("Failed to close spill file: %s%n", e.getMessage());
+      }
+    }
   }
 
   public long getSentMessages() {
@@ -96,4 +408,33 @@ public class LogProducer implements AutoCloseable {
   public long getFailedMessages() {
     return messagesFailed.get();
   }
+
+  public long getDroppedMessages() {
+    return messagesDropped.get();
+  }
+
+  public long getSpilledMessages() {
+    return messagesSpilled.get();
+  }
+
+  /** Records spilled to disk and not yet handed back to Kafka. */
+  public int getSpillBacklog() {
+    synchronized (spillLock) {
+      return spilledFutures.size();
+    }
+  }
+
+  /** Send-to-acknowledgement latency of every send, in microseconds. */
+  public LatencyHistogram getLatencyHistogram() {
+    return this.latency;
+  }
+
+  /** The underlying Kafka producer's metrics. */
+  public Map<MetricName, ? extends Metric> metrics() {
+    return producer.metrics();
+  }
+
+  public InFlightWindow getWindow() {
+    return this.window;
+  }
 }
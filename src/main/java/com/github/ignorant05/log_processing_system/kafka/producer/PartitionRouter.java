@@ -0,0 +1,147 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.PartitionStrategy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * PartitionRouter
+ *
+ * <p>Picks the key and partition of each record for a {@link PartitionStrategy}. Keyed strategies
+ * map a key to a partition either the way Kafka's default partitioner does ({@code murmur2 %
+ * partitions}) or, with virtual nodes, on a consistent-hash ring, so adding partitions moves only
+ * about {@code 1 / partitions} of the keys instead of nearly all of them.
+ *
+ * <p>With a {@link HotPartitionDetector}, a key it reports hot is spread round-robin over {@code
+ * hotKeySpread} consecutive partitions starting at its own, trading that key's ordering for
+ * headroom. Thread-safe; one router can serve several producers.
+ */
+public class PartitionRouter {
+  /** Let Kafka choose. */
+  public static final int ANY_PARTITION = -1;
+
+  private final PartitionStrategy strategy;
+  private final int virtualNodes;
+  private final HotPartitionDetector detector;
+  private final int hotKeySpread;
+  private final AtomicLong spreadCursor = new AtomicLong();
+
+  /** Rings by partition count; counts change rarely, so this stays tiny. */
+  private final Map<Integer, Ring> rings = new ConcurrentHashMap<>();
+
+  /** Sorted hash points of the virtual nodes and the partition each belongs to. */
+  private static final class Ring {
+    final int[] points;
+    final int[] owners;
+
+    Ring(int partitions, int virtualNodes) {
+      long[] entries = new long[partitions * virtualNodes];
+      int i = 0;
+      for (int p = 0; p < partitions; p++) {
+        for (int v = 0; v < virtualNodes; v++) {
+          int point = hash("partition-" + p + "#" + v);
+          // hash in the high bits, owner in the low bits, so sorting orders by hash
+          entries[i++] = ((long) point << 32) | p;
+        }
+      }
+      Arrays.sort(entries);
+
+      points = new int[entries.length];
+      owners = new int[entries.length];
+      for (i = 0; i < entries.length; i++) {
+        points[i] = (int) (entries[i] >> 32);
+        owners[i] = (int) entries[i];
+      }
+    }
+
+    int lookup(int hash) {
+      int i = Arrays.binarySearch(points, hash);
+      if (i < 0) i = -i - 1;
+      return owners[i == points.length ? 0 : i];
+    }
+  }
+
+  /** Keys by log id and leaves partitioning to Kafka, as producers always did. */
+  public static PartitionRouter byID() {
+    return new PartitionRouter(PartitionStrategy.id, 0, null, 1);
+  }
+
+  /**
+   * @param virtualNodes ring points per partition, 0 for Kafka's murmur2 modulo mapping
+   * @param detector null to route without hot-key detection
+   * @param hotKeySpread partitions a hot key is spread over, 1 to keep hot keys in place
+   */
+  public PartitionRouter(
+      PartitionStrategy strategy,
+      int virtualNodes,
+      HotPartitionDetector detector,
+      int hotKeySpread) {
+    this.strategy = strategy;
+    this.virtualNodes = virtualNodes;
+    this.detector = detector;
+    this.hotKeySpread = Math.max(1, hotKeySpread);
+  }
+
+  public String keyOf(LogEntry logEntry) {
+    switch (strategy) {
+      case service:
+        return logEntry.getService();
+      case user:
+        return logEntry.getUserID();
+      case sticky:
+        return null;
+      default:
+        return logEntry.getID();
+    }
+  }
+
+  /** Whether {@link #partitionOf} needs the topic's partition count. */
+  public boolean isKeyed() {
+    return strategy == PartitionStrategy.service || strategy == PartitionStrategy.user;
+  }
+
+  /** Counts a send routed by {@code key}, for hot-key detection. */
+  void recordKey(String key, int partitions) {
+    if (detector != null && key != null && isKeyed()) detector.recordKey(key, partitions);
+  }
+
+  void acknowledged(int partition) {
+    if (detector != null) detector.recordPartition(partition);
+  }
+
+  /** The partition for {@code key}, or {@link #ANY_PARTITION} to let Kafka choose. */
+  public int partitionOf(String key, int partitions) {
+    if (!isKeyed() || key == null || partitions <= 0) return ANY_PARTITION;
+
+    int hash = hash(key);
+    int partition;
+    if (virtualNodes > 0) {
+      partition = rings.computeIfAbsent(partitions, n -> new Ring(n, virtualNodes)).lookup(hash);
+    } else {
+      partition = Utils.toPositive(hash) % partitions;
+    }
+
+    if (hotKeySpread > 1 && detector != null && detector.isHot(key)) {
+      int offset = (int) (spreadCursor.getAndIncrement() % Math.min(hotKeySpread, partitions));
+      partition = (partition + offset) % partitions;
+    }
+    return partition;
+  }
+
+  public PartitionStrategy getStrategy() {
+    return this.strategy;
+  }
+
+  public HotPartitionDetector getDetector() {
+    return this.detector;
+  }
+
+  private static int hash(String key) {
+    return Utils.murmur2(key.getBytes(StandardCharsets.UTF_8));
+  }
+}
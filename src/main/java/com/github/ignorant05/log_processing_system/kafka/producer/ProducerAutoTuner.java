@@ -0,0 +1,217 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+
+/**
+ * ProducerAutoTuner
+ *
+ * <p>Watches running {@link LogProducer}s and nudges their batching settings toward a target p99
+ * send latency, one step per evaluation:
+ *
+ * <ul>
+ *   <li>over target: halve {@code linger.ms} if time spent queued for a batch dominates, otherwise
+ *       fall back from CPU-heavy compression to lz4, otherwise halve {@code batch.size};
+ *   <li>well under target (below half): grow {@code batch.size} if batches fill up, otherwise wait
+ *       longer for them to fill, otherwise start compressing.
+ * </ul>
+ *
+ * <p>The p99 comes from the producers' own send-to-ack latencies; the batch averages from {@code
+ * producer.metrics()}. Kafka cannot re-tune a live producer, so each step is saved to the tuning
+ * file and takes effect on the next start, converging over successive runs.
+ */
+public class ProducerAutoTuner implements AutoCloseable {
+  public static final long DEFAULT_EVALUATION_PERIOD_MS = 30_000;
+
+  /** Evaluations with fewer sends than this are skipped as noise. */
+  static final long MIN_SAMPLES = 1_000;
+
+  static final int MIN_BATCH_SIZE = 4_096;
+  static final int MAX_BATCH_SIZE = 1_048_576;
+  static final int MAX_LINGER_MS = 100;
+
+  private final ProducerTuning initial;
+  private final double targetP99MS;
+  private final Path stateFile;
+  private final long periodMS;
+  private final List<LogProducer> producers = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService scheduler;
+
+  private ProducerTuning current;
+
+  /** All watched producers' latencies as of the previous evaluation. */
+  private LatencyHistogram evaluated = new LatencyHistogram();
+
+  /** What one evaluation window looked like. */
+  static final class Observation {
+    final double p99MS;
+    final double batchSizeAvg;
+    final double queueTimeAvgMS;
+    final double requestLatencyAvgMS;
+
+    Observation(
+        double p99MS, double batchSizeAvg, double queueTimeAvgMS, double requestLatencyAvgMS) {
+      this.p99MS = p99MS;
+      this.batchSizeAvg = batchSizeAvg;
+      this.queueTimeAvgMS = queueTimeAvgMS;
+      this.requestLatencyAvgMS = requestLatencyAvgMS;
+    }
+  }
+
+  /**
+   * @param current the tuning the watched producers were built with
+   */
+  public ProducerAutoTuner(
+      ProducerTuning current, double targetP99MS, Path stateFile, long periodMS) {
+    this.initial = current;
+    this.current = current;
+    this.targetP99MS = targetP99MS;
+    this.stateFile = stateFile;
+    this.periodMS = periodMS;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "klog-auto-tune");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Default tuning file for {@code topic}: {@code ~/.klog/producer-tuning-<topic>.properties}. */
+  public static Path defaultStateFile(String topic) {
+    return Paths.get(
+        System.getProperty("user.home"), ".klog", "producer-tuning-" + topic + ".properties");
+  }
+
+  public ProducerAutoTuner watch(LogProducer producer) {
+    producers.add(producer);
+    return this;
+  }
+
+  public ProducerAutoTuner start() {
+    scheduler.scheduleAtFixedRate(this::evaluate, periodMS, periodMS, TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /** The latest recommendation; what the next start will use. */
+  public synchronized ProducerTuning getCurrent() {
+    return this.current;
+  }
+
+  synchronized void evaluate() {
+    LatencyHistogram total = new LatencyHistogram();
+    double batchSize = 0, queueTime = 0, requestLatency = 0;
+    int reporting = 0;
+
+    for (LogProducer producer : producers) {
+      total.merge(producer.getLatencyHistogram());
+
+      Map<MetricName, ? extends Metric> metrics = producer.metrics();
+      double b = metric(metrics, "batch-size-avg");
+      if (Double.isNaN(b)) continue;
+      batchSize += b;
+      queueTime += metric(metrics, "record-queue-time-avg");
+      requestLatency += metric(metrics, "request-latency-avg");
+      reporting++;
+    }
+
+    // Producers' histograms are cumulative and others read them too, so diff instead of reset.
+    LatencyHistogram window = total.minus(evaluated);
+    if (window.getCount() < MIN_SAMPLES || reporting == 0) return;
+    evaluated = total;
+
+    Observation observation =
+        new Observation(
+            window.getPercentile(99) / 1000.0,
+            batchSize / reporting,
+            queueTime / reporting,
+            requestLatency / reporting);
+
+    ProducerTuning next = next(current, observation, targetP99MS);
+    System.out.printf(
+        "\tAuto-tune: p99 %.1fms (target %.1fms), batch avg %.0fB, queue %.1fms, request %.1fms%n",
+        observation.p99MS,
+        targetP99MS,
+        observation.batchSizeAvg,
+        observation.queueTimeAvgMS,
+        observation.requestLatencyAvgMS);
+
+    if (!next.equals(current)) {
+      System.out.printf("\tAuto-tune: next start will use %s%n", next);
+      current = next;
+      save();
+    }
+  }
+
+  static ProducerTuning next(ProducerTuning tuning, Observation observation, double targetP99MS) {
+    if (observation.p99MS > targetP99MS) {
+      if (tuning.getLingerMS() > 0
+          && observation.queueTimeAvgMS >= observation.requestLatencyAvgMS) {
+        return tuning.withLingerMS(tuning.getLingerMS() / 2);
+      }
+      if (tuning.getCompression().equals("gzip") || tuning.getCompression().equals("zstd")) {
+        return tuning.withCompression("lz4");
+      }
+      if (tuning.getBatchSize() > MIN_BATCH_SIZE) {
+        return tuning.withBatchSize(Math.max(MIN_BATCH_SIZE, tuning.getBatchSize() / 2));
+      }
+      return tuning;
+    }
+
+    if (observation.p99MS < targetP99MS / 2) {
+      if (observation.batchSizeAvg >= 0.8 * tuning.getBatchSize()
+          && tuning.getBatchSize() < MAX_BATCH_SIZE) {
+        return tuning.withBatchSize(Math.min(MAX_BATCH_SIZE, tuning.getBatchSize() * 2));
+      }
+      if (tuning.getLingerMS() < MAX_LINGER_MS) {
+        int linger = tuning.getLingerMS() == 0 ? 5 : tuning.getLingerMS() * 2;
+        return tuning.withLingerMS(Math.min(MAX_LINGER_MS, linger));
+      }
+      if (tuning.getCompression().equals("none")) {
+        return tuning.withCompression("lz4");
+      }
+    }
+    return tuning;
+  }
+
+  private static double metric(Map<MetricName, ? extends Metric> metrics, String name) {
+    for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+      MetricName metricName = entry.getKey();
+      if (metricName.name().equals(name) && metricName.group().equals("producer-metrics")) {
+        Object value = entry.getValue().metricValue();
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+      }
+    }
+    return Double.NaN;
+  }
+
+  private void save() {
+    try {
+      current.save(stateFile, "klog producer auto-tune, target p99 " + targetP99MS + "ms");
+    } catch (IOException e) {
+      System.err.printf("Failed to save tuning to %s: %s%n", stateFile, e.getMessage());
+    }
+  }
+
+  /** Runs a last evaluation over whatever the producers sent since the previous one. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    evaluate();
+    synchronized (this) {
+      if (!current.equals(initial)) {
+        System.out.printf("\tAuto-tune: saved %s to %s%n", current, stateFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Properties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * ProducerTuning
+ *
+ * <p>The batching knobs {@link ProducerAutoTuner} adjusts: {@code batch.size}, {@code linger.ms}
+ * and {@code compression.type}. A producer's settings are fixed once it is built, so a tuning is
+ * persisted to a properties file and applied over the profile on the next start.
+ */
+public final class ProducerTuning {
+  private final int batchSize;
+  private final int lingerMS;
+  private final String compression;
+
+  public ProducerTuning(int batchSize, int lingerMS, String compression) {
+    this.batchSize = batchSize;
+    this.lingerMS = lingerMS;
+    this.compression = compression;
+  }
+
+  /** The tuning {@code config} already carries, using Kafka's defaults for anything unset. */
+  public static ProducerTuning of(Properties config) {
+    return new ProducerTuning(
+        Integer.parseInt(
+            String.valueOf(config.getOrDefault(ProducerConfig.BATCH_SIZE_CONFIG, 16384))),
+        Integer.parseInt(String.valueOf(config.getOrDefault(ProducerConfig.LINGER_MS_CONFIG, 0))),
+        String.valueOf(config.getOrDefault(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none")));
+  }
+
+  /** Overrides the batching settings in {@code config}. */
+  public Properties applyTo(Properties config) {
+    config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMS);
+    config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+    return config;
+  }
+
+  /** Reads a tuning saved by {@link #save}; null if there is no file yet. */
+  public static ProducerTuning load(Path file) throws IOException {
+    if (!Files.exists(file)) return null;
+
+    Properties props = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      props.load(in);
+    }
+    return of(props);
+  }
+
+  public void save(Path file, String comment) throws IOException {
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir != null) Files.createDirectories(dir);
+
+    Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    Properties props = new Properties();
+    props.setProperty(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(batchSize));
+    props.setProperty(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(lingerMS));
+    props.setProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+    try (OutputStream out = Files.newOutputStream(tmp)) {
+      props.store(out, comment);
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public ProducerTuning withBatchSize(int batchSize) {
+    return new ProducerTuning(batchSize, lingerMS, compression);
+  }
+
+  public ProducerTuning withLingerMS(int lingerMS) {
+    return new ProducerTuning(batchSize, lingerMS, compression);
+  }
+
+  public ProducerTuning withCompression(String compression) {
+    return new ProducerTuning(batchSize, lingerMS, compression);
+  }
+
+  public int getBatchSize() {
+    return this.batchSize;
+  }
+
+  public int getLingerMS() {
+    return this.lingerMS;
+  }
+
+  public String getCompression() {
+    return this.compression;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || getClass() != obj.getClass()) return false;
+
+    ProducerTuning tuning = (ProducerTuning) obj;
+    return batchSize == tuning.batchSize
+        && lingerMS == tuning.lingerMS
+        && Objects.equals(compression, tuning.compression);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(batchSize, lingerMS, compression);
+  }
+
+  @Override
+  public String toString() {
+    return "batch.size="
+        + batchSize
+        + ", linger.ms="
+        + lingerMS
+        + ", compression.type="
+        + compression;
+  }
+}
@@ -0,0 +1,15 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import org.apache.kafka.common.KafkaException;
+
+/**
+ * RecordDroppedException
+ *
+ * <p>Completes the future of a record rejected by the {@link
+ * com.github.ignorant05.log_processing_system.model.BackpressurePolicy#drop} policy.
+ */
+public class RecordDroppedException extends KafkaException {
+  public RecordDroppedException(String message) {
+    super(message);
+  }
+}
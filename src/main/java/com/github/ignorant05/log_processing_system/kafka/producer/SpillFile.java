@@ -0,0 +1,110 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * SpillFile
+ *
+ * <p>Local FIFO of serialized records that did not fit in the in-flight window. Records are
+ * appended as {@code [int keyLength][key][int valueLength][value]} (length -1 for null) and read
+ * back in the same order; once the reader catches up the file is truncated so it never grows past
+ * the longest backlog. A file that still holds records on {@link #close()} is kept on disk.
+ */
+class SpillFile implements AutoCloseable {
+  private final Path path;
+  private final RandomAccessFile file;
+  private long readPosition;
+  private long writePosition;
+  private int pending;
+
+  static final class Record {
+    final String key;
+    final byte[] value;
+
+    Record(String key, byte[] value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  SpillFile(Path dir) throws IOException {
+    this.path =
+        dir == null
+            ? Files.createTempFile("klog-spill-", ".bin")
+            : Files.createTempFile(Files.createDirectories(dir), "klog-spill-", ".bin");
+    this.file = new RandomAccessFile(path.toFile(), "rw");
+  }
+
+  synchronized void append(String key, byte[] value) throws IOException {
+    file.seek(writePosition);
+    writeBytes(key == null ? null : key.getBytes(StandardCharsets.UTF_8));
+    writeBytes(value);
+    writePosition = file.getFilePointer();
+    pending++;
+  }
+
+  /** Oldest spilled record, or null if there is none. */
+  synchronized Record poll() throws IOException {
+    if (pending == 0) return null;
+
+    file.seek(readPosition);
+    byte[] key = readBytes();
+    byte[] value = readBytes();
+    readPosition = file.getFilePointer();
+
+    if (--pending == 0) {
+      file.setLength(0);
+      readPosition = writePosition = 0;
+    }
+    return new Record(key == null ? null : new String(key, StandardCharsets.UTF_8), value);
+  }
+
+  /**
+   * Forgets every spilled record, for when the file can no longer be read and their sends have been
+   * failed. Truncating is best effort; the file is empty from here on either way.
+   */
+  synchronized void clear() {
+    pending = 0;
+    readPosition = writePosition = 0;
+    try {
+      file.setLength(0);
+    } catch (IOException e) {
+      System.err.printf("Failed to truncate spill file %s: %s%n", path, e.getMessage());
+    }
+  }
+
+  synchronized int size() {
+    return pending;
+  }
+
+  Path getPath() {
+    return this.path;
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    if (bytes == null) {
+      file.writeInt(-1);
+      return;
+    }
+    file.writeInt(bytes.length);
+    file.write(bytes);
+  }
+
+  private byte[] readBytes() throws IOException {
+    int length = file.readInt();
+    if (length < 0) return null;
+    byte[] bytes = new byte[length];
+    file.readFully(bytes);
+    return bytes;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    file.close();
+    if (pending == 0) Files.deleteIfExists(path);
+  }
+}
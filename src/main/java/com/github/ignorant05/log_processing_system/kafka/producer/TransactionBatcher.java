@@ -0,0 +1,171 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+
+/**
+ * TransactionBatcher
+ *
+ * <p>Groups a transactional producer's sends into transactions of at most {@code maxRecords}
+ * records or {@code maxMS} milliseconds, whichever comes first. Sends from any number of threads
+ * share the open transaction under a read lock; committing takes the write lock, so no send can
+ * slip in between the flush and the commit.
+ *
+ * <p>An acknowledged record is not delivered until its transaction commits, so its future is held
+ * back until then, and failed with the commit's exception if the transaction aborts.
+ */
+final class TransactionBatcher implements AutoCloseable {
+
+  /** Settles a record's future and the producer's counters. */
+  interface Completion {
+    void complete(
+        CompletableFuture<RecordMetadata> future, RecordMetadata metadata, Exception exception);
+  }
+
+  private static final class Acknowledged {
+    final CompletableFuture<RecordMetadata> future;
+    final RecordMetadata metadata;
+
+    Acknowledged(CompletableFuture<RecordMetadata> future, RecordMetadata metadata) {
+      this.future = future;
+      this.metadata = metadata;
+    }
+  }
+
+  private final Producer<?, ?> producer;
+  private final int maxRecords;
+  private final long maxNanos;
+  private final Completion completion;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ConcurrentLinkedQueue<Acknowledged> acknowledged = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger records = new AtomicInteger();
+  private final ScheduledExecutorService timer;
+
+  /** Written under {@link #lock}'s write lock, or by the first sender of a transaction. */
+  private volatile boolean open;
+
+  private volatile long openedAt;
+  private volatile KafkaException fatal;
+  private final AtomicLong committed = new AtomicLong();
+  private final AtomicLong aborted = new AtomicLong();
+
+  TransactionBatcher(Producer<?, ?> producer, int maxRecords, long maxMS, Completion completion) {
+    this.producer = producer;
+    this.maxRecords = Math.max(1, maxRecords);
+    this.maxNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxMS));
+    this.completion = completion;
+
+    producer.initTransactions();
+
+    long checkEveryMS = Math.max(1, maxMS / 10);
+    this.timer =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "klog-transaction-commit");
+              thread.setDaemon(true);
+              return thread;
+            });
+    timer.scheduleWithFixedDelay(
+        this::commitIfDue, checkEveryMS, checkEveryMS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs {@code send} inside the open transaction, beginning one if needed, and commits once the
+   * transaction is full.
+   */
+  void send(Runnable send) {
+    lock.readLock().lock();
+    try {
+      if (fatal != null) throw fatal;
+      if (!open) begin();
+      send.run();
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    if (records.incrementAndGet() >= maxRecords) commit();
+  }
+
+  private synchronized void begin() {
+    if (open) return;
+    producer.beginTransaction();
+    openedAt = System.nanoTime();
+    open = true;
+  }
+
+  /** Called from the send callback of a record that the broker acknowledged. */
+  void acknowledged(CompletableFuture<RecordMetadata> future, RecordMetadata metadata) {
+    acknowledged.add(new Acknowledged(future, metadata));
+  }
+
+  private void commitIfDue() {
+    if (open && System.nanoTime() - openedAt >= maxNanos) commit();
+  }
+
+  /** Commits the open transaction, if any, and settles the futures of its records. */
+  void commit() {
+    lock.writeLock().lock();
+    try {
+      if (!open) return;
+      open = false;
+      records.set(0);
+
+      try {
+        // Flushes first, so every record of the transaction has had its callback by now.
+        producer.commitTransaction();
+        committed.incrementAndGet();
+        settle(null);
+      } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+        // The producer cannot continue; nothing more can be sent or aborted.
+        fatal = e;
+        settle(e);
+        System.err.printf("Transactional producer failed for good: %s%n", e.getMessage());
+      } catch (KafkaException e) {
+        aborted.incrementAndGet();
+        try {
+          producer.abortTransaction();
+        } catch (KafkaException abortFailure) {
+          fatal = abortFailure;
+        }
+        settle(e);
+        System.err.printf("Aborted a transaction: %s%n", e.getMessage());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void settle(Exception exception) {
+    Acknowledged record;
+    while ((record = acknowledged.poll()) != null) {
+      completion.complete(record.future, exception == null ? record.metadata : null, exception);
+    }
+  }
+
+  long getCommitted() {
+    return committed.get();
+  }
+
+  long getAborted() {
+    return aborted.get();
+  }
+
+  /** Stops the timer and commits whatever is still open. */
+  @Override
+  public void close() {
+    timer.shutdownNow();
+    commit();
+  }
+}
@@ -0,0 +1,67 @@
+package com.github.ignorant05.log_processing_system.kafka.serde;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import java.io.IOException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * LogEntryDeserializer
+ *
+ * <p>Parses the record value directly from its {@code byte[]}, skipping the UTF-8 decode into a
+ * String that {@code StringDeserializer} would otherwise do first. The codec is picked per record
+ * from the {@link LogCodecs#HEADER} header; records without it use the default codec.
+ */
+public class LogEntryDeserializer implements Deserializer<LogEntry> {
+  private final LogCodec defaultCodec;
+
+  public LogEntryDeserializer() {
+    this(CodecType.json);
+  }
+
+  public LogEntryDeserializer(CodecType defaultCodec) {
+    this.defaultCodec = LogCodecs.get(defaultCodec);
+  }
+
+  @Override
+  public LogEntry deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) return null;
+
+    return decode(codecOf(headers, topic), topic, data);
+  }
+
+  /** The codec the record's header names, or the default one. */
+  private LogCodec codecOf(Headers headers, String topic) {
+    try {
+      return LogCodecs.fromHeaders(headers, defaultCodec);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Unknown codec on record from topic " + topic, e);
+    }
+  }
+
+  @Override
+  public LogEntry deserialize(String topic, byte[] data) {
+    if (data == null) return null;
+
+    return decode(defaultCodec, topic, data);
+  }
+
+  private LogEntry decode(LogCodec codec, String topic, byte[] data) {
+    try {
+      return codec.decode(data);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new SerializationException(
+          "Failed to deserialize "
+              + codec.getType()
+              + " log from topic "
+              + topic
+              + ": "
+              + e.getMessage(),
+          e);
+    }
+  }
+}
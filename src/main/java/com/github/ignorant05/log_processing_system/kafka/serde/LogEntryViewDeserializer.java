@@ -0,0 +1,48 @@
+package com.github.ignorant05.log_processing_system.kafka.serde;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * LogEntryViewDeserializer
+ *
+ * <p>Does no parsing inside {@code poll()}: it only picks the codec from the record header and
+ * wraps the value bytes in a lazy {@link LogEntryView}. Decoding, and any decode error, happens
+ * when the consumer first reads a field.
+ */
+public class LogEntryViewDeserializer implements Deserializer<LogEntryView> {
+  private final LogCodec defaultCodec;
+
+  public LogEntryViewDeserializer() {
+    this(CodecType.json);
+  }
+
+  public LogEntryViewDeserializer(CodecType defaultCodec) {
+    this.defaultCodec = LogCodecs.get(defaultCodec);
+  }
+
+  @Override
+  public LogEntryView deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) return null;
+
+    LogCodec codec;
+    try {
+      codec = LogCodecs.fromHeaders(headers, defaultCodec);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Unknown codec on record from topic " + topic, e);
+    }
+    return codec.view(data);
+  }
+
+  @Override
+  public LogEntryView deserialize(String topic, byte[] data) {
+    if (data == null) return null;
+
+    return defaultCodec.view(data);
+  }
+}
@@ -0,0 +1,15 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * AggregationType
+ *
+ * <p>What {@code klog aggregate} computes per service and window.
+ */
+public enum AggregationType {
+  /** Logs per level, errors and the error ratio. */
+  counts,
+  /** {@code durationMS} percentiles, with a mergeable histogram. */
+  latency,
+  /** Distinct users and IPs, with mergeable HyperLogLog sketches. */
+  distinct;
+}
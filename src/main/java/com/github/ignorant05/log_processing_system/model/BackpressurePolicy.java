@@ -0,0 +1,15 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * BackpressurePolicy
+ *
+ * <p>What a producer does with a record when its in-flight window is full.
+ */
+public enum BackpressurePolicy {
+  /** Wait for acknowledgements to free up room. */
+  block,
+  /** Fail the record's future straight away and count it as dropped. */
+  drop,
+  /** Append the record to a local spill file and send it once the window drains. */
+  spill;
+}
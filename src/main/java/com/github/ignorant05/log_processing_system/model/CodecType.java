@@ -0,0 +1,31 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * CodecType
+ *
+ * <p>Wire formats a {@link LogEntry} can be encoded with. The {@code id} is what goes into the
+ * record header, so existing values must never be renumbered.
+ */
+public enum CodecType {
+  json((byte) 1),
+  smile((byte) 2),
+  cbor((byte) 3),
+  binary((byte) 4);
+
+  private final byte id;
+
+  CodecType(byte id) {
+    this.id = id;
+  }
+
+  public byte getID() {
+    return this.id;
+  }
+
+  public static CodecType fromID(byte id) {
+    for (CodecType type : values()) {
+      if (type.id == id) return type;
+    }
+    throw new IllegalArgumentException("Unknown codec id: " + id);
+  }
+}
@@ -0,0 +1,14 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * ConsumeOrdering
+ *
+ * <p>Which records a parallel consumer keeps in order: records sharing one are always handled by
+ * the same worker, one after another.
+ */
+public enum ConsumeOrdering {
+  /** Records with the same key; unkeyed records fall back to their partition. */
+  key,
+  /** Records from the same partition, as a single-threaded consumer would. */
+  partition;
+}
@@ -0,0 +1,16 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * DeliveryMode
+ *
+ * <p>Duplicate-safety of a producer, applied on top of its {@link ProducerProfile} by {@link
+ * com.github.ignorant05.log_processing_system.config.KafkaConfig#applyDeliveryMode}.
+ */
+public enum DeliveryMode {
+  /** Whatever the profile sets; retries may write a record twice. */
+  plain,
+  /** Idempotent producer: acks=all and up to five requests in flight without duplicates. */
+  idempotent,
+  /** Idempotent, and records are committed in batches of transactions (exactly-once). */
+  transactional;
+}
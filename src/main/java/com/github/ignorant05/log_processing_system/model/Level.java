@@ -0,0 +1,54 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import com.github.ignorant05.log_processing_system.util.Utf8;
+
+/**
+ * Level
+ *
+ * <p>Known log levels. {@link LogEntry#getLevel()} stays a free String for compatibility; this is
+ * what the hot path compares against. The declaration order is also the binary wire code ({@code
+ * ordinal() + 1}), so constants may only ever be appended.
+ */
+public enum Level {
+  TRACE,
+  DEBUG,
+  INFO,
+  WARN,
+  ERROR,
+  FATAL;
+
+  private static final Level[] VALUES = values();
+
+  private final byte[] utf8 = Utf8.encode(name());
+
+  /** UTF-8 bytes of the level name, shared; do not modify. */
+  public byte[] getUtf8() {
+    return this.utf8;
+  }
+
+  /** Returns the level named {@code name}, or null if it is not a known level. */
+  public static Level fromString(String name) {
+    if (name == null) return null;
+    for (Level level : VALUES) {
+      if (level.name().equals(name)) return level;
+    }
+    return null;
+  }
+
+  /** Allocation-free lookup of the level spelled by {@code data[offset, offset + length)}. */
+  public static Level fromBytes(byte[] data, int offset, int length) {
+    for (Level level : VALUES) {
+      if (Utf8.regionEquals(data, offset, length, level.utf8)) return level;
+    }
+    return null;
+  }
+
+  /** Returns the level with binary wire code {@code code}, or null if out of range. */
+  public static Level fromCode(int code) {
+    return code >= 1 && code <= VALUES.length ? VALUES[code - 1] : null;
+  }
+
+  public int getCode() {
+    return ordinal() + 1;
+  }
+}
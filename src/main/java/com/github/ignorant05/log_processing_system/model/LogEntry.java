@@ -1,11 +1,18 @@
 package com.github.ignorant05.log_processing_system.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
-/** LogEntry */
+/**
+ * LogEntry
+ *
+ * <p>Bean form of a log line, used for JSON mapping and anywhere an entry outlives the record it
+ * came from. Hot paths decode into a pooled {@link MutableLogEntry} instead.
+ */
 public class LogEntry {
   private String id;
   private Instant timestamp;
@@ -28,7 +35,7 @@ public class LogEntry {
       String ipAddr,
       int durationMS) {
     this.id = id;
-    this.timestamp = timestamp.truncatedTo(ChronoUnit.MILLIS);
+    this.timestamp = truncate(timestamp);
     this.level = level;
     this.service = service;
     this.message = message;
@@ -46,7 +53,7 @@ public class LogEntry {
   }
 
   public void setTimestamp(Instant timestamp) {
-    this.timestamp = timestamp.truncatedTo(ChronoUnit.MILLIS);
+    this.timestamp = truncate(timestamp);
   }
 
   @JsonFormat(
@@ -54,7 +61,13 @@ public class LogEntry {
       pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'",
       timezone = "UTC")
   public Instant getTimestamp() {
-    return this.timestamp.truncatedTo(ChronoUnit.MILLIS);
+    return this.timestamp;
+  }
+
+  /** Epoch millis of the timestamp, or {@link Timestamps#NONE} when there is none. */
+  @JsonIgnore
+  public long getTimestampMillis() {
+    return this.timestamp == null ? Timestamps.NONE : this.timestamp.toEpochMilli();
   }
 
   public void setLevel(String level) {
@@ -125,7 +138,7 @@ public class LogEntry {
     }
 
     public Builder timestamp(Instant timestamp) {
-      this.timestamp = timestamp.truncatedTo(ChronoUnit.MILLIS);
+      this.timestamp = timestamp;
       return this;
     }
 
@@ -184,7 +197,18 @@ public class LogEntry {
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, timestamp, level, service, message, userID, ipAddr, durationMS);
+    int result = Objects.hashCode(id);
+    result = 31 * result + Long.hashCode(getTimestampMillis());
+    result = 31 * result + Objects.hashCode(level);
+    result = 31 * result + Objects.hashCode(service);
+    result = 31 * result + Objects.hashCode(message);
+    result = 31 * result + Objects.hashCode(userID);
+    result = 31 * result + Objects.hashCode(ipAddr);
+    return 31 * result + durationMS;
+  }
+
+  private static Instant truncate(Instant timestamp) {
+    return timestamp == null ? null : timestamp.truncatedTo(ChronoUnit.MILLIS);
   }
 
   @Override
@@ -0,0 +1,44 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * LogEntryPool
+ *
+ * <p>Bounded free list of {@link MutableLogEntry} instances. {@link #acquire()} hands out a reset
+ * entry (a new one if the pool is empty) and {@link #release} puts it back, dropping it for the GC
+ * when the pool is already full. Backed by an array, so neither call allocates once the pool is
+ * warm; safe to share between the thread that decodes and the one that releases.
+ */
+public class LogEntryPool {
+  private final ArrayBlockingQueue<MutableLogEntry> free;
+  private long created;
+
+  public LogEntryPool(int capacity) {
+    this.free = new ArrayBlockingQueue<>(capacity);
+  }
+
+  public MutableLogEntry acquire() {
+    MutableLogEntry logEntry = free.poll();
+    if (logEntry != null) return logEntry;
+
+    synchronized (this) {
+      created++;
+    }
+    return new MutableLogEntry();
+  }
+
+  public void release(MutableLogEntry logEntry) {
+    if (logEntry != null) free.offer(logEntry.reset());
+  }
+
+  /** Entries currently idle in the pool. */
+  public int available() {
+    return free.size();
+  }
+
+  /** Entries allocated since the pool was created; flat once the pool has warmed up. */
+  public synchronized long getCreated() {
+    return created;
+  }
+}
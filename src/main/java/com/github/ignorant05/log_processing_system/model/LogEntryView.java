@@ -0,0 +1,52 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import java.time.Instant;
+
+/**
+ * LogEntryView
+ *
+ * <p>Read-only, lazily decoded window onto an encoded log record. Nothing is parsed until a field
+ * is read, and only the fields that are read get turned into objects. {@link #matches} and {@link
+ * #contains} compare against the raw bytes, so a filter can reject a record without allocating a
+ * single String.
+ *
+ * <p>A malformed record surfaces as an {@link java.io.UncheckedIOException} on first access.
+ */
+public interface LogEntryView {
+  public String getID();
+
+  public Instant getTimestamp();
+
+  public String getLevel();
+
+  public String getService();
+
+  public String getMessage();
+
+  public String getUserID();
+
+  public String getIpAddr();
+
+  public int getDurationMS();
+
+  /** String value of a text field; for {@code timestamp}/{@code durationMS} their text form. */
+  public String getString(LogField field);
+
+  /** The field is absent or explicitly null. */
+  public boolean isNull(LogField field);
+
+  /** The text field equals the UTF-8 encoded {@code value}. */
+  public boolean matches(LogField field, byte[] value);
+
+  /** The text field contains the UTF-8 encoded {@code value}. */
+  public boolean contains(LogField field, byte[] value);
+
+  /** Fully materialises the record. */
+  public LogEntry toLogEntry();
+
+  /**
+   * Decodes every field into {@code target}, overwriting what it held. Unlike {@link #toLogEntry()}
+   * this creates no Instant and no level/service Strings.
+   */
+  public void readInto(MutableLogEntry target);
+}
@@ -0,0 +1,38 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import com.github.ignorant05.log_processing_system.util.Utf8;
+
+/** LogField */
+public enum LogField {
+  id("id"),
+  timestamp("timestamp"),
+  level("level"),
+  service("service"),
+  message("message"),
+  userID("userID"),
+  ipAddr("ipAddr"),
+  durationMS("durationMS");
+
+  private final String jsonName;
+  private final byte[] jsonNameBytes;
+
+  LogField(String jsonName) {
+    this.jsonName = jsonName;
+    this.jsonNameBytes = Utf8.encode(jsonName);
+  }
+
+  /** Property name as written by Jackson for {@link LogEntry}. */
+  public String getJsonName() {
+    return this.jsonName;
+  }
+
+  /** Looks up the field whose JSON name is {@code data[offset, offset + length)}, or null. */
+  public static LogField fromJsonName(byte[] data, int offset, int length) {
+    for (LogField field : VALUES) {
+      if (Utf8.regionEquals(data, offset, length, field.jsonNameBytes)) return field;
+    }
+    return null;
+  }
+
+  private static final LogField[] VALUES = values();
+}
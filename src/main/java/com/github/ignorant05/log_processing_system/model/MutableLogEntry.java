@@ -0,0 +1,157 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.time.Instant;
+
+/**
+ * MutableLogEntry
+ *
+ * <p>Reusable, hot-path form of a {@link LogEntry}: the timestamp is a primitive epoch-millis
+ * value, the level is a {@link Level} and the service name is interned through {@link
+ * ServiceNames}. Decoders fill one in place with {@link LogEntryView#readInto} and callers hand it
+ * back to a {@link LogEntryPool} when done, so steady-state consumption allocates only the
+ * free-text fields.
+ *
+ * <p>Levels that are not a known {@link Level} are kept verbatim in {@link #getLevelName()}.
+ * Instances are not thread-safe.
+ */
+public class MutableLogEntry {
+  private String id;
+  private long timestampMillis = Timestamps.NONE;
+  private Level level;
+  private String levelName;
+  private String service;
+  private String message;
+  private String userID;
+  private String ipAddr;
+  private int durationMS;
+
+  /** Clears every field so the instance can be reused. */
+  public MutableLogEntry reset() {
+    this.id = null;
+    this.timestampMillis = Timestamps.NONE;
+    this.level = null;
+    this.levelName = null;
+    this.service = null;
+    this.message = null;
+    this.userID = null;
+    this.ipAddr = null;
+    this.durationMS = 0;
+    return this;
+  }
+
+  public void setID(String id) {
+    this.id = id;
+  }
+
+  public String getID() {
+    return this.id;
+  }
+
+  /**
+   * @param timestampMillis epoch millis, or {@link Timestamps#NONE}
+   */
+  public void setTimestampMillis(long timestampMillis) {
+    this.timestampMillis = timestampMillis;
+  }
+
+  public long getTimestampMillis() {
+    return this.timestampMillis;
+  }
+
+  public boolean hasTimestamp() {
+    return this.timestampMillis != Timestamps.NONE;
+  }
+
+  public void setLevel(Level level) {
+    this.level = level;
+    this.levelName = level == null ? null : level.name();
+  }
+
+  /** Sets the level from its text, resolving it to a {@link Level} when it is a known one. */
+  public void setLevelName(String levelName) {
+    this.level = Level.fromString(levelName);
+    this.levelName = this.level != null ? this.level.name() : levelName;
+  }
+
+  /** Known level, or null if the level is absent or not one of {@link Level}. */
+  public Level getLevel() {
+    return this.level;
+  }
+
+  public String getLevelName() {
+    return this.levelName;
+  }
+
+  /** Stores the {@link ServiceNames} canonical instance of {@code service}. */
+  public void setService(String service) {
+    this.service = ServiceNames.intern(service);
+  }
+
+  public String getService() {
+    return this.service;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public String getMessage() {
+    return this.message;
+  }
+
+  public void setUserID(String userID) {
+    this.userID = userID;
+  }
+
+  public String getUserID() {
+    return this.userID;
+  }
+
+  public void setIpAddr(String ipAddr) {
+    this.ipAddr = ipAddr;
+  }
+
+  public String getIpAddr() {
+    return this.ipAddr;
+  }
+
+  public void setDurationMS(int durationMS) {
+    this.durationMS = durationMS;
+  }
+
+  public int getDurationMS() {
+    return this.durationMS;
+  }
+
+  public MutableLogEntry copyFrom(LogEntry logEntry) {
+    this.id = logEntry.getID();
+    this.timestampMillis = logEntry.getTimestampMillis();
+    setLevelName(logEntry.getLevel());
+    setService(logEntry.getService());
+    this.message = logEntry.getMessage();
+    this.userID = logEntry.getUserID();
+    this.ipAddr = logEntry.getIpAddr();
+    this.durationMS = logEntry.getDurationMS();
+    return this;
+  }
+
+  /** Detached bean copy, for code that keeps the entry beyond the current record. */
+  public LogEntry toLogEntry() {
+    LogEntry logEntry = new LogEntry();
+    logEntry.setID(id);
+    if (hasTimestamp()) logEntry.setTimestamp(Instant.ofEpochMilli(timestampMillis));
+    logEntry.setLevel(levelName);
+    logEntry.setService(service);
+    logEntry.setMessage(message);
+    logEntry.setUserID(userID);
+    logEntry.setIpAddr(ipAddr);
+    logEntry.setDurationMS(durationMS);
+    return logEntry;
+  }
+
+  @Override
+  public String toString() {
+    return "MutableLogEntry" + toLogEntry().toString().substring("LogEntry".length());
+  }
+}
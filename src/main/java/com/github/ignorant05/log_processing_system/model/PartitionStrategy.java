@@ -0,0 +1,17 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * PartitionStrategy
+ *
+ * <p>What a producer keys its records by, and so which logs stay ordered together on a partition.
+ */
+public enum PartitionStrategy {
+  /** Key by the log's own id: an even spread with no ordering between logs. */
+  id,
+  /** Key by service, keeping each service's logs in order on one partition. */
+  service,
+  /** Key by user id, keeping each user's logs in order on one partition. */
+  user,
+  /** No key: fill one partition's batch, then move to another (Kafka's sticky partitioning). */
+  sticky;
+}
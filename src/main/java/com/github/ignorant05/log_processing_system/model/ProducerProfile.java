@@ -0,0 +1,19 @@
+package com.github.ignorant05.log_processing_system.model;
+
+/**
+ * ProducerProfile
+ *
+ * <p>Named producer tunings; the settings behind each are in {@link
+ * com.github.ignorant05.log_processing_system.config.KafkaConfig#getProducerConfig(String,
+ * ProducerProfile)}.
+ */
+public enum ProducerProfile {
+  /** What LogProducer always used: acks=all, one request in flight, 16KB/10ms snappy batches. */
+  balanced,
+  /** Large lz4 batches with a long linger, acks=1. */
+  throughput,
+  /** No linger and no compression, acks=1. */
+  latency,
+  /** acks=all with idempotence and unbounded retries within the delivery timeout. */
+  durable;
+}
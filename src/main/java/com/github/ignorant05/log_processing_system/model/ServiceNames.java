@@ -0,0 +1,138 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ServiceNames
+ *
+ * <p>Process-wide interner for service names. Decoders look a name up straight from its UTF-8 bytes
+ * and get back the one canonical String, so a consumer holds a handful of service Strings instead
+ * of one per record. Every interned name also gets a small dense id that aggregations can use as a
+ * primitive key.
+ *
+ * <p>Lookups are lock-free; only the first sighting of a name takes a lock. The table is bounded by
+ * {@link #CAPACITY}: past that, names are returned un-interned with id -1 so a runaway cardinality
+ * cannot grow it without limit.
+ */
+public final class ServiceNames {
+  public static final int CAPACITY = 1024;
+
+  private static final int TABLE_SIZE = Integer.highestOneBit(CAPACITY) << 2;
+  private static final int MASK = TABLE_SIZE - 1;
+
+  private static final AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(TABLE_SIZE);
+  private static final AtomicReferenceArray<Entry> byID = new AtomicReferenceArray<>(CAPACITY);
+  private static int size;
+
+  private ServiceNames() {}
+
+  private static final class Entry {
+    final String name;
+    final byte[] utf8;
+    final int id;
+
+    Entry(String name, byte[] utf8, int id) {
+      this.name = name;
+      this.utf8 = utf8;
+      this.id = id;
+    }
+  }
+
+  public static String intern(String name) {
+    if (name == null) return null;
+    Entry entry = lookup(name);
+    return entry != null ? entry.name : name;
+  }
+
+  /** Returns the canonical String for {@code data[offset, offset + length)}. */
+  public static String intern(byte[] data, int offset, int length) {
+    int hash = hash(data, offset, length);
+    for (int i = hash & MASK; ; i = (i + 1) & MASK) {
+      Entry entry = table.get(i);
+      if (entry == null) break;
+      if (Utf8.regionEquals(data, offset, length, entry.utf8)) return entry.name;
+    }
+
+    String name = new String(data, offset, length, StandardCharsets.UTF_8);
+    Entry entry = add(name, hash);
+    return entry != null ? entry.name : name;
+  }
+
+  /** Dense id of {@code name} (interning it if needed), or -1 once the table is full. */
+  public static int idOf(String name) {
+    if (name == null) return -1;
+    Entry entry = lookup(name);
+    return entry != null ? entry.id : -1;
+  }
+
+  /** Name registered under {@code id}, or null. */
+  public static String nameOf(int id) {
+    if (id < 0 || id >= CAPACITY) return null;
+    Entry entry = byID.get(id);
+    return entry != null ? entry.name : null;
+  }
+
+  public static int size() {
+    synchronized (table) {
+      return size;
+    }
+  }
+
+  private static Entry lookup(String name) {
+    byte[] utf8 = isAscii(name) ? null : Utf8.encode(name);
+    int hash = utf8 != null ? hash(utf8, 0, utf8.length) : hash(name);
+
+    for (int i = hash & MASK; ; i = (i + 1) & MASK) {
+      Entry entry = table.get(i);
+      if (entry == null) break;
+      if (entry.name.equals(name)) return entry;
+    }
+    return add(name, hash);
+  }
+
+  private static Entry add(String name, int hash) {
+    synchronized (table) {
+      int i = hash & MASK;
+      for (Entry entry = table.get(i); entry != null; entry = table.get(i)) {
+        if (entry.name.equals(name)) return entry;
+        i = (i + 1) & MASK;
+      }
+      if (size >= CAPACITY) return null;
+
+      Entry entry = new Entry(name, Utf8.encode(name), size);
+      byID.set(size, entry);
+      table.set(i, entry);
+      size++;
+      return entry;
+    }
+  }
+
+  private static boolean isAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) return false;
+    }
+    return true;
+  }
+
+  private static int hash(String ascii) {
+    int h = 0;
+    for (int i = 0; i < ascii.length(); i++) {
+      h = 31 * h + ascii.charAt(i);
+    }
+    return spread(h);
+  }
+
+  private static int hash(byte[] data, int offset, int length) {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++) {
+      h = 31 * h + data[i];
+    }
+    return spread(h);
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+}
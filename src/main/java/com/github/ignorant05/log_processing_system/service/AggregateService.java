@@ -0,0 +1,143 @@
+package com.github.ignorant05.log_processing_system.service;
+
+import com.github.ignorant05.log_processing_system.aggregate.Aggregation;
+import com.github.ignorant05.log_processing_system.aggregate.DistinctCounts;
+import com.github.ignorant05.log_processing_system.aggregate.DurationPercentiles;
+import com.github.ignorant05.log_processing_system.aggregate.HeavyHitters;
+import com.github.ignorant05.log_processing_system.aggregate.LevelCounts;
+import com.github.ignorant05.log_processing_system.aggregate.ResultWriter;
+import com.github.ignorant05.log_processing_system.aggregate.WindowedAggregator;
+import com.github.ignorant05.log_processing_system.kafka.consumer.AggregateConsumer;
+import com.github.ignorant05.log_processing_system.model.AggregationType;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.util.MetricsFile;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/** AggregateService */
+public class AggregateService {
+  private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+  private String bootstrapServers;
+  private String topic;
+  private String groupID;
+  private boolean fromBeginning;
+  private CodecType codec;
+  private Predicate<LogEntryView> filter;
+  private long windowMS = 60_000;
+  private long slideMS = 60_000;
+  private long allowedLatenessMS = 5_000;
+  private List<AggregationType> types = List.of(AggregationType.counts);
+  private HeavyHitters top;
+  private String outputTopic;
+  private boolean json;
+
+  public AggregateService(
+      String bootstrapServers,
+      String topic,
+      String groupID,
+      boolean fromBeginning,
+      CodecType codec,
+      Predicate<LogEntryView> filter) {
+    this.bootstrapServers = bootstrapServers;
+    this.topic = topic;
+    this.groupID = groupID;
+    this.fromBeginning = fromBeginning;
+    this.codec = codec;
+    this.filter = filter;
+  }
+
+  /** Windows of {@code windowMS} starting every {@code slideMS}; see {@link WindowedAggregator}. */
+  public AggregateService window(long windowMS, long slideMS, long allowedLatenessMS) {
+    this.windowMS = windowMS;
+    this.slideMS = slideMS;
+    this.allowedLatenessMS = allowedLatenessMS;
+    return this;
+  }
+
+  /** What to compute per service and window; each kind reports its own results. */
+  public AggregateService compute(List<AggregationType> types) {
+    this.types = types;
+    return this;
+  }
+
+  /** Also reports the {@code k} most frequent values of {@code field}; see {@link HeavyHitters}. */
+  public AggregateService top(LogField field, int k, double epsilon, double confidence) {
+    this.top = new HeavyHitters(field, k, epsilon, confidence);
+    return this;
+  }
+
+  /** Publishes results to {@code outputTopic} instead of printing them; null prints. */
+  public AggregateService outputTopic(String outputTopic) {
+    this.outputTopic = outputTopic;
+    return this;
+  }
+
+  /** Prints results as JSON lines rather than text. */
+  public AggregateService json(boolean json) {
+    this.json = json;
+    return this;
+  }
+
+  public int aggregate() {
+    List<Aggregation<?>> aggregations = new ArrayList<>();
+    EnumSet<AggregationType> distinct = EnumSet.noneOf(AggregationType.class);
+    distinct.addAll(types);
+    for (AggregationType type : distinct) {
+      aggregations.add(
+          switch (type) {
+            case counts -> new LevelCounts();
+            case latency -> new DurationPercentiles();
+            case distinct -> new DistinctCounts();
+          });
+    }
+    if (top != null) aggregations.add(top);
+    WindowedAggregator aggregator;
+    try {
+      aggregator = new WindowedAggregator(windowMS, slideMS, allowedLatenessMS, aggregations);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      return 1;
+    }
+
+    try (MetricsFile published = MetricsFile.publish("aggregate")) {
+      ResultWriter writer =
+          outputTopic != null
+              ? ResultWriter.topic(bootstrapServers, outputTopic)
+              : ResultWriter.stdout(json);
+      AggregateConsumer consumer =
+          new AggregateConsumer(
+              bootstrapServers, groupID, topic, fromBeginning, codec, filter, aggregator, writer);
+      Runtime.getRuntime()
+          .addShutdownHook(
+              new Thread(
+                  () -> {
+                    System.out.println("Shutting down...");
+                    consumer.stop();
+                    // The JVM halts once the hooks return, so wait for the final commit.
+                    try {
+                      if (!consumer.awaitStopped(SHUTDOWN_TIMEOUT_MS)) {
+                        System.err.printf(
+                            "Consumer still busy after %dms, exiting anyway%n",
+                            SHUTDOWN_TIMEOUT_MS);
+                      }
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
+                  }));
+
+      consumer.consume();
+      return 0;
+
+    } catch (Exception e) {
+      System.err.println("Error: " + e.getMessage());
+      e.printStackTrace();
+    }
+
+    return 1;
+  }
+}
@@ -1,30 +1,150 @@
 package com.github.ignorant05.log_processing_system.service;
 
+import com.github.ignorant05.log_processing_system.aggregate.AnomalyDetector;
+import com.github.ignorant05.log_processing_system.aggregate.ResultWriter;
 import com.github.ignorant05.log_processing_system.kafka.consumer.LogConsumer;
+import com.github.ignorant05.log_processing_system.kafka.consumer.TimeRangeReader;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.ConsumeOrdering;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.util.MetricsFile;
+import java.util.function.Predicate;
 
 /** ConsumeService */
 public class ConsumeService {
+  private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
   private String bootstrapServers;
   private String topic;
   private String groupID;
   private boolean fromBeginning;
+  private CodecType codec;
+  private Predicate<LogEntryView> filter;
+  private int workers = 1;
+  private ConsumeOrdering ordering = ConsumeOrdering.key;
+  private boolean virtualThreads;
+  private int decodeThreads;
+  private int renderThreads;
+  private long maxLinesPerSecond;
+  private long commitEveryRecords = 5_000;
+  private long commitIntervalMS = 1_000;
+  private long allowedLatenessMS = -1;
+  private long sinceMS = -1;
+  private long untilMS = -1;
+  private boolean merged;
+  private long anomalyIntervalMS;
+  private double anomalyThreshold;
+  private String anomalyTopic;
 
   public ConsumeService(
-      String bootstrapServers, String topic, String groupID, boolean fromBeginning) {
+      String bootstrapServers,
+      String topic,
+      String groupID,
+      boolean fromBeginning,
+      CodecType codec,
+      Predicate<LogEntryView> filter) {
     this.bootstrapServers = bootstrapServers;
     this.topic = topic;
     this.groupID = groupID;
     this.fromBeginning = fromBeginning;
+    this.codec = codec;
+    this.filter = filter;
+  }
+
+  /** Processes records on {@code workers} threads; see {@link LogConsumer#parallel}. */
+  public ConsumeService parallel(int workers, ConsumeOrdering ordering, boolean virtualThreads) {
+    this.workers = workers;
+    this.ordering = ordering;
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  /** Overrides the decode and render thread counts {@link #parallel} set; 0 keeps them. */
+  public ConsumeService stageThreads(int decodeThreads, int renderThreads) {
+    this.decodeThreads = decodeThreads;
+    this.renderThreads = renderThreads;
+    return this;
+  }
+
+  /** See {@link LogConsumer#maxLinesPerSecond}. */
+  public ConsumeService maxLinesPerSecond(long maxLinesPerSecond) {
+    this.maxLinesPerSecond = maxLinesPerSecond;
+    return this;
+  }
+
+  /** See {@link LogConsumer#commitEvery}. */
+  public ConsumeService commitEvery(long everyRecords, long intervalMS) {
+    this.commitEveryRecords = everyRecords;
+    this.commitIntervalMS = intervalMS;
+    return this;
+  }
+
+  /** See {@link LogConsumer#ordered}; a negative lateness prints in poll order. */
+  public ConsumeService ordered(long allowedLatenessMS) {
+    this.allowedLatenessMS = allowedLatenessMS;
+    return this;
+  }
+
+  /**
+   * Prints the logs timestamped in {@code [sinceMS, untilMS]} and exits, instead of following the
+   * topic as the group; see {@link TimeRangeReader}.
+   */
+  public ConsumeService timeRange(long sinceMS, long untilMS, boolean merged) {
+    this.sinceMS = sinceMS;
+    this.untilMS = untilMS;
+    this.merged = merged;
+    return this;
+  }
+
+  /**
+   * Flags services whose error rate or p99 latency drifts {@code threshold} standard deviations
+   * from their baseline, judged every {@code intervalMS}; see {@link AnomalyDetector}. Anomalies
+   * are printed, or published as JSON to {@code outputTopic} when it is not null.
+   */
+  public ConsumeService detectAnomalies(long intervalMS, double threshold, String outputTopic) {
+    this.anomalyIntervalMS = intervalMS;
+    this.anomalyThreshold = threshold;
+    this.anomalyTopic = outputTopic;
+    return this;
   }
 
   public int consumeLogs() {
-    try (LogConsumer consumer = new LogConsumer(bootstrapServers, groupID, topic, fromBeginning)) {
+    if (sinceMS >= 0) return readTimeRange();
+
+    try (LogConsumer consumer =
+            new LogConsumer(bootstrapServers, groupID, topic, fromBeginning, codec, filter);
+        MetricsFile published = MetricsFile.publish("consume")) {
+      consumer
+          .parallel(workers, ordering, virtualThreads)
+          .stageThreads(
+              decodeThreads > 0 ? decodeThreads : workers,
+              renderThreads > 0 ? renderThreads : workers)
+          .maxLinesPerSecond(maxLinesPerSecond)
+          .commitEvery(commitEveryRecords, commitIntervalMS);
+      if (allowedLatenessMS >= 0) consumer.ordered(allowedLatenessMS);
+      if (anomalyIntervalMS > 0) {
+        consumer.detectAnomalies(
+            new AnomalyDetector(anomalyIntervalMS, anomalyThreshold, System.currentTimeMillis()),
+            anomalyTopic != null
+                ? ResultWriter.topic(bootstrapServers, anomalyTopic)
+                : ResultWriter.stdout(false));
+      }
       Runtime.getRuntime()
           .addShutdownHook(
               new Thread(
                   () -> {
                     System.out.println("Shutting down...");
                     consumer.stop();
+                    // The JVM halts once the hooks return, so wait for the final commit.
+                    try {
+                      if (!consumer.awaitStopped(SHUTDOWN_TIMEOUT_MS)) {
+                        System.err.printf(
+                            "Consumer still busy after %dms, exiting anyway%n",
+                            SHUTDOWN_TIMEOUT_MS);
+                      }
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
                   }));
 
       consumer.consume();
@@ -37,4 +157,26 @@ public class ConsumeService {
 
     return 1;
   }
+
+  private int readTimeRange() {
+    TimeRangeReader reader =
+        new TimeRangeReader(bootstrapServers, topic, codec, filter).merged(merged);
+    Thread shutdownHook = new Thread(reader::stop);
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+    try {
+      reader.read(sinceMS, untilMS);
+      return 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      System.err.println("Error: " + e.getMessage());
+    } finally {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        // Already shutting down.
+      }
+    }
+    return 1;
+  }
 }
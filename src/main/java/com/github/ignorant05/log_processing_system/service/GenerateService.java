@@ -1,19 +1,97 @@
 package com.github.ignorant05.log_processing_system.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.ignorant05.log_processing_system.config.KafkaConfig;
 import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.generator.Scenario;
+import com.github.ignorant05.log_processing_system.generator.WorkloadProfile;
+import com.github.ignorant05.log_processing_system.kafka.producer.HotPartitionDetector;
+import com.github.ignorant05.log_processing_system.kafka.producer.InFlightWindow;
 import com.github.ignorant05.log_processing_system.kafka.producer.LogProducer;
+import com.github.ignorant05.log_processing_system.kafka.producer.PartitionRouter;
+import com.github.ignorant05.log_processing_system.kafka.producer.ProducerAutoTuner;
+import com.github.ignorant05.log_processing_system.kafka.producer.ProducerTuning;
+import com.github.ignorant05.log_processing_system.model.BackpressurePolicy;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.DeliveryMode;
 import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.PartitionStrategy;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import com.github.ignorant05.log_processing_system.util.MetricsFile;
+import com.github.ignorant05.log_processing_system.util.RateLimiter;
+import com.github.ignorant05.log_processing_system.util.RateProfile;
+import com.github.ignorant05.log_processing_system.util.ThroughputReporter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.errors.SerializationException;
 
-/** GenerateService */
+/**
+ * GenerateService
+ *
+ * <p>Runs {@code threads} workers, each with its own {@link LogGenerator}, paced by one shared
+ * {@link RateLimiter} so the requested rate is the aggregate. The count is split evenly between the
+ * workers, which either share one thread-safe {@link LogProducer} or open one each. With a {@link
+ * Scenario}, the same workers and producers run each of its phases in turn instead.
+ */
 public class GenerateService {
   private String bootstrapServers;
   private String topic;
   private long interval;
   private int count;
-  private Integer rate;
+  private Double rate;
   private boolean isSync;
+  private CodecType codec;
+  private int threads = 1;
+  private boolean virtualThreads;
+  private boolean producerPerThread;
+  private Double burst;
+  private long rampUpSeconds;
+  private long rampDownSeconds;
+  private long durationSeconds;
+  private int maxInFlight;
+  private int maxInFlightBytes;
+  private BackpressurePolicy backpressure = BackpressurePolicy.block;
+  private Path spillDir;
+  private ProducerProfile profile = ProducerProfile.balanced;
+  private boolean autoTune;
+  private double targetP99MS = DEFAULT_TARGET_P99_MS;
+  private Path tuneFile;
+  private DeliveryMode delivery = DeliveryMode.plain;
+  private int transactionRecords = DEFAULT_TRANSACTION_RECORDS;
+  private long transactionMS = DEFAULT_TRANSACTION_MS;
+  private String transactionalID;
+  private WorkloadProfile workload = WorkloadProfile.defaults();
+  private Long seed;
+  private Scenario scenario;
+  private PartitionStrategy partitionBy = PartitionStrategy.id;
+  private int virtualNodes;
+  private boolean detectHotPartitions;
+  private double hotFactor = HotPartitionDetector.DEFAULT_HOT_FACTOR;
+  private int hotKeySpread = 1;
+
+  /** Shared by every producer of a run. */
+  private PartitionRouter router;
+
+  /** Numbers producers so each gets its own transactional id. */
+  private final AtomicInteger producers = new AtomicInteger();
+
+  /** Set while generating with auto-tune on; every producer opened is handed to it. */
+  private ProducerAutoTuner tuner;
+
+  /** Logs that failed before a producer took them, so its statistics miss them. */
+  private final LongAdder unsent = new LongAdder();
 
   public GenerateService(
       String bootstrapServers,
@@ -21,68 +99,646 @@ public class GenerateService {
       long interval,
       int count,
       Integer rate,
-      boolean isSync) {
+      boolean isSync,
+      CodecType codec) {
     this.bootstrapServers = bootstrapServers;
     this.topic = topic;
     this.interval = interval;
     this.count = count;
-    this.rate = rate;
+    this.rate = rate == null ? null : rate.doubleValue();
     this.isSync = isSync;
+    this.codec = codec;
+  }
+
+  private GenerateService(Builder builder) {
+    this.bootstrapServers = builder.bootstrapServers;
+    this.topic = builder.topic;
+    this.interval = builder.interval;
+    this.count = builder.count;
+    this.rate = builder.rate;
+    this.isSync = builder.isSync;
+    this.codec = builder.codec;
+    this.threads = Math.max(1, builder.threads);
+    this.virtualThreads = builder.virtualThreads;
+    this.producerPerThread = builder.producerPerThread;
+    this.burst = builder.burst;
+    this.rampUpSeconds = builder.rampUpSeconds;
+    this.rampDownSeconds = builder.rampDownSeconds;
+    this.durationSeconds = builder.durationSeconds;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxInFlightBytes = builder.maxInFlightBytes;
+    this.backpressure = builder.backpressure;
+    this.spillDir = builder.spillDir;
+    this.profile = builder.profile;
+    this.autoTune = builder.autoTune;
+    this.targetP99MS = builder.targetP99MS;
+    this.tuneFile = builder.tuneFile;
+    this.delivery = builder.delivery;
+    this.transactionRecords = builder.transactionRecords;
+    this.transactionMS = builder.transactionMS;
+    this.transactionalID = builder.transactionalID;
+    this.workload = builder.workload;
+    this.seed = builder.seed;
+    this.scenario = builder.scenario;
+    this.partitionBy = builder.partitionBy;
+    this.virtualNodes = builder.virtualNodes;
+    this.detectHotPartitions = builder.detectHotPartitions;
+    this.hotFactor = builder.hotFactor;
+    this.hotKeySpread = builder.hotKeySpread;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private String bootstrapServers;
+    private String topic;
+    private long interval;
+    private int count;
+    private Double rate;
+    private boolean isSync;
+    private CodecType codec = CodecType.json;
+    private int threads = 1;
+    private boolean virtualThreads;
+    private boolean producerPerThread;
+    private Double burst;
+    private long rampUpSeconds;
+    private long rampDownSeconds;
+    private long durationSeconds;
+    private int maxInFlight;
+    private int maxInFlightBytes;
+    private BackpressurePolicy backpressure = BackpressurePolicy.block;
+    private Path spillDir;
+    private ProducerProfile profile = ProducerProfile.balanced;
+    private boolean autoTune;
+    private double targetP99MS = DEFAULT_TARGET_P99_MS;
+    private Path tuneFile;
+    private DeliveryMode delivery = DeliveryMode.plain;
+    private int transactionRecords = DEFAULT_TRANSACTION_RECORDS;
+    private long transactionMS = DEFAULT_TRANSACTION_MS;
+    private String transactionalID;
+    private WorkloadProfile workload = WorkloadProfile.defaults();
+    private Long seed;
+    private Scenario scenario;
+    private PartitionStrategy partitionBy = PartitionStrategy.id;
+    private int virtualNodes;
+    private boolean detectHotPartitions;
+    private double hotFactor = HotPartitionDetector.DEFAULT_HOT_FACTOR;
+    private int hotKeySpread = 1;
+
+    public Builder bootstrapServers(String bootstrapServers) {
+      this.bootstrapServers = bootstrapServers;
+      return this;
+    }
+
+    public Builder topic(String topic) {
+      this.topic = topic;
+      return this;
+    }
+
+    /** Milliseconds between logs (aggregate over all workers); used when no rate is set. */
+    public Builder interval(long interval) {
+      this.interval = interval;
+      return this;
+    }
+
+    /** Logs to generate in total, 0 for no limit. */
+    public Builder count(int count) {
+      this.count = count;
+      return this;
+    }
+
+    /** Aggregate logs per second; fractional rates are allowed. */
+    public Builder rate(Double rate) {
+      this.rate = rate;
+      return this;
+    }
+
+    public Builder sync(boolean isSync) {
+      this.isSync = isSync;
+      return this;
+    }
+
+    public Builder codec(CodecType codec) {
+      this.codec = codec;
+      return this;
+    }
+
+    public Builder threads(int threads) {
+      this.threads = threads;
+      return this;
+    }
+
+    /** Run the workers on virtual threads (Java 21+, platform threads otherwise). */
+    public Builder virtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    /** Give every worker its own producer instead of sharing one. */
+    public Builder producerPerThread(boolean producerPerThread) {
+      this.producerPerThread = producerPerThread;
+      return this;
+    }
+
+    /** Logs that may go out back to back to catch up; defaults to 100ms worth of the rate. */
+    public Builder burst(Double burst) {
+      this.burst = burst;
+      return this;
+    }
+
+    public Builder rampUpSeconds(long rampUpSeconds) {
+      this.rampUpSeconds = rampUpSeconds;
+      return this;
+    }
+
+    /** Ramp down over the end of the run; needs {@link #durationSeconds}. */
+    public Builder rampDownSeconds(long rampDownSeconds) {
+      this.rampDownSeconds = rampDownSeconds;
+      return this;
+    }
+
+    /** Stop after this many seconds, 0 for no limit. */
+    public Builder durationSeconds(long durationSeconds) {
+      this.durationSeconds = durationSeconds;
+      return this;
+    }
+
+    /** Unacknowledged records allowed per producer, 0 for no limit. */
+    public Builder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /** Unacknowledged serialized bytes allowed per producer, 0 for no limit. */
+    public Builder maxInFlightBytes(int maxInFlightBytes) {
+      this.maxInFlightBytes = maxInFlightBytes;
+      return this;
+    }
+
+    /** What to do with a log when the in-flight window is full. */
+    public Builder backpressure(BackpressurePolicy backpressure) {
+      this.backpressure = backpressure;
+      return this;
+    }
+
+    public Builder spillDir(Path spillDir) {
+      this.spillDir = spillDir;
+      return this;
+    }
+
+    public Builder profile(ProducerProfile profile) {
+      this.profile = profile;
+      return this;
+    }
+
+    /** Tune batching toward {@link #targetP99MS}, persisting the result for the next run. */
+    public Builder autoTune(boolean autoTune) {
+      this.autoTune = autoTune;
+      return this;
+    }
+
+    public Builder targetP99MS(double targetP99MS) {
+      this.targetP99MS = targetP99MS;
+      return this;
+    }
+
+    /** Where auto-tune keeps its tuning; defaults to one file per topic under {@code ~/.klog}. */
+    public Builder tuneFile(Path tuneFile) {
+      this.tuneFile = tuneFile;
+      return this;
+    }
+
+    public Builder delivery(DeliveryMode delivery) {
+      this.delivery = delivery;
+      return this;
+    }
+
+    /** Most records per transaction in transactional delivery. */
+    public Builder transactionRecords(int transactionRecords) {
+      this.transactionRecords = transactionRecords;
+      return this;
+    }
+
+    /** Longest a transaction stays open in transactional delivery. */
+    public Builder transactionMS(long transactionMS) {
+      this.transactionMS = transactionMS;
+      return this;
+    }
+
+    /**
+     * Prefix of the producers' transactional ids, {@code klog-<topic>} by default. Keep it stable
+     * across restarts so a new run fences off the transactions of a crashed one.
+     */
+    public Builder transactionalID(String transactionalID) {
+      this.transactionalID = transactionalID;
+      return this;
+    }
+
+    public Builder workload(WorkloadProfile workload) {
+      this.workload = workload;
+      return this;
+    }
+
+    /** Makes every worker's stream of logs (all but timestamps) repeat from run to run. */
+    public Builder seed(Long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /** Run these phases instead of the rate, interval, count and duration settings. */
+    public Builder scenario(Scenario scenario) {
+      this.scenario = scenario;
+      return this;
+    }
+
+    public Builder partitionBy(PartitionStrategy partitionBy) {
+      this.partitionBy = partitionBy;
+      return this;
+    }
+
+    /** Consistent-hash ring points per partition for keyed strategies, 0 for plain hashing. */
+    public Builder virtualNodes(int virtualNodes) {
+      this.virtualNodes = virtualNodes;
+      return this;
+    }
+
+    /** Report partitions and keys taking more than {@link #hotFactor} times their share. */
+    public Builder detectHotPartitions(boolean detectHotPartitions) {
+      this.detectHotPartitions = detectHotPartitions;
+      return this;
+    }
+
+    public Builder hotFactor(double hotFactor) {
+      this.hotFactor = hotFactor;
+      return this;
+    }
+
+    /** Spread a hot key over this many partitions; above 1 turns detection on. */
+    public Builder hotKeySpread(int hotKeySpread) {
+      this.hotKeySpread = hotKeySpread;
+      return this;
+    }
+
+    public GenerateService build() {
+      return new GenerateService(this);
+    }
   }
 
   public static final int DEFAULT_WAITING_TIME_IN_MILLISECONDS = 2000;
+  public static final int REPORT_PERIOD_IN_MILLISECONDS = 1000;
+  public static final double DEFAULT_TARGET_P99_MS = 50;
+  public static final int DEFAULT_TRANSACTION_RECORDS = 1000;
+  public static final long DEFAULT_TRANSACTION_MS = 100;
+
+  private static final long NO_DEADLINE = Long.MAX_VALUE;
 
   public int generateLogs() {
+    Properties producerConfig = newProducerConfig();
+    if (this.autoTune) {
+      this.tuner =
+          new ProducerAutoTuner(
+                  ProducerTuning.of(producerConfig),
+                  this.targetP99MS,
+                  tuneFile(),
+                  ProducerAutoTuner.DEFAULT_EVALUATION_PERIOD_MS)
+              .start();
+    }
 
-    long actualInterval = this.interval;
-    if (this.rate != null && this.rate > 0) {
-      actualInterval = 1000 / this.rate;
-      System.out.println("\tActual Interval: " + actualInterval + "ms");
-    }
-
-    try (LogProducer producer = new LogProducer(this.bootstrapServers, this.topic)) {
-      int generated = 0;
-      while (this.count == 0 || generated < this.count) {
-        LogEntry logEntry = LogGenerator.generateRandomLog();
-
-        try {
-          if (this.isSync) producer.sendSync(logEntry);
-          else producer.sendAsync(logEntry);
-
-          generated++;
-          if (generated % 10 == 0) {
-            System.out.printf("\tGenerated Logs: %d...%n " + generated);
-          }
-
-          if (actualInterval > 0) {
-            Thread.sleep(actualInterval);
-          }
-
-        } catch (JsonProcessingException e) {
-          System.err.println("Failed to serialize Log: " + e.getMessage());
-        } catch (ExecutionException | InterruptedException e) {
-          System.err.println("Failed to send Log: " + e.getMessage());
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-            break;
-          }
-        }
+    this.router = newRouter();
+
+    // Read by the reporter while the producers are being opened.
+    List<LogProducer> producers = new CopyOnWriteArrayList<>();
+    ExecutorService workers = newWorkerPool();
+    try (ThroughputReporter reporter =
+            new ThroughputReporter(
+                    "Delivered Logs",
+                    () -> deliveredOf(producers),
+                    () -> failuresOf(producers),
+                    REPORT_PERIOD_IN_MILLISECONDS)
+                .start();
+        MetricsFile published = MetricsFile.publish("generate")) {
+
+      for (int i = 0; i < (this.producerPerThread ? this.threads : 1); i++) {
+        producers.add(newProducer(producerConfig));
+      }
+
+      // Split in worker order, so a seed gives every worker the same stream each run.
+      SplittableRandom root =
+          this.seed != null ? new SplittableRandom(this.seed) : new SplittableRandom();
+      SplittableRandom[] randoms = new SplittableRandom[this.threads];
+      for (int worker = 0; worker < this.threads; worker++) randoms[worker] = root.split();
+
+      int exitCode;
+      if (this.scenario != null) {
+        exitCode = runScenario(workers, producers, randoms);
+      } else {
+        RateLimiter limiter = newRateLimiter();
+        long deadlineNanos =
+            this.durationSeconds > 0
+                ? System.nanoTime() + TimeUnit.SECONDS.toNanos(this.durationSeconds)
+                : NO_DEADLINE;
+        exitCode =
+            runStage(
+                workers, producers, randoms, this.workload, limiter, deadlineNanos, this.count);
       }
 
+      // Count what was acknowledged, not what was handed over.
+      for (LogProducer producer : producers) producer.flush();
       if (this.isSync) {
-        producer.flush();
         System.out.println("Flushing remaining messages...");
         Thread.sleep(DEFAULT_WAITING_TIME_IN_MILLISECONDS);
       }
 
-      System.out.println("Log Generation Completed");
-      return 0;
+      System.out.printf(
+          "Log Generation Completed: %d logs delivered, %d failed in %dms (%.1f logs/s)%n",
+          deliveredOf(producers),
+          failuresOf(producers),
+          reporter.getElapsedMS(),
+          reporter.getAverageRate());
+      return exitCode;
 
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.err.println("Error: interrupted");
     } catch (Exception e) {
       System.err.println("Error: " + e.getMessage());
       e.printStackTrace();
+    } finally {
+      workers.shutdownNow();
+      // Evaluate while the producers' metrics are still readable.
+      if (tuner != null) tuner.close();
+      for (LogProducer producer : producers) producer.close();
+      if (router.getDetector() != null) router.getDetector().close();
     }
 
     return 1;
   }
+
+  /**
+   * Runs every worker until it has sent its share of {@code count} (0 for no limit) or the deadline
+   * passes, and returns 1 if any of them failed.
+   */
+  private int runStage(
+      ExecutorService workers,
+      List<LogProducer> producers,
+      SplittableRandom[] randoms,
+      WorkloadProfile workload,
+      RateLimiter limiter,
+      long deadlineNanos,
+      long count)
+      throws InterruptedException {
+    List<Future<?>> futures = new ArrayList<>(this.threads);
+    for (int worker = 0; worker < this.threads; worker++) {
+      long quota = quotaOf(worker, count);
+      if (quota == 0) continue;
+      LogProducer producer = producers.get(this.producerPerThread ? worker : 0);
+      LogGenerator generator = new LogGenerator(workload, randoms[worker]);
+      futures.add(
+          workers.submit(() -> produce(producer, generator, limiter, quota, deadlineNanos)));
+    }
+
+    int exitCode = 0;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        System.err.println("Error: " + e.getCause().getMessage());
+        exitCode = 1;
+      }
+    }
+    return exitCode;
+  }
+
+  /**
+   * Runs the scenario's phases back to back on the same producers, printing each phase's throughput
+   * and send latency as it ends and all of them again at the end. Latencies are those of the sends
+   * acknowledged during the phase.
+   */
+  private int runScenario(
+      ExecutorService workers, List<LogProducer> producers, SplittableRandom[] randoms)
+      throws InterruptedException {
+    List<Scenario.Phase> phases = this.scenario.getPhases();
+    System.out.printf(
+        "Scenario %s: %d phases over %.0fs%n",
+        this.scenario.getName(), phases.size(), this.scenario.getDurationMS() / 1000.0);
+
+    List<String> summaries = new ArrayList<>(phases.size());
+    int exitCode = 0;
+    for (Scenario.Phase phase : phases) {
+      if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+      System.out.println("Phase " + phase);
+
+      LatencyHistogram latencyBefore = latencyOf(producers);
+      long deliveredBefore = deliveredOf(producers);
+      long failedBefore = failuresOf(producers);
+      long startedAt = System.nanoTime();
+
+      RateLimiter limiter =
+          phase.getRateProfile() == null
+              ? null
+              : new RateLimiter(phase.getRateProfile(), Math.max(1, phase.getPeakRate() / 10));
+      long deadlineNanos = startedAt + TimeUnit.MILLISECONDS.toNanos(phase.getDurationMS());
+      exitCode |=
+          runStage(workers, producers, randoms, phase.getWorkload(), limiter, deadlineNanos, 0);
+
+      double seconds = (System.nanoTime() - startedAt) / 1e9;
+      long sent = deliveredOf(producers) - deliveredBefore;
+      LatencyHistogram latency = latencyOf(producers).minus(latencyBefore);
+      String summary =
+          String.format(
+              "%-20s %10d logs %8.1fs %11.1f logs/s %8d failed   p50 %7.1fms  p99 %7.1fms  max"
+                  + " %7.1fms",
+              phase.getName(),
+              sent,
+              seconds,
+              sent / seconds,
+              failuresOf(producers) - failedBefore,
+              latency.getPercentile(50) / 1000.0,
+              latency.getPercentile(99) / 1000.0,
+              latency.getMax() / 1000.0);
+      summaries.add(summary);
+      System.out.println("\t" + summary);
+    }
+
+    System.out.printf("%nScenario %s summary:%n", this.scenario.getName());
+    for (String summary : summaries) System.out.println("\t" + summary);
+    return exitCode;
+  }
+
+  private static LatencyHistogram latencyOf(List<LogProducer> producers) {
+    LatencyHistogram total = new LatencyHistogram();
+    for (LogProducer producer : producers) total.merge(producer.getLatencyHistogram());
+    return total;
+  }
+
+  /** Logs acknowledged by Kafka; in transactional mode, once their transaction committed. */
+  private static long deliveredOf(List<LogProducer> producers) {
+    long total = 0;
+    for (LogProducer producer : producers) total += producer.getSentMessages();
+    return total;
+  }
+
+  /** Logs that failed to encode or to send, or that a full window dropped. */
+  private long failuresOf(List<LogProducer> producers) {
+    long total = unsent.sum();
+    for (LogProducer producer : producers) {
+      total += producer.getFailedMessages() + producer.getDroppedMessages();
+    }
+    return total;
+  }
+
+  /** Records worker {@code worker} has to produce of {@code count}; unbounded for 0. */
+  private long quotaOf(int worker, long count) {
+    if (count == 0) return Long.MAX_VALUE;
+    return count / this.threads + (worker < count % this.threads ? 1 : 0);
+  }
+
+  /**
+   * A rate wins over an interval; an interval of 0 with no rate means unthrottled. All workers
+   * share the one limiter, so the rate asked for is the aggregate rate.
+   */
+  private RateLimiter newRateLimiter() {
+    double perSecond;
+    if (this.rate != null && this.rate > 0) perSecond = this.rate;
+    else if (this.interval > 0) perSecond = 1000.0 / this.interval;
+    else return null;
+
+    if (this.rampDownSeconds > 0 && this.durationSeconds <= 0) {
+      System.err.println("Ramp-down needs a duration, ignoring it");
+    }
+
+    double burstSize = this.burst != null ? this.burst : Math.max(1, perSecond / 10);
+    System.out.printf("\tPacing: %.3f logs/s, burst %.0f%n", perSecond, burstSize);
+
+    return new RateLimiter(
+        RateProfile.rampUpDown(
+            perSecond,
+            TimeUnit.SECONDS.toNanos(this.rampUpSeconds),
+            TimeUnit.SECONDS.toNanos(this.rampDownSeconds),
+            TimeUnit.SECONDS.toNanos(this.durationSeconds)),
+        burstSize);
+  }
+
+  private PartitionRouter newRouter() {
+    HotPartitionDetector detector = null;
+    if (this.detectHotPartitions || this.hotKeySpread > 1) {
+      detector =
+          new HotPartitionDetector(this.hotFactor).start(HotPartitionDetector.DEFAULT_WINDOW_MS);
+    }
+    return new PartitionRouter(this.partitionBy, this.virtualNodes, detector, this.hotKeySpread);
+  }
+
+  private Path tuneFile() {
+    return this.tuneFile != null ? this.tuneFile : ProducerAutoTuner.defaultStateFile(this.topic);
+  }
+
+  /**
+   * The profile's settings with the delivery mode's overrides, and the tuning from earlier
+   * auto-tuned runs on top.
+   */
+  private Properties newProducerConfig() {
+    Properties config = KafkaConfig.getProducerConfig(this.bootstrapServers, this.profile);
+    // Transactional ids are per producer and added in newProducer.
+    if (this.delivery == DeliveryMode.idempotent) {
+      KafkaConfig.applyDeliveryMode(config, this.delivery, null);
+    }
+    if (!this.autoTune) return config;
+
+    try {
+      ProducerTuning saved = ProducerTuning.load(tuneFile());
+      if (saved != null) {
+        saved.applyTo(config);
+        System.out.printf("\tAuto-tune: starting from %s (%s)%n", saved, tuneFile());
+      }
+    } catch (IOException e) {
+      System.err.printf("Failed to read tuning from %s: %s%n", tuneFile(), e.getMessage());
+    }
+    return config;
+  }
+
+  private LogProducer newProducer(Properties config) {
+    InFlightWindow window =
+        new InFlightWindow(
+            this.maxInFlight, this.maxInFlightBytes, this.backpressure, this.spillDir);
+
+    LogProducer producer;
+    if (this.delivery == DeliveryMode.transactional) {
+      String prefix = this.transactionalID != null ? this.transactionalID : "klog-" + this.topic;
+      Properties own = new Properties();
+      own.putAll(config);
+      KafkaConfig.applyDeliveryMode(own, this.delivery, prefix + "-" + producers.getAndIncrement());
+      producer =
+          new LogProducer(own, this.topic, this.codec, window)
+              .enableTransactions(this.transactionRecords, this.transactionMS);
+    } else {
+      producer = new LogProducer(config, this.topic, this.codec, window);
+    }
+
+    producer.routeWith(this.router);
+    if (tuner != null) tuner.watch(producer);
+    return producer;
+  }
+
+  private void produce(
+      LogProducer producer,
+      LogGenerator generator,
+      RateLimiter limiter,
+      long quota,
+      long deadlineNanos) {
+
+    for (long sent = 0; sent < quota && !Thread.currentThread().isInterrupted(); sent++) {
+      try {
+        if (deadlineNanos == NO_DEADLINE) {
+          if (limiter != null) limiter.acquire();
+        } else if (limiter != null) {
+          if (!limiter.acquireBefore(deadlineNanos)) return;
+        } else if (System.nanoTime() - deadlineNanos >= 0) {
+          return;
+        }
+
+        LogEntry logEntry = generator.next();
+        if (this.isSync) producer.sendSync(logEntry);
+        else producer.sendAsync(logEntry);
+
+      } catch (SerializationException e) {
+        unsent.increment();
+        System.err.println("Failed to serialize Log: " + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        // Counted by the producer, which already said why.
+      } catch (Exception e) {
+        unsent.increment();
+        System.err.println("Failed to send Log: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Virtual threads only exist from Java 21; look the factory up reflectively so the build keeps
+   * targeting 17 and falls back to a fixed platform pool.
+   */
+  private ExecutorService newWorkerPool() {
+    if (this.virtualThreads) {
+      try {
+        return (ExecutorService)
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        System.err.println(
+            "Virtual threads need Java 21+, using " + this.threads + " platform threads");
+      }
+    }
+
+    AtomicInteger next = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        this.threads,
+        runnable -> {
+          Thread thread = new Thread(runnable, "klog-generate-" + next.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
 }
@@ -0,0 +1,59 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/**
+ * DetectorMetrics
+ *
+ * <p>What the anomaly detector currently believes about one service: the error rate and p99 latency
+ * of the last interval, their baselines and spread, and how many anomalies were flagged.
+ */
+public final class DetectorMetrics {
+  private final String service;
+  private double errorRate;
+  private double errorRateBaseline;
+  private double errorRateStdDev;
+  private double p99MS;
+  private double p99BaselineMS;
+  private double p99StdDevMS;
+  private long intervals;
+  private long anomalies;
+
+  DetectorMetrics(String service) {
+    this.service = service;
+  }
+
+  public String getService() {
+    return this.service;
+  }
+
+  /** Records the interval that just closed, with the baselines it was judged against. */
+  public synchronized void record(
+      double errorRate,
+      double errorRateBaseline,
+      double errorRateStdDev,
+      double p99MS,
+      double p99BaselineMS,
+      double p99StdDevMS,
+      int anomalies) {
+    this.errorRate = errorRate;
+    this.errorRateBaseline = errorRateBaseline;
+    this.errorRateStdDev = errorRateStdDev;
+    this.p99MS = p99MS;
+    this.p99BaselineMS = p99BaselineMS;
+    this.p99StdDevMS = p99StdDevMS;
+    this.intervals++;
+    this.anomalies += anomalies;
+  }
+
+  public synchronized DetectorSnapShot snapshot() {
+    return new DetectorSnapShot(
+        service,
+        errorRate,
+        errorRateBaseline,
+        errorRateStdDev,
+        p99MS,
+        p99BaselineMS,
+        p99StdDevMS,
+        intervals,
+        anomalies);
+  }
+}
@@ -0,0 +1,75 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/** DetectorSnapShot */
+public final class DetectorSnapShot {
+
+  private final String service;
+  private final double errorRate;
+  private final double errorRateBaseline;
+  private final double errorRateStdDev;
+  private final double p99MS;
+  private final double p99BaselineMS;
+  private final double p99StdDevMS;
+  private final long intervals;
+  private final long anomalies;
+
+  public DetectorSnapShot(
+      String service,
+      double errorRate,
+      double errorRateBaseline,
+      double errorRateStdDev,
+      double p99MS,
+      double p99BaselineMS,
+      double p99StdDevMS,
+      long intervals,
+      long anomalies) {
+    this.service = service;
+    this.errorRate = errorRate;
+    this.errorRateBaseline = errorRateBaseline;
+    this.errorRateStdDev = errorRateStdDev;
+    this.p99MS = p99MS;
+    this.p99BaselineMS = p99BaselineMS;
+    this.p99StdDevMS = p99StdDevMS;
+    this.intervals = intervals;
+    this.anomalies = anomalies;
+  }
+
+  public String getService() {
+    return this.service;
+  }
+
+  /** Share of ERROR and FATAL logs in the last interval. */
+  public double getErrorRate() {
+    return this.errorRate;
+  }
+
+  public double getErrorRateBaseline() {
+    return this.errorRateBaseline;
+  }
+
+  public double getErrorRateStdDev() {
+    return this.errorRateStdDev;
+  }
+
+  /** p99 of {@code durationMS} in the last interval. */
+  public double getP99MS() {
+    return this.p99MS;
+  }
+
+  public double getP99BaselineMS() {
+    return this.p99BaselineMS;
+  }
+
+  public double getP99StdDevMS() {
+    return this.p99StdDevMS;
+  }
+
+  /** Intervals with enough logs to be judged. */
+  public long getIntervals() {
+    return this.intervals;
+  }
+
+  public long getAnomalies() {
+    return this.anomalies;
+  }
+}
@@ -1,25 +1,44 @@
 package com.github.ignorant05.log_processing_system.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.github.ignorant05.log_processing_system.model.LogEntry;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /** JsonUtil */
 public class JsonUtil {
   private static final ObjectMapper objectMapper;
+  private static final ObjectWriter logEntryWriter;
+  private static final ObjectReader logEntryReader;
 
   static {
-    objectMapper = new ObjectMapper();
-    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper = newObjectMapper(new JsonFactory());
 
-    objectMapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
-    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    logEntryWriter = objectMapper.writerFor(LogEntry.class);
+    logEntryReader = objectMapper.readerFor(LogEntry.class);
   }
 
   private JsonUtil() {}
 
+  /**
+   * Builds a mapper with the same date handling as the JSON one on top of any Jackson backend, so
+   * binary formats such as Smile or CBOR encode a {@link LogEntry} exactly like JSON does.
+   */
+  public static ObjectMapper newObjectMapper(JsonFactory factory) {
+    ObjectMapper mapper = new ObjectMapper(factory);
+    mapper.registerModule(new JavaTimeModule());
+
+    mapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
+    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    return mapper;
+  }
+
   public static String toJson(LogEntry logEntry) throws JsonProcessingException {
     return objectMapper.writeValueAsString(logEntry);
   }
@@ -28,6 +47,16 @@ public class JsonUtil {
     return objectMapper.readValue(json, LogEntry.class);
   }
 
+  /** Streams the JSON encoding of {@code logEntry} into {@code out} as UTF-8 bytes. */
+  public static void writeJson(LogEntry logEntry, OutputStream out) throws IOException {
+    logEntryWriter.writeValue(out, logEntry);
+  }
+
+  /** Parses a UTF-8 encoded JSON document without going through an intermediate String. */
+  public static LogEntry fromJson(byte[] json) throws IOException {
+    return logEntryReader.readValue(json);
+  }
+
   public static String toPrettyJson(LogEntry logEntry) throws JsonProcessingException {
     return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(logEntry);
   }
@@ -0,0 +1,47 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/**
+ * LagMetrics
+ *
+ * <p>How far a consumer is behind on one partition: the log end offset against the committed
+ * offset, sampled now and then. Consecutive samples give the rate at which the lag grows (positive)
+ * or shrinks (negative), smoothed so a single slow poll does not swing the catch-up estimate.
+ */
+public final class LagMetrics {
+  /** Weight of the newest sample in the growth rate. */
+  private static final double SMOOTHING = 0.5;
+
+  private final String partition;
+  private long endOffset;
+  private long committedOffset;
+  private long lag;
+  private double growthPerSecond;
+  private boolean hasGrowth;
+  private long sampledAtMS = -1;
+
+  LagMetrics(String partition) {
+    this.partition = partition;
+  }
+
+  public String getPartition() {
+    return this.partition;
+  }
+
+  public synchronized void record(long endOffset, long committedOffset, long nowMS) {
+    long lag = Math.max(0, endOffset - committedOffset);
+    if (sampledAtMS >= 0 && nowMS > sampledAtMS) {
+      double growth = (lag - this.lag) * 1000.0 / (nowMS - sampledAtMS);
+      this.growthPerSecond =
+          hasGrowth ? SMOOTHING * growth + (1 - SMOOTHING) * this.growthPerSecond : growth;
+      this.hasGrowth = true;
+    }
+    this.endOffset = endOffset;
+    this.committedOffset = committedOffset;
+    this.lag = lag;
+    this.sampledAtMS = nowMS;
+  }
+
+  public synchronized LagSnapShot snapshot() {
+    return new LagSnapShot(partition, endOffset, committedOffset, lag, growthPerSecond);
+  }
+}
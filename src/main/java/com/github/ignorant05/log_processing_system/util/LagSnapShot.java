@@ -0,0 +1,63 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/** LagSnapShot */
+public final class LagSnapShot {
+
+  private final String partition;
+  private final long endOffset;
+  private final long committedOffset;
+  private final long lag;
+  private final double growthPerSecond;
+
+  public LagSnapShot(
+      String partition, long endOffset, long committedOffset, long lag, double growthPerSecond) {
+    this.partition = partition;
+    this.endOffset = endOffset;
+    this.committedOffset = committedOffset;
+    this.lag = lag;
+    this.growthPerSecond = growthPerSecond;
+  }
+
+  public String getPartition() {
+    return this.partition;
+  }
+
+  public long getEndOffset() {
+    return this.endOffset;
+  }
+
+  public long getCommittedOffset() {
+    return this.committedOffset;
+  }
+
+  /** Records written to the partition that the group has not committed yet. */
+  public long getLag() {
+    return this.lag;
+  }
+
+  /** Change in lag per second; negative while the consumer is catching up. */
+  public double getGrowthPerSecond() {
+    return this.growthPerSecond;
+  }
+
+  /**
+   * Seconds until the lag reaches zero at the current rate; 0 if caught up, -1 if it never will.
+   */
+  public double getCatchUpSeconds() {
+    return catchUpSeconds(lag, growthPerSecond);
+  }
+
+  static double catchUpSeconds(long lag, double growthPerSecond) {
+    if (lag == 0) return 0;
+    return growthPerSecond < 0 ? lag / -growthPerSecond : -1;
+  }
+
+  /** {@link #getCatchUpSeconds} for people: "0s", "45s", "3m 05s", "2h 10m" or "never". */
+  public static String formatCatchUp(double seconds) {
+    if (seconds < 0) return "never";
+    long s = (long) Math.ceil(seconds);
+    if (s < 60) return s + "s";
+    if (s < 3600) return String.format("%dm %02ds", s / 60, s % 60);
+    return String.format("%dh %02dm", s / 3600, (s % 3600) / 60);
+  }
+}
@@ -0,0 +1,200 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram
+ *
+ * <p>Fixed-size, log-linear histogram of non-negative values (the unit is the caller's; latencies
+ * are recorded in microseconds). Every power of two is split into {@value #SUB_BUCKETS} linear
+ * sub-buckets, so any percentile is exact to within about 6% while the whole range of a {@code
+ * long} fits in under a thousand counters. Recording is a couple of atomic increments and never
+ * allocates; histograms with the same layout can be merged.
+ *
+ * <p>{@link #toBytes} encodes a histogram in a few bytes per non-empty bucket, so histograms built
+ * by different processes can be shipped around and merged with {@link #fromBytes}.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  private static final int FORMAT_VERSION = 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long value) {
+    if (value < 0) value = 0;
+    counts.incrementAndGet(indexOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+
+    long current;
+    do {
+      current = max.get();
+    } while (value > current && !max.compareAndSet(current, value));
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0.0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Value at or below which {@code percentile} percent of the recorded values fall, reported as the
+   * upper bound of its bucket (capped at the max seen); 0 when empty.
+   */
+  public long getPercentile(double percentile) {
+    long n = count.get();
+    if (n == 0) return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(n * Math.min(100.0, percentile) / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) return Math.min(upperBoundOf(i), max.get());
+    }
+    return max.get();
+  }
+
+  /** Adds every value recorded in {@code other} to this histogram. */
+  public void merge(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      long c = other.counts.get(i);
+      if (c != 0) counts.addAndGet(i, c);
+    }
+    count.addAndGet(other.count.get());
+    sum.addAndGet(other.sum.get());
+
+    long otherMax = other.max.get();
+    long current;
+    do {
+      current = max.get();
+    } while (otherMax > current && !max.compareAndSet(current, otherMax));
+  }
+
+  /** A copy of the values recorded so far. */
+  public LatencyHistogram copy() {
+    LatencyHistogram copy = new LatencyHistogram();
+    copy.merge(this);
+    return copy;
+  }
+
+  /**
+   * The values recorded since {@code earlier}, a {@link #copy} of this histogram taken before. The
+   * max is only known to bucket precision.
+   */
+  public LatencyHistogram minus(LatencyHistogram earlier) {
+    LatencyHistogram since = new LatencyHistogram();
+    int highest = -1;
+    for (int i = 0; i < BUCKETS; i++) {
+      long c = counts.get(i) - earlier.counts.get(i);
+      if (c <= 0) continue;
+      since.counts.set(i, c);
+      highest = i;
+    }
+    since.count.set(Math.max(0, count.get() - earlier.count.get()));
+    since.sum.set(Math.max(0, sum.get() - earlier.sum.get()));
+    if (highest >= 0) since.max.set(Math.min(upperBoundOf(highest), max.get()));
+    return since;
+  }
+
+  /**
+   * Compact encoding: a version byte, then count, sum, max and, per non-empty bucket, the gap from
+   * the previous one and its count, all as unsigned varints. Not atomic with respect to concurrent
+   * {@link #record} calls.
+   */
+  public byte[] toBytes() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+    out.write(FORMAT_VERSION);
+    writeVarLong(out, count.get());
+    writeVarLong(out, sum.get());
+    writeVarLong(out, max.get());
+    int previous = -1;
+    for (int i = 0; i < BUCKETS; i++) {
+      long c = counts.get(i);
+      if (c == 0) continue;
+      writeVarLong(out, i - previous);
+      writeVarLong(out, c);
+      previous = i;
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes what {@link #toBytes} produced.
+   *
+   * @throws IllegalArgumentException if {@code bytes} is not such an encoding
+   */
+  public static LatencyHistogram fromBytes(byte[] bytes) {
+    if (bytes.length == 0 || bytes[0] != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Not a serialized histogram");
+    }
+    LatencyHistogram histogram = new LatencyHistogram();
+    int[] position = {1};
+    histogram.count.set(readVarLong(bytes, position));
+    histogram.sum.set(readVarLong(bytes, position));
+    histogram.max.set(readVarLong(bytes, position));
+    long index = -1;
+    while (position[0] < bytes.length) {
+      index += readVarLong(bytes, position);
+      if (index >= BUCKETS) throw new IllegalArgumentException("Histogram bucket out of range");
+      histogram.counts.set((int) index, readVarLong(bytes, position));
+    }
+    return histogram;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(byte[] bytes, int[] position) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (position[0] >= bytes.length) throw new IllegalArgumentException("Truncated histogram");
+      byte b = bytes[position[0]++];
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+    throw new IllegalArgumentException("Malformed histogram varint");
+  }
+
+  /** Not atomic with respect to concurrent {@link #record} calls. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + sub;
+  }
+
+  static long upperBoundOf(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+    return ((sub + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,129 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.Arrays;
+
+/**
+ * LongLongMap
+ *
+ * <p>Open-addressing hash map from {@code long} to {@code long} with linear probing, for counters
+ * keyed by packed ids. Keys and values live in two flat arrays, so adding to a counter neither
+ * boxes nor allocates once the table is large enough. {@link Long#MIN_VALUE} cannot be used as a
+ * key: it marks free slots. Not thread-safe.
+ */
+public final class LongLongMap {
+  private static final long FREE = Long.MIN_VALUE;
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private long[] values;
+  private int mask;
+  private int size;
+
+  public LongLongMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /** Sized to hold {@code expected} keys without growing. */
+  public LongLongMap(int expected) {
+    allocate(tableSizeFor(expected));
+  }
+
+  /** Callback for {@link #forEach}. */
+  public interface Entry {
+    void accept(long key, long value);
+  }
+
+  /** Adds {@code delta} to the value of {@code key}, which starts at 0. */
+  public long add(long key, long delta) {
+    if (key == FREE) throw new IllegalArgumentException("Long.MIN_VALUE cannot be a key");
+    int i = slotOf(key);
+    if (keys[i] == FREE) {
+      if (size + 1 > (mask + 1) / 4 * 3) {
+        grow();
+        i = slotOf(key);
+      }
+      keys[i] = key;
+      size++;
+    }
+    return values[i] += delta;
+  }
+
+  /** Value of {@code key}, or 0 if it has none. */
+  public long get(long key) {
+    if (key == FREE) return 0;
+    int i = slotOf(key);
+    return keys[i] == FREE ? 0 : values[i];
+  }
+
+  public boolean containsKey(long key) {
+    return key != FREE && keys[slotOf(key)] != FREE;
+  }
+
+  /** Adds every value of {@code other} to this map. */
+  public void addAll(LongLongMap other) {
+    for (int i = 0; i < other.keys.length; i++) {
+      if (other.keys[i] != FREE) add(other.keys[i], other.values[i]);
+    }
+  }
+
+  /** Visits every entry, in no particular order. */
+  public void forEach(Entry action) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) action.accept(keys[i], values[i]);
+    }
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes every entry, keeping the table. */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    Arrays.fill(values, 0);
+    size = 0;
+  }
+
+  /** The slot holding {@code key}, or the free slot where it would go. */
+  private int slotOf(long key) {
+    int i = mix(key) & mask;
+    while (keys[i] != FREE && keys[i] != key) i = (i + 1) & mask;
+    return i;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(keys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == FREE) continue;
+      int slot = slotOf(oldKeys[i]);
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+
+  private void allocate(int tableSize) {
+    keys = new long[tableSize];
+    values = new long[tableSize];
+    Arrays.fill(keys, FREE);
+    mask = tableSize - 1;
+  }
+
+  private static int tableSizeFor(int expected) {
+    int needed = Math.max(MIN_CAPACITY, (int) Math.min(1 << 30, expected * 4L / 3 + 1));
+    return Integer.highestOneBit(needed - 1) << 1;
+  }
+
+  /** Packed ids differ in their low bits only: spread them over the whole hash (murmur3 fmix). */
+  private static int mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
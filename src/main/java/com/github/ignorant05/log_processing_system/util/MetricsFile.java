@@ -0,0 +1,144 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsFile
+ *
+ * <p>How {@code klog metrics} sees into other processes: {@link MetricsRegistry} only lives as long
+ * as the process that fills it, so every running generate, consume or aggregate publishes its
+ * snapshot as JSON to {@code <pid>.json} in {@link #DIR} once a second, and removes the file when
+ * it is done. Files are replaced atomically, so a reader never sees half of one.
+ */
+public final class MetricsFile implements AutoCloseable {
+  public static final Path DIR = Path.of(System.getProperty("java.io.tmpdir"), "klog-metrics");
+
+  static final long PERIOD_MS = 1_000;
+
+  private final Path dir;
+  private final Path path;
+  private final String command;
+  private final ScheduledExecutorService scheduler;
+  private volatile boolean failed;
+
+  MetricsFile(Path dir, String command) {
+    this.dir = dir;
+    this.path = dir.resolve(ProcessHandle.current().pid() + ".json");
+    this.command = command;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "klog-metrics");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Starts publishing this process's metrics under {@code command}, such as "consume". */
+  public static MetricsFile publish(String command) {
+    return publish(DIR, command);
+  }
+
+  static MetricsFile publish(Path dir, String command) {
+    MetricsFile file = new MetricsFile(dir, command);
+    file.scheduler.scheduleAtFixedRate(file::write, 0, PERIOD_MS, TimeUnit.MILLISECONDS);
+    return file;
+  }
+
+  /** Writes the current snapshot, with the command, pid and time it was taken. */
+  void write() {
+    ObjectNode root = MetricsJson.toJson(MetricsRegistry.getInstance().snapshot());
+    root.put("command", command);
+    root.put("pid", ProcessHandle.current().pid());
+    root.put("updated_at_ms", System.currentTimeMillis());
+
+    try {
+      Files.createDirectories(dir);
+      Path temp = Files.createTempFile(dir, ".klog-metrics-", ".tmp");
+      try {
+        MetricsJson.MAPPER.writeValue(temp.toFile(), root);
+        try {
+          Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+      failed = false;
+    } catch (IOException e) {
+      // Once per outage rather than once a second.
+      if (!failed) System.err.printf("Failed to publish metrics to %s: %s%n", path, e.getMessage());
+      failed = true;
+    }
+  }
+
+  Path getPath() {
+    return this.path;
+  }
+
+  /**
+   * The snapshots published by processes that are still running, by pid. Files left behind by a
+   * process that was killed are removed on the way.
+   */
+  public static List<JsonNode> readAll() {
+    return readAll(DIR);
+  }
+
+  static List<JsonNode> readAll(Path dir) {
+    List<JsonNode> snapshots = new ArrayList<>();
+    if (!Files.isDirectory(dir)) return snapshots;
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        long pid;
+        try {
+          pid = Long.parseLong(name.substring(0, name.length() - ".json".length()));
+        } catch (NumberFormatException e) {
+          continue;
+        }
+        try {
+          if (ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+            snapshots.add(MetricsJson.MAPPER.readTree(file.toFile()));
+          } else {
+            Files.deleteIfExists(file);
+          }
+        } catch (IOException e) {
+          // Removed by its process since the listing.
+        }
+      }
+    } catch (IOException e) {
+      System.err.printf("Failed to read metrics from %s: %s%n", dir, e.getMessage());
+    }
+    snapshots.sort(Comparator.comparingLong(snapshot -> snapshot.path("pid").asLong()));
+    return snapshots;
+  }
+
+  /** Stops publishing and removes the file: the figures die with the process. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    try {
+      scheduler.awaitTermination(PERIOD_MS, TimeUnit.MILLISECONDS);
+      Files.deleteIfExists(path);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      System.err.printf("Failed to remove %s: %s%n", path, e.getMessage());
+    }
+  }
+}
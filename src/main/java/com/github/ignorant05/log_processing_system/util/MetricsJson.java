@@ -0,0 +1,171 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MetricsJson
+ *
+ * <p>The JSON form of a {@link MetricsSnapShot}, as {@code klog metrics --json} prints it and as
+ * {@link MetricsFile} publishes it. Sections with nothing to report are left out, and every field a
+ * snapshot is built from is kept, so {@link #fromJson} gives back the same snapshot.
+ */
+public final class MetricsJson {
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private MetricsJson() {}
+
+  public static ObjectNode toJson(MetricsSnapShot snapshot) {
+    ObjectNode root = MAPPER.createObjectNode();
+    root.put("uptime_seconds", snapshot.getUptimeSeconds());
+
+    ObjectNode throughput = root.putObject("throughput");
+    throughput.put("messages_produced", snapshot.getProducedMessages());
+    throughput.put("messages_consumed", snapshot.getConsumedMessages());
+    throughput.put("produced_per_second", snapshot.getProducedPerSecond());
+    throughput.put("consumed_per_second", snapshot.getConsumedPerSecond());
+
+    ObjectNode latency = root.putObject("latency");
+    latency.put("avg_ms", snapshot.getAverageLatencyMS());
+    latency.put("max_ms", snapshot.getMaxLatencyMS());
+
+    ObjectNode reliability = root.putObject("reliability");
+    reliability.put("error_count", snapshot.getErrorCount());
+    reliability.put("retry_count", snapshot.getRetryCount());
+
+    if (!snapshot.getStages().isEmpty()) {
+      ArrayNode stages = root.putArray("stages");
+      for (StageSnapShot stage : snapshot.getStages()) {
+        ObjectNode node = stages.addObject();
+        node.put("name", stage.getName());
+        node.put("workers", stage.getWorkers());
+        node.put("batches", stage.getBatches());
+        node.put("records", stage.getRecords());
+        node.put("service_ns", stage.getServiceNanos());
+        node.put("service_us_per_record", stage.getServiceMicrosPerRecord());
+        node.put("capacity_per_second", stage.getCapacityPerSecond());
+        node.put("queue_depth", stage.getQueueDepth());
+        node.put("max_queue_depth", stage.getMaxQueueDepth());
+      }
+    }
+
+    OrderingSnapShot ordering = snapshot.getOrdering();
+    if (ordering.getEmitted() > 0) {
+      ObjectNode node = root.putObject("ordering");
+      node.put("emitted", ordering.getEmitted());
+      node.put("delay_ns", ordering.getDelayNanos());
+      node.put("max_delay_ns", ordering.getMaxDelayNanos());
+      node.put("avg_delay_ms", ordering.getAverageDelayMS());
+      node.put("max_delay_ms", ordering.getMaxDelayMS());
+      node.put("out_of_order", ordering.getOutOfOrder());
+      node.put("late", ordering.getLate());
+      node.put("buffered", ordering.getBuffered());
+    }
+
+    if (!snapshot.getLags().isEmpty()) {
+      ObjectNode lag = root.putObject("lag");
+      lag.put("total", snapshot.getTotalLag());
+      lag.put("growth_per_second", snapshot.getLagGrowthPerSecond());
+      lag.put("catch_up_seconds", snapshot.getCatchUpSeconds());
+      ArrayNode partitions = lag.putArray("partitions");
+      for (LagSnapShot partition : snapshot.getLags()) {
+        ObjectNode node = partitions.addObject();
+        node.put("partition", partition.getPartition());
+        node.put("end_offset", partition.getEndOffset());
+        node.put("committed_offset", partition.getCommittedOffset());
+        node.put("lag", partition.getLag());
+        node.put("growth_per_second", partition.getGrowthPerSecond());
+        node.put("catch_up_seconds", partition.getCatchUpSeconds());
+      }
+    }
+
+    if (!snapshot.getDetectors().isEmpty()) {
+      ArrayNode anomalies = root.putArray("anomalies");
+      for (DetectorSnapShot detector : snapshot.getDetectors()) {
+        ObjectNode node = anomalies.addObject();
+        node.put("service", detector.getService());
+        node.put("error_rate", detector.getErrorRate());
+        node.put("error_rate_baseline", detector.getErrorRateBaseline());
+        node.put("error_rate_stddev", detector.getErrorRateStdDev());
+        node.put("p99_ms", detector.getP99MS());
+        node.put("p99_baseline_ms", detector.getP99BaselineMS());
+        node.put("p99_stddev_ms", detector.getP99StdDevMS());
+        node.put("intervals", detector.getIntervals());
+        node.put("anomalies", detector.getAnomalies());
+      }
+    }
+    return root;
+  }
+
+  /** The snapshot {@link #toJson} wrote {@code root} from. */
+  public static MetricsSnapShot fromJson(JsonNode root) {
+    JsonNode throughput = root.path("throughput");
+    JsonNode latency = root.path("latency");
+    JsonNode reliability = root.path("reliability");
+
+    List<StageSnapShot> stages = new ArrayList<>();
+    for (JsonNode node : root.path("stages")) {
+      stages.add(
+          new StageSnapShot(
+              node.path("name").asText(),
+              node.path("workers").asInt(),
+              node.path("batches").asLong(),
+              node.path("records").asLong(),
+              node.path("service_ns").asLong(),
+              node.path("queue_depth").asLong(),
+              node.path("max_queue_depth").asLong()));
+    }
+
+    List<LagSnapShot> lags = new ArrayList<>();
+    for (JsonNode node : root.path("lag").path("partitions")) {
+      lags.add(
+          new LagSnapShot(
+              node.path("partition").asText(),
+              node.path("end_offset").asLong(),
+              node.path("committed_offset").asLong(),
+              node.path("lag").asLong(),
+              node.path("growth_per_second").asDouble()));
+    }
+
+    JsonNode ordering = root.path("ordering");
+    List<DetectorSnapShot> detectors = new ArrayList<>();
+    for (JsonNode node : root.path("anomalies")) {
+      detectors.add(
+          new DetectorSnapShot(
+              node.path("service").asText(),
+              node.path("error_rate").asDouble(),
+              node.path("error_rate_baseline").asDouble(),
+              node.path("error_rate_stddev").asDouble(),
+              node.path("p99_ms").asDouble(),
+              node.path("p99_baseline_ms").asDouble(),
+              node.path("p99_stddev_ms").asDouble(),
+              node.path("intervals").asLong(),
+              node.path("anomalies").asLong()));
+    }
+
+    return new MetricsSnapShot(
+        throughput.path("messages_produced").asLong(),
+        throughput.path("messages_consumed").asLong(),
+        throughput.path("produced_per_second").asDouble(),
+        throughput.path("consumed_per_second").asDouble(),
+        reliability.path("error_count").asLong(),
+        reliability.path("retry_count").asLong(),
+        latency.path("avg_ms").asDouble(),
+        latency.path("max_ms").asLong(),
+        root.path("uptime_seconds").asLong(),
+        stages,
+        lags,
+        new OrderingSnapShot(
+            ordering.path("emitted").asLong(),
+            ordering.path("delay_ns").asLong(),
+            ordering.path("max_delay_ns").asLong(),
+            ordering.path("out_of_order").asLong(),
+            ordering.path("late").asLong(),
+            ordering.path("buffered").asLong()),
+        detectors);
+  }
+}
@@ -1,6 +1,12 @@
 package com.github.ignorant05.log_processing_system.util;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 /** MetricsRegistry */
@@ -22,6 +28,12 @@ public final class MetricsRegistry {
   private final AtomicLong latencyMaxMS = new AtomicLong();
   private final AtomicLong latencyCount = new AtomicLong();
 
+  private final Map<String, StageMetrics> stagesByName = new ConcurrentHashMap<>();
+  private final List<StageMetrics> stages = new CopyOnWriteArrayList<>();
+  private final Map<String, LagMetrics> lags = new ConcurrentSkipListMap<>();
+  private final OrderingMetrics ordering = new OrderingMetrics();
+  private final Map<String, DetectorMetrics> detectors = new ConcurrentSkipListMap<>();
+
   private final Instant startedAt = Instant.now();
 
   public void recordProduced() {
@@ -58,6 +70,37 @@ public final class MetricsRegistry {
     } while (latencyMS > curr && !this.latencyMaxMS.compareAndSet(curr, latencyMS));
   }
 
+  /** Counters for the pipeline stage called {@code name}; stages are reported in creation order. */
+  public StageMetrics stage(String name) {
+    return this.stagesByName.computeIfAbsent(
+        name,
+        n -> {
+          StageMetrics stage = new StageMetrics(n);
+          this.stages.add(stage);
+          return stage;
+        });
+  }
+
+  /** Consumer lag on {@code partition}; partitions are reported sorted by name. */
+  public LagMetrics lag(String partition) {
+    return this.lags.computeIfAbsent(partition, LagMetrics::new);
+  }
+
+  /** Stops reporting lag on {@code partition}, e.g. once it moved to another consumer. */
+  public void removeLag(String partition) {
+    this.lags.remove(partition);
+  }
+
+  /** Counters of the timestamp-ordered consume mode. */
+  public OrderingMetrics ordering() {
+    return this.ordering;
+  }
+
+  /** Anomaly detector state for {@code service}; services are reported sorted by name. */
+  public DetectorMetrics detector(String service) {
+    return this.detectors.computeIfAbsent(service, DetectorMetrics::new);
+  }
+
   public MetricsSnapShot snapshot() {
     long uptimeSeconds =
         Math.max(1, Instant.now().getEpochSecond() - this.startedAt.getEpochSecond());
@@ -66,6 +109,15 @@ public final class MetricsRegistry {
     long consumed = this.consumedMessages.get();
     long count = this.latencyCount.get();
 
+    List<StageSnapShot> stageSnapShots = new ArrayList<>(this.stages.size());
+    for (StageMetrics stage : this.stages) stageSnapShots.add(stage.snapshot());
+    List<LagSnapShot> lagSnapShots = new ArrayList<>(this.lags.size());
+    for (LagMetrics lag : this.lags.values()) lagSnapShots.add(lag.snapshot());
+    List<DetectorSnapShot> detectorSnapShots = new ArrayList<>(this.detectors.size());
+    for (DetectorMetrics detector : this.detectors.values()) {
+      detectorSnapShots.add(detector.snapshot());
+    }
+
     return new MetricsSnapShot(
         produced,
         consumed,
@@ -75,7 +127,11 @@ public final class MetricsRegistry {
         this.retryCount.get(),
         count == 0 ? 0.0 : (double) this.latencySumMS.get() / count,
         this.latencyMaxMS.get(),
-        uptimeSeconds);
+        uptimeSeconds,
+        stageSnapShots,
+        lagSnapShots,
+        this.ordering.snapshot(),
+        detectorSnapShots);
   }
 
   public void reset() {
@@ -86,5 +142,9 @@ public final class MetricsRegistry {
     this.latencySumMS.set(0);
     this.latencyMaxMS.set(0);
     this.latencyCount.set(0);
+    this.stages.forEach(StageMetrics::reset);
+    this.lags.clear();
+    this.ordering.reset();
+    this.detectors.clear();
   }
 }
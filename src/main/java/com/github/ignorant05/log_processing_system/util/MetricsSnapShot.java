@@ -1,5 +1,7 @@
 package com.github.ignorant05.log_processing_system.util;
 
+import java.util.List;
+
 /** MetricsSnapShot */
 public final class MetricsSnapShot {
 
@@ -12,6 +14,10 @@ public final class MetricsSnapShot {
   private final double averageLatencyMS;
   private final long maxLatencyMS;
   private final long uptimeSeconds;
+  private final List<StageSnapShot> stages;
+  private final List<LagSnapShot> lags;
+  private final OrderingSnapShot ordering;
+  private final List<DetectorSnapShot> detectors;
 
   public MetricsSnapShot(
       long producedMessages,
@@ -23,6 +29,36 @@ public final class MetricsSnapShot {
       double averageLatencyMS,
       long maxLatencyMS,
       long uptimeSeconds) {
+    this(
+        producedMessages,
+        consumedMessages,
+        producedPerSecond,
+        consumedPerSecond,
+        errorCount,
+        retryCount,
+        averageLatencyMS,
+        maxLatencyMS,
+        uptimeSeconds,
+        List.of(),
+        List.of(),
+        new OrderingSnapShot(0, 0, 0, 0, 0, 0),
+        List.of());
+  }
+
+  public MetricsSnapShot(
+      long producedMessages,
+      long consumedMessages,
+      double producedPerSecond,
+      double consumedPerSecond,
+      long errorCount,
+      long retryCount,
+      double averageLatencyMS,
+      long maxLatencyMS,
+      long uptimeSeconds,
+      List<StageSnapShot> stages,
+      List<LagSnapShot> lags,
+      OrderingSnapShot ordering,
+      List<DetectorSnapShot> detectors) {
     this.producedMessages = producedMessages;
     this.consumedMessages = consumedMessages;
     this.producedPerSecond = producedPerSecond;
@@ -32,6 +68,10 @@ public final class MetricsSnapShot {
     this.averageLatencyMS = averageLatencyMS;
     this.maxLatencyMS = maxLatencyMS;
     this.uptimeSeconds = uptimeSeconds;
+    this.stages = List.copyOf(stages);
+    this.lags = List.copyOf(lags);
+    this.ordering = ordering;
+    this.detectors = List.copyOf(detectors);
   }
 
   public long getProducedMessages() {
@@ -69,4 +109,42 @@ public final class MetricsSnapShot {
   public long getUptimeSeconds() {
     return this.uptimeSeconds;
   }
+
+  /** Pipeline stages in the order they were created; empty when nothing ran a pipeline. */
+  public List<StageSnapShot> getStages() {
+    return this.stages;
+  }
+
+  /** Lag per assigned partition, sorted by partition; empty when nothing consumed. */
+  public List<LagSnapShot> getLags() {
+    return this.lags;
+  }
+
+  public OrderingSnapShot getOrdering() {
+    return this.ordering;
+  }
+
+  /** Anomaly detector state per service, sorted by service; empty when detection is off. */
+  public List<DetectorSnapShot> getDetectors() {
+    return this.detectors;
+  }
+
+  /** Lag summed over every partition. */
+  public long getTotalLag() {
+    long total = 0;
+    for (LagSnapShot lag : lags) total += lag.getLag();
+    return total;
+  }
+
+  /** Change in total lag per second; negative while the consumer is catching up. */
+  public double getLagGrowthPerSecond() {
+    double total = 0;
+    for (LagSnapShot lag : lags) total += lag.getGrowthPerSecond();
+    return total;
+  }
+
+  /** Seconds until the total lag reaches zero at the current rate; 0 if caught up, -1 if never. */
+  public double getCatchUpSeconds() {
+    return LagSnapShot.catchUpSeconds(getTotalLag(), getLagGrowthPerSecond());
+  }
 }
@@ -0,0 +1,64 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderingMetrics
+ *
+ * <p>What putting consumed logs in timestamp order costs: how long records wait in the reorder
+ * buffer before they are printed, how many arrived behind a later record (and were put back in
+ * place), and how many arrived after the watermark had passed them, too late to be.
+ */
+public final class OrderingMetrics {
+  private final AtomicLong emitted = new AtomicLong();
+  private final AtomicLong delayNanos = new AtomicLong();
+  private final AtomicLong maxDelayNanos = new AtomicLong();
+  private final AtomicLong outOfOrder = new AtomicLong();
+  private final AtomicLong late = new AtomicLong();
+  private final AtomicLong buffered = new AtomicLong();
+
+  OrderingMetrics() {}
+
+  /** A record left the buffer after {@code delayNanos}. */
+  public void recordEmitted(long delayNanos) {
+    this.emitted.incrementAndGet();
+    this.delayNanos.addAndGet(delayNanos);
+
+    long current;
+    do {
+      current = this.maxDelayNanos.get();
+    } while (delayNanos > current && !this.maxDelayNanos.compareAndSet(current, delayNanos));
+  }
+
+  public void recordOutOfOrder() {
+    this.outOfOrder.incrementAndGet();
+  }
+
+  public void recordLate() {
+    this.late.incrementAndGet();
+  }
+
+  /** Records currently waiting in the buffer. */
+  public void setBuffered(long buffered) {
+    this.buffered.set(buffered);
+  }
+
+  public OrderingSnapShot snapshot() {
+    return new OrderingSnapShot(
+        emitted.get(),
+        delayNanos.get(),
+        maxDelayNanos.get(),
+        outOfOrder.get(),
+        late.get(),
+        buffered.get());
+  }
+
+  void reset() {
+    emitted.set(0);
+    delayNanos.set(0);
+    maxDelayNanos.set(0);
+    outOfOrder.set(0);
+    late.set(0);
+    buffered.set(0);
+  }
+}
@@ -0,0 +1,63 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/** OrderingSnapShot */
+public final class OrderingSnapShot {
+
+  private final long emitted;
+  private final long delayNanos;
+  private final long maxDelayNanos;
+  private final long outOfOrder;
+  private final long late;
+  private final long buffered;
+
+  public OrderingSnapShot(
+      long emitted,
+      long delayNanos,
+      long maxDelayNanos,
+      long outOfOrder,
+      long late,
+      long buffered) {
+    this.emitted = emitted;
+    this.delayNanos = delayNanos;
+    this.maxDelayNanos = maxDelayNanos;
+    this.outOfOrder = outOfOrder;
+    this.late = late;
+    this.buffered = buffered;
+  }
+
+  /** Records printed in order; 0 when consume did not run {@code --ordered}. */
+  public long getEmitted() {
+    return this.emitted;
+  }
+
+  /** Time all emitted records spent buffered, summed. */
+  public long getDelayNanos() {
+    return this.delayNanos;
+  }
+
+  public long getMaxDelayNanos() {
+    return this.maxDelayNanos;
+  }
+
+  public double getAverageDelayMS() {
+    return emitted == 0 ? 0.0 : delayNanos / 1e6 / emitted;
+  }
+
+  public double getMaxDelayMS() {
+    return this.maxDelayNanos / 1e6;
+  }
+
+  /** Records that arrived after one with a later timestamp. */
+  public long getOutOfOrder() {
+    return this.outOfOrder;
+  }
+
+  /** Out-of-order records that arrived after the watermark and were printed out of place. */
+  public long getLate() {
+    return this.late;
+  }
+
+  public long getBuffered() {
+    return this.buffered;
+  }
+}
@@ -0,0 +1,152 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * RateLimiter
+ *
+ * <p>Token-bucket pacer with nanosecond resolution. Permits are handed out on an absolute schedule
+ * ({@code next += 1s / rate}) rather than by sleeping a fixed interval after each send, so time a
+ * caller loses in a slow send is caught up on the following permits instead of lowering the rate.
+ * How far it may catch up, and how large a burst may build while callers are idle, is capped by
+ * {@code burst} permits.
+ *
+ * <p>Thread-safe: workers sharing one limiter get the aggregate rate between them. A slot is
+ * reserved under the lock and waited for outside of it.
+ */
+public class RateLimiter {
+  /** Waits shorter than this are spun instead of parked; parking cannot wake up that precisely. */
+  private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * Longest single wait. A slot further out than this is not claimed yet: the caller waits this
+   * long and asks again, so a ramping profile is followed even while its rate is still tiny.
+   */
+  private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final long DEADLINE = Long.MIN_VALUE;
+
+  /** Waits for {@code nanos}; injectable so tests can run on a fake clock. */
+  @FunctionalInterface
+  public interface Sleeper {
+    public void sleepNanos(long nanos) throws InterruptedException;
+  }
+
+  private final RateProfile profile;
+  private final double burst;
+  private final LongSupplier clock;
+  private final Sleeper sleeper;
+
+  private long startNanos;
+  private long lastSlotNanos;
+  private boolean started;
+  private boolean idle = true;
+
+  public RateLimiter(double perSecond) {
+    this(RateProfile.constant(perSecond), 1);
+  }
+
+  public RateLimiter(RateProfile profile, double burst) {
+    this(profile, burst, System::nanoTime, RateLimiter::park);
+  }
+
+  /**
+   * @param burst permits that may be handed out back to back after the caller fell behind or was
+   *     idle; at least 1
+   */
+  public RateLimiter(RateProfile profile, double burst, LongSupplier clock, Sleeper sleeper) {
+    this.profile = profile;
+    this.burst = Math.max(1, burst);
+    this.clock = clock;
+    this.sleeper = sleeper;
+  }
+
+  /** Blocks until the next permit is due. */
+  public void acquire() throws InterruptedException {
+    acquire(false, 0);
+  }
+
+  /**
+   * Blocks until the next permit is due, unless that is at or after {@code deadlineNanos} (on this
+   * limiter's clock); then returns false straight away without taking it. A profile that ramps down
+   * to zero never hands out another permit, so timed runs should pace with this.
+   */
+  public boolean acquireBefore(long deadlineNanos) throws InterruptedException {
+    return acquire(true, deadlineNanos);
+  }
+
+  private boolean acquire(boolean hasDeadline, long deadlineNanos) throws InterruptedException {
+    while (true) {
+      long wait = reserve(hasDeadline, deadlineNanos);
+      if (wait == DEADLINE) return false;
+      if (wait < 0) {
+        sleeper.sleepNanos(-wait);
+        continue;
+      }
+      if (wait > 0) sleeper.sleepNanos(wait);
+      return true;
+    }
+  }
+
+  /** Nanoseconds since the first permit was requested. */
+  public synchronized long getElapsedNanos() {
+    return started ? clock.getAsLong() - startNanos : 0;
+  }
+
+  /** Target rate right now, per second. */
+  public double getCurrentRate() {
+    return profile.rateAt(getElapsedNanos());
+  }
+
+  /**
+   * Claims the next slot and returns how long to wait for it; a negative value means no slot was
+   * claimed and the caller should wait that long (negated) and try again, {@link #DEADLINE} that
+   * the slot would fall past the deadline.
+   */
+  private synchronized long reserve(boolean hasDeadline, long deadlineNanos) {
+    long now = clock.getAsLong();
+    if (hasDeadline && now - deadlineNanos >= 0) return DEADLINE;
+    if (!started) {
+      started = true;
+      startNanos = now;
+    }
+
+    double rate = profile.rateAt(now - startNanos);
+    if (rate <= 0) {
+      idle = true;
+      return retryAfter(hasDeadline, deadlineNanos, now);
+    }
+
+    double intervalNanos = 1e9 / rate;
+    long slot = idle ? now : lastSlotNanos + Math.max(1, Math.round(intervalNanos));
+    long earliest = now - (long) ((burst - 1) * intervalNanos);
+    if (slot < earliest) slot = earliest;
+
+    long wait = slot - now;
+    if (wait > MAX_WAIT_NANOS) return retryAfter(hasDeadline, deadlineNanos, now);
+    if (hasDeadline && slot - deadlineNanos >= 0) return DEADLINE;
+
+    idle = false;
+    lastSlotNanos = slot;
+    return Math.max(0, wait);
+  }
+
+  /** Poll interval for {@link #reserve}, never sleeping past the deadline. */
+  private static long retryAfter(boolean hasDeadline, long deadlineNanos, long now) {
+    return -(hasDeadline ? Math.min(MAX_WAIT_NANOS, deadlineNanos - now) : MAX_WAIT_NANOS);
+  }
+
+  private static void park(long nanos) throws InterruptedException {
+    long deadline = System.nanoTime() + nanos;
+    if (nanos > SPIN_THRESHOLD_NANOS) {
+      LockSupport.parkNanos(nanos - SPIN_THRESHOLD_NANOS);
+    }
+    while (System.nanoTime() < deadline) {
+      if (Thread.interrupted()) throw new InterruptedException();
+      Thread.onSpinWait();
+    }
+    if (Thread.interrupted()) throw new InterruptedException();
+  }
+}
@@ -0,0 +1,38 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/**
+ * RateProfile
+ *
+ * <p>Target rate, in permits per second, as a function of the time elapsed since a {@link
+ * RateLimiter} started. A rate of zero or less pauses the limiter until the profile picks up again.
+ */
+@FunctionalInterface
+public interface RateProfile {
+  public double rateAt(long elapsedNanos);
+
+  public static RateProfile constant(double perSecond) {
+    return elapsedNanos -> perSecond;
+  }
+
+  /**
+   * Ramps linearly from 0 to {@code perSecond} over {@code rampUpNanos}, holds it, then ramps back
+   * down to 0 over the last {@code rampDownNanos} of {@code totalNanos}. With {@code totalNanos <=
+   * 0} the run is open-ended and there is no ramp-down.
+   */
+  public static RateProfile rampUpDown(
+      double perSecond, long rampUpNanos, long rampDownNanos, long totalNanos) {
+    return elapsedNanos -> {
+      double rate = perSecond;
+      if (rampUpNanos > 0 && elapsedNanos < rampUpNanos) {
+        rate = Math.min(rate, perSecond * elapsedNanos / rampUpNanos);
+      }
+      if (totalNanos > 0 && rampDownNanos > 0) {
+        long remaining = totalNanos - elapsedNanos;
+        if (remaining < rampDownNanos) {
+          rate = Math.min(rate, perSecond * Math.max(0, remaining) / rampDownNanos);
+        }
+      }
+      return rate;
+    };
+  }
+}
@@ -0,0 +1,85 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RingQueue
+ *
+ * <p>Bounded, lock-free multi-producer multi-consumer queue (Dmitry Vyukov's sequenced ring). Each
+ * slot carries a sequence number that tells producers and consumers whose turn it is, so {@link
+ * #offer} and {@link #poll} are a CAS on the tail or head plus two slot writes, never block and
+ * never allocate. Callers decide how to wait when the queue is full or empty.
+ */
+public final class RingQueue<T> {
+  private final int mask;
+  private final AtomicReferenceArray<T> items;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  /** {@code capacity} is rounded up to a power of two. */
+  public RingQueue(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+    this.mask = size - 1;
+    this.items = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) sequences.set(i, i);
+  }
+
+  /** Adds {@code item} unless the queue is full. */
+  public boolean offer(T item) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long lag = sequences.get(index) - position;
+      if (lag == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          items.set(index, item);
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (lag < 0) {
+        return false;
+      }
+      position = tail.get();
+    }
+  }
+
+  /** The oldest item, or null if the queue is empty. */
+  public T poll() {
+    long position = head.get();
+    while (true) {
+      int index = (int) position & mask;
+      long lag = sequences.get(index) - (position + 1);
+      if (lag == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          T item = items.get(index);
+          items.set(index, null);
+          sequences.set(index, position + mask + 1);
+          return item;
+        }
+      } else if (lag < 0) {
+        return null;
+      }
+      position = head.get();
+    }
+  }
+
+  /** Approximate while other threads are offering or polling. */
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+}
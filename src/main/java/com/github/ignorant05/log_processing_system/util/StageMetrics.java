@@ -0,0 +1,69 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StageMetrics
+ *
+ * <p>Counters for one stage of a pipeline: batches and records handled, time spent handling them
+ * (service time, excluding waits for an upstream or downstream queue) and how deep its input queue
+ * is. A stage whose service time per record is highest, or whose queue stays full, is the one to
+ * give more threads.
+ */
+public final class StageMetrics {
+  private final String name;
+  private final AtomicLong workers = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong records = new AtomicLong();
+  private final AtomicLong serviceNanos = new AtomicLong();
+  private final AtomicLong queueDepth = new AtomicLong();
+  private final AtomicLong maxQueueDepth = new AtomicLong();
+
+  StageMetrics(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  /** Threads currently running this stage. */
+  public void setWorkers(int workers) {
+    this.workers.set(workers);
+  }
+
+  public void recordBatch(int records, long serviceNanos) {
+    this.batches.incrementAndGet();
+    this.records.addAndGet(records);
+    this.serviceNanos.addAndGet(serviceNanos);
+  }
+
+  /** Batches waiting in front of the stage, as last seen by one of its workers. */
+  public void recordQueueDepth(int depth) {
+    this.queueDepth.set(depth);
+
+    long current;
+    do {
+      current = this.maxQueueDepth.get();
+    } while (depth > current && !this.maxQueueDepth.compareAndSet(current, depth));
+  }
+
+  public StageSnapShot snapshot() {
+    return new StageSnapShot(
+        name,
+        (int) workers.get(),
+        batches.get(),
+        records.get(),
+        serviceNanos.get(),
+        queueDepth.get(),
+        maxQueueDepth.get());
+  }
+
+  void reset() {
+    batches.set(0);
+    records.set(0);
+    serviceNanos.set(0);
+    queueDepth.set(0);
+    maxQueueDepth.set(0);
+  }
+}
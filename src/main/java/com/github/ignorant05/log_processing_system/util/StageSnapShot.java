@@ -0,0 +1,68 @@
+package com.github.ignorant05.log_processing_system.util;
+
+/** StageSnapShot */
+public final class StageSnapShot {
+
+  private final String name;
+  private final int workers;
+  private final long batches;
+  private final long records;
+  private final long serviceNanos;
+  private final long queueDepth;
+  private final long maxQueueDepth;
+
+  public StageSnapShot(
+      String name,
+      int workers,
+      long batches,
+      long records,
+      long serviceNanos,
+      long queueDepth,
+      long maxQueueDepth) {
+    this.name = name;
+    this.workers = workers;
+    this.batches = batches;
+    this.records = records;
+    this.serviceNanos = serviceNanos;
+    this.queueDepth = queueDepth;
+    this.maxQueueDepth = maxQueueDepth;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getWorkers() {
+    return this.workers;
+  }
+
+  public long getBatches() {
+    return this.batches;
+  }
+
+  public long getRecords() {
+    return this.records;
+  }
+
+  public long getServiceNanos() {
+    return this.serviceNanos;
+  }
+
+  /** Average time the stage spent on one record, in microseconds. */
+  public double getServiceMicrosPerRecord() {
+    return records == 0 ? 0.0 : serviceNanos / 1000.0 / records;
+  }
+
+  /** Records per second the stage could sustain with all its workers busy. */
+  public double getCapacityPerSecond() {
+    return serviceNanos == 0 ? 0.0 : records * 1e9 * Math.max(1, workers) / serviceNanos;
+  }
+
+  public long getQueueDepth() {
+    return this.queueDepth;
+  }
+
+  public long getMaxQueueDepth() {
+    return this.maxQueueDepth;
+  }
+}
@@ -0,0 +1,80 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * ThroughputReporter
+ *
+ * <p>Prints a running total and the current and average rate of a counter on a fixed period, from a
+ * single daemon thread. The counter is only sampled, never written, so workers keep counting in
+ * whatever they already use (a {@code LongAdder}, producer statistics, ...).
+ */
+public class ThroughputReporter implements AutoCloseable {
+  private final String label;
+  private final LongSupplier total;
+  private final LongSupplier failed;
+  private final long periodMS;
+  private final ScheduledExecutorService scheduler;
+
+  private long startedAtNanos;
+  private long lastTotal;
+  private long lastNanos;
+
+  public ThroughputReporter(String label, LongSupplier total, LongSupplier failed, long periodMS) {
+    this.label = label;
+    this.total = total;
+    this.failed = failed;
+    this.periodMS = periodMS;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "klog-throughput");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public ThroughputReporter start() {
+    startedAtNanos = lastNanos = System.nanoTime();
+    lastTotal = total.getAsLong();
+    scheduler.scheduleAtFixedRate(this::report, periodMS, periodMS, TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  private synchronized void report() {
+    long now = System.nanoTime();
+    long current = total.getAsLong();
+
+    System.out.printf(
+        "\t%s: %d | %.0f/s (avg %.0f/s) | Failed: %d%n",
+        label,
+        current,
+        ratePerSecond(current - lastTotal, now - lastNanos),
+        ratePerSecond(current, now - startedAtNanos),
+        failed.getAsLong());
+
+    lastTotal = current;
+    lastNanos = now;
+  }
+
+  /** Average rate since {@link #start()}. */
+  public double getAverageRate() {
+    return ratePerSecond(total.getAsLong(), System.nanoTime() - startedAtNanos);
+  }
+
+  public long getElapsedMS() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+  }
+
+  private static double ratePerSecond(long count, long nanos) {
+    return nanos <= 0 ? 0.0 : count * 1e9 / nanos;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
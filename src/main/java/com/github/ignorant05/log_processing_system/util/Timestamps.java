@@ -0,0 +1,183 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Timestamps
+ *
+ * <p>Epoch-millis helpers for the decode/render hot path. The canonical wire form written by {@link
+ * com.github.ignorant05.log_processing_system.model.LogEntry} ({@code yyyy-MM-ddTHH:mm:ss.SSSZ}) is
+ * parsed and formatted without allocating; anything else falls back to {@link Instant#parse}.
+ */
+public final class Timestamps {
+  /** Sentinel for "no timestamp" wherever a timestamp is held as a primitive. */
+  public static final long NONE = Long.MIN_VALUE;
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+  private static final int CANONICAL_LENGTH = 24;
+
+  /** The duration grammar shared by {@link #parseDurationMillis} and {@link #parseTimeArgument}. */
+  private static final String DURATION = "\\d{1,15}(ms|[smhd])";
+
+  private Timestamps() {}
+
+  /** Parses an ISO-8601 instant from {@code data[offset, offset + length)} to epoch millis. */
+  public static long parseIsoMillis(byte[] data, int offset, int length) {
+    if (length == CANONICAL_LENGTH
+        && data[offset + 4] == '-'
+        && data[offset + 7] == '-'
+        && data[offset + 10] == 'T'
+        && data[offset + 13] == ':'
+        && data[offset + 16] == ':'
+        && data[offset + 19] == '.'
+        && data[offset + 23] == 'Z') {
+      int year = digits(data, offset, 4);
+      int month = digits(data, offset + 5, 2);
+      int day = digits(data, offset + 8, 2);
+      int hour = digits(data, offset + 11, 2);
+      int minute = digits(data, offset + 14, 2);
+      int second = digits(data, offset + 17, 2);
+      int millis = digits(data, offset + 20, 3);
+
+      if (year >= 0
+          && month >= 1
+          && month <= 12
+          && day >= 1
+          && day <= lengthOfMonth(year, month)
+          && hour >= 0
+          && hour < 24
+          && minute >= 0
+          && minute < 60
+          && second >= 0
+          && second < 60
+          && millis >= 0) {
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+            + hour * 3_600_000L
+            + minute * 60_000L
+            + second * 1_000L
+            + millis;
+      }
+    }
+    return Instant.parse(new String(data, offset, length, StandardCharsets.UTF_8)).toEpochMilli();
+  }
+
+  /** Appends the UTC time of day as {@code HH:mm:ss.SSS}. */
+  public static StringBuilder appendTimeOfDay(StringBuilder out, long epochMillis) {
+    int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+    pad(out, millisOfDay / 3_600_000, 2).append(':');
+    pad(out, millisOfDay / 60_000 % 60, 2).append(':');
+    pad(out, millisOfDay / 1_000 % 60, 2).append('.');
+    return pad(out, millisOfDay % 1_000, 3);
+  }
+
+  /**
+   * Parses a {@code --since}/{@code --until} argument to epoch millis. Accepts an ISO-8601 instant
+   * or offset date-time, {@code yyyy-MM-dd[T| ]HH:mm[:ss]}, a time of day {@code HH:mm[:ss]}
+   * (today), or a duration ago such as {@code 500ms}, {@code 90s}, {@code 15m}, {@code 2h} or
+   * {@code 1d}. Times without an offset are UTC, like the times the consumer prints.
+   *
+   * @throws IllegalArgumentException if {@code text} is none of these
+   */
+  public static long parseTimeArgument(String text, Instant now) {
+    String value = text.strip();
+    try {
+      if (value.matches(DURATION)) {
+        return now.toEpochMilli() - parseDurationMillis(value);
+      }
+      if (value.matches("\\d{1,2}:\\d{2}(:\\d{2}(\\.\\d+)?)?")) {
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        return LocalTime.parse(value.indexOf(':') == 1 ? "0" + value : value)
+            .atDate(today)
+            .toInstant(ZoneOffset.UTC)
+            .toEpochMilli();
+      }
+      String isoDateTime = value.replace(' ', 'T');
+      if (isoDateTime.matches(".*([zZ]|[+-]\\d{2}:?\\d{2})$")) {
+        return OffsetDateTime.parse(isoDateTime.toUpperCase(Locale.ROOT))
+            .toInstant()
+            .toEpochMilli();
+      }
+      return LocalDateTime.parse(isoDateTime).toInstant(ZoneOffset.UTC).toEpochMilli();
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(
+          "Expected a time like 2026-03-14T14:02:00Z, 2026-03-14 14:02, 14:02 or 15m, got '"
+              + text
+              + "'");
+    }
+  }
+
+  /**
+   * Parses a duration such as {@code 500ms}, {@code 10s}, {@code 5m}, {@code 2h} or {@code 1d} to
+   * milliseconds.
+   *
+   * @throws IllegalArgumentException if {@code text} is not one
+   */
+  public static long parseDurationMillis(String text) {
+    String value = text.strip();
+    if (!value.matches(DURATION)) {
+      throw new IllegalArgumentException(
+          "Expected a duration like 10s, 5m or 1h, got '" + text + "'");
+    }
+    int split = 0;
+    while (Character.isDigit(value.charAt(split))) split++;
+
+    long amount = Long.parseLong(value.substring(0, split));
+    ChronoUnit unit =
+        switch (value.substring(split)) {
+          case "ms" -> ChronoUnit.MILLIS;
+          case "s" -> ChronoUnit.SECONDS;
+          case "m" -> ChronoUnit.MINUTES;
+          case "h" -> ChronoUnit.HOURS;
+          case "d" -> ChronoUnit.DAYS;
+          default ->
+              throw new IllegalArgumentException(
+                  "Expected a duration like 10s, 5m or 1h, got '" + text + "'");
+        };
+    return amount * unit.getDuration().toMillis();
+  }
+
+  /** Returns the value of {@code count} ASCII digits, or -1 if any of them is not a digit. */
+  private static int digits(byte[] data, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int d = data[i] - '0';
+      if (d < 0 || d > 9) return -1;
+      value = value * 10 + d;
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    if (month == 2) {
+      boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+      return leap ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  /** Days since 1970-01-01 of a proleptic Gregorian date (Howard Hinnant's algorithm). */
+  private static long daysFromCivil(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146_097L + dayOfEra - 719_468L;
+  }
+
+  private static StringBuilder pad(StringBuilder out, int value, int width) {
+    for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+      if (value < limit) out.append('0');
+    }
+    return out.append(value);
+  }
+}
@@ -0,0 +1,64 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utf8
+ *
+ * <p>Comparisons between raw UTF-8 bytes and Java Strings that do not allocate on the common
+ * (ASCII) path. Used by lazy views to test a field without turning it into a String first.
+ */
+public final class Utf8 {
+
+  private Utf8() {}
+
+  public static byte[] encode(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** {@code data[offset, offset + length)} equals {@code expected}, byte for byte. */
+  public static boolean regionEquals(byte[] data, int offset, int length, byte[] expected) {
+    if (length != expected.length) return false;
+    for (int i = 0; i < length; i++) {
+      if (data[offset + i] != expected[i]) return false;
+    }
+    return true;
+  }
+
+  /** First index of {@code needle} in {@code data[from, to)}, or -1. */
+  public static int indexOf(byte[] data, int from, int to, byte[] needle) {
+    if (needle.length == 0) return from;
+
+    int last = to - needle.length;
+    byte first = needle[0];
+    for (int i = from; i <= last; i++) {
+      if (data[i] != first) continue;
+
+      int j = 1;
+      while (j < needle.length && data[i + j] == needle[j]) j++;
+      if (j == needle.length) return i;
+    }
+    return -1;
+  }
+
+  /** {@code value} encodes to exactly {@code utf8}. */
+  public static boolean equals(String value, byte[] utf8) {
+    if (value == null) return false;
+    if (value.length() != utf8.length) {
+      return value.length() < utf8.length && value.equals(new String(utf8, StandardCharsets.UTF_8));
+    }
+    for (int i = 0; i < utf8.length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80 || utf8[i] < 0) {
+        return value.equals(new String(utf8, StandardCharsets.UTF_8));
+      }
+      if (c != utf8[i]) return false;
+    }
+    return true;
+  }
+
+  /** {@code value} contains the text encoded by {@code utf8}. */
+  public static boolean contains(String value, byte[] utf8) {
+    return value != null && value.contains(new String(utf8, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import com.github.ignorant05.log_processing_system.util.DetectorSnapShot;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** AnomalyDetectorTest */
+public class AnomalyDetectorTest {
+  private static final long INTERVAL_MS = 1_000;
+
+  private final MutableLogEntry logEntry = new MutableLogEntry();
+  private final Random random = new Random(11);
+  private long now;
+
+  @BeforeEach
+  void resetMetrics() {
+    MetricsRegistry.getInstance().reset();
+  }
+
+  /** One interval of 200 logs: about {@code errorRate} errors, 2% of them taking {@code slowMS}. */
+  private List<WindowResult> interval(
+      AnomalyDetector detector, String service, double errorRate, int slowMS) {
+    for (int i = 0; i < 200; i++) {
+      logEntry.reset();
+      logEntry.setService(ServiceNames.intern(service));
+      logEntry.setLevel(random.nextDouble() < errorRate ? Level.ERROR : Level.INFO);
+      logEntry.setDurationMS(i < 196 ? 80 + random.nextInt(40) : slowMS);
+      detector.observe(logEntry);
+    }
+    now += INTERVAL_MS;
+    List<WindowResult> out = new ArrayList<>();
+    detector.tick(now, out);
+    return out;
+  }
+
+  @Test
+  void errorRateSpike_isFlaggedAfterWarmUp() {
+    AnomalyDetector detector = new AnomalyDetector(INTERVAL_MS, 3.0, now);
+    for (int i = 0; i < 20; i++) {
+      assertTrue(interval(detector, "checkout-service", 0.02, 120).isEmpty(), "interval " + i);
+    }
+
+    List<WindowResult> out = interval(detector, "checkout-service", 0.3, 120);
+
+    assertEquals(1, out.size());
+    WindowResult anomaly = out.get(0);
+    assertEquals("checkout-service", anomaly.getService());
+    assertEquals("error_rate", anomaly.get("metric"));
+    assertEquals("above", anomaly.get("direction"));
+    assertTrue((double) anomaly.get("z_score") > 3.0);
+    assertEquals(now - INTERVAL_MS, anomaly.getWindowStartMS());
+  }
+
+  @Test
+  void latencySpike_isFlaggedAndShowsInMetrics() {
+    AnomalyDetector detector = new AnomalyDetector(INTERVAL_MS, 3.0, now);
+    for (int i = 0; i < 20; i++) interval(detector, "search-service", 0.0, 120);
+
+    List<WindowResult> out = interval(detector, "search-service", 0.0, 2_000);
+
+    assertEquals(1, out.size());
+    assertEquals("p99_ms", out.get(0).get("metric"));
+    DetectorSnapShot state = MetricsRegistry.getInstance().snapshot().getDetectors().get(0);
+    assertEquals("search-service", state.getService());
+    assertEquals(21, state.getIntervals());
+    assertEquals(1, state.getAnomalies());
+    assertTrue(state.getP99MS() >= 1_900, "p99 " + state.getP99MS());
+    assertTrue(state.getP99BaselineMS() < 200, "baseline " + state.getP99BaselineMS());
+  }
+
+  @Test
+  void quietIntervals_areNotJudged() {
+    AnomalyDetector detector = new AnomalyDetector(INTERVAL_MS, 3.0, now);
+    logEntry.reset();
+    logEntry.setService(ServiceNames.intern("quiet-service"));
+    logEntry.setLevel(Level.ERROR);
+    for (int i = 0; i < 30; i++) {
+      detector.observe(logEntry);
+      now += INTERVAL_MS;
+      List<WindowResult> out = new ArrayList<>();
+      detector.tick(now, out);
+      assertTrue(out.isEmpty());
+    }
+    assertEquals(0, MetricsRegistry.getInstance().snapshot().getDetectors().get(0).getIntervals());
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** DurationPercentilesTest */
+public class DurationPercentilesTest {
+
+  private static List<WindowResult> percentiles(String service, int from, int to, long window) {
+    WindowedAggregator aggregator =
+        new WindowedAggregator(1_000, 1_000, 0, List.of(new DurationPercentiles()));
+    MutableLogEntry logEntry = new MutableLogEntry();
+    for (int duration = from; duration <= to; duration++) {
+      logEntry.reset();
+      logEntry.setTimestampMillis(window + duration % 1_000);
+      logEntry.setService(ServiceNames.intern(service));
+      logEntry.setDurationMS(duration);
+      aggregator.add(logEntry, 0, duration, 0);
+    }
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(Long.MAX_VALUE / 2, out);
+    return out;
+  }
+
+  @Test
+  void emit_reportsPercentilesPerService() {
+    List<WindowResult> out = percentiles("search-service", 1, 1_000, 5_000);
+
+    assertEquals(1, out.size());
+    WindowResult result = out.get(0);
+    assertEquals("search-service", result.getService());
+    assertEquals(5_000, result.getWindowStartMS());
+    assertEquals(1_000L, result.get("count"));
+    long p99 = (long) result.get("p99_ms");
+    assertTrue(p99 >= 990 && p99 <= 1_000, "p99 " + p99);
+    assertFalse(result.toString().contains("histogram"), "serialized form is JSON only");
+  }
+
+  @Test
+  void serializedHistograms_mergeAcrossConsumers() {
+    WindowResult first = percentiles("search-service", 1, 500, 0).get(0);
+    WindowResult second = percentiles("search-service", 501, 1_000, 0).get(0);
+
+    LatencyHistogram merged = DurationPercentiles.histogramOf((String) first.get("histogram"));
+    merged.merge(DurationPercentiles.histogramOf((String) second.get("histogram")));
+
+    assertEquals(1_000, merged.getCount());
+    assertEquals(1_000, merged.getMax());
+    long p50 = merged.getPercentile(50);
+    assertTrue(p50 >= 500 && p50 <= 535, "p50 " + p50);
+  }
+}
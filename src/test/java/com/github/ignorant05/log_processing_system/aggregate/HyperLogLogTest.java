@@ -0,0 +1,63 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** HyperLogLogTest */
+public class HyperLogLogTest {
+
+  @Test
+  void estimate_isWithinAFewStandardErrors() {
+    for (int distinct : new int[] {10, 1_000, 100_000}) {
+      HyperLogLog sketch = new HyperLogLog();
+      for (int i = 0; i < distinct; i++) {
+        sketch.add("user-" + i);
+        sketch.add("user-" + i);
+      }
+      assertEquals(distinct, sketch.estimate(), distinct * 0.05 + 1, distinct + " users");
+    }
+  }
+
+  @Test
+  void merge_ofSerializedHalvesCountsTheUnion() {
+    HyperLogLog first = new HyperLogLog();
+    HyperLogLog second = new HyperLogLog();
+    for (int i = 0; i < 30_000; i++) first.add("user-" + i);
+    for (int i = 20_000; i < 50_000; i++) second.add("user-" + i);
+
+    HyperLogLog merged = HyperLogLog.fromBytes(first.toBytes());
+    merged.merge(HyperLogLog.fromBytes(second.toBytes()));
+
+    assertEquals(4_098, first.toBytes().length);
+    assertEquals(50_000, merged.estimate(), 2_500);
+    assertThrows(IllegalArgumentException.class, () -> merged.merge(new HyperLogLog(10)));
+  }
+
+  @Test
+  void distinctCounts_reportsUsersAndIpsPerService() {
+    WindowedAggregator aggregator =
+        new WindowedAggregator(60_000, 60_000, 0, List.of(new DistinctCounts()));
+    MutableLogEntry logEntry = new MutableLogEntry();
+    for (int i = 0; i < 500; i++) {
+      logEntry.reset();
+      logEntry.setTimestampMillis(i);
+      logEntry.setService(ServiceNames.intern("payment-service"));
+      logEntry.setUserID("user-" + i % 100);
+      logEntry.setIpAddr("10.0.0." + i % 7);
+      aggregator.add(logEntry, 0, i, 0);
+    }
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(Long.MAX_VALUE / 2, out);
+
+    WindowResult result = out.get(0);
+    assertEquals(100, (long) result.get("users"), 3);
+    assertEquals(7L, result.get("ips"));
+    assertEquals(
+        result.get("users"), DistinctCounts.sketchOf((String) result.get("users_hll")).estimate());
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** TopKTest */
+public class TopKTest {
+
+  /** 20 heavy IPs with 500 to 2400 hits each, among 50000 IPs seen once. */
+  private static List<String> stream(Map<String, Long> exact) {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      for (int n = 0; n < 500 + 100 * i; n++) values.add("10.0.0." + i);
+    }
+    for (int i = 0; i < 50_000; i++) values.add("172.16." + i / 256 + "." + i % 256);
+    Collections.shuffle(values, new Random(7));
+    for (String value : values) exact.merge(value, 1L, Long::sum);
+    return values;
+  }
+
+  @Test
+  void top_findsTheHeaviestWithinTheErrorBound() {
+    Map<String, Long> exact = new HashMap<>();
+    TopK top = new TopK(10, CountMinSketch.withError(0.001, 0.99));
+    for (String value : stream(exact)) top.add(value);
+
+    List<TopK.Entry> leaders = top.top();
+    assertEquals(10, leaders.size());
+    long bound = top.getSketch().getErrorBound();
+    for (int rank = 0; rank < leaders.size(); rank++) {
+      TopK.Entry entry = leaders.get(rank);
+      long truth = exact.get(entry.getValue());
+      assertTrue(entry.getCount() >= truth && entry.getCount() <= truth + bound, entry.getValue());
+      assertEquals("10.0.0." + (19 - rank), entry.getValue(), "error bound " + bound);
+    }
+    assertTrue(bound < 100);
+  }
+
+  @Test
+  void merge_ranksAcrossBothHalves() {
+    Map<String, Long> exact = new HashMap<>();
+    List<String> values = stream(exact);
+    TopK first = new TopK(5, CountMinSketch.withError(0.001, 0.99));
+    TopK second = new TopK(5, CountMinSketch.withError(0.001, 0.99));
+    for (int i = 0; i < values.size(); i++) (i % 2 == 0 ? first : second).add(values.get(i));
+
+    first.merge(second);
+
+    assertEquals(values.size(), first.getSketch().getTotal());
+    assertEquals("10.0.0.19", first.top().get(0).getValue());
+    assertEquals("10.0.0.15", first.top().get(4).getValue());
+    assertTrue(first.top().get(0).getCount() >= 2_400);
+  }
+
+  @Test
+  void heavyHitters_reportsLeadersPerServiceAndWindow() {
+    WindowedAggregator aggregator =
+        new WindowedAggregator(
+            60_000, 60_000, 0, List.of(new HeavyHitters(LogField.userID, 2, 0.01, 0.9)));
+    MutableLogEntry logEntry = new MutableLogEntry();
+    String[] users = {"alice", "bob", "alice", "carol", "alice", "bob", null};
+    for (int i = 0; i < users.length; i++) {
+      logEntry.reset();
+      logEntry.setTimestampMillis(1_000 + i);
+      logEntry.setService(ServiceNames.intern("auth-service"));
+      logEntry.setUserID(users[i]);
+      aggregator.add(logEntry, 0, i, 0);
+    }
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(Long.MAX_VALUE / 2, out);
+
+    assertEquals(1, out.size());
+    assertEquals(6L, out.get(0).get("total"));
+    assertTrue(out.get(0).toString().contains("top=[alice:3 bob:2]"), out.get(0).toString());
+  }
+}
@@ -0,0 +1,130 @@
+package com.github.ignorant05.log_processing_system.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.model.ServiceNames;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** WindowedAggregatorTest */
+public class WindowedAggregatorTest {
+  private static final long NOW = 1_000_000;
+
+  private final MutableLogEntry logEntry = new MutableLogEntry();
+
+  private boolean add(WindowedAggregator aggregator, long timestamp, String service, String level) {
+    logEntry.reset();
+    logEntry.setTimestampMillis(timestamp);
+    logEntry.setService(ServiceNames.intern(service));
+    logEntry.setLevelName(level);
+    return aggregator.add(logEntry, 0, timestamp, NOW);
+  }
+
+  private static WindowedAggregator counts(long size, long slide, long lateness) {
+    return new WindowedAggregator(size, slide, lateness, List.of(new LevelCounts()));
+  }
+
+  @Test
+  void tumbling_countsPerServiceAndLevelOnceTheWatermarkPasses() {
+    WindowedAggregator aggregator = counts(1_000, 1_000, 100);
+    add(aggregator, 10, "auth-service", "INFO");
+    add(aggregator, 20, "auth-service", "ERROR");
+    add(aggregator, 30, "auth-service", "INFO");
+    add(aggregator, 40, "payment-service", "WARN");
+    add(aggregator, 1_050, "auth-service", "INFO");
+
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(NOW, out);
+    assertTrue(out.isEmpty(), "watermark 950 has not passed 1000 yet");
+
+    add(aggregator, 1_100, "auth-service", "INFO");
+    aggregator.advance(NOW, out);
+
+    assertEquals(2, out.size());
+    WindowResult auth = out.get(0);
+    assertEquals("auth-service", auth.getService());
+    assertEquals(0, auth.getWindowStartMS());
+    assertEquals(1_000, auth.getWindowEndMS());
+    assertEquals(3L, auth.get("total"));
+    assertEquals(2L, auth.get("INFO"));
+    assertEquals(1L, auth.get("errors"));
+    assertEquals(1.0 / 3, (double) auth.get("error_ratio"), 1e-9);
+    assertEquals(1L, out.get(1).get("WARN"));
+  }
+
+  @Test
+  void sliding_mergesThePanesOfEachWindow() {
+    WindowedAggregator aggregator = counts(3_000, 1_000, 0);
+    for (long t = 500; t < 5_000; t += 1_000) add(aggregator, t, "auth-service", "INFO");
+    add(aggregator, 10_000, "auth-service", "INFO");
+
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(NOW, out);
+
+    long[] totals = out.stream().mapToLong(result -> (long) result.get("total")).toArray();
+    assertArrayEquals(new long[] {1, 2, 3, 3, 3, 2, 1}, totals);
+    assertEquals(-2_000, out.get(0).getWindowStartMS());
+    assertEquals(4_000, out.get(6).getWindowStartMS());
+    assertEquals(1, aggregator.getOpenPanes(), "only the pane at 10000 is left");
+  }
+
+  @Test
+  void lateLogs_areDroppedAndOpenWindowsHoldBackCommits() {
+    WindowedAggregator aggregator = counts(1_000, 1_000, 0);
+    logEntry.reset();
+    logEntry.setTimestampMillis(100);
+    aggregator.add(logEntry, 2, 40, NOW);
+    logEntry.setTimestampMillis(1_500);
+    aggregator.add(logEntry, 2, 41, NOW);
+    aggregator.advance(NOW, new ArrayList<>());
+
+    assertEquals(41, aggregator.firstOpenOffset(2));
+    assertEquals(-1, aggregator.firstOpenOffset(0));
+    assertFalse(add(aggregator, 999, "auth-service", "INFO"));
+    assertTrue(add(aggregator, 1_000, "auth-service", "INFO"));
+    assertEquals(1, aggregator.getLate());
+  }
+
+  @Test
+  void discardOpen_rebuildsOpenWindowsWithoutReEmittingClosedOnes() {
+    WindowedAggregator aggregator = counts(1_000, 1_000, 0);
+    add(aggregator, 100, "auth-service", "INFO");
+    add(aggregator, 1_500, "auth-service", "INFO");
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(NOW, out);
+    assertEquals(1, out.size());
+
+    aggregator.discardOpen();
+    assertEquals(0, aggregator.getOpenPanes());
+    assertEquals(-1, aggregator.firstOpenOffset(0));
+
+    // Read again from the first open offset: the log at 1500 and one that came after it.
+    add(aggregator, 1_500, "auth-service", "INFO");
+    add(aggregator, 2_100, "auth-service", "INFO");
+    out.clear();
+    aggregator.advance(NOW, out);
+    assertEquals(1, out.size());
+    assertEquals(1_000, out.get(0).getWindowStartMS());
+    assertEquals(1L, out.get(0).get("total"));
+  }
+
+  @Test
+  void watermark_movesWithTheWallClockWhileIdle() {
+    WindowedAggregator aggregator = counts(1_000, 1_000, 200);
+    add(aggregator, 500, "auth-service", "INFO");
+
+    List<WindowResult> out = new ArrayList<>();
+    aggregator.advance(NOW + 600, out);
+    assertTrue(out.isEmpty());
+    aggregator.advance(NOW + 700, out);
+    assertEquals(1, out.size());
+  }
+
+  @Test
+  void constructor_rejectsASlideThatDoesNotDivideTheWindow() {
+    assertThrows(IllegalArgumentException.class, () -> counts(1_000, 300, 0));
+    assertThrows(IllegalArgumentException.class, () -> counts(1_000, 2_000, 0));
+  }
+}
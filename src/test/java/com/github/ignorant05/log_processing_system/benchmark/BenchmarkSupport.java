@@ -0,0 +1,57 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * BenchmarkSupport
+ *
+ * <p>Minimal single-threaded harness for the {@code make bench} mains: warms the code path up, then
+ * reports CPU time and heap allocation per operation using the HotSpot thread MX bean. Numbers are
+ * indicative, not JMH-grade — compare rows produced by the same run.
+ */
+final class BenchmarkSupport {
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** Sink for results so the JIT cannot drop the measured work. */
+  static volatile Object blackhole;
+
+  private BenchmarkSupport() {}
+
+  interface Operation {
+    Object run(int i) throws Exception;
+  }
+
+  static void header(String title) {
+    System.out.println();
+    System.out.println(title);
+    System.out.printf(
+        "  %-40s %12s %12s %14s%n", "case", "ns/op (cpu)", "bytes/op", "ops/s (wall)");
+  }
+
+  static void measure(String name, int warmupOps, int measuredOps, Operation op) throws Exception {
+    for (int i = 0; i < warmupOps; i++) {
+      blackhole = op.run(i);
+    }
+
+    long threadID = Thread.currentThread().getId();
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadID);
+    long cpuBefore = threads.getCurrentThreadCpuTime();
+    long wallBefore = System.nanoTime();
+
+    for (int i = 0; i < measuredOps; i++) {
+      blackhole = op.run(i);
+    }
+
+    long wall = System.nanoTime() - wallBefore;
+    long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+    long allocated = threads.getThreadAllocatedBytes(threadID) - allocatedBefore;
+
+    System.out.printf(
+        "  %-40s %12.1f %12.1f %14.0f%n",
+        name,
+        (double) cpu / measuredOps,
+        (double) allocated / measuredOps,
+        measuredOps * 1e9 / wall);
+  }
+}
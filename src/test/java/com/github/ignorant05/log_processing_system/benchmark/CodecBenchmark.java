@@ -0,0 +1,97 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryDeserializer;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryViewDeserializer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.util.List;
+import java.util.function.Predicate;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+/**
+ * CodecBenchmark
+ *
+ * <p>Bytes on the wire per log line, encode/decode cost, and the cost of a level filter with and
+ * without the lazy {@link LogEntryView}, for every {@link CodecType}. Run with {@code make bench}.
+ */
+public class CodecBenchmark {
+  private static final int SAMPLE_SIZE = 1024;
+  private static final int WARMUP_OPS = 200_000;
+  private static final int MEASURED_OPS = 1_000_000;
+
+  public static void main(String[] args) throws Exception {
+    LogEntry[] logs = new LogEntry[SAMPLE_SIZE];
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      logs[i] = LogGenerator.generateRandomLog();
+    }
+
+    System.out.println();
+    System.out.println("Payload size");
+    System.out.printf("  %-10s %14s%n", "codec", "bytes/record");
+    for (CodecType type : CodecType.values()) {
+      LogEntrySerializer serializer = new LogEntrySerializer(type);
+      long total = 0;
+      for (LogEntry log : logs) {
+        total += serializer.serialize("bench", log).length;
+      }
+      System.out.printf("  %-10s %14.1f%n", type, (double) total / SAMPLE_SIZE);
+    }
+
+    Predicate<LogEntryView> errorsOnly = LogEntryPredicates.levelIn(List.of("ERROR"));
+
+    for (CodecType type : CodecType.values()) {
+      LogEntrySerializer serializer = new LogEntrySerializer(type);
+      LogEntryDeserializer deserializer = new LogEntryDeserializer(type);
+      LogEntryViewDeserializer viewDeserializer = new LogEntryViewDeserializer(type);
+      LogCodec codec = LogCodecs.get(type);
+      MutableLogEntry reused = new MutableLogEntry();
+
+      byte[][] payloads = new byte[SAMPLE_SIZE][];
+      for (int i = 0; i < SAMPLE_SIZE; i++) {
+        payloads[i] = serializer.serialize("bench", logs[i]);
+      }
+
+      BenchmarkSupport.header("Codec: " + type);
+      BenchmarkSupport.measure(
+          "encode",
+          WARMUP_OPS,
+          MEASURED_OPS,
+          i -> serializer.serialize("bench", new RecordHeaders(), logs[i & (SAMPLE_SIZE - 1)]));
+      BenchmarkSupport.measure(
+          "decode",
+          WARMUP_OPS,
+          MEASURED_OPS,
+          i -> deserializer.deserialize("bench", payloads[i & (SAMPLE_SIZE - 1)]));
+      BenchmarkSupport.measure(
+          "decode into reused entry",
+          WARMUP_OPS,
+          MEASURED_OPS,
+          i -> {
+            codec.decodeInto(payloads[i & (SAMPLE_SIZE - 1)], reused);
+            return reused;
+          });
+      BenchmarkSupport.measure(
+          "filter level=ERROR (full decode)",
+          WARMUP_OPS,
+          MEASURED_OPS,
+          i -> {
+            LogEntry log = deserializer.deserialize("bench", payloads[i & (SAMPLE_SIZE - 1)]);
+            return "ERROR".equals(log.getLevel());
+          });
+      BenchmarkSupport.measure(
+          "filter level=ERROR (lazy view)",
+          WARMUP_OPS,
+          MEASURED_OPS,
+          i ->
+              errorsOnly.test(
+                  viewDeserializer.deserialize("bench", payloads[i & (SAMPLE_SIZE - 1)])));
+    }
+  }
+}
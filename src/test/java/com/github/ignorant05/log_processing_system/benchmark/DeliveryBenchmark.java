@@ -0,0 +1,80 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import com.github.ignorant05.log_processing_system.config.KafkaConfig;
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.kafka.producer.InFlightWindow;
+import com.github.ignorant05.log_processing_system.kafka.producer.LogProducer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.DeliveryMode;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
+import com.github.ignorant05.log_processing_system.util.LatencyHistogram;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * DeliveryBenchmark
+ *
+ * <p>Sends the same logs through the old producer settings (idempotence off, one request in flight)
+ * and through the idempotent and transactional delivery modes, reporting throughput and the
+ * send-to-completion latency of each. Needs a broker: {@code make bench-kafka
+ * BOOTSTRAP=localhost:9092}.
+ */
+public class DeliveryBenchmark {
+  private static final int SAMPLE_SIZE = 1024;
+  private static final int WARMUP_LOGS = 20_000;
+  private static final int MEASURED_LOGS = 200_000;
+
+  public static void main(String[] args) throws Exception {
+    String bootstrapServers = args.length > 0 ? args[0] : "localhost:9092";
+    String topic = args.length > 1 ? args[1] : "klog-bench";
+
+    LogEntry[] logs = new LogEntry[SAMPLE_SIZE];
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      logs[i] = LogGenerator.generateRandomLog();
+    }
+
+    System.out.println();
+    System.out.printf(
+        "Delivery modes (%d logs to %s on %s)%n", MEASURED_LOGS, topic, bootstrapServers);
+    System.out.printf("  %-40s %12s %12s %12s%n", "case", "logs/s", "p50 (ms)", "p99 (ms)");
+
+    run("plain, 1 in flight (previous default)", bootstrapServers, topic, DeliveryMode.plain, logs);
+    run("idempotent, 5 in flight", bootstrapServers, topic, DeliveryMode.idempotent, logs);
+    run(
+        "transactional, 1000 logs / 100ms",
+        bootstrapServers,
+        topic,
+        DeliveryMode.transactional,
+        logs);
+  }
+
+  private static void run(
+      String name, String bootstrapServers, String topic, DeliveryMode mode, LogEntry[] logs)
+      throws Exception {
+    Properties config = KafkaConfig.getProducerConfig(bootstrapServers, ProducerProfile.balanced);
+    KafkaConfig.applyDeliveryMode(config, mode, "klog-bench-" + UUID.randomUUID());
+
+    try (LogProducer producer =
+        new LogProducer(config, topic, CodecType.binary, InFlightWindow.unbounded())) {
+      if (mode == DeliveryMode.transactional) producer.enableTransactions(1000, 100);
+
+      for (int i = 0; i < WARMUP_LOGS; i++) producer.send(logs[i & (SAMPLE_SIZE - 1)]);
+      producer.flush();
+      producer.getLatencyHistogram().reset();
+
+      long started = System.nanoTime();
+      for (int i = 0; i < MEASURED_LOGS; i++) producer.send(logs[i & (SAMPLE_SIZE - 1)]);
+      producer.flush();
+      long wall = System.nanoTime() - started;
+
+      LatencyHistogram latency = producer.getLatencyHistogram();
+      System.out.printf(
+          "  %-40s %12.0f %12.1f %12.1f%n",
+          name,
+          MEASURED_LOGS * 1e9 / wall,
+          latency.getPercentile(50) / 1000.0,
+          latency.getPercentile(99) / 1000.0);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.generator.WorkloadProfile;
+import java.util.UUID;
+
+/**
+ * GeneratorBenchmark
+ *
+ * <p>Cost of one synthetic log from {@link LogGenerator}, and of its id against {@link
+ * UUID#randomUUID()}. Run with {@code make bench}.
+ */
+public class GeneratorBenchmark {
+  private static final int WARMUP_OPS = 200_000;
+  private static final int MEASURED_OPS = 2_000_000;
+
+  public static void main(String[] args) throws Exception {
+    LogGenerator generator = new LogGenerator(WorkloadProfile.defaults(), 1);
+
+    BenchmarkSupport.header("Ids");
+    BenchmarkSupport.measure(
+        "UUID.randomUUID().toString()",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> UUID.randomUUID().toString());
+    BenchmarkSupport.measure(
+        "LogGenerator.nextID", WARMUP_OPS, MEASURED_OPS, i -> generator.nextID());
+
+    BenchmarkSupport.header("Logs");
+    BenchmarkSupport.measure(
+        "LogGenerator.next (default workload)", WARMUP_OPS, MEASURED_OPS, i -> generator.next());
+  }
+}
@@ -0,0 +1,70 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import com.github.ignorant05.log_processing_system.kafka.consumer.LogRenderer;
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RenderBenchmark
+ *
+ * <p>Cost of one consumer output line: built with {@code String.format} and concatenation as {@code
+ * displayRecord} used to, against {@link LogRenderer} appending a whole batch into a reused builder
+ * and encoding it once. Run with {@code make bench}.
+ */
+public class RenderBenchmark {
+  private static final int WARMUP_OPS = 200_000;
+  private static final int MEASURED_OPS = 2_000_000;
+  private static final int BATCH = 100;
+
+  public static void main(String[] args) throws Exception {
+    MutableLogEntry logEntry = new MutableLogEntry();
+    logEntry.setTimestampMillis(1_700_000_123_456L);
+    logEntry.setLevel(Level.ERROR);
+    logEntry.setService("payment-service");
+    logEntry.setMessage("Connection pool exhausted after 30s");
+
+    BenchmarkSupport.header("Render one line");
+    BenchmarkSupport.measure(
+        "String.format + concatenation",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> formatted(logEntry, i % 4, i));
+
+    StringBuilder out = new StringBuilder(BATCH * 160);
+    BenchmarkSupport.measure(
+        "LogRenderer.append, UTF-8 per batch",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> {
+          LogRenderer.append(out, logEntry, i % 4, i).append('\n');
+          if (i % BATCH != BATCH - 1) return out;
+
+          byte[] utf8 = out.toString().getBytes(StandardCharsets.UTF_8);
+          out.setLength(0);
+          return utf8;
+        });
+  }
+
+  private static String formatted(MutableLogEntry logEntry, int partition, long offset) {
+    String color = LogRenderer.colorOf(logEntry.getLevel());
+    StringBuilder time = new StringBuilder(12);
+    Timestamps.appendTimeOfDay(time, logEntry.getTimestampMillis());
+    return color
+        + "["
+        + time
+        + "]\u001B[0m \u001B[35m"
+        + String.format("%-20s", logEntry.getService())
+        + "\u001B[0m "
+        + color
+        + String.format("%-7s", logEntry.getLevelName())
+        + "\u001B[0m \u001B[36m"
+        + logEntry.getMessage()
+        + "\u001B[0m (p:"
+        + partition
+        + ", o:"
+        + offset
+        + ")";
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.ignorant05.log_processing_system.benchmark;
+
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryDeserializer;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.util.JsonUtil;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * SerdeBenchmark
+ *
+ * <p>Compares the old {@code JsonUtil.toJson} + {@code StringSerializer} path (and its
+ * consumer-side mirror) with {@link LogEntrySerializer} / {@link LogEntryDeserializer}. Run with
+ * {@code make bench}.
+ */
+public class SerdeBenchmark {
+  private static final int SAMPLE_SIZE = 1024;
+  private static final int WARMUP_OPS = 200_000;
+  private static final int MEASURED_OPS = 1_000_000;
+
+  public static void main(String[] args) throws Exception {
+    LogEntry[] logs = new LogEntry[SAMPLE_SIZE];
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      logs[i] = LogGenerator.generateRandomLog();
+    }
+
+    StringSerializer stringSerializer = new StringSerializer();
+    StringDeserializer stringDeserializer = new StringDeserializer();
+    LogEntrySerializer logSerializer = new LogEntrySerializer();
+    LogEntryDeserializer logDeserializer = new LogEntryDeserializer();
+
+    byte[][] payloads = new byte[SAMPLE_SIZE][];
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      payloads[i] = logSerializer.serialize("bench", logs[i]);
+    }
+
+    BenchmarkSupport.header("Serialize (producer side)");
+    BenchmarkSupport.measure(
+        "JsonUtil.toJson + StringSerializer",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> stringSerializer.serialize("bench", JsonUtil.toJson(logs[i & (SAMPLE_SIZE - 1)])));
+    BenchmarkSupport.measure(
+        "LogEntrySerializer",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> logSerializer.serialize("bench", logs[i & (SAMPLE_SIZE - 1)]));
+
+    BenchmarkSupport.header("Deserialize (consumer side)");
+    BenchmarkSupport.measure(
+        "StringDeserializer + JsonUtil.fromJson",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i ->
+            JsonUtil.fromJson(
+                stringDeserializer.deserialize("bench", payloads[i & (SAMPLE_SIZE - 1)])));
+    BenchmarkSupport.measure(
+        "LogEntryDeserializer",
+        WARMUP_OPS,
+        MEASURED_OPS,
+        i -> logDeserializer.deserialize("bench", payloads[i & (SAMPLE_SIZE - 1)]));
+  }
+}
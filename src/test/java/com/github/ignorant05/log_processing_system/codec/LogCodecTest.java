@@ -0,0 +1,99 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntryDeserializer;
+import com.github.ignorant05.log_processing_system.kafka.serde.LogEntrySerializer;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntries;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+/** LogCodecTest */
+public class LogCodecTest {
+
+  private byte[] encode(LogCodec codec, LogEntry logEntry) throws IOException {
+    ByteArrayBuilder out = new ByteArrayBuilder();
+    codec.encode(logEntry, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  void everyCodec_roundTripsAllFields() throws IOException {
+    LogEntry logEntry = LogEntries.sample();
+
+    for (CodecType type : CodecType.values()) {
+      LogCodec codec = LogCodecs.get(type);
+      assertEquals(logEntry, codec.decode(encode(codec, logEntry)), type.name());
+    }
+  }
+
+  @Test
+  void binary_roundTripsValuesOutsideItsDictionaries() throws IOException {
+    LogEntry logEntry =
+        LogEntry.builder()
+            .id("LOG-123")
+            .timestamp(Instant.parse("1969-07-20T20:17:40.123Z"))
+            .level("ERR")
+            .service("web-app")
+            .message("Ünïcödé ✓")
+            .ipAddr("10.0.00.1")
+            .durationMS(-5)
+            .build();
+
+    LogCodec codec = LogCodecs.get(CodecType.binary);
+
+    assertEquals(logEntry, codec.decode(encode(codec, logEntry)));
+  }
+
+  @Test
+  void binary_isMuchSmallerThanJson() throws IOException {
+    LogEntry logEntry = LogEntries.sample();
+
+    int json = encode(LogCodecs.get(CodecType.json), logEntry).length;
+    int binary = encode(LogCodecs.get(CodecType.binary), logEntry).length;
+
+    assertTrue(binary * 3 < json, "binary=" + binary + " json=" + json);
+  }
+
+  @Test
+  void binary_rejectsTruncatedInput() throws IOException {
+    LogCodec codec = LogCodecs.get(CodecType.binary);
+    byte[] bytes = encode(codec, LogEntries.sample());
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+    assertThrows(IOException.class, () -> codec.decode(truncated));
+  }
+
+  @Test
+  void header_selectsCodecPerRecord() {
+    LogEntry logEntry = LogEntries.sample();
+    LogEntryDeserializer deserializer = new LogEntryDeserializer(CodecType.json);
+
+    for (CodecType type : CodecType.values()) {
+      RecordHeaders headers = new RecordHeaders();
+      byte[] bytes = new LogEntrySerializer(type).serialize("logs", headers, logEntry);
+
+      assertSame(type, LogCodecs.fromHeaders(headers, null).getType());
+      assertEquals(logEntry, deserializer.deserialize("logs", headers, bytes));
+    }
+  }
+
+  @Test
+  void missingHeader_fallsBackToDefaultCodec() {
+    LogEntry logEntry = LogEntries.sample();
+    byte[] bytes = new LogEntrySerializer(CodecType.binary).serialize("logs", logEntry);
+
+    LogEntryDeserializer deserializer = new LogEntryDeserializer(CodecType.binary);
+
+    assertEquals(logEntry, deserializer.deserialize("logs", new RecordHeaders(), bytes));
+  }
+}
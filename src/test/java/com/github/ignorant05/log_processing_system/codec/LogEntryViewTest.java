@@ -0,0 +1,111 @@
+package com.github.ignorant05.log_processing_system.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntries;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.LogField;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+/** LogEntryViewTest */
+public class LogEntryViewTest {
+
+  /** Quotes and a newline, so the views have to unescape. */
+  private static final String MESSAGE = "Connection \"pool\" exhausted\n";
+
+  private LogEntryView view(CodecType type, LogEntry logEntry) throws IOException {
+    LogCodec codec = LogCodecs.get(type);
+    ByteArrayBuilder out = new ByteArrayBuilder();
+    codec.encode(logEntry, out);
+    return codec.view(out.toByteArray());
+  }
+
+  @Test
+  void everyView_materialisesTheSameEntryAsDecode() throws IOException {
+    LogEntry logEntry = LogEntries.sample(MESSAGE);
+
+    for (CodecType type : CodecType.values()) {
+      assertEquals(logEntry, view(type, logEntry).toLogEntry(), type.name());
+    }
+  }
+
+  @Test
+  void everyView_matchesOnRawBytes() throws IOException {
+    LogEntry logEntry = LogEntries.sample(MESSAGE);
+
+    for (CodecType type : CodecType.values()) {
+      LogEntryView view = view(type, logEntry);
+
+      assertTrue(view.matches(LogField.level, Utf8.encode("ERROR")), type.name());
+      assertFalse(view.matches(LogField.level, Utf8.encode("ERR")), type.name());
+      assertTrue(view.matches(LogField.service, Utf8.encode("payment-service")), type.name());
+      assertTrue(view.contains(LogField.message, Utf8.encode("\"pool\"")), type.name());
+      assertTrue(view.matches(LogField.ipAddr, Utf8.encode("192.168.1.7")), type.name());
+      assertEquals(1250, view.getDurationMS(), type.name());
+    }
+  }
+
+  @Test
+  void jsonView_skipsUnknownAndNestedFields() {
+    String json =
+        "{ \"extra\": {\"a\": [1, \"}\", {\"b\": null}]}, \"level\" : \"WARN\","
+            + " \"service\": null, \"durationMS\": 42, \"tags\": [\"x\"] }";
+
+    LogEntryView view = LogCodecs.get(CodecType.json).view(Utf8.encode(json));
+
+    assertEquals("WARN", view.getLevel());
+    assertTrue(view.isNull(LogField.service));
+    assertNull(view.getService());
+    assertTrue(view.isNull(LogField.message));
+    assertNull(view.getTimestamp());
+    assertEquals(42, view.getDurationMS());
+  }
+
+  @Test
+  void jsonView_unescapesOnlyWhenNeeded() {
+    String json = "{\"message\":\"tab\\there \\u00e9\",\"userID\":\"plain\"}";
+
+    LogEntryView view = LogCodecs.get(CodecType.json).view(Utf8.encode(json));
+
+    assertEquals("tab\there é", view.getMessage());
+    assertTrue(view.matches(LogField.message, Utf8.encode("tab\there é")));
+    assertEquals("plain", view.getUserID());
+  }
+
+  @Test
+  void malformedRecord_failsOnFirstAccess() {
+    LogEntryView json = LogCodecs.get(CodecType.json).view(Utf8.encode("{\"level\": \"INFO\""));
+    LogEntryView binary = LogCodecs.get(CodecType.binary).view(new byte[] {1, 0, 5});
+
+    assertThrows(UncheckedIOException.class, json::getLevel);
+    assertThrows(UncheckedIOException.class, binary::getLevel);
+  }
+
+  @Test
+  void predicates_filterOnLevelAndService() throws IOException {
+    Predicate<LogEntryView> filter =
+        LogEntryPredicates.levelIn(List.of("ERROR", "WARN"))
+            .and(LogEntryPredicates.serviceIn(List.of("payment-service")));
+
+    LogEntry other = LogEntries.sample(MESSAGE);
+    other.setLevel("INFO");
+
+    for (CodecType type : CodecType.values()) {
+      assertTrue(filter.test(view(type, LogEntries.sample(MESSAGE))), type.name());
+      assertFalse(filter.test(view(type, other)), type.name());
+    }
+  }
+}
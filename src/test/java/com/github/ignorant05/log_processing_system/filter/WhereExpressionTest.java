@@ -0,0 +1,85 @@
+package com.github.ignorant05.log_processing_system.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+/** WhereExpressionTest */
+public class WhereExpressionTest {
+  private static final String SLOW_ERROR =
+      "{\"level\":\"ERROR\",\"service\":\"payment-service\",\"message\":\"Gateway timeout after"
+          + " retry\",\"userID\":\"user-42\",\"ipAddr\":\"10.0.3.7\",\"durationMS\":2500}";
+  private static final String FAST_INFO =
+      "{\"level\":\"INFO\",\"service\":\"auth-service\",\"message\":\"Login ok\","
+          + "\"userID\":\"user-7\",\"ipAddr\":\"192.168.1.7\",\"durationMS\":12}";
+
+  private static LogEntryView view(String json) {
+    return LogCodecs.get(CodecType.json).view(Utf8.encode(json));
+  }
+
+  private static boolean test(String expression, String json) {
+    return WhereExpression.compile(expression).test(view(json));
+  }
+
+  @Test
+  void compile_comparesTextFields() {
+    assertTrue(test("level in (error, WARN) and durationMS > 2000", SLOW_ERROR));
+    assertFalse(test("level in (ERROR,WARN) and durationMS > 2000", FAST_INFO));
+    assertTrue(test("service = auth-service", FAST_INFO));
+    assertTrue(test("SERVICE != auth-service", SLOW_ERROR));
+    assertTrue(test("message contains 'timeout after'", SLOW_ERROR));
+    assertTrue(test("ipAddr contains \"10.0.\" and userID = user-42", SLOW_ERROR));
+    assertFalse(test("message contains Timeout", SLOW_ERROR), "case-sensitive values");
+  }
+
+  @Test
+  void compile_comparesDurationRanges() {
+    assertTrue(test("durationMS between 2000 and 3000", SLOW_ERROR));
+    assertFalse(test("durationMS between 2000 and 3000", FAST_INFO));
+    assertTrue(test("durationMS <= 12 and durationMS >= 12", FAST_INFO));
+    assertTrue(test("durationMS < 13 and durationMS != 11", FAST_INFO));
+    assertFalse(test("durationMS < 100", "{\"level\":\"INFO\"}"), "absent is never in range");
+    assertFalse(test("durationMS > 9223372036854775807", SLOW_ERROR), "nothing is past the max");
+    assertFalse(test("durationMS < -9223372036854775808", FAST_INFO), "nothing is below the min");
+  }
+
+  @Test
+  void compile_appliesPrecedenceAndParentheses() {
+    assertTrue(test("level = INFO or level = ERROR and durationMS < 100", FAST_INFO));
+    assertFalse(test("(level = INFO or level = ERROR) and durationMS > 100", FAST_INFO));
+    assertTrue(test("not level = INFO and not (service = x or service = y)", SLOW_ERROR));
+    assertTrue(WhereExpression.compile("  ").test(view(FAST_INFO)));
+  }
+
+  @Test
+  void compile_scansOnlyAsFarAsTheReferencedFields() {
+    // Everything after the level is garbage: rejecting on the level never gets there.
+    String truncated = "{\"level\":\"DEBUG\",\"service\":\"x\",\"durationMS\":";
+    Predicate<LogEntryView> errorsOnly = WhereExpression.compile("level = ERROR");
+
+    assertFalse(errorsOnly.test(view(truncated)));
+  }
+
+  @Test
+  void compile_reportsWhereItGotStuck() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> WhereExpression.compile("level in (ERROR"));
+    assertEquals(
+        "Expected ')' at column 16, found end of expression: level in (ERROR", e.getMessage());
+
+    assertThrows(IllegalArgumentException.class, () -> WhereExpression.compile("latency > 5"));
+    assertThrows(IllegalArgumentException.class, () -> WhereExpression.compile("durationMS > x"));
+    assertThrows(IllegalArgumentException.class, () -> WhereExpression.compile("service > a"));
+    assertThrows(IllegalArgumentException.class, () -> WhereExpression.compile("level = 'ERROR"));
+    assertThrows(IllegalArgumentException.class, () -> WhereExpression.compile("level = a b"));
+  }
+}
@@ -0,0 +1,183 @@
+package com.github.ignorant05.log_processing_system.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** LogGeneratorTest */
+public class LogGeneratorTest {
+  private static final int LOGS = 100_000;
+
+  @Test
+  void next_isReproducibleForASeed() {
+    LogGenerator a = new LogGenerator(WorkloadProfile.defaults(), 42);
+    LogGenerator b = new LogGenerator(WorkloadProfile.defaults(), 42);
+
+    for (int i = 0; i < 1_000; i++) {
+      LogEntry x = a.next();
+      LogEntry y = b.next();
+      assertEquals(x.getID(), y.getID());
+      assertEquals(x.getLevel(), y.getLevel());
+      assertEquals(x.getService(), y.getService());
+      assertEquals(x.getMessage(), y.getMessage());
+      assertEquals(x.getUserID(), y.getUserID());
+      assertEquals(x.getIpAddr(), y.getIpAddr());
+      assertEquals(x.getDurationMS(), y.getDurationMS());
+    }
+  }
+
+  @Test
+  void next_generatesUniqueVersion4Ids() {
+    LogGenerator generator = new LogGenerator(WorkloadProfile.defaults(), 7);
+    Set<String> ids = new HashSet<>();
+
+    for (int i = 0; i < LOGS; i++) {
+      String id = generator.nextID();
+      UUID uuid = UUID.fromString(id);
+      assertEquals(4, uuid.version());
+      assertEquals(2, uuid.variant());
+      assertTrue(ids.add(id));
+    }
+  }
+
+  @Test
+  void next_coversEveryServiceWithZipfSkew() {
+    LogGenerator generator =
+        new LogGenerator(WorkloadProfile.builder().errorBurstChance(0).build(), 1);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < LOGS; i++) counts.merge(generator.next().getService(), 1, Integer::sum);
+
+    assertEquals(WorkloadProfile.SERVICES.length, counts.size(), "every service shows up");
+    int first = counts.get(WorkloadProfile.SERVICES[0]);
+    int last = counts.get(WorkloadProfile.SERVICES[WorkloadProfile.SERVICES.length - 1]);
+    // 8^1.1 ≈ 9.8 times as likely
+    assertTrue(first > 7 * last, first + " vs " + last);
+  }
+
+  @Test
+  void next_followsTheLevelMix() {
+    WorkloadProfile workload =
+        WorkloadProfile.builder().levelMix("INFO=80, ERROR=20").errorBurstChance(0).build();
+    LogGenerator generator = new LogGenerator(workload, 3);
+
+    int errors = 0;
+    for (int i = 0; i < LOGS; i++) {
+      Level level = Level.fromString(generator.next().getLevel());
+      assertTrue(level == Level.INFO || level == Level.ERROR, "unexpected " + level);
+      if (level == Level.ERROR) errors++;
+    }
+    assertEquals(0.2, (double) errors / LOGS, 0.01);
+  }
+
+  @Test
+  void levelMix_rejectsUnknownLevels() {
+    assertThrows(
+        IllegalArgumentException.class, () -> WorkloadProfile.builder().levelMix("NOTICE=5"));
+    assertThrows(IllegalArgumentException.class, () -> WorkloadProfile.builder().levelMix("INFO"));
+  }
+
+  @Test
+  void hotUserShift_rejectsNegativeShifts() {
+    assertThrows(IllegalArgumentException.class, () -> WorkloadProfile.builder().hotUserShift(-1));
+  }
+
+  @Test
+  void durations_areLognormalAroundTheMedian() {
+    WorkloadProfile workload =
+        WorkloadProfile.builder().durationMedianMS(50).durationSigma(1).errorBurstChance(0).build();
+    LogGenerator generator = new LogGenerator(workload, 5);
+
+    int[] durations = new int[LOGS];
+    for (int i = 0; i < LOGS; i++) durations[i] = generator.next().getDurationMS();
+    Arrays.sort(durations);
+
+    assertTrue(durations[0] >= 0);
+    assertEquals(50, durations[LOGS / 2], 3);
+    // exp(2.326) ≈ 10.2 times the median at p99
+    assertEquals(512, durations[LOGS * 99 / 100], 60);
+  }
+
+  @Test
+  void errorBursts_concentrateErrorsOnOneService() {
+    WorkloadProfile workload =
+        WorkloadProfile.builder()
+            .levelMix("INFO=1")
+            .errorBurstChance(1)
+            .errorBurstLength(1_000)
+            .build();
+    LogGenerator generator = new LogGenerator(workload, 11);
+
+    Map<String, Integer> errorsByService = new HashMap<>();
+    int errors = 0;
+    for (int i = 0; i < 1_000; i++) {
+      LogEntry log = generator.next();
+      if (!log.getLevel().equals("ERROR")) continue;
+      errors++;
+      errorsByService.merge(log.getService(), 1, Integer::sum);
+    }
+
+    assertEquals(0.8, errors / 1_000.0, 0.05);
+    assertEquals(1, errorsByService.size(), "one failing service per burst");
+  }
+
+  @Test
+  void users_keepTheirHomeIP() {
+    LogGenerator generator = new LogGenerator(WorkloadProfile.builder().users(50).build(), 9);
+    Map<String, String> ipByUser = new HashMap<>();
+    for (int i = 0; i < 10_000; i++) {
+      LogEntry log = generator.next();
+      String previous = ipByUser.putIfAbsent(log.getUserID(), log.getIpAddr());
+      if (previous != null) assertEquals(previous, log.getIpAddr());
+    }
+    assertEquals(50, new HashSet<>(ipByUser.values()).size());
+  }
+
+  @Test
+  void errorStorm_failsMostOfOneServicesLogs() {
+    WorkloadProfile workload =
+        WorkloadProfile.builder()
+            .levelMix("INFO=1")
+            .errorBurstChance(0)
+            .errorStorm("database", 0.7)
+            .build();
+    LogGenerator generator = new LogGenerator(workload, 13);
+
+    int database = 0, databaseErrors = 0, otherErrors = 0;
+    for (int i = 0; i < LOGS; i++) {
+      LogEntry log = generator.next();
+      boolean error = log.getLevel().equals("ERROR");
+      if (log.getService().equals("database")) {
+        database++;
+        if (error) databaseErrors++;
+      } else if (error) {
+        otherErrors++;
+      }
+    }
+
+    assertEquals(0.7, (double) databaseErrors / database, 0.03);
+    assertEquals(0, otherErrors);
+  }
+
+  @Test
+  void hotUserShift_movesTheHottestUser() {
+    WorkloadProfile skewed = WorkloadProfile.builder().users(1000).userSkew(2).build();
+    assertEquals("user-0", hottestUser(new LogGenerator(skewed, 17)));
+    assertEquals(
+        "user-250",
+        hottestUser(new LogGenerator(skewed.toBuilder().hotUserShift(250).build(), 17)));
+  }
+
+  private static String hottestUser(LogGenerator generator) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 10_000; i++) counts.merge(generator.next().getUserID(), 1, Integer::sum);
+    return counts.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+  }
+}
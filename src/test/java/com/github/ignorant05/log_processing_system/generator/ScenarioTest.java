@@ -0,0 +1,110 @@
+package com.github.ignorant05.log_processing_system.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.util.RateProfile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** ScenarioTest */
+public class ScenarioTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void parse_readsPhasesWithTheirRatesAndWorkloads() throws Exception {
+    Scenario scenario =
+        Scenario.parse(
+            String.join(
+                "\n",
+                "name: spike-test",
+                "seed: 7",
+                "workload: {users: 500}",
+                "phases:",
+                "  - name: ramp",
+                "    duration: 10s",
+                "    rate: 100",
+                "    rampTo: 300",
+                "  - duration: 1m",
+                "    workload:",
+                "      userSkew: 0",
+                "      errorStorm: {service: database, share: 0.9}"),
+            WorkloadProfile.defaults());
+
+    assertEquals("spike-test", scenario.getName());
+    assertEquals(7L, scenario.getSeed());
+    assertEquals(70_000, scenario.getDurationMS());
+
+    List<Scenario.Phase> phases = scenario.getPhases();
+    RateProfile ramp = phases.get(0).getRateProfile();
+    assertEquals(100, ramp.rateAt(0), 1e-9);
+    assertEquals(200, ramp.rateAt(5 * SECOND), 1e-9);
+    assertEquals(300, ramp.rateAt(10 * SECOND), 1e-9);
+    assertEquals(500, phases.get(0).getWorkload().getUsers(), "scenario workload applies");
+
+    Scenario.Phase second = phases.get(1);
+    assertEquals("phase-2", second.getName());
+    assertNull(second.getRateProfile(), "no rate is unthrottled");
+    assertEquals(500, second.getWorkload().getUsers());
+    assertEquals(0, second.getWorkload().getUserSkew());
+    assertEquals("database", second.getWorkload().getStormService());
+  }
+
+  @Test
+  void wave_oscillatesAroundTheRate() throws Exception {
+    Scenario scenario =
+        Scenario.parse(
+            "phases: [{duration: 1h, rate: 1000, wave: {amplitude: 0.5, period: 40s}}]",
+            WorkloadProfile.defaults());
+    RateProfile rate = scenario.getPhases().get(0).getRateProfile();
+
+    assertEquals(1000, rate.rateAt(0), 1e-6);
+    assertEquals(1500, rate.rateAt(10 * SECOND), 1e-6);
+    assertEquals(500, rate.rateAt(30 * SECOND), 1e-6);
+    assertEquals(1500, scenario.getPhases().get(0).getPeakRate(), 1e-9);
+  }
+
+  @Test
+  void parse_rejectsInvalidScenarios() {
+    assertInvalid("phases: []", "non-empty");
+    assertInvalid("phases: [{rate: 10}]", "needs a duration");
+    assertInvalid("phases: [{duration: soon}]", "invalid duration");
+    assertInvalid("phases: [{duration: 1m, rat: 10}]", "unknown key 'rat'");
+    assertInvalid("phases: [{duration: 1m, rampTo: 10}]", "rampTo needs a rate");
+    assertInvalid(
+        "phases: [{name: x, duration: 1m, workload: {errorStorm: {service: nope}}}]",
+        "Unknown service nope");
+    assertInvalid("phases: [{duration: 1m, workload: {levels: LOUD=1}}]", "LEVEL=weight");
+  }
+
+  @Test
+  void parseDuration_acceptsUnits() throws Exception {
+    Scenario scenario =
+        Scenario.parse(
+            "phases: [{duration: 250ms}, {duration: 1.5m}, {duration: 2h}, {duration: 30}]",
+            WorkloadProfile.defaults());
+    List<Scenario.Phase> phases = scenario.getPhases();
+
+    assertEquals(250, phases.get(0).getDurationMS());
+    assertEquals(90_000, phases.get(1).getDurationMS());
+    assertEquals(7_200_000, phases.get(2).getDurationMS());
+    assertEquals(30_000, phases.get(3).getDurationMS());
+  }
+
+  @Test
+  void bundledScenario_isValid() throws Exception {
+    Scenario scenario =
+        Scenario.load(Path.of("scenarios", "black-friday.yaml"), WorkloadProfile.defaults());
+
+    assertEquals(5, scenario.getPhases().size());
+    assertEquals(2024L, scenario.getSeed());
+  }
+
+  private static void assertInvalid(String yaml, String message) {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> Scenario.parse(yaml, WorkloadProfile.defaults()));
+    assertTrue(e.getMessage().contains(message), e.getMessage());
+  }
+}
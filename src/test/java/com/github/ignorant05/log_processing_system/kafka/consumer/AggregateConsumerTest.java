@@ -0,0 +1,211 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.ignorant05.log_processing_system.aggregate.LevelCounts;
+import com.github.ignorant05.log_processing_system.aggregate.WindowResult;
+import com.github.ignorant05.log_processing_system.aggregate.WindowedAggregator;
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+/** AggregateConsumerTest */
+public class AggregateConsumerTest {
+  private static final String TOPIC = "logs";
+  private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+
+  /**
+   * Keeps the committed offsets readable after the consumer has closed it, and the rebalance
+   * listener at hand, since {@link MockConsumer#rebalance} does not call it.
+   */
+  private static final class TestConsumer extends MockConsumer<String, LogEntryView> {
+    final Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+    ConsumerRebalanceListener listener;
+
+    TestConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+      super.commitSync(offsets);
+      commits.putAll(offsets);
+    }
+
+    @Override
+    public synchronized void subscribe(
+        Collection<String> topics, ConsumerRebalanceListener listener) {
+      super.subscribe(topics, listener);
+      this.listener = listener;
+    }
+  }
+
+  private static LogEntryView view(long timestamp, String level) throws Exception {
+    LogEntry logEntry =
+        LogEntry.builder()
+            .id("id-" + timestamp)
+            .timestamp(Instant.ofEpochMilli(timestamp))
+            .level(level)
+            .service("auth-service")
+            .message("message")
+            .userID("user-1")
+            .ipAddr("10.0.0.1")
+            .durationMS(10)
+            .build();
+    LogCodec codec = LogCodecs.get(CodecType.json);
+    ByteArrayBuilder out = new ByteArrayBuilder();
+    codec.encode(logEntry, out);
+    return codec.view(out.toByteArray());
+  }
+
+  private static void addRecords(TestConsumer mock, long[] timestamps, String[] levels) {
+    mock.rebalance(List.of(P0));
+    mock.updateBeginningOffsets(new HashMap<>(Map.of(P0, 0L)));
+    for (int i = 0; i < timestamps.length; i++) {
+      try {
+        mock.addRecord(new ConsumerRecord<>(TOPIC, 0, i, null, view(timestamps[i], levels[i])));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  @Test
+  void consume_writesClosedWindowsAndCommitsOnlyUpToTheOpenOne() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    List<WindowResult> written = new ArrayList<>();
+    AggregateConsumer consumer =
+        new AggregateConsumer(
+            mock,
+            TOPIC,
+            false,
+            LogEntryPredicates.acceptAll(),
+            new WindowedAggregator(1_000, 1_000, 0, List.of(new LevelCounts())),
+            written::addAll);
+
+    long[] timestamps = {100, 200, 1_100, 1_200, 2_100};
+    String[] levels = {"INFO", "ERROR", "INFO", "INFO", "INFO"};
+    mock.schedulePollTask(() -> addRecords(mock, timestamps, levels));
+    mock.schedulePollTask(consumer::stop);
+
+    consumer.consume();
+
+    assertEquals(2, written.size());
+    assertEquals(0, written.get(0).getWindowStartMS());
+    assertEquals(2L, written.get(0).get("total"));
+    assertEquals(0.5, (double) written.get(0).get("error_ratio"), 1e-9);
+    assertEquals(1_000, written.get(1).getWindowStartMS());
+    assertEquals(4, mock.commits.get(P0).offset(), "the log at 2100 is still in an open window");
+  }
+
+  @Test
+  void revoke_dropsOpenWindowsAndRereadsTheKeptPartitions() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    WindowedAggregator aggregator =
+        new WindowedAggregator(1_000, 1_000, 0, List.of(new LevelCounts()));
+    List<WindowResult> written = new ArrayList<>();
+    AggregateConsumer consumer =
+        new AggregateConsumer(
+            mock, TOPIC, false, LogEntryPredicates.acceptAll(), aggregator, written::addAll);
+
+    TopicPartition p1 = new TopicPartition(TOPIC, 1);
+    mock.schedulePollTask(
+        () -> {
+          mock.rebalance(List.of(P0, p1));
+          mock.updateBeginningOffsets(new HashMap<>(Map.of(P0, 0L, p1, 0L)));
+          try {
+            mock.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, null, view(100, "INFO")));
+            mock.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, null, view(1_100, "INFO")));
+            mock.addRecord(new ConsumerRecord<>(TOPIC, 1, 0, null, view(1_200, "INFO")));
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    mock.schedulePollTask(
+        () -> {
+          mock.listener.onPartitionsRevoked(List.of(p1));
+          mock.rebalance(List.of(P0));
+        });
+    mock.schedulePollTask(
+        () -> {
+          assertEquals(1, mock.commits.get(P0).offset());
+          assertEquals(0, mock.commits.get(p1).offset(), "left to the new owner from 0");
+          assertEquals(1, mock.position(P0), "read again from the open window");
+          assertEquals(0, aggregator.getOpenPanes());
+          consumer.stop();
+        });
+
+    consumer.consume();
+    assertEquals(1, written.size());
+  }
+
+  @Test
+  void failedWrite_leavesTheWindowsOffsetsUncommitted() {
+    TestConsumer mock = new TestConsumer();
+    AggregateConsumer consumer =
+        new AggregateConsumer(
+            mock,
+            TOPIC,
+            false,
+            LogEntryPredicates.acceptAll(),
+            new WindowedAggregator(1_000, 1_000, 0, List.of(new LevelCounts())),
+            results -> {
+              throw new KafkaException("Broker unavailable");
+            });
+    mock.schedulePollTask(
+        () -> addRecords(mock, new long[] {100, 1_100}, new String[] {"INFO", "INFO"}));
+
+    assertThrows(KafkaException.class, consumer::consume);
+    assertTrue(mock.commits.isEmpty(), "the first window was never published");
+    assertTrue(mock.closed());
+  }
+
+  @Test
+  void stop_fromAnotherThreadCommitsBeforeAwaitStoppedReturns() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    AggregateConsumer consumer =
+        new AggregateConsumer(
+            mock,
+            TOPIC,
+            false,
+            LogEntryPredicates.acceptAll(),
+            new WindowedAggregator(1_000, 1_000, 0, List.of(new LevelCounts())),
+            results -> {});
+    CountDownLatch polled = new CountDownLatch(1);
+    mock.schedulePollTask(
+        () ->
+            addRecords(
+                mock, new long[] {100, 1_100, 2_100}, new String[] {"INFO", "INFO", "INFO"}));
+    mock.schedulePollTask(polled::countDown);
+
+    Thread running = new Thread(consumer::consume);
+    running.start();
+    assertTrue(polled.await(5, TimeUnit.SECONDS));
+    consumer.stop();
+
+    assertTrue(consumer.awaitStopped(5_000));
+    assertEquals(2, mock.commits.get(P0).offset(), "the log at 2100 is still in an open window");
+    assertTrue(mock.closed());
+    running.join(5_000);
+  }
+}
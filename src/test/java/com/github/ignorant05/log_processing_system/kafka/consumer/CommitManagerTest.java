@@ -0,0 +1,124 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+/** CommitManagerTest */
+public class CommitManagerTest {
+  private static final TopicPartition P0 = new TopicPartition("logs", 0);
+  private static final TopicPartition P1 = new TopicPartition("logs", 1);
+
+  /** Holds async commits until the test completes them, as the broker would on a later poll. */
+  private static final class DeferredConsumer extends MockConsumer<String, String> {
+    final List<Map<TopicPartition, OffsetAndMetadata>> asyncCommits = new ArrayList<>();
+    final List<OffsetCommitCallback> callbacks = new ArrayList<>();
+    final List<Map<TopicPartition, OffsetAndMetadata>> syncCommits = new ArrayList<>();
+
+    DeferredConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void commitAsync(
+        Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback) {
+      asyncCommits.add(Map.copyOf(offsets));
+      callbacks.add(callback);
+    }
+
+    @Override
+    public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+      syncCommits.add(Map.copyOf(offsets));
+    }
+
+    void complete(int index, Exception e) {
+      callbacks.get(index).onComplete(asyncCommits.get(index), e);
+    }
+  }
+
+  private static void process(OffsetTracker tracker, TopicPartition partition, long from, long to) {
+    for (long offset = from; offset < to; offset++) {
+      tracker.dispatched(partition, offset);
+      tracker.completed(partition, offset);
+    }
+  }
+
+  @Test
+  void maybeCommit_firesOnRecordCountOrInterval() {
+    DeferredConsumer consumer = new DeferredConsumer();
+    OffsetTracker tracker = new OffsetTracker();
+    CommitManager commits = new CommitManager(consumer, tracker, 100, 1_000, 0);
+
+    process(tracker, P0, 0, 99);
+    commits.maybeCommit(10);
+    assertTrue(consumer.asyncCommits.isEmpty(), "neither due yet");
+
+    process(tracker, P0, 99, 100);
+    commits.maybeCommit(20);
+    assertEquals(List.of(Map.of(P0, new OffsetAndMetadata(100))), consumer.asyncCommits);
+    consumer.complete(0, null);
+
+    process(tracker, P1, 0, 5);
+    commits.maybeCommit(500);
+    assertEquals(1, consumer.asyncCommits.size());
+    commits.maybeCommit(1_020);
+    assertEquals(Map.of(P1, new OffsetAndMetadata(5)), consumer.asyncCommits.get(1));
+    consumer.complete(1, null);
+
+    assertEquals(2, commits.getAsyncCommits());
+  }
+
+  @Test
+  void maybeCommit_keepsOneCommitInFlightAndResendsAfterFailure() {
+    DeferredConsumer consumer = new DeferredConsumer();
+    OffsetTracker tracker = new OffsetTracker();
+    CommitManager commits = new CommitManager(consumer, tracker, 10, 1_000, 0);
+
+    process(tracker, P0, 0, 10);
+    commits.maybeCommit(1);
+    process(tracker, P0, 10, 20);
+    commits.maybeCommit(2);
+    assertEquals(1, consumer.asyncCommits.size(), "waits for the outstanding commit");
+
+    consumer.complete(0, new TimeoutException("broker slow"));
+    commits.maybeCommit(1_001);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(20)), consumer.asyncCommits.get(1));
+    assertEquals(1, commits.getFailedCommits());
+
+    // Nothing new processed, but a failure puts the partition back in the next commit.
+    consumer.complete(1, new TimeoutException("broker slow"));
+    commits.maybeCommit(2_002);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(20)), consumer.asyncCommits.get(2));
+  }
+
+  @Test
+  void commitSync_commitsOnlyUpToUnfinishedRecords() {
+    DeferredConsumer consumer = new DeferredConsumer();
+    OffsetTracker tracker = new OffsetTracker();
+    CommitManager commits = new CommitManager(consumer, tracker, 0, 60_000, 0);
+
+    process(tracker, P0, 0, 3);
+    tracker.dispatched(P1, 0);
+    tracker.dispatched(P1, 1);
+    tracker.completed(P1, 1);
+
+    assertTrue(commits.commitSync(5));
+    assertEquals(
+        Map.of(P0, new OffsetAndMetadata(3), P1, new OffsetAndMetadata(0)),
+        consumer.syncCommits.get(0));
+
+    assertTrue(commits.commitSync(6));
+    assertEquals(1, consumer.syncCommits.size(), "nothing new to commit");
+    assertEquals(Set.of(), tracker.committable().keySet());
+  }
+}
@@ -0,0 +1,76 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.util.LagSnapShot;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** LagSamplerTest */
+public class LagSamplerTest {
+  private static final TopicPartition P0 = new TopicPartition("logs", 0);
+  private static final TopicPartition P1 = new TopicPartition("logs", 1);
+
+  private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+  private MockConsumer<String, String> consumer;
+
+  @BeforeEach
+  void setup() {
+    metrics.reset();
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(List.of(P0, P1));
+    consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 40L));
+  }
+
+  private List<LagSnapShot> lags() {
+    return metrics.snapshot().getLags();
+  }
+
+  @Test
+  void sample_measuresFromCommittedOffsetOrPosition() {
+    consumer.updateEndOffsets(Map.of(P0, 100L, P1, 50L));
+    consumer.commitSync(Map.of(P0, new OffsetAndMetadata(30)));
+    LagSampler sampler = new LagSampler(consumer, 5_000, 0);
+
+    sampler.maybeSample(0);
+
+    assertEquals(List.of(70L, 10L), lags().stream().map(LagSnapShot::getLag).toList());
+    assertEquals("logs-1", lags().get(1).getPartition());
+    assertEquals(40, lags().get(1).getCommittedOffset(), "no commit yet: from the position");
+  }
+
+  @Test
+  void maybeSample_waitsForTheIntervalAndTracksTheTrend() {
+    consumer.updateEndOffsets(Map.of(P0, 100L, P1, 40L));
+    LagSampler sampler = new LagSampler(consumer, 5_000, 0);
+    sampler.maybeSample(0);
+
+    consumer.commitSync(Map.of(P0, new OffsetAndMetadata(50)));
+    sampler.maybeSample(4_999);
+    assertEquals(100, lags().get(0).getLag(), "not sampled again before the interval");
+
+    sampler.maybeSample(5_000);
+    LagSnapShot lag = lags().get(0);
+    assertEquals(50, lag.getLag());
+    assertEquals(-10.0, lag.getGrowthPerSecond(), 1e-9);
+    assertEquals(5.0, lag.getCatchUpSeconds(), 1e-9);
+  }
+
+  @Test
+  void forget_stopsReportingRevokedPartitions() {
+    consumer.updateEndOffsets(Map.of(P0, 10L, P1, 50L));
+    LagSampler sampler = new LagSampler(consumer, 5_000, 0);
+    sampler.sample(0);
+
+    sampler.forget(List.of(P0));
+
+    assertEquals(List.of("logs-1"), lags().stream().map(LagSnapShot::getPartition).toList());
+  }
+}
@@ -0,0 +1,251 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.ConsumeOrdering;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+/** LogConsumerTest */
+public class LogConsumerTest {
+  private static final String TOPIC = "logs";
+  private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+  private static final int RECORDS_PER_PARTITION = 200;
+
+  /** Keeps the committed offsets readable after the consumer has closed it. */
+  private static final class TestConsumer extends MockConsumer<String, LogEntryView> {
+    final Map<TopicPartition, OffsetAndMetadata> commits = new ConcurrentHashMap<>();
+
+    TestConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+      super.commitSync(offsets);
+      commits.putAll(offsets);
+    }
+  }
+
+  /** Records the order each key's records of a partition were handled in instead of printing. */
+  private static final class RecordingConsumer extends LogConsumer {
+    final Map<String, List<Long>> handled = new ConcurrentHashMap<>();
+
+    RecordingConsumer(TestConsumer consumer) {
+      super(consumer, TOPIC, false, LogEntryPredicates.acceptAll());
+    }
+
+    @Override
+    public StringBuilder appendRecord(
+        StringBuilder out, MutableLogEntry logEntry, ConsumerRecord<String, LogEntryView> record) {
+      if (ThreadLocalRandom.current().nextInt(10) == 0) Thread.yield();
+      handled
+          .computeIfAbsent(record.key() + "@" + record.partition(), k -> new ArrayList<>())
+          .add(record.offset());
+      return super.appendRecord(out, logEntry, record);
+    }
+  }
+
+  private static LogEntryView view(int i) throws Exception {
+    LogEntry logEntry =
+        LogEntry.builder()
+            .id("id-" + i)
+            .timestamp(Instant.ofEpochMilli(1_700_000_000_000L + i))
+            .level("INFO")
+            .service("auth-service")
+            .message("message " + i)
+            .userID("user-" + i % 7)
+            .ipAddr("10.0.0.1")
+            .durationMS(i)
+            .build();
+    LogCodec codec = LogCodecs.get(CodecType.json);
+    ByteArrayBuilder out = new ByteArrayBuilder();
+    codec.encode(logEntry, out);
+    return codec.view(out.toByteArray());
+  }
+
+  @Test
+  void pipeline_keepsPerKeyOrderAndCommitsEverythingWritten() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    RecordingConsumer consumer = new RecordingConsumer(mock);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    consumer
+        .parallel(4, ConsumeOrdering.key, false)
+        .stageThreads(2, 3)
+        .writeTo(Channels.newChannel(output));
+
+    List<ConsumerRecord<String, LogEntryView>> records = new ArrayList<>();
+    for (int i = 0; i < 2 * RECORDS_PER_PARTITION; i++) {
+      TopicPartition partition = i % 2 == 0 ? P0 : P1;
+      records.add(
+          new ConsumerRecord<>(TOPIC, partition.partition(), i / 2, "user-" + i % 7, view(i)));
+    }
+    mock.schedulePollTask(
+        () -> {
+          mock.rebalance(List.of(P0, P1));
+          mock.updateBeginningOffsets(new HashMap<>(Map.of(P0, 0L, P1, 0L)));
+          mock.updateEndOffsets(
+              new HashMap<>(
+                  Map.of(P0, (long) RECORDS_PER_PARTITION, P1, (long) RECORDS_PER_PARTITION)));
+          records.forEach(mock::addRecord);
+        });
+
+    Thread polling = new Thread(consumer::consume);
+    polling.start();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (consumer.getConsumedMessages() < records.size() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    consumer.stop();
+    polling.join(10_000);
+
+    assertEquals(records.size(), consumer.getConsumedMessages());
+    assertEquals(Set.of(P0, P1), mock.commits.keySet());
+    assertEquals(RECORDS_PER_PARTITION, mock.commits.get(P0).offset());
+    assertEquals(RECORDS_PER_PARTITION, mock.commits.get(P1).offset());
+
+    int handled = 0;
+    for (Map.Entry<String, List<Long>> entry : consumer.handled.entrySet()) {
+      List<Long> offsets = entry.getValue();
+      for (int i = 1; i < offsets.size(); i++) {
+        assertTrue(offsets.get(i - 1) < offsets.get(i), entry.getKey() + " out of order");
+      }
+      handled += offsets.size();
+    }
+    assertEquals(records.size(), handled);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(records.size(), lines.length, "every line flushed once the sink went idle");
+    assertTrue(lines[0].contains("message "), lines[0]);
+  }
+
+  @Test
+  void ordered_printsAllPartitionsInTimestampOrder() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    LogConsumer consumer = new LogConsumer(mock, TOPIC, false, LogEntryPredicates.acceptAll());
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    consumer
+        .parallel(3, ConsumeOrdering.partition, false)
+        .ordered(60_000)
+        .writeTo(Channels.newChannel(output));
+
+    // Partition 1 carries the even timestamps, partition 0 the odd ones; polls return them
+    // grouped by partition.
+    int records = 2 * RECORDS_PER_PARTITION;
+    mock.schedulePollTask(
+        () -> {
+          mock.rebalance(List.of(P0, P1));
+          mock.updateBeginningOffsets(new HashMap<>(Map.of(P0, 0L, P1, 0L)));
+          mock.updateEndOffsets(
+              new HashMap<>(
+                  Map.of(P0, (long) RECORDS_PER_PARTITION, P1, (long) RECORDS_PER_PARTITION)));
+          try {
+            for (int i = 0; i < records; i++) {
+              mock.addRecord(new ConsumerRecord<>(TOPIC, 1 - i % 2, i / 2, "k", view(i)));
+            }
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        });
+
+    Thread polling = new Thread(consumer::consume);
+    polling.start();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (consumer.getConsumedMessages() < records && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(0, output.size(), "held back for the allowed lateness");
+    consumer.stop();
+    polling.join(10_000);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(records, lines.length, "the buffer is printed on shutdown");
+    for (int i = 0; i < records; i++) {
+      assertTrue(lines[i].contains("message " + i + "\u001B"), lines[i]);
+    }
+    assertEquals(RECORDS_PER_PARTITION, mock.commits.get(P0).offset());
+    assertEquals(RECORDS_PER_PARTITION, mock.commits.get(P1).offset());
+  }
+
+  @Test
+  void failedOutput_stopsTheConsumerWithoutCommitting() throws Exception {
+    TestConsumer mock = new TestConsumer();
+    LogConsumer consumer = new LogConsumer(mock, TOPIC, false, LogEntryPredicates.acceptAll());
+    consumer
+        .parallel(2, ConsumeOrdering.partition, false)
+        .writeTo(
+            new WritableByteChannel() {
+              @Override
+              public int write(ByteBuffer src) throws IOException {
+                throw new IOException("Broken pipe");
+              }
+
+              @Override
+              public boolean isOpen() {
+                return true;
+              }
+
+              @Override
+              public void close() {}
+            });
+    mock.schedulePollTask(
+        () -> {
+          mock.rebalance(List.of(P0));
+          mock.updateBeginningOffsets(new HashMap<>(Map.of(P0, 0L)));
+          try {
+            for (int i = 0; i < 10; i++) {
+              mock.addRecord(new ConsumerRecord<>(TOPIC, 0, i, "k", view(i)));
+            }
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        });
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, consumer::consume);
+    assertInstanceOf(UncheckedIOException.class, e.getCause());
+    assertNull(mock.commits.get(P0), "nothing was printed, so nothing is committed");
+  }
+
+  @Test
+  void laneOf_keepsKeysAndPartitionsTogether() {
+    ConsumerRecord<String, String> a = new ConsumerRecord<>(TOPIC, 0, 0, "user-1", "");
+    ConsumerRecord<String, String> b = new ConsumerRecord<>(TOPIC, 3, 9, "user-1", "");
+    ConsumerRecord<String, String> unkeyed = new ConsumerRecord<>(TOPIC, 3, 10, null, "");
+
+    assertEquals(
+        ConsumePipeline.laneOf(a, ConsumeOrdering.key, 8),
+        ConsumePipeline.laneOf(b, ConsumeOrdering.key, 8));
+    assertEquals(
+        ConsumePipeline.laneOf(b, ConsumeOrdering.partition, 8),
+        ConsumePipeline.laneOf(unkeyed, ConsumeOrdering.key, 8));
+  }
+}
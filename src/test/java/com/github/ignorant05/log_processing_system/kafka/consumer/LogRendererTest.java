@@ -0,0 +1,137 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.model.Level;
+import com.github.ignorant05.log_processing_system.model.MutableLogEntry;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** LogRendererTest */
+public class LogRendererTest {
+
+  /** The line as the consumer used to build it, with String.format and concatenation. */
+  private static String formatted(MutableLogEntry logEntry, int partition, long offset) {
+    String color = LogRenderer.colorOf(logEntry.getLevel());
+    StringBuilder time = new StringBuilder();
+    if (logEntry.hasTimestamp()) {
+      Timestamps.appendTimeOfDay(time, logEntry.getTimestampMillis());
+    } else {
+      time.append("--:--:--.---");
+    }
+    return color
+        + "["
+        + time
+        + "]\u001B[0m \u001B[35m"
+        + String.format("%-20s", logEntry.getService())
+        + "\u001B[0m "
+        + color
+        + String.format("%-7s", logEntry.getLevelName())
+        + "\u001B[0m \u001B[36m"
+        + logEntry.getMessage()
+        + "\u001B[0m (p:"
+        + partition
+        + ", o:"
+        + offset
+        + ")";
+  }
+
+  @Test
+  void append_matchesTheFormattedLine() {
+    MutableLogEntry logEntry = new MutableLogEntry();
+    logEntry.setTimestampMillis(1_700_000_123_456L);
+    logEntry.setService("payment-service");
+    logEntry.setMessage("Connection pool exhausted");
+
+    for (Level level : Level.values()) {
+      logEntry.setLevel(level);
+      assertEquals(
+          formatted(logEntry, 3, 42),
+          LogRenderer.append(new StringBuilder(), logEntry, 3, 42).toString(),
+          level.name());
+    }
+  }
+
+  @Test
+  void append_handlesUnknownLevelsLongServicesAndMissingFields() {
+    MutableLogEntry logEntry = new MutableLogEntry();
+    logEntry.setLevelName("NOTICE");
+    logEntry.setService("a-service-name-longer-than-twenty");
+    logEntry.setMessage("hello");
+    assertEquals(
+        formatted(logEntry, 0, 0),
+        LogRenderer.append(new StringBuilder(), logEntry, 0, 0).toString());
+
+    logEntry.reset();
+    assertEquals(
+        formatted(logEntry, 1, 7),
+        LogRenderer.append(new StringBuilder(), logEntry, 1, 7).toString());
+  }
+
+  @Test
+  void sampler_printsEverythingUntilTheRateExceedsTheLimit() {
+    long now = 0;
+    OutputSampler sampler = new OutputSampler(1_000, now);
+
+    for (int i = 0; i < 500; i++) assertTrue(sampler.admit(Level.INFO));
+    assertNull(sampler.tick(now += 1_000_000_000L));
+    assertEquals(1, sampler.getStride());
+
+    for (int i = 0; i < 3_600; i++) sampler.admit(Level.INFO);
+    for (int i = 0; i < 400; i++) sampler.admit(Level.ERROR);
+    String summary = sampler.tick(now += 1_000_000_000L);
+    assertEquals("-- 4000 logs/s, printed 1 in 1: INFO 3600 ERROR 400; now 1 in 4 --", summary);
+
+    int printed = 0;
+    for (int i = 0; i < 4_000; i++) if (sampler.admit(Level.WARN)) printed++;
+    assertEquals(1_000, printed);
+    assertEquals(
+        "-- 4000 logs/s, printed 1 in 4: WARN 4000 --", sampler.tick(now += 1_000_000_000L));
+
+    sampler.admit(Level.INFO);
+    assertEquals("-- 1 logs/s, printing every log again --", sampler.tick(now += 1_000_000_000L));
+    assertEquals(1, sampler.getStride());
+  }
+
+  @Test
+  void sampler_disabledAtZero() {
+    OutputSampler sampler = new OutputSampler(0, 0);
+    for (int i = 0; i < 100_000; i++) assertTrue(sampler.admit(Level.DEBUG));
+    assertNull(sampler.tick(5_000_000_000L));
+  }
+
+  @Test
+  void terminalWriter_writesInLargeChunks() {
+    List<Integer> writes = new ArrayList<>();
+    WritableByteChannel channel =
+        new WritableByteChannel() {
+          @Override
+          public int write(ByteBuffer src) {
+            int n = src.remaining();
+            writes.add(n);
+            src.position(src.limit());
+            return n;
+          }
+
+          @Override
+          public boolean isOpen() {
+            return true;
+          }
+
+          @Override
+          public void close() {}
+        };
+    TerminalWriter writer = new TerminalWriter(channel);
+
+    byte[] line = new byte[100];
+    for (int i = 0; i < 3_000; i++) writer.write(line);
+    writer.flush();
+    writer.flush();
+
+    assertEquals(List.of(262_100, 37_900), writes);
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+/** OffsetTrackerTest */
+public class OffsetTrackerTest {
+  private static final TopicPartition P0 = new TopicPartition("logs", 0);
+  private static final TopicPartition P1 = new TopicPartition("logs", 1);
+
+  @Test
+  void committable_stopsAtLowestUnfinishedOffset() {
+    OffsetTracker tracker = new OffsetTracker();
+    for (long offset = 10; offset < 15; offset++) tracker.dispatched(P0, offset);
+
+    tracker.completed(P0, 12);
+    tracker.completed(P0, 14);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(10)), tracker.committable());
+
+    tracker.completed(P0, 10);
+    tracker.completed(P0, 11);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(13)), tracker.committable());
+
+    tracker.completed(P0, 13);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(15)), tracker.committable());
+    assertEquals(0, tracker.inFlight());
+  }
+
+  @Test
+  void hold_keepsARecordPendingPastCompletionUntilReleased() {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.dispatched(P0, 0);
+    tracker.dispatched(P0, 1);
+
+    tracker.hold(P0, 0);
+    tracker.completed(P0, 0);
+    tracker.completed(P0, 1);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(0)), tracker.committable());
+    assertEquals(1, tracker.inFlight());
+
+    tracker.release(P0, 0);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(2)), tracker.committable());
+    assertEquals(2, tracker.completedTotal());
+  }
+
+  @Test
+  void committable_skipsOffsetsThatWereNeverDispatched() {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.dispatched(P0, 3);
+    tracker.dispatched(P0, 7);
+    tracker.completed(P0, 7);
+
+    assertEquals(Map.of(P0, new OffsetAndMetadata(3)), tracker.committable());
+
+    tracker.completed(P0, 3);
+    assertEquals(Map.of(P0, new OffsetAndMetadata(8)), tracker.committable());
+  }
+
+  @Test
+  void committable_onlyReturnsPartitionsThatProgressed() {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.dispatched(P0, 0);
+    tracker.dispatched(P1, 0);
+    tracker.completed(P0, 0);
+    tracker.completed(P1, 0);
+
+    tracker.committed(tracker.committable());
+    assertTrue(tracker.committable().isEmpty());
+
+    tracker.dispatched(P1, 1);
+    tracker.completed(P1, 1);
+    assertEquals(Map.of(P1, new OffsetAndMetadata(2)), tracker.committable());
+  }
+
+  @Test
+  void abandoned_holdsCommitsBackWithoutBeingAwaited() throws Exception {
+    OffsetTracker tracker = new OffsetTracker();
+    for (long offset = 0; offset < 4; offset++) tracker.dispatched(P0, offset);
+    tracker.abandoned(P0, 2);
+    tracker.abandoned(P0, 3);
+    tracker.completed(P0, 0);
+    tracker.completed(P0, 1);
+
+    assertTrue(tracker.awaitCompleted(List.of(P0), 0));
+    assertEquals(Map.of(P0, new OffsetAndMetadata(2)), tracker.committable());
+  }
+
+  @Test
+  void awaitCompleted_waitsForWorkersAndForgetDropsState() throws Exception {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.dispatched(P0, 0);
+    tracker.dispatched(P1, 0);
+
+    assertFalse(tracker.awaitCompleted(List.of(P0), 20));
+
+    Thread worker = new Thread(() -> tracker.completed(P0, 0));
+    worker.start();
+    assertTrue(tracker.awaitCompleted(List.of(P0), 5_000));
+    worker.join();
+
+    tracker.forget(List.of(P1));
+    assertEquals(0, tracker.inFlight());
+    assertEquals(Map.of(P0, new OffsetAndMetadata(1)), tracker.committable());
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import com.github.ignorant05.log_processing_system.util.OrderingSnapShot;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** OrderedMergerTest */
+public class OrderedMergerTest {
+  private static final TopicPartition P0 = new TopicPartition("logs", 0);
+  private static final TopicPartition P1 = new TopicPartition("logs", 1);
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final List<OrderedMerger.Line> due = new ArrayList<>();
+  private long offset;
+
+  @BeforeEach
+  void setup() {
+    MetricsRegistry.getInstance().reset();
+  }
+
+  private void add(OrderedMerger merger, TopicPartition partition, long timestamp, long nowNanos) {
+    merger.add(new OrderedMerger.Line(partition, offset++, timestamp, new byte[0]), nowNanos, due);
+  }
+
+  private List<Long> emitted() {
+    List<Long> timestamps = due.stream().map(line -> line.timestamp).toList();
+    due.clear();
+    return timestamps;
+  }
+
+  @Test
+  void add_mergesPartitionsOnceTheWatermarkPassesThem() {
+    OrderedMerger merger = new OrderedMerger(100);
+
+    add(merger, P0, 1_000, 0);
+    add(merger, P0, 1_050, 0);
+    add(merger, P1, 1_010, 0);
+    assertEquals(List.of(), emitted());
+
+    add(merger, P1, 1_120, 0);
+    assertEquals(List.of(1_000L, 1_010L), emitted(), "watermark 1020");
+
+    add(merger, P0, 1_300, 0);
+    assertEquals(List.of(1_050L, 1_120L), emitted());
+    assertEquals(1, merger.getBuffered());
+  }
+
+  @Test
+  void add_putsOutOfOrderLinesBackInPlaceUnlessTheyAreLate() {
+    OrderedMerger merger = new OrderedMerger(100);
+
+    add(merger, P0, 1_000, 0);
+    add(merger, P0, 1_080, 0);
+    add(merger, P0, 1_040, 0);
+    add(merger, P1, 1_200, 0);
+    assertEquals(List.of(1_000L, 1_040L, 1_080L), emitted());
+
+    add(merger, P1, 1_020, 0);
+    assertEquals(List.of(1_020L), emitted(), "late: printed straight away");
+
+    add(merger, P0, Timestamps.NONE, 0);
+    assertEquals(List.of(Timestamps.NONE), emitted());
+
+    OrderingSnapShot snapshot = MetricsRegistry.getInstance().ordering().snapshot();
+    assertEquals(2, snapshot.getOutOfOrder());
+    assertEquals(1, snapshot.getLate());
+  }
+
+  @Test
+  void tick_printsEverythingOnceNothingArrivedForTheLateness() {
+    OrderedMerger merger = new OrderedMerger(1_000);
+    add(merger, P1, 5_000, 0);
+    add(merger, P0, 4_500, 0);
+
+    merger.tick(SECOND / 2, due);
+    assertEquals(List.of(), emitted());
+
+    merger.tick(SECOND, due);
+    assertEquals(List.of(4_500L, 5_000L), emitted());
+    assertEquals(0, merger.getBuffered());
+  }
+
+  @Test
+  void release_printsARevokedPartitionWithoutWaiting() {
+    OrderedMerger merger = new OrderedMerger(60_000);
+    add(merger, P0, 2_000, 0);
+    add(merger, P0, 3_000, 0);
+    add(merger, P1, 1_000, 0);
+
+    merger.release(List.of(P0));
+    merger.tick(1, due);
+    assertEquals(List.of(2_000L, 3_000L), emitted());
+
+    add(merger, P1, 1_500, 1);
+    merger.drain(due);
+    assertEquals(List.of(1_000L, 1_500L), emitted(), "P1 is not late because of P0");
+  }
+}
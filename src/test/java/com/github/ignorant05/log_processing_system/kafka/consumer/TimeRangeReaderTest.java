@@ -0,0 +1,145 @@
+package com.github.ignorant05.log_processing_system.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.filter.LogEntryPredicates;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntryView;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+/** TimeRangeReaderTest */
+public class TimeRangeReaderTest {
+  private static final String TOPIC = "logs";
+  private static final Pattern POSITION = Pattern.compile("\\(p:(\\d+), o:(\\d+)\\)");
+
+  /** Timestamps of each partition's records, by offset. */
+  private static final long[][] TIMESTAMPS = {
+    {1_000, 2_000, 3_000, 4_000, 5_000, 6_000},
+    {1_500, 2_500, 3_500, 8_000},
+  };
+
+  /** A topic of two partitions; records are served from wherever a reader seeks to. */
+  private static final class TopicConsumer extends MockConsumer<String, LogEntryView> {
+    TopicConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+      Node node = new Node(0, "localhost", 9092);
+      List<PartitionInfo> partitions = new ArrayList<>();
+      Map<TopicPartition, Long> ends = new HashMap<>();
+      for (int p = 0; p < TIMESTAMPS.length; p++) {
+        partitions.add(new PartitionInfo(TOPIC, p, node, new Node[] {node}, new Node[] {node}));
+        ends.put(new TopicPartition(TOPIC, p), (long) TIMESTAMPS[p].length);
+      }
+      updatePartitions(TOPIC, partitions);
+      updateEndOffsets(ends);
+    }
+
+    @Override
+    public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+        Map<TopicPartition, Long> timestamps) {
+      Map<TopicPartition, OffsetAndTimestamp> offsets = new HashMap<>();
+      timestamps.forEach(
+          (partition, target) -> {
+            long[] times = TIMESTAMPS[partition.partition()];
+            for (int offset = 0; offset < times.length; offset++) {
+              if (times[offset] >= target) {
+                offsets.put(partition, new OffsetAndTimestamp(offset, times[offset]));
+                return;
+              }
+            }
+            offsets.put(partition, null);
+          });
+      return offsets;
+    }
+
+    @Override
+    public synchronized void seek(TopicPartition partition, long offset) {
+      super.seek(partition, offset);
+      long[] times = TIMESTAMPS[partition.partition()];
+      for (int o = (int) offset; o < times.length; o++) {
+        String level = o % 2 == 0 ? "INFO" : "ERROR";
+        String json = "{\"level\":\"" + level + "\",\"service\":\"svc\",\"message\":\"m\"}";
+        addRecord(
+            new ConsumerRecord<>(
+                TOPIC,
+                partition.partition(),
+                o,
+                times[o],
+                TimestampType.CREATE_TIME,
+                0,
+                0,
+                null,
+                LogCodecs.get(CodecType.json).view(Utf8.encode(json)),
+                new RecordHeaders(),
+                Optional.empty()));
+      }
+    }
+  }
+
+  private static List<String> read(boolean merged, Predicate<LogEntryView> filter)
+      throws InterruptedException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TimeRangeReader(TopicConsumer::new, TOPIC, filter)
+        .merged(merged)
+        .writeTo(Channels.newChannel(out))
+        .read(2_000, 4_000);
+
+    List<String> positions = new ArrayList<>();
+    Matcher matcher = POSITION.matcher(out.toString(StandardCharsets.UTF_8));
+    while (matcher.find()) positions.add(matcher.group(1) + "@" + matcher.group(2));
+    return positions;
+  }
+
+  @Test
+  void ranges_spanFromSinceToTheFirstRecordAfterUntil() {
+    TimeRangeReader reader =
+        new TimeRangeReader(TopicConsumer::new, TOPIC, LogEntryPredicates.acceptAll());
+
+    List<TimeRangeReader.Range> ranges = reader.ranges(new TopicConsumer(), 2_000, 4_000);
+    assertEquals(2, ranges.size());
+    assertEquals(List.of(1L, 4L), List.of(ranges.get(0).start, ranges.get(0).stop));
+    assertEquals(List.of(1L, 3L), List.of(ranges.get(1).start, ranges.get(1).stop));
+
+    List<TimeRangeReader.Range> late = reader.ranges(new TopicConsumer(), 7_000, 9_000);
+    assertEquals(1, late.size(), "partition 0 has nothing that late");
+    assertEquals(List.of(3L, 4L), List.of(late.get(0).start, late.get(0).stop));
+  }
+
+  @Test
+  void read_mergesPartitionsInTimestampOrder() throws InterruptedException {
+    assertEquals(
+        List.of("0@1", "1@1", "0@2", "1@2", "0@3"), read(true, LogEntryPredicates.acceptAll()));
+  }
+
+  @Test
+  void read_unmergedKeepsEachPartitionInOrderAndAppliesTheFilter() throws InterruptedException {
+    List<String> all = read(false, LogEntryPredicates.acceptAll());
+    assertEquals(5, all.size());
+    assertEquals(
+        List.of("0@1", "0@2", "0@3"), all.stream().filter(p -> p.startsWith("0@")).toList());
+
+    List<String> errors = read(false, LogEntryPredicates.levelIn(List.of("ERROR")));
+    assertEquals(List.of("0@1", "0@3", "1@1"), errors.stream().sorted().toList());
+  }
+}
@@ -0,0 +1,197 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.model.BackpressurePolicy;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.util.MetricsRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** LogProducerTest */
+public class LogProducerTest {
+  private MockProducer<String, byte[]> mock;
+
+  @TempDir Path spillDir;
+
+  @BeforeEach
+  void setup() {
+    mock = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+    MetricsRegistry.getInstance().reset();
+  }
+
+  private LogProducer producer(int maxRecords, BackpressurePolicy policy) {
+    return new LogProducer(
+        mock, "logs", CodecType.binary, new InFlightWindow(maxRecords, 0, policy, spillDir));
+  }
+
+  private void awaitHistory(int size) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (mock.history().size() < size) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting for " + size + " sends");
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  void send_completesWithMetadataAndRecordsLatency() throws Exception {
+    LogProducer producer = producer(0, BackpressurePolicy.block);
+
+    CompletableFuture<RecordMetadata> future = producer.send(LogGenerator.generateRandomLog());
+    assertFalse(future.isDone());
+    mock.completeNext();
+
+    assertEquals("logs", future.get().topic());
+    assertNotNull(mock.history().get(0).headers().lastHeader(LogCodecs.HEADER));
+    assertEquals(1, MetricsRegistry.getInstance().snapshot().getProducedMessages());
+    assertEquals(1, producer.getSentMessages());
+  }
+
+  @Test
+  void block_waitsForRoomInTheWindow() throws Exception {
+    LogProducer producer = producer(1, BackpressurePolicy.block);
+    producer.send(LogGenerator.generateRandomLog());
+
+    Thread blocked = new Thread(() -> producer.send(LogGenerator.generateRandomLog()));
+    blocked.start();
+    blocked.join(200);
+    assertTrue(blocked.isAlive(), "second send should wait for the first ack");
+    assertEquals(1, mock.history().size());
+
+    mock.completeNext();
+    blocked.join(5_000);
+    assertFalse(blocked.isAlive());
+    assertEquals(2, mock.history().size());
+  }
+
+  @Test
+  void drop_failsTheFutureWhenFull() {
+    LogProducer producer = producer(1, BackpressurePolicy.drop);
+    producer.send(LogGenerator.generateRandomLog());
+
+    CompletableFuture<RecordMetadata> dropped = producer.send(LogGenerator.generateRandomLog());
+
+    ExecutionException e = assertThrows(ExecutionException.class, dropped::get);
+    assertInstanceOf(RecordDroppedException.class, e.getCause());
+    assertEquals(1, producer.getDroppedMessages());
+    assertEquals(1, producer.getWindow().getInFlightRecords());
+  }
+
+  @Test
+  void spill_replaysInOrderOnceTheWindowDrains() throws Exception {
+    LogProducer producer = producer(1, BackpressurePolicy.spill);
+
+    List<LogEntry> logs = new ArrayList<>();
+    List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      logs.add(LogGenerator.generateRandomLog());
+      futures.add(producer.send(logs.get(i)));
+    }
+    assertEquals(3, producer.getSpilledMessages());
+    assertEquals(1, mock.history().size());
+
+    for (int i = 1; i <= 4; i++) {
+      awaitHistory(i);
+      mock.completeNext();
+    }
+
+    for (int i = 0; i < 4; i++) {
+      assertEquals(logs.get(i).getID(), mock.history().get(i).key());
+      assertTrue(futures.get(i).get(5, TimeUnit.SECONDS).hasOffset());
+    }
+
+    producer.close();
+    assertEquals(0, producer.getSpillBacklog());
+    try (var files = Files.list(spillDir)) {
+      assertEquals(0, files.count(), "drained spill file is removed");
+    }
+  }
+
+  @Test
+  void spill_keepsARecordInTheBacklogUntilItsReplayIsDispatched() throws Exception {
+    LogProducer producer = producer(1, BackpressurePolicy.spill);
+    producer.send(LogGenerator.generateRandomLog());
+    producer.send(LogGenerator.generateRandomLog());
+
+    // The replayer now holds the spilled record while it waits for room in the window.
+    Thread.sleep(100);
+    assertEquals(1, producer.getSpillBacklog());
+    producer.send(LogGenerator.generateRandomLog());
+    assertEquals(2, producer.getSpilledMessages());
+
+    mock.completeNext();
+    awaitHistory(2);
+    mock.completeNext();
+    awaitHistory(3);
+    mock.completeNext();
+    producer.close();
+    assertEquals(0, producer.getSpillBacklog());
+  }
+
+  private LogProducer transactional(MockProducer<String, byte[]> mock, int maxRecords) {
+    return new LogProducer(mock, "logs", CodecType.binary, InFlightWindow.unbounded())
+        .enableTransactions(maxRecords, 60_000);
+  }
+
+  @Test
+  void transactional_completesRecordsOnlyWhenTheirTransactionCommits() throws Exception {
+    MockProducer<String, byte[]> mock =
+        new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+    LogProducer producer = transactional(mock, 3);
+
+    CompletableFuture<RecordMetadata> first = producer.send(LogGenerator.generateRandomLog());
+    producer.send(LogGenerator.generateRandomLog());
+    assertTrue(mock.transactionInFlight());
+    assertFalse(first.isDone(), "acknowledged but not yet committed");
+    assertEquals(0, producer.getSentMessages());
+
+    CompletableFuture<RecordMetadata> third = producer.send(LogGenerator.generateRandomLog());
+    assertTrue(mock.transactionCommitted());
+    assertEquals(1, mock.commitCount());
+    assertTrue(first.isDone() && third.isDone());
+    assertEquals(3, producer.getSentMessages());
+
+    producer.send(LogGenerator.generateRandomLog());
+    producer.close();
+    assertEquals(2, mock.commitCount(), "close commits the partial transaction");
+    assertEquals(4, mock.history().size());
+  }
+
+  @Test
+  void transactional_failsEveryRecordOfAnAbortedTransaction() throws Exception {
+    MockProducer<String, byte[]> mock =
+        new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+    LogProducer producer = transactional(mock, 2);
+    mock.commitTransactionException = new KafkaException("broker unavailable");
+
+    CompletableFuture<RecordMetadata> first = producer.send(LogGenerator.generateRandomLog());
+    CompletableFuture<RecordMetadata> second = producer.send(LogGenerator.generateRandomLog());
+
+    assertTrue(mock.transactionAborted());
+    assertThrows(ExecutionException.class, first::get);
+    assertThrows(ExecutionException.class, second::get);
+    assertEquals(2, producer.getFailedMessages());
+    assertEquals(0, mock.history().size(), "nothing of the aborted transaction is visible");
+
+    mock.commitTransactionException = null;
+    assertFalse(producer.send(LogGenerator.generateRandomLog()).isDone());
+    producer.flush();
+    assertEquals(1, mock.history().size(), "the next transaction goes through");
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.generator.LogGenerator;
+import com.github.ignorant05.log_processing_system.model.CodecType;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.model.PartitionStrategy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+/** PartitionRouterTest */
+public class PartitionRouterTest {
+
+  @Test
+  void keyOf_followsTheStrategy() {
+    LogEntry log = LogGenerator.generateRandomLog();
+
+    assertEquals(log.getID(), PartitionRouter.byID().keyOf(log));
+    assertEquals(log.getService(), router(PartitionStrategy.service, 0, null, 1).keyOf(log));
+    assertEquals(log.getUserID(), router(PartitionStrategy.user, 0, null, 1).keyOf(log));
+    assertNull(router(PartitionStrategy.sticky, 0, null, 1).keyOf(log));
+  }
+
+  @Test
+  void partitionOf_matchesKafkasHashingWithoutVirtualNodes() {
+    PartitionRouter router = router(PartitionStrategy.service, 0, null, 1);
+
+    for (String key : List.of("payment-service", "database", "api-gateway")) {
+      int expected = Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % 12;
+      assertEquals(expected, router.partitionOf(key, 12));
+    }
+    assertEquals(PartitionRouter.ANY_PARTITION, PartitionRouter.byID().partitionOf("x", 12));
+    assertEquals(PartitionRouter.ANY_PARTITION, router.partitionOf("x", 0), "count unknown");
+  }
+
+  @Test
+  void consistentHashing_movesFewKeysWhenPartitionsAreAdded() {
+    PartitionRouter modulo = router(PartitionStrategy.user, 0, null, 1);
+    PartitionRouter ring = router(PartitionStrategy.user, 128, null, 1);
+
+    int keys = 10_000, movedByModulo = 0, movedByRing = 0;
+    int[] load = new int[9];
+    for (int i = 0; i < keys; i++) {
+      String key = "user-" + i;
+      if (modulo.partitionOf(key, 8) != modulo.partitionOf(key, 9)) movedByModulo++;
+      if (ring.partitionOf(key, 8) != ring.partitionOf(key, 9)) movedByRing++;
+      load[ring.partitionOf(key, 9)]++;
+    }
+
+    assertTrue(movedByModulo > keys * 0.8, "modulo moved " + movedByModulo);
+    assertTrue(movedByRing < keys * 0.2, "ring moved " + movedByRing);
+    for (int p = 0; p < 9; p++) {
+      assertEquals(keys / 9.0, load[p], keys / 9.0 * 0.3, "partition " + p);
+    }
+  }
+
+  @Test
+  void detector_flagsAndSpreadsAHotKey() {
+    HotPartitionDetector detector = new HotPartitionDetector(2.0);
+    PartitionRouter router = router(PartitionStrategy.service, 0, detector, 3);
+    int home = router.partitionOf("database", 8);
+
+    for (int i = 0; i < 2_000; i++) {
+      String key = i % 2 == 0 ? "database" : "service-" + (i % 50);
+      router.recordKey(key, 8);
+      router.acknowledged(router.partitionOf(key, 8));
+    }
+    detector.evaluate();
+
+    assertEquals(Set.of("database"), detector.getHotKeys());
+    assertTrue(detector.getHotPartitions().contains(home));
+
+    Set<Integer> spread = new HashSet<>();
+    for (int i = 0; i < 30; i++) spread.add(router.partitionOf("database", 8));
+    assertEquals(Set.of(home, (home + 1) % 8, (home + 2) % 8), spread);
+
+    // a quiet window cools the key down again
+    for (int i = 0; i < 2_000; i++) router.recordKey("service-" + (i % 50), 8);
+    detector.evaluate();
+    assertTrue(detector.getHotKeys().isEmpty());
+    assertEquals(home, router.partitionOf("database", 8));
+  }
+
+  @Test
+  void producer_sendsToTheRoutedPartition() {
+    Node node = new Node(0, "localhost", 9092);
+    List<PartitionInfo> partitions = new ArrayList<>();
+    for (int p = 0; p < 6; p++) {
+      partitions.add(new PartitionInfo("logs", p, node, new Node[] {node}, new Node[] {node}));
+    }
+    Cluster cluster = new Cluster("test", List.of(node), partitions, Set.of(), Set.of());
+    MockProducer<String, byte[]> mock =
+        new MockProducer<>(cluster, true, null, new StringSerializer(), new ByteArraySerializer());
+
+    PartitionRouter router = router(PartitionStrategy.service, 32, null, 1);
+    LogProducer producer =
+        new LogProducer(mock, "logs", CodecType.binary, InFlightWindow.unbounded())
+            .routeWith(router);
+    for (int i = 0; i < 200; i++) producer.send(LogGenerator.generateRandomLog());
+
+    for (ProducerRecord<String, byte[]> record : mock.history()) {
+      assertEquals(router.partitionOf(record.key(), 6), record.partition(), record.key());
+    }
+  }
+
+  private static PartitionRouter router(
+      PartitionStrategy strategy, int virtualNodes, HotPartitionDetector detector, int spread) {
+    return new PartitionRouter(strategy, virtualNodes, detector, spread);
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.ignorant05.log_processing_system.kafka.producer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.ignorant05.log_processing_system.config.KafkaConfig;
+import com.github.ignorant05.log_processing_system.kafka.producer.ProducerAutoTuner.Observation;
+import com.github.ignorant05.log_processing_system.model.ProducerProfile;
+import java.nio.file.Path;
+import java.util.Properties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** ProducerAutoTunerTest */
+public class ProducerAutoTunerTest {
+  private static final double TARGET = 20;
+
+  @Test
+  void next_overTarget_shortensLingerWhenQueueingDominates() {
+    ProducerTuning tuning = new ProducerTuning(65536, 40, "snappy");
+
+    ProducerTuning next =
+        ProducerAutoTuner.next(tuning, new Observation(60, 30000, 35, 10), TARGET);
+
+    assertEquals(new ProducerTuning(65536, 20, "snappy"), next);
+  }
+
+  @Test
+  void next_overTarget_dropsHeavyCompressionThenShrinksBatches() {
+    ProducerTuning tuning = new ProducerTuning(65536, 0, "gzip");
+    Observation slowBroker = new Observation(60, 60000, 1, 40);
+
+    tuning = ProducerAutoTuner.next(tuning, slowBroker, TARGET);
+    assertEquals(new ProducerTuning(65536, 0, "lz4"), tuning);
+
+    tuning = ProducerAutoTuner.next(tuning, slowBroker, TARGET);
+    assertEquals(new ProducerTuning(32768, 0, "lz4"), tuning);
+  }
+
+  @Test
+  void next_overTarget_neverShrinksBelowMinimum() {
+    ProducerTuning tuning = new ProducerTuning(ProducerAutoTuner.MIN_BATCH_SIZE, 0, "none");
+
+    assertSame(tuning, ProducerAutoTuner.next(tuning, new Observation(60, 4000, 1, 40), TARGET));
+  }
+
+  @Test
+  void next_wellUnderTarget_growsFullBatches() {
+    ProducerTuning tuning = new ProducerTuning(16384, 10, "snappy");
+
+    ProducerTuning next = ProducerAutoTuner.next(tuning, new Observation(5, 15000, 2, 3), TARGET);
+
+    assertEquals(new ProducerTuning(32768, 10, "snappy"), next);
+  }
+
+  @Test
+  void next_wellUnderTarget_lingersLongerForPartialBatches() {
+    ProducerTuning tuning = new ProducerTuning(16384, 0, "none");
+    Observation fast = new Observation(5, 2000, 0, 3);
+
+    tuning = ProducerAutoTuner.next(tuning, fast, TARGET);
+    assertEquals(new ProducerTuning(16384, 5, "none"), tuning);
+
+    tuning = new ProducerTuning(16384, ProducerAutoTuner.MAX_LINGER_MS, "none");
+    assertEquals(
+        new ProducerTuning(16384, ProducerAutoTuner.MAX_LINGER_MS, "lz4"),
+        ProducerAutoTuner.next(tuning, fast, TARGET));
+  }
+
+  @Test
+  void next_nearTarget_holds() {
+    ProducerTuning tuning = new ProducerTuning(16384, 10, "snappy");
+
+    assertSame(tuning, ProducerAutoTuner.next(tuning, new Observation(15, 16000, 5, 5), TARGET));
+  }
+
+  @Test
+  void tuning_roundTripsThroughFileAndOverridesProfile(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("nested").resolve("tuning.properties");
+    assertNull(ProducerTuning.load(file));
+
+    ProducerTuning tuning = new ProducerTuning(131072, 25, "lz4");
+    tuning.save(file, "test");
+    ProducerTuning loaded = ProducerTuning.load(file);
+    assertEquals(tuning, loaded);
+
+    Properties config = KafkaConfig.getProducerConfig("localhost:9092", ProducerProfile.durable);
+    loaded.applyTo(config);
+    assertEquals(131072, config.get(ProducerConfig.BATCH_SIZE_CONFIG));
+    assertEquals("all", config.get(ProducerConfig.ACKS_CONFIG), "the rest of the profile stays");
+    assertEquals(tuning, ProducerTuning.of(config));
+  }
+}
@@ -0,0 +1,66 @@
+package com.github.ignorant05.log_processing_system.kafka.serde;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.ignorant05.log_processing_system.model.LogEntries;
+import com.github.ignorant05.log_processing_system.model.LogEntry;
+import com.github.ignorant05.log_processing_system.util.JsonUtil;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+/** LogEntrySerdeTest */
+public class LogEntrySerdeTest {
+  private final LogEntrySerializer serializer = new LogEntrySerializer();
+  private final LogEntryDeserializer deserializer = new LogEntryDeserializer();
+
+  /** Quotes and a non-ASCII dash, so escaping is exercised. */
+  private static final String MESSAGE = "Connection pool exhausted — \"retrying\"";
+
+  @Test
+  void roundTrip_preservesAllFields() {
+    LogEntry logEntry = LogEntries.sample(MESSAGE);
+
+    byte[] bytes = serializer.serialize("logs", logEntry);
+    LogEntry deserialized = deserializer.deserialize("logs", bytes);
+
+    assertEquals(logEntry, deserialized);
+  }
+
+  @Test
+  void serialize_matchesStringBasedJson() throws Exception {
+    LogEntry logEntry = LogEntries.sample(MESSAGE);
+
+    byte[] expected = JsonUtil.toJson(logEntry).getBytes(StandardCharsets.UTF_8);
+
+    assertArrayEquals(expected, serializer.serialize("logs", logEntry));
+  }
+
+  @Test
+  void serialize_reusesBufferWithoutLeakingPreviousRecord() {
+    LogEntry longLog = LogEntries.sample(MESSAGE);
+    longLog.setMessage("x".repeat(4096));
+    LogEntry shortLog = LogEntries.sample(MESSAGE);
+
+    serializer.serialize("logs", longLog);
+    byte[] bytes = serializer.serialize("logs", shortLog);
+
+    assertEquals(shortLog, deserializer.deserialize("logs", bytes));
+  }
+
+  @Test
+  void nullValues_mapToNull() {
+    assertNull(serializer.serialize("logs", null));
+    assertNull(deserializer.deserialize("logs", null));
+  }
+
+  @Test
+  void malformedPayload_throwsSerializationException() {
+    byte[] garbage = "{obviously not a json}".getBytes(StandardCharsets.UTF_8);
+
+    assertThrows(SerializationException.class, () -> deserializer.deserialize("logs", garbage));
+  }
+}
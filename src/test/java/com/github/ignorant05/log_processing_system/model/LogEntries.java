@@ -0,0 +1,35 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * LogEntries
+ *
+ * <p>The log the codec, serde and model tests encode and decode: every field set, and a timestamp
+ * truncated to the millisecond so it survives a round trip.
+ */
+public final class LogEntries {
+  private LogEntries() {}
+
+  public static LogEntry sample() {
+    return sample("Connection pool exhausted");
+  }
+
+  public static LogEntry sample(String message) {
+    return sample("ERROR", message);
+  }
+
+  public static LogEntry sample(String level, String message) {
+    return LogEntry.builder()
+        .id("3f2b8c1e-9d4a-4c7e-8b1f-0a2d3e4f5a6b")
+        .timestamp(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+        .level(level)
+        .service("payment-service")
+        .message(message)
+        .userID("user-42")
+        .ipAddr("192.168.1.7")
+        .durationMS(1250)
+        .build();
+  }
+}
@@ -0,0 +1,83 @@
+package com.github.ignorant05.log_processing_system.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.ignorant05.log_processing_system.codec.LogCodec;
+import com.github.ignorant05.log_processing_system.codec.LogCodecs;
+import com.github.ignorant05.log_processing_system.util.Timestamps;
+import com.github.ignorant05.log_processing_system.util.Utf8;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** MutableLogEntryTest */
+public class MutableLogEntryTest {
+
+  @Test
+  void decodeInto_matchesDecodeForEveryCodec() throws IOException {
+    MutableLogEntry target = new MutableLogEntry();
+
+    for (String level : new String[] {"ERROR", "CUSTOM", null}) {
+      LogEntry logEntry = LogEntries.sample(level, "Payment processed");
+
+      for (CodecType type : CodecType.values()) {
+        LogCodec codec = LogCodecs.get(type);
+        ByteArrayBuilder out = new ByteArrayBuilder();
+        codec.encode(logEntry, out);
+
+        codec.decodeInto(out.toByteArray(), target.reset());
+
+        assertEquals(logEntry, target.toLogEntry(), type + "/" + level);
+        assertEquals(Level.fromString(level), target.getLevel(), type + "/" + level);
+        assertEquals(logEntry.getTimestampMillis(), target.getTimestampMillis(), type.name());
+      }
+    }
+  }
+
+  @Test
+  void services_areInternedToOneInstance() {
+    String fromBytes = ServiceNames.intern(Utf8.encode("xx-payment-service"), 3, 15);
+    String fromString = ServiceNames.intern(new String("payment-service"));
+
+    assertSame(fromString, fromBytes);
+    assertEquals(ServiceNames.idOf("payment-service"), ServiceNames.idOf(fromBytes));
+    assertSame(fromBytes, ServiceNames.nameOf(ServiceNames.idOf("payment-service")));
+  }
+
+  @Test
+  void reset_clearsEveryField() {
+    MutableLogEntry logEntry =
+        new MutableLogEntry().copyFrom(LogEntries.sample("WARN", "Payment processed"));
+
+    logEntry.reset();
+
+    assertFalse(logEntry.hasTimestamp());
+    assertNull(logEntry.getLevel());
+    assertNull(logEntry.getService());
+    assertEquals(new LogEntry(), logEntry.toLogEntry());
+  }
+
+  @Test
+  void pool_reusesReleasedEntries() {
+    LogEntryPool pool = new LogEntryPool(2);
+
+    MutableLogEntry first = pool.acquire();
+    first.setMessage("stale");
+    pool.release(first);
+    MutableLogEntry second = pool.acquire();
+
+    assertSame(first, second);
+    assertNull(second.getMessage());
+    assertEquals(1, pool.getCreated());
+  }
+
+  @Test
+  void logEntry_toleratesMissingTimestamp() {
+    LogEntry logEntry = new LogEntry();
+    logEntry.setTimestamp(null);
+
+    assertNull(logEntry.getTimestamp());
+    assertEquals(Timestamps.NONE, logEntry.getTimestampMillis());
+    assertEquals(new LogEntry().hashCode(), logEntry.hashCode());
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/** LatencyHistogramTest */
+public class LatencyHistogramTest {
+
+  @Test
+  void percentile_isWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 1; v <= 10_000; v++) histogram.record(v);
+
+    assertEquals(10_000, histogram.getCount());
+    assertEquals(10_000, histogram.getMax());
+    assertEquals(5000.5, histogram.getMean(), 1e-9);
+
+    long p50 = histogram.getPercentile(50);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(p50 >= 5000 && p50 <= 5000 * 1.07, "p50 " + p50);
+    assertTrue(p99 >= 9900 && p99 <= 10_000, "p99 " + p99);
+    assertEquals(10_000, histogram.getPercentile(100));
+  }
+
+  @Test
+  void buckets_coverEveryValue() {
+    long[] values = {0, 1, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = LatencyHistogram.indexOf(value);
+      assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "bound of " + value);
+      if (index > 0) assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value, "" + value);
+    }
+  }
+
+  @Test
+  void merge_addsCountsAndKeepsMax() {
+    LatencyHistogram a = new LatencyHistogram();
+    LatencyHistogram b = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) a.record(10);
+    b.record(5000);
+
+    a.merge(b);
+
+    assertEquals(100, a.getCount());
+    assertEquals(5000, a.getMax());
+    assertEquals(10, a.getPercentile(99));
+    assertEquals(5000, a.getPercentile(99.5));
+
+    a.reset();
+    assertEquals(0, a.getCount());
+    assertEquals(0, a.getPercentile(99));
+  }
+
+  @Test
+  void minus_leavesWhatWasRecordedSinceTheCopy() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 100; i++) histogram.record(1000);
+    LatencyHistogram before = histogram.copy();
+    for (int i = 0; i < 10; i++) histogram.record(20);
+
+    LatencyHistogram since = histogram.minus(before);
+
+    assertEquals(10, since.getCount());
+    assertEquals(20, since.getPercentile(99));
+    assertEquals(20, since.getMean(), 1e-9);
+    assertTrue(since.getMax() >= 20 && since.getMax() < 1000, "max " + since.getMax());
+    assertEquals(110, histogram.getCount(), "the original is untouched");
+  }
+
+  @Test
+  void toBytes_roundTripsCompactly() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 0; v < 5_000; v += 7) histogram.record(v);
+    histogram.record(Long.MAX_VALUE / 2);
+
+    byte[] bytes = histogram.toBytes();
+    LatencyHistogram decoded = LatencyHistogram.fromBytes(bytes);
+
+    assertTrue(bytes.length < 400, "encoded in " + bytes.length + " bytes");
+    assertEquals(histogram.getCount(), decoded.getCount());
+    assertEquals(histogram.getMax(), decoded.getMax());
+    assertEquals(histogram.getMean(), decoded.getMean(), 1e-9);
+    for (double p : new double[] {1, 50, 90, 99, 99.9, 100}) {
+      assertEquals(histogram.getPercentile(p), decoded.getPercentile(p), "p" + p);
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> LatencyHistogram.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+  }
+}
@@ -0,0 +1,53 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** LongLongMapTest */
+public class LongLongMapTest {
+
+  @Test
+  void add_countsLikeAHashMapThroughGrowth() {
+    LongLongMap map = new LongLongMap(4);
+    Map<Long, Long> expected = new HashMap<>();
+    for (long i = 0; i < 10_000; i++) {
+      long key = (i % 3_000) * 8 - 4_000;
+      map.add(key, i);
+      expected.merge(key, i, Long::sum);
+    }
+
+    assertEquals(expected.size(), map.size());
+    expected.forEach((key, value) -> assertEquals(value, map.get(key), "key " + key));
+    assertEquals(0, map.get(1));
+    assertFalse(map.containsKey(1));
+  }
+
+  @Test
+  void addAll_sumsAndForEachVisitsEveryEntry() {
+    LongLongMap a = new LongLongMap();
+    LongLongMap b = new LongLongMap();
+    a.add(1, 2);
+    a.add(Long.MAX_VALUE, 1);
+    b.add(1, 3);
+    b.add(0, 7);
+
+    a.addAll(b);
+
+    Map<Long, Long> seen = new HashMap<>();
+    a.forEach(seen::put);
+    assertEquals(Map.of(1L, 5L, 0L, 7L, Long.MAX_VALUE, 1L), seen);
+    assertEquals(3, b.get(1));
+
+    a.clear();
+    assertTrue(a.isEmpty());
+    assertEquals(0, a.get(1));
+  }
+
+  @Test
+  void add_rejectsTheFreeSlotMarker() {
+    assertThrows(IllegalArgumentException.class, () -> new LongLongMap().add(Long.MIN_VALUE, 1));
+  }
+}
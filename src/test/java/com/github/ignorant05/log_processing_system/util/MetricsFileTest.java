@@ -0,0 +1,74 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** MetricsFileTest */
+public class MetricsFileTest {
+  @TempDir Path dir;
+
+  @BeforeEach
+  void setup() {
+    MetricsRegistry.getInstance().reset();
+  }
+
+  @Test
+  void publish_isReadByAnotherReaderUntilClosed() throws Exception {
+    MetricsRegistry.getInstance().recordConsumed(42);
+    MetricsFile published = MetricsFile.publish(dir, "consume");
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!Files.exists(published.getPath())) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting for the metrics file");
+      Thread.sleep(5);
+    }
+    List<JsonNode> snapshots = MetricsFile.readAll(dir);
+    assertEquals(1, snapshots.size());
+    assertEquals("consume", snapshots.get(0).path("command").asText());
+    assertEquals(ProcessHandle.current().pid(), snapshots.get(0).path("pid").asLong());
+    assertEquals(42, MetricsJson.fromJson(snapshots.get(0)).getConsumedMessages());
+
+    published.close();
+    assertFalse(Files.exists(published.getPath()));
+    assertTrue(MetricsFile.readAll(dir).isEmpty());
+  }
+
+  @Test
+  void readAll_removesFilesOfProcessesThatAreGone() throws Exception {
+    Path stale = dir.resolve(Long.MAX_VALUE + ".json");
+    Files.writeString(stale, "{}");
+
+    assertTrue(MetricsFile.readAll(dir).isEmpty());
+    assertFalse(Files.exists(stale));
+  }
+
+  @Test
+  void json_roundTripsEverySection() {
+    MetricsRegistry registry = MetricsRegistry.getInstance();
+    registry.recordProduced(7);
+    registry.stage("consume.decode").recordBatch(10, 50_000);
+    registry.ordering().recordEmitted(2_000_000);
+    registry.lag("logs-0").record(100, 40, 1_000);
+    registry.detector("auth-service").record(0.1, 0.02, 0.01, 250, 120, 30, 1);
+
+    MetricsSnapShot before = registry.snapshot();
+    MetricsSnapShot after = MetricsJson.fromJson(MetricsJson.toJson(before));
+
+    assertEquals(before.getProducedMessages(), after.getProducedMessages());
+    assertEquals(
+        before.getStages().get(0).getServiceMicrosPerRecord(),
+        after.getStages().get(0).getServiceMicrosPerRecord());
+    assertEquals(before.getOrdering().getAverageDelayMS(), after.getOrdering().getAverageDelayMS());
+    assertEquals(before.getTotalLag(), after.getTotalLag());
+    assertEquals(before.getDetectors().get(0).getP99MS(), after.getDetectors().get(0).getP99MS());
+    assertEquals(MetricsJson.toJson(before), MetricsJson.toJson(after));
+  }
+}
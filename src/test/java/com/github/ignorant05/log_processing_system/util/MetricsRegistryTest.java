@@ -1,8 +1,10 @@
 package com.github.ignorant05.log_processing_system.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -87,6 +89,70 @@ public class MetricsRegistryTest {
     assertTrue(registry.snapshot().getProducedPerSecond() > 0);
   }
 
+  @Test
+  void stage_reportsServiceTimeAndQueueDepthInCreationOrder() {
+    StageMetrics decode = registry.stage("test.decode");
+    StageMetrics sink = registry.stage("test.sink");
+    assertSame(decode, registry.stage("test.decode"));
+
+    decode.setWorkers(2);
+    decode.recordBatch(100, 500_000);
+    decode.recordQueueDepth(7);
+    decode.recordQueueDepth(3);
+    sink.recordBatch(50, 1_000_000);
+
+    List<StageSnapShot> stages =
+        registry.snapshot().getStages().stream()
+            .filter(stage -> stage.getName().startsWith("test."))
+            .toList();
+    assertEquals(
+        List.of("test.decode", "test.sink"), stages.stream().map(s -> s.getName()).toList());
+
+    StageSnapShot snapshot = stages.get(0);
+    assertEquals(5.0, snapshot.getServiceMicrosPerRecord());
+    assertEquals(400_000.0, snapshot.getCapacityPerSecond());
+    assertEquals(3, snapshot.getQueueDepth());
+    assertEquals(7, snapshot.getMaxQueueDepth());
+    assertEquals(20.0, stages.get(1).getServiceMicrosPerRecord());
+  }
+
+  @Test
+  void lag_tracksGrowthAndCatchUpPerPartitionAndInTotal() {
+    LagMetrics busy = registry.lag("logs-1");
+    LagMetrics idle = registry.lag("logs-0");
+    assertSame(busy, registry.lag("logs-1"));
+
+    busy.record(1_000, 0, 0);
+    idle.record(10, 10, 0);
+    assertEquals(-1.0, registry.snapshot().getCatchUpSeconds(), "no trend after one sample");
+
+    busy.record(1_000, 500, 1_000);
+    busy.record(1_100, 800, 2_000);
+    idle.record(20, 20, 2_000);
+
+    MetricsSnapShot snapshot = registry.snapshot();
+    assertEquals(
+        List.of("logs-0", "logs-1"),
+        snapshot.getLags().stream().map(LagSnapShot::getPartition).toList());
+    LagSnapShot lag = snapshot.getLags().get(1);
+    assertEquals(300, lag.getLag());
+    assertEquals(-350.0, lag.getGrowthPerSecond(), 1e-9, "smoothed over the last two samples");
+    assertEquals(300 / 350.0, lag.getCatchUpSeconds(), 1e-9);
+    assertEquals(0.0, snapshot.getLags().get(0).getCatchUpSeconds());
+    assertEquals(300, snapshot.getTotalLag());
+
+    registry.removeLag("logs-1");
+    assertEquals(0, registry.snapshot().getTotalLag());
+  }
+
+  @Test
+  void formatCatchUp_readsLikeADuration() {
+    assertEquals("never", LagSnapShot.formatCatchUp(-1));
+    assertEquals("0s", LagSnapShot.formatCatchUp(0));
+    assertEquals("3m 05s", LagSnapShot.formatCatchUp(184.2));
+    assertEquals("2h 10m", LagSnapShot.formatCatchUp(7_800));
+  }
+
   @Test
   void reset_clearsAllCounters() {
     registry.recordProduced(10);
@@ -0,0 +1,81 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** RateLimiterTest */
+public class RateLimiterTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /** Clock that only moves when the limiter sleeps or the test says so. */
+  private static class FakeClock {
+    long now = 1_000 * SECOND;
+
+    RateLimiter limiter(RateProfile profile, double burst) {
+      return new RateLimiter(profile, burst, () -> now, nanos -> now += nanos);
+    }
+  }
+
+  @Test
+  void acquire_pacesFractionalRates() throws InterruptedException {
+    FakeClock clock = new FakeClock();
+    RateLimiter limiter = clock.limiter(RateProfile.constant(2.5), 1);
+
+    long start = clock.now;
+    for (int i = 0; i < 11; i++) limiter.acquire();
+
+    assertEquals(4 * SECOND, clock.now - start);
+  }
+
+  @Test
+  void acquire_catchesUpOnSlowSendsWithinBurst() throws InterruptedException {
+    FakeClock clock = new FakeClock();
+    RateLimiter limiter = clock.limiter(RateProfile.constant(10), 5);
+
+    limiter.acquire();
+    clock.now += SECOND / 2; // one send stalls for 5 intervals
+    long stalledAt = clock.now;
+    for (int i = 0; i < 5; i++) limiter.acquire();
+
+    assertEquals(stalledAt, clock.now, "missed slots are handed out immediately");
+
+    limiter.acquire();
+    assertEquals(stalledAt + SECOND / 10, clock.now, "then back to the normal pace");
+  }
+
+  @Test
+  void acquire_capsBurstAfterIdle() throws InterruptedException {
+    FakeClock clock = new FakeClock();
+    RateLimiter limiter = clock.limiter(RateProfile.constant(100), 3);
+
+    limiter.acquire();
+    clock.now += 60 * SECOND;
+    long idleUntil = clock.now;
+    for (int i = 0; i < 3; i++) limiter.acquire();
+    assertEquals(idleUntil, clock.now);
+
+    limiter.acquire();
+    assertEquals(idleUntil + SECOND / 100, clock.now);
+  }
+
+  @Test
+  void acquire_followsRampProfile() throws InterruptedException {
+    FakeClock clock = new FakeClock();
+    RateProfile ramp = RateProfile.rampUpDown(100, 10 * SECOND, 10 * SECOND, 30 * SECOND);
+    RateLimiter limiter = clock.limiter(ramp, 1);
+
+    assertEquals(0, ramp.rateAt(0));
+    assertEquals(50, ramp.rateAt(5 * SECOND), 1e-9);
+    assertEquals(100, ramp.rateAt(15 * SECOND), 1e-9);
+    assertEquals(25, ramp.rateAt(27_500_000_000L), 1e-9);
+
+    long start = clock.now;
+    int permits = 0;
+    while (limiter.acquireBefore(start + 30 * SECOND)) permits++;
+    // 10s of ramp-up (~500) + 10s of plateau (1000) + 10s of ramp-down (~500)
+    assertTrue(permits > 1_900 && permits < 2_100, "permits: " + permits);
+    assertEquals(start + 30 * SECOND, clock.now, "gives up at the deadline");
+  }
+}
@@ -0,0 +1,63 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** RingQueueTest */
+public class RingQueueTest {
+
+  @Test
+  void offerAndPoll_areFifoAndBounded() {
+    RingQueue<Integer> queue = new RingQueue<>(3);
+    assertEquals(4, queue.capacity());
+
+    for (int i = 0; i < 4; i++) assertTrue(queue.offer(i));
+    assertFalse(queue.offer(4), "full");
+    assertEquals(4, queue.size());
+
+    assertEquals(0, queue.poll());
+    assertTrue(queue.offer(4), "a slot freed up");
+    for (int i = 1; i <= 4; i++) assertEquals(i, queue.poll());
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  void concurrentProducersAndConsumers_deliverEveryItemOnce() throws Exception {
+    RingQueue<Long> queue = new RingQueue<>(64);
+    int producers = 4, perProducer = 50_000;
+    AtomicLong sum = new AtomicLong();
+    AtomicLong received = new AtomicLong();
+
+    Thread[] threads = new Thread[producers * 2];
+    for (int p = 0; p < producers; p++) {
+      threads[p] =
+          new Thread(
+              () -> {
+                for (long i = 1; i <= perProducer; i++) {
+                  while (!queue.offer(i)) Thread.yield();
+                }
+              });
+      threads[producers + p] =
+          new Thread(
+              () -> {
+                while (received.get() < (long) producers * perProducer) {
+                  Long item = queue.poll();
+                  if (item == null) {
+                    Thread.yield();
+                    continue;
+                  }
+                  sum.addAndGet(item);
+                  received.incrementAndGet();
+                }
+              });
+    }
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join(10_000);
+
+    assertEquals((long) producers * perProducer, received.get());
+    assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+  }
+}
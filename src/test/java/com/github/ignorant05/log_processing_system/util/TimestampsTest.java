@@ -0,0 +1,80 @@
+package com.github.ignorant05.log_processing_system.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+/** TimestampsTest */
+public class TimestampsTest {
+
+  private long parse(String text) {
+    byte[] bytes = Utf8.encode(text);
+    return Timestamps.parseIsoMillis(bytes, 0, bytes.length);
+  }
+
+  @Test
+  void parseIsoMillis_agreesWithInstantParse() {
+    for (String text :
+        new String[] {
+          "1970-01-01T00:00:00.000Z",
+          "2024-02-29T23:59:59.999Z",
+          "1969-12-31T23:59:59.001Z",
+          "2100-03-01T12:34:56.789Z",
+          "2024-05-01T10:15:30Z",
+          "2024-05-01T10:15:30.123456Z",
+        }) {
+      assertEquals(Instant.parse(text).toEpochMilli(), parse(text), text);
+    }
+  }
+
+  @Test
+  void parseIsoMillis_rejectsImpossibleDates() {
+    assertThrows(Exception.class, () -> parse("2023-02-29T00:00:00.000Z"));
+  }
+
+  @Test
+  void appendTimeOfDay_formatsUtc() {
+    long millis = Instant.parse("2024-05-01T09:05:03.007Z").toEpochMilli();
+
+    assertEquals(
+        "09:05:03.007", Timestamps.appendTimeOfDay(new StringBuilder(), millis).toString());
+    assertEquals("23:59:59.999", Timestamps.appendTimeOfDay(new StringBuilder(), -1).toString());
+  }
+
+  @Test
+  void parseTimeArgument_acceptsInstantsTimesOfDayAndDurationsAgo() {
+    Instant now = Instant.parse("2026-03-14T15:00:00Z");
+    long twoPast = Instant.parse("2026-03-14T14:02:00Z").toEpochMilli();
+
+    assertEquals(twoPast, Timestamps.parseTimeArgument("2026-03-14T14:02:00Z", now));
+    assertEquals(twoPast, Timestamps.parseTimeArgument("2026-03-14T16:02:00+02:00", now));
+    assertEquals(twoPast, Timestamps.parseTimeArgument("2026-03-14 14:02", now));
+    assertEquals(twoPast, Timestamps.parseTimeArgument("14:02", now));
+    assertEquals(twoPast + 30_500, Timestamps.parseTimeArgument("14:02:30.5", now));
+
+    long nineFive = Instant.parse("2026-03-14T09:05:00Z").toEpochMilli();
+    assertEquals(nineFive, Timestamps.parseTimeArgument("9:05", now));
+    assertEquals(nineFive + 30_000, Timestamps.parseTimeArgument("9:05:30", now));
+    assertEquals(nineFive + 30_500, Timestamps.parseTimeArgument("9:05:30.5", now));
+    assertEquals(
+        Instant.parse("2026-03-14T14:45:00Z").toEpochMilli(),
+        Timestamps.parseTimeArgument("15m", now));
+    assertEquals(
+        Instant.parse("2026-03-13T15:00:00Z").toEpochMilli(),
+        Timestamps.parseTimeArgument("1d", now));
+    assertEquals(now.toEpochMilli() - 500, Timestamps.parseTimeArgument("500ms", now));
+    assertThrows(
+        IllegalArgumentException.class, () -> Timestamps.parseTimeArgument("yesterday", now));
+  }
+
+  @Test
+  void parseDurationMillis_acceptsEveryUnit() {
+    assertEquals(250, Timestamps.parseDurationMillis("250ms"));
+    assertEquals(10_000, Timestamps.parseDurationMillis("10s"));
+    assertEquals(300_000, Timestamps.parseDurationMillis("5m"));
+    assertEquals(86_400_000, Timestamps.parseDurationMillis("1d"));
+    assertThrows(IllegalArgumentException.class, () -> Timestamps.parseDurationMillis("5"));
+    assertThrows(IllegalArgumentException.class, () -> Timestamps.parseDurationMillis("m5"));
+  }
+}